@@ -0,0 +1,102 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.gerenciador.ResumoCategoria;
+import com.loja.modelo.Produto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks dos resumos por categoria mantidos pelo `GerenciadorProdutos`
+ * comparados ao cálculo a partir da listagem de todos os produtos.
+ *
+ * Os benchmarks {@code *PelosTotais} leem os totais atualizados a cada
+ * alteração; os benchmarks {@code *PelaListagem} fazem o que era necessário
+ * antes deles: percorrer {@code listarTodosPorID()} e acumular os valores.
+ * {@code criarEAtualizar} mede o custo que os totais acrescentam às alterações.
+ *
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgregacaoBenchmark {
+
+    // Quantidade de produtos do catálogo
+    @Param({"100000", "1000000"})
+    public int tamanho;
+
+    // Gerenciador consultado e gerador dos argumentos e dos produtos
+    private GerenciadorProdutos gerenciador;
+    private GeradorCatalogo gerador;
+
+    /**
+     * Carrega o catálogo no tamanho do parâmetro.
+     */
+    @Setup(Level.Trial)
+    public void carregarCatalogo() {
+        GerenciadorProdutos.limpar();
+        GeradorCatalogo.popular(tamanho, 42);
+        gerenciador = new GerenciadorProdutos();
+        gerador = new GeradorCatalogo(7);
+    }
+
+    @Benchmark
+    public ResumoCategoria resumirCategoriaPelosTotais() {
+        return gerenciador.resumirCategoria(gerador.categoria());
+    }
+
+    @Benchmark
+    public double resumirCategoriaPelaListagem() {
+        String categoria = gerador.categoria();
+        long quantidade = 0;
+        double valor = 0;
+        double minimo = Double.POSITIVE_INFINITY;
+        double maximo = Double.NEGATIVE_INFINITY;
+        for (Produto produto : gerenciador.listarTodosPorID()) {
+            if (produto.getCategoria().equalsIgnoreCase(categoria)) {
+                quantidade++;
+                valor += produto.getPreco() * produto.getQuantidadeEstoque();
+                minimo = Math.min(minimo, produto.getPreco());
+                maximo = Math.max(maximo, produto.getPreco());
+            }
+        }
+        return valor + quantidade + minimo + maximo;
+    }
+
+    @Benchmark
+    public double valorEmEstoquePelosTotais() {
+        return gerenciador.resumirCatalogo().getValorEmEstoque();
+    }
+
+    @Benchmark
+    public double valorEmEstoquePelaListagem() {
+        double valor = 0;
+        for (Produto produto : gerenciador.listarTodosPorID()) {
+            valor += produto.getPreco() * produto.getQuantidadeEstoque();
+        }
+        return valor;
+    }
+
+    @Benchmark
+    public boolean criarEAtualizar() {
+        Produto nova = gerador.proximoProduto();
+        nova.setId(1 + gerador.inteiro(tamanho));
+        return gerenciador.atualizar(nova);
+    }
+}
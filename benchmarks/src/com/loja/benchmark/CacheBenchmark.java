@@ -0,0 +1,91 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.modelo.Produto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks do cache de resultados das buscas por nome e por categoria do
+ * `GerenciadorProdutos`.
+ *
+ * As buscas repetem um conjunto fixo de termos sorteados, como as buscas mais
+ * comuns de uma loja. Com capacidade 0 o cache fica desativado e toda busca é
+ * calculada; {@code atualizar} mede o custo que a invalidação acrescenta às
+ * alterações.
+ *
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheBenchmark {
+
+    // Quantidade de termos diferentes repetidos nas buscas
+    private static final int TERMOS = 64;
+
+    // Quantidade de produtos do catálogo
+    @Param({"100000"})
+    public int tamanho;
+
+    // Quantidade máxima de resultados guardados (0 desativa o cache)
+    @Param({"0", "1024"})
+    public int capacidade;
+
+    // Gerenciador consultado e gerador dos argumentos e dos produtos
+    private GerenciadorProdutos gerenciador;
+    private GeradorCatalogo gerador;
+
+    // Termos e categorias repetidos nas buscas
+    private final String[] termos = new String[TERMOS];
+    private final String[] categorias = new String[TERMOS];
+
+    /**
+     * Carrega o catálogo e sorteia os termos buscados.
+     */
+    @Setup(Level.Trial)
+    public void carregarCatalogo() {
+        GerenciadorProdutos.limpar();
+        GerenciadorProdutos.configurarCache(capacidade);
+        GeradorCatalogo.popular(tamanho, 42);
+        gerenciador = new GerenciadorProdutos();
+        gerador = new GeradorCatalogo(7);
+        for (int i = 0; i < TERMOS; i++) {
+            termos[i] = gerador.termoDeBusca();
+            categorias[i] = gerador.categoria();
+        }
+    }
+
+    @Benchmark
+    public List<Produto> buscarPorNome() {
+        return gerenciador.buscarPorNome(termos[gerador.inteiro(TERMOS)]);
+    }
+
+    @Benchmark
+    public List<Produto> buscarPorCategoria() {
+        return gerenciador.buscarPorCategoria(categorias[gerador.inteiro(TERMOS)]);
+    }
+
+    @Benchmark
+    public boolean atualizar() {
+        Produto nova = gerador.proximoProduto();
+        nova.setId(1 + gerador.inteiro(tamanho));
+        return gerenciador.atualizar(nova);
+    }
+}
@@ -0,0 +1,192 @@
+package com.loja.benchmark;
+
+import com.loja.api.ServidorHttp;
+import com.loja.gerenciador.GerenciadorProdutos;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Teste de carga da API HTTP do `ServidorHttp`.
+ *
+ * O servidor é iniciado na mesma JVM, sobre um catálogo gerado pelo
+ * `GeradorCatalogo`, e cada cliente envia requisições em sequência por uma
+ * conexão mantida aberta: 70% de buscas por ID, 10% de buscas por nome (50
+ * primeiros resultados pelo planejador), 10% de resumos de categoria e 10% de
+ * reservas e reposições de estoque. Ao final, são exibidas as requisições por
+ * segundo, a latência média e a quantidade de respostas com erro.
+ *
+ * Os clientes escrevem as requisições HTTP/1.1 diretamente no socket e leem
+ * apenas o status e o tamanho das respostas, como as ferramentas de carga do
+ * tipo wrk: com o `HttpClient` do JDK, o próprio cliente consumiria mais CPU
+ * que o servidor e limitaria a medição.
+ *
+ * Uso: {@code java -cp target/benchmarks.jar com.loja.benchmark.CargaHttp [segundos] [clientes] [produtos]}.
+ * Termina com código de saída 1 se alguma resposta tiver status diferente do esperado.
+ *
+ * @since 2024
+ */
+public final class CargaHttp {
+
+    private CargaHttp() {
+    }
+
+    /**
+     * Executa o teste de carga.
+     *
+     * @param args Duração em segundos, quantidade de clientes e de produtos do catálogo.
+     * @throws InterruptedException Se a thread principal for interrompida.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int segundos = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int produtos = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        GerenciadorProdutos.limpar();
+        GeradorCatalogo.popular(produtos, 42);
+        ServidorHttp servidor = ServidorHttp.iniciar(0);
+        System.out.println("Servidor na porta " + servidor.getPorta()
+                + (servidor.usaThreadsVirtuais() ? " com threads virtuais" : " com pool de threads")
+                + "; " + clientes + " clientes por " + segundos + " s, " + produtos + " produtos.");
+
+        AtomicBoolean executando = new AtomicBoolean(true);
+        LongAdder requisicoes = new LongAdder();
+        LongAdder erros = new LongAdder();
+        LongAdder nanos = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < clientes; t++) {
+            GeradorCatalogo gerador = new GeradorCatalogo(100 + t);
+            threads.add(new Thread(() -> {
+                try (Conexao conexao = new Conexao(servidor.getPorta())) {
+                    while (executando.get()) {
+                        long inicio = System.nanoTime();
+                        int status = enviarSorteada(conexao, gerador, produtos);
+                        // Reservas sem estoque são recusadas com 200; buscas por ID podem não encontrar o produto
+                        if (status != 200 && status != 404) {
+                            erros.increment();
+                        }
+                        nanos.add(System.nanoTime() - inicio);
+                        requisicoes.increment();
+                    }
+                } catch (IOException e) {
+                    erros.increment();
+                }
+            }, "cliente-" + t));
+        }
+
+        // Aquece o servidor e os clientes antes da medição
+        threads.forEach(Thread::start);
+        Thread.sleep(Math.min(5, segundos) * 1000L);
+        requisicoes.reset();
+        erros.reset();
+        nanos.reset();
+        long inicio = System.nanoTime();
+        Thread.sleep(segundos * 1000L);
+        long total = requisicoes.sum();
+        long erradas = erros.sum();
+        double latencia = nanos.sum() / 1e3 / Math.max(1, total);
+        double decorrido = (System.nanoTime() - inicio) / 1e9;
+        executando.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        servidor.parar();
+
+        System.out.printf("Requisições: %d | Por segundo: %.0f | Latência média: %.1f us | Erros: %d%n",
+                total, total / decorrido, latencia, erradas);
+        if (erradas > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static int enviarSorteada(Conexao conexao, GeradorCatalogo gerador, int produtos) throws IOException {
+        int tipo = gerador.inteiro(10);
+        if (tipo < 7) {
+            return conexao.enviar("GET", "/produtos/" + (1 + gerador.inteiro(produtos)), null);
+        }
+        if (tipo == 7) {
+            String termo = URLEncoder.encode(gerador.termoDeBusca(), StandardCharsets.UTF_8);
+            return conexao.enviar("GET", "/consulta?nome=" + termo + "&limite=50", null);
+        }
+        if (tipo == 8) {
+            String categoria = URLEncoder.encode(gerador.categoria(), StandardCharsets.UTF_8).replace("+", "%20");
+            return conexao.enviar("GET", "/resumos/categorias/" + categoria, null);
+        }
+        String operacao = gerador.inteiro(2) == 0 ? "reserva" : "reposicao";
+        return conexao.enviar("POST", "/produtos/" + (1 + gerador.inteiro(produtos)) + "/" + operacao, "{\"quantidade\":1}");
+    }
+
+    /**
+     * Conexão HTTP/1.1 mantida aberta entre as requisições de um cliente.
+     */
+    private static final class Conexao implements AutoCloseable {
+
+        // Socket e seus fluxos com buffer
+        private final Socket socket;
+        private final OutputStream saida;
+        private final DataInputStream entrada;
+
+        // Linha do cabeçalho em leitura
+        private final StringBuilder linha = new StringBuilder();
+
+        private Conexao(int porta) throws IOException {
+            socket = new Socket("localhost", porta);
+            socket.setTcpNoDelay(true);
+            saida = new BufferedOutputStream(socket.getOutputStream());
+            entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        }
+
+        /**
+         * Envia uma requisição e descarta o corpo da resposta.
+         *
+         * @return O status da resposta.
+         */
+        private int enviar(String metodo, String caminho, String corpo) throws IOException {
+            byte[] bytes = corpo == null ? new byte[0] : corpo.getBytes(StandardCharsets.UTF_8);
+            String cabecalho = metodo + " " + caminho + " HTTP/1.1\r\nHost: localhost\r\n"
+                    + (corpo == null ? "" : "Content-Length: " + bytes.length + "\r\n") + "\r\n";
+            saida.write(cabecalho.getBytes(StandardCharsets.US_ASCII));
+            saida.write(bytes);
+            saida.flush();
+
+            String status = lerLinha();
+            int codigo = Integer.parseInt(status.substring(9, 12));
+            long tamanho = 0;
+            for (String campo = lerLinha(); !campo.isEmpty(); campo = lerLinha()) {
+                if (campo.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    tamanho = Long.parseLong(campo.substring(15).trim());
+                }
+            }
+            entrada.skipNBytes(tamanho);
+            return codigo;
+        }
+
+        private String lerLinha() throws IOException {
+            linha.setLength(0);
+            for (int c = entrada.read(); c != '\n'; c = entrada.read()) {
+                if (c < 0) {
+                    throw new IOException("Conexão encerrada pelo servidor.");
+                }
+                if (c != '\r') {
+                    linha.append((char) c);
+                }
+            }
+            return linha.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.FaixaDePreco;
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.modelo.Produto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks de cargas mistas de leitura e escrita, com uma e com várias threads.
+ *
+ * Cada operação sorteia, conforme o percentual de escritas do parâmetro
+ * {@code percentualEscrita}, uma consulta (por ID, por nome, por categoria ou
+ * por faixa de preço) ou uma alteração (criação, atualização ou exclusão). As
+ * criações e as exclusões se alternam, sempre excluindo o produto mais antigo,
+ * de modo que o tamanho do catálogo se mantém estável durante a medição.
+ *
+ * O grupo {@code leitoresEEscritores} mede separadamente a vazão de seis
+ * threads de consulta concorrendo com duas threads de alteração.
+ *
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CargaMistaBenchmark {
+
+    // Quantidade inicial de produtos do catálogo
+    @Param({"1000", "100000", "1000000"})
+    public int tamanho;
+
+    // Percentual das operações que alteram o catálogo
+    @Param({"5", "20"})
+    public int percentualEscrita;
+
+    // Gerenciador compartilhado por todas as threads
+    private GerenciadorProdutos gerenciador;
+
+    // Menor ID ainda não excluído, usado como base para sortear IDs existentes
+    private final AtomicInteger proximoAExcluir = new AtomicInteger(1);
+
+    // Contador que alterna entre criações e exclusões
+    private final AtomicInteger alternancia = new AtomicInteger();
+
+    /**
+     * Gerador de dados de cada thread.
+     */
+    @State(Scope.Thread)
+    public static class DadosDaThread {
+
+        // Gerador de produtos e de argumentos das consultas
+        private GeradorCatalogo gerador;
+
+        @Setup(Level.Trial)
+        public void criarGerador() {
+            gerador = new GeradorCatalogo(Thread.currentThread().getId());
+        }
+    }
+
+    /**
+     * Carrega o catálogo no tamanho do parâmetro.
+     */
+    @Setup(Level.Trial)
+    public void carregarCatalogo() {
+        GerenciadorProdutos.limpar();
+        GeradorCatalogo.popular(tamanho, 42);
+        gerenciador = new GerenciadorProdutos();
+        proximoAExcluir.set(1);
+        alternancia.set(0);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object mistoUmaThread(DadosDaThread dados) {
+        return operacao(dados.gerador);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object mistoOitoThreads(DadosDaThread dados) {
+        return operacao(dados.gerador);
+    }
+
+    @Benchmark
+    @Group("leitoresEEscritores")
+    @GroupThreads(6)
+    public Object leitura(DadosDaThread dados) {
+        return consulta(dados.gerador);
+    }
+
+    @Benchmark
+    @Group("leitoresEEscritores")
+    @GroupThreads(2)
+    public Object escrita(DadosDaThread dados) {
+        return alteracao(dados.gerador);
+    }
+
+    private Object operacao(GeradorCatalogo gerador) {
+        return gerador.inteiro(100) < percentualEscrita ? alteracao(gerador) : consulta(gerador);
+    }
+
+    private Object consulta(GeradorCatalogo gerador) {
+        switch (gerador.inteiro(5)) {
+            case 0:
+                return gerenciador.buscarPorId(proximoAExcluir.get() + gerador.inteiro(tamanho));
+            case 1:
+                return gerenciador.buscarPorNome(gerador.termoDeBusca());
+            case 2:
+                return gerenciador.buscarPorCategoria(gerador.categoria());
+            case 3:
+                double minimo = gerador.preco();
+                return gerenciador.contarPorFaixaDePreco(FaixaDePreco.entre(minimo, minimo * 2));
+            default:
+                double preco = gerador.preco();
+                return gerenciador.buscarPorFaixaDePreco(preco, preco * 1.01);
+        }
+    }
+
+    private Object alteracao(GeradorCatalogo gerador) {
+        if (gerador.inteiro(2) == 0) {
+            Produto produto = gerador.proximoProduto();
+            produto.setId(proximoAExcluir.get() + gerador.inteiro(tamanho));
+            return gerenciador.atualizar(produto);
+        }
+        if (alternancia.getAndIncrement() % 2 == 0) {
+            Produto produto = gerador.proximoProduto();
+            GerenciadorProdutos.criar(produto);
+            return produto;
+        }
+        return gerenciador.deletar(proximoAExcluir.getAndIncrement());
+    }
+}
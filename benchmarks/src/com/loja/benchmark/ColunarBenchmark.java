@@ -0,0 +1,115 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.ConsultaProdutos;
+import com.loja.gerenciador.FaixaDePreco;
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.gerenciador.TabelaColunar;
+import com.loja.modelo.Produto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das consultas sobre os objetos do `GerenciadorProdutos` comparadas
+ * às mesmas consultas sobre a `TabelaColunar`.
+ *
+ * O parâmetro {@code estrutura} escolhe quem responde às consultas pela
+ * interface `ConsultaProdutos`: o próprio gerenciador ({@code objetos}) ou a
+ * tabela colunar do instantâneo atual ({@code colunar}). As somas de estoque e
+ * de valor em estoque por faixa de preço percorrem, nos objetos, a lista da
+ * faixa e, na tabela, os trechos contínuos das colunas.
+ *
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColunarBenchmark {
+
+    // Quantidade de produtos do catálogo
+    @Param({"100000", "1000000"})
+    public int tamanho;
+
+    // Estrutura que responde às consultas: "objetos" ou "colunar"
+    @Param({"objetos", "colunar"})
+    public String estrutura;
+
+    // Estrutura consultada, tabela colunar e gerador dos argumentos das consultas
+    private ConsultaProdutos consulta;
+    private TabelaColunar tabela;
+    private GeradorCatalogo gerador;
+
+    /**
+     * Carrega o catálogo no tamanho do parâmetro e monta a tabela colunar.
+     */
+    @Setup(Level.Trial)
+    public void carregarCatalogo() {
+        GerenciadorProdutos.limpar();
+        // Mede as buscas em si, sem o cache de resultados
+        GerenciadorProdutos.configurarCache(0);
+        GeradorCatalogo.popular(tamanho, 42);
+        GerenciadorProdutos gerenciador = new GerenciadorProdutos();
+        tabela = gerenciador.tabelaColunar();
+        consulta = estrutura.equals("colunar") ? tabela : gerenciador;
+        gerador = new GeradorCatalogo(7);
+    }
+
+    @Benchmark
+    public List<Produto> buscarPorNome() {
+        return consulta.buscarPorNome(gerador.termoDeBusca());
+    }
+
+    @Benchmark
+    public List<Produto> buscarPorCategoria() {
+        return consulta.buscarPorCategoria(gerador.categoria());
+    }
+
+    @Benchmark
+    public int contarPorFaixaDePreco() {
+        double preco = gerador.preco();
+        return consulta.contarPorFaixaDePreco(FaixaDePreco.entre(preco, preco * 2));
+    }
+
+    @Benchmark
+    public long somarEstoquePorFaixaDePreco() {
+        double preco = gerador.preco();
+        FaixaDePreco faixa = FaixaDePreco.entre(preco, preco * 2);
+        if (consulta == tabela) {
+            return tabela.somarEstoque(faixa);
+        }
+        long soma = 0;
+        for (Produto produto : consulta.buscarPorFaixaDePreco(faixa, 0, Integer.MAX_VALUE)) {
+            soma += produto.getQuantidadeEstoque();
+        }
+        return soma;
+    }
+
+    @Benchmark
+    public double valorEmEstoquePorFaixaDePreco() {
+        double preco = gerador.preco();
+        FaixaDePreco faixa = FaixaDePreco.entre(preco, preco * 2);
+        if (consulta == tabela) {
+            return tabela.valorEmEstoque(faixa);
+        }
+        double valor = 0;
+        for (Produto produto : consulta.buscarPorFaixaDePreco(faixa, 0, Integer.MAX_VALUE)) {
+            valor += produto.getPreco() * produto.getQuantidadeEstoque();
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,159 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.ArmazemForaDoHeap;
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.modelo.Produto;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compara o comportamento do coletor de lixo com o catálogo no heap
+ * (`GerenciadorProdutos`) e fora dele (`ArmazemForaDoHeap`).
+ *
+ * Carrega {@code tamanho} produtos no armazenamento escolhido, mede o heap
+ * ocupado após uma coleta completa e, durante {@code segundos}, atualiza e busca
+ * produtos sorteados. Para a carga e para as alterações, conta as coletas, o
+ * tempo total e a maior pausa do coletor. Cada armazenamento deve ser medido em
+ * uma JVM separada e com a mesma heap máxima, por exemplo:
+ *
+ * <pre>
+ * java -Xmx8g -cp target/benchmarks.jar com.loja.benchmark.ComparacaoGc heap 5000000 60
+ * java -Xmx8g -cp target/benchmarks.jar com.loja.benchmark.ComparacaoGc foraDoHeap 5000000 60
+ * </pre>
+ *
+ * Uso: {@code ComparacaoGc [heap|foraDoHeap] [tamanho] [segundos]}.
+ *
+ * @since 2024
+ */
+public final class ComparacaoGc {
+
+    // Maior pausa do coletor observada, em milissegundos
+    private static final AtomicLong maiorPausa = new AtomicLong();
+
+    private ComparacaoGc() {
+    }
+
+    /**
+     * Executa a comparação e imprime o resultado.
+     *
+     * @param args Armazenamento ("heap" ou "foraDoHeap"), quantidade de produtos e duração em segundos.
+     */
+    public static void main(String[] args) {
+        String armazenamento = args.length > 0 ? args[0] : "foraDoHeap";
+        int tamanho = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        boolean noHeap = armazenamento.equals("heap");
+        if (!noHeap && !armazenamento.equals("foraDoHeap")) {
+            throw new IllegalArgumentException("Armazenamento desconhecido: " + armazenamento);
+        }
+
+        monitorarPausas();
+        long coletasAntes = coletas();
+        long tempoAntes = tempoDeColeta();
+
+        GerenciadorProdutos gerenciador = null;
+        ArmazemForaDoHeap armazem = null;
+        long inicioCarga = System.nanoTime();
+        if (noHeap) {
+            GerenciadorProdutos.limpar();
+            GeradorCatalogo.popular(tamanho, 42);
+            gerenciador = new GerenciadorProdutos();
+        } else {
+            armazem = new ArmazemForaDoHeap();
+            GeradorCatalogo gerador = new GeradorCatalogo(42);
+            for (int i = 0; i < tamanho; i++) {
+                armazem.criar(gerador.proximoProduto());
+            }
+        }
+        long msCarga = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioCarga);
+        String coletorNaCarga = resumoDoColetor(coletasAntes, tempoAntes);
+        long heapCarregado = heapUsadoAposColeta();
+
+        coletasAntes = coletas();
+        tempoAntes = tempoDeColeta();
+        maiorPausa.set(0);
+
+        GeradorCatalogo gerador = new GeradorCatalogo(7);
+        long operacoes = 0;
+        long fim = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+        while (System.nanoTime() < fim) {
+            for (int i = 0; i < 1000; i++) {
+                Produto nova = gerador.proximoProduto();
+                nova.setId(1 + gerador.inteiro(tamanho));
+                int id = 1 + gerador.inteiro(tamanho);
+                if (noHeap) {
+                    gerenciador.atualizar(nova);
+                    gerenciador.buscarPorId(id);
+                } else {
+                    armazem.atualizar(nova);
+                    armazem.buscarPorId(id);
+                }
+            }
+            operacoes += 2000;
+        }
+
+        String coletorNasAlteracoes = resumoDoColetor(coletasAntes, tempoAntes);
+
+        System.out.println("Armazenamento: " + armazenamento + " | Produtos: " + tamanho
+                + " | Carga: " + msCarga + " ms");
+        System.out.println("Heap após a carga: " + heapCarregado / (1024 * 1024) + " MB"
+                + (noHeap ? "" : " | Fora do heap: " + armazem.memoriaForaDoHeap() / (1024 * 1024) + " MB"));
+        System.out.println("Coletor na carga: " + coletorNaCarga);
+        System.out.println("Operações por segundo: " + operacoes / segundos);
+        System.out.println("Coletor nas alterações: " + coletorNasAlteracoes);
+    }
+
+    /**
+     * Resume as coletas desde a medição anterior.
+     *
+     * @param coletasAntes Quantidade de coletas na medição anterior.
+     * @param tempoAntes Tempo total de coleta na medição anterior, em milissegundos.
+     * @return Texto com as coletas, o tempo de coleta e a maior pausa do período.
+     */
+    private static String resumoDoColetor(long coletasAntes, long tempoAntes) {
+        return "Coletas: " + (coletas() - coletasAntes) + " | Tempo de coleta: "
+                + (tempoDeColeta() - tempoAntes) + " ms | Maior pausa: " + maiorPausa.get() + " ms";
+    }
+
+    private static long heapUsadoAposColeta() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long coletas() {
+        long total = 0;
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, coletor.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long tempoDeColeta() {
+        long total = 0;
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, coletor.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Registra um ouvinte das notificações de coleta, que guarda a maior duração observada.
+     */
+    private static void monitorarPausas() {
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) coletor).addNotificationListener((notificacao, contexto) -> {
+                if (notificacao.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                    GarbageCollectionNotificationInfo info =
+                            GarbageCollectionNotificationInfo.from((CompositeData) notificacao.getUserData());
+                    maiorPausa.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+                }
+            }, null, null);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.FaixaDePreco;
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.modelo.Produto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das consultas do `GerenciadorProdutos`, em uma única thread.
+ *
+ * O catálogo é gerado pelo {@link GeradorCatalogo} uma vez por fork, no tamanho
+ * do parâmetro {@code tamanho}. Os argumentos de cada consulta (IDs, textos,
+ * categorias e faixas de preço) são sorteados a cada chamada, para que o
+ * resultado não dependa de uma única chave.
+ *
+ * Catálogos de 10 milhões de produtos exigem uma heap grande (por exemplo,
+ * {@code -jvmArgsAppend -Xmx12g}).
+ *
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsultasBenchmark {
+
+    // Quantidade de produtos do catálogo
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int tamanho;
+
+    // Gerenciador com o catálogo carregado e gerador dos argumentos das consultas
+    private GerenciadorProdutos gerenciador;
+    private GeradorCatalogo gerador;
+
+    /**
+     * Carrega o catálogo no tamanho do parâmetro.
+     */
+    @Setup(Level.Trial)
+    public void carregarCatalogo() {
+        GerenciadorProdutos.limpar();
+        // Mede as buscas em si, sem o cache de resultados
+        GerenciadorProdutos.configurarCache(0);
+        GeradorCatalogo.popular(tamanho, 42);
+        gerenciador = new GerenciadorProdutos();
+        gerador = new GeradorCatalogo(7);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Produto buscarPorId() {
+        return gerenciador.buscarPorId(1 + gerador.inteiro(tamanho));
+    }
+
+    @Benchmark
+    public List<Produto> buscarPorNome() {
+        return gerenciador.buscarPorNome(gerador.termoDeBusca());
+    }
+
+    @Benchmark
+    public List<Produto> buscarPorCategoria() {
+        return gerenciador.buscarPorCategoria(gerador.categoria());
+    }
+
+    @Benchmark
+    public List<Produto> buscarPorFaixaDePreco() {
+        double preco = gerador.preco();
+        return gerenciador.buscarPorFaixaDePreco(preco, preco * 1.05);
+    }
+
+    @Benchmark
+    public List<Produto> buscarPaginaPorFaixaDePreco() {
+        double preco = gerador.preco();
+        return gerenciador.buscarPorFaixaDePreco(FaixaDePreco.aPartirDe(preco), 0, 50);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int contarPorFaixaDePreco() {
+        double preco = gerador.preco();
+        return gerenciador.contarPorFaixaDePreco(FaixaDePreco.entre(preco, preco * 2));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void percorrerTodosPorID(Blackhole blackhole) {
+        for (Produto produto : gerenciador.listarTodosPorID()) {
+            blackhole.consume(produto);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void percorrerTodosPorPreco(Blackhole blackhole) {
+        for (Produto produto : gerenciador.listarTodosPorPreco()) {
+            blackhole.consume(produto);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void percorrerTodosPorNome(Blackhole blackhole) {
+        for (Produto produto : gerenciador.listarTodosPorNome()) {
+            blackhole.consume(produto);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Produto primeiraPaginaPorNome(Blackhole blackhole) {
+        List<Produto> pagina = gerenciador.listarTodosPorNome().subList(0, Math.min(20, tamanho));
+        for (Produto produto : pagina) {
+            blackhole.consume(produto);
+        }
+        return pagina.isEmpty() ? null : pagina.get(0);
+    }
+}
@@ -0,0 +1,106 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.modelo.Produto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das operações de estoque sob disputa, com oito threads.
+ *
+ * Todas as threads reservam e repõem unidades de um conjunto de {@code skus}
+ * produtos; com um único produto, todas disputam o mesmo estoque. A referência
+ * {@code atualizarComTravaGlobal} faz a mesma baixa com uma leitura e um
+ * {@code atualizar} completo dentro de uma trava global, que era a única forma
+ * correta de alterar o estoque antes das operações atômicas.
+ *
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class EstoqueBenchmark {
+
+    // Quantidade de produtos disputados
+    @Param({"1", "16", "1024"})
+    public int skus;
+
+    // Gerenciador e IDs dos produtos disputados
+    private GerenciadorProdutos gerenciador;
+    private int[] ids;
+
+    // Trava global usada pela referência
+    private final Object travaGlobal = new Object();
+
+    /**
+     * Sorteio dos produtos de cada thread.
+     */
+    @State(Scope.Thread)
+    public static class Sorteio {
+
+        // Gerador de números pseudoaleatórios da thread
+        private final SplittableRandom aleatorio = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    /**
+     * Carrega um catálogo de 10 mil produtos e escolhe os disputados, com estoque alto.
+     */
+    @Setup(Level.Trial)
+    public void carregarCatalogo() {
+        GerenciadorProdutos.limpar();
+        GeradorCatalogo.popular(10_000, 42);
+        gerenciador = new GerenciadorProdutos();
+        ids = new int[skus];
+        for (int i = 0; i < skus; i++) {
+            ids[i] = 1 + i * (10_000 / skus);
+            gerenciador.reporEstoque(ids[i], 1_000_000);
+        }
+    }
+
+    @Benchmark
+    public boolean reservarERepor(Sorteio sorteio) {
+        int id = ids[sorteio.aleatorio.nextInt(ids.length)];
+        if (gerenciador.reservarEstoque(id, 1)) {
+            gerenciador.reporEstoque(id, 1);
+            return true;
+        }
+        return false;
+    }
+
+    @Benchmark
+    public int baixar(Sorteio sorteio) {
+        int id = ids[sorteio.aleatorio.nextInt(ids.length)];
+        return sorteio.aleatorio.nextBoolean() ? gerenciador.baixarEstoque(id, 1) : gerenciador.reporEstoque(id, 1);
+    }
+
+    @Benchmark
+    public boolean atualizarComTravaGlobal(Sorteio sorteio) {
+        int id = ids[sorteio.aleatorio.nextInt(ids.length)];
+        synchronized (travaGlobal) {
+            Produto atual = gerenciador.buscarPorId(id);
+            int variacao = sorteio.aleatorio.nextBoolean() ? -1 : 1;
+            Produto nova = new Produto(atual.getNome(), atual.getPreco(),
+                    atual.getQuantidadeEstoque() + variacao, atual.getCategoria());
+            nova.setId(id);
+            return gerenciador.atualizar(nova);
+        }
+    }
+}
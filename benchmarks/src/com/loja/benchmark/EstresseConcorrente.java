@@ -0,0 +1,357 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.gerenciador.Instantaneo;
+import com.loja.modelo.Produto;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Teste de estresse do `GerenciadorProdutos` sob escrita e leitura concorrentes.
+ *
+ * Várias threads criam, atualizam e excluem produtos enquanto outras consultam o
+ * catálogo. Cada escritora atualiza e exclui os produtos que ela mesma criou,
+ * guardando a última versão gravada de cada um, e também disputa com as demais
+ * um conjunto de {@value #DISPUTADOS} produtos compartilhados, atualizados e
+ * raramente excluídos por todas ao mesmo tempo. Ao final, o catálogo deve
+ * conter exatamente os produtos esperados, com IDs únicos, e todas as listagens
+ * devem concordar entre si. As leitoras verificam, durante a execução, que cada
+ * instantâneo é consistente (as três ordenações têm o mesmo tamanho e a ordem
+ * por ID é estritamente crescente).
+ *
+ * Cada escrita em um produto compartilhado é anotada com o seu intervalo de
+ * execução (System.nanoTime antes e depois da chamada). Como as escritas
+ * concorrentes podem ser ordenadas de qualquer forma pelo gerenciador, a versão
+ * final de um produto compartilhado deve ser a de alguma escrita que não tenha
+ * terminado antes do início de outra escrita bem-sucedida; um produto excluído
+ * não pode ter atualizações bem-sucedidas iniciadas depois da exclusão, e só
+ * uma exclusão de cada produto pode ter sucesso.
+ *
+ * Uso: {@code java -cp target/benchmarks.jar com.loja.benchmark.EstresseConcorrente [segundos] [escritoras] [leitoras]}.
+ * Termina com código de saída 1 se alguma verificação falhar.
+ *
+ * @since 2024
+ */
+public final class EstresseConcorrente {
+
+    // Quantidade de produtos compartilhados, disputados por todas as escritoras
+    private static final int DISPUTADOS = 64;
+
+    // Falhas encontradas durante a execução
+    private static final List<String> falhas = new ArrayList<>();
+
+    private EstresseConcorrente() {
+    }
+
+    /**
+     * Executa o teste de estresse.
+     *
+     * @param args Duração em segundos, quantidade de escritoras e de leitoras.
+     * @throws InterruptedException Se a thread principal for interrompida.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int segundos = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int escritoras = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int leitoras = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        GerenciadorProdutos.limpar();
+        GeradorCatalogo.popular(10_000, 42);
+        GerenciadorProdutos gerenciador = new GerenciadorProdutos();
+        Set<Integer> iniciais = new HashSet<>();
+        for (Produto produto : gerenciador.listarTodosPorID()) {
+            iniciais.add(produto.getId());
+        }
+        Disputa disputa = new Disputa(gerenciador.listarTodosPorID().subList(0, DISPUTADOS));
+
+        AtomicBoolean executando = new AtomicBoolean(true);
+        AtomicInteger operacoes = new AtomicInteger();
+        ConcurrentHashMap<Integer, Produto> esperados = new ConcurrentHashMap<>();
+        CountDownLatch fim = new CountDownLatch(escritoras + leitoras);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < escritoras; t++) {
+            long semente = 1000 + t;
+            threads.add(new Thread(() -> {
+                try {
+                    escrever(gerenciador, new GeradorCatalogo(semente), esperados, disputa, executando, operacoes);
+                } catch (RuntimeException e) {
+                    falhar("Escritora: " + e);
+                } finally {
+                    fim.countDown();
+                }
+            }, "escritora-" + t));
+        }
+        for (int t = 0; t < leitoras; t++) {
+            long semente = 2000 + t;
+            threads.add(new Thread(() -> {
+                try {
+                    ler(gerenciador, new GeradorCatalogo(semente), executando, operacoes);
+                } catch (RuntimeException e) {
+                    falhar("Leitora: " + e);
+                } finally {
+                    fim.countDown();
+                }
+            }, "leitora-" + t));
+        }
+
+        threads.forEach(Thread::start);
+        TimeUnit.SECONDS.sleep(segundos);
+        executando.set(false);
+        if (!fim.await(60, TimeUnit.SECONDS)) {
+            falhar("As threads não terminaram em 60 segundos");
+        }
+
+        verificarEstadoFinal(gerenciador, iniciais, esperados, disputa);
+        disputa.verificar(gerenciador);
+
+        System.out.println("Operações: " + operacoes.get() + ", produtos: " + gerenciador.listarTodosPorID().size());
+        synchronized (falhas) {
+            if (!falhas.isEmpty()) {
+                falhas.stream().limit(20).forEach(System.out::println);
+                System.out.println("Falhas: " + falhas.size());
+                System.exit(1);
+            }
+        }
+        System.out.println("Nenhuma falha encontrada.");
+    }
+
+    private static void escrever(GerenciadorProdutos gerenciador, GeradorCatalogo gerador,
+                                 ConcurrentHashMap<Integer, Produto> esperados, Disputa disputa,
+                                 AtomicBoolean executando, AtomicInteger operacoes) {
+        List<Integer> meus = new ArrayList<>();
+        String autora = Thread.currentThread().getName();
+        int sequencia = 0;
+        while (executando.get()) {
+            int sorteio = gerador.inteiro(10);
+            if (sorteio < 3) {
+                disputa.escrever(gerenciador, gerador, autora + "-" + sequencia++);
+            } else if (sorteio < 6 || meus.isEmpty()) {
+                Produto produto = gerador.proximoProduto();
+                GerenciadorProdutos.criar(produto);
+                if (esperados.putIfAbsent(produto.getId(), produto) != null) {
+                    falhar("ID repetido: " + produto.getId());
+                }
+                meus.add(produto.getId());
+            } else if (sorteio < 9) {
+                int id = meus.get(gerador.inteiro(meus.size()));
+                Produto nova = gerador.proximoProduto();
+                nova.setId(id);
+                if (!gerenciador.atualizar(nova)) {
+                    falhar("Atualização perdida do produto " + id);
+                }
+                esperados.put(id, nova);
+            } else {
+                int posicao = gerador.inteiro(meus.size());
+                int id = meus.get(posicao);
+                meus.set(posicao, meus.get(meus.size() - 1));
+                meus.remove(meus.size() - 1);
+                if (!gerenciador.deletar(id)) {
+                    falhar("Exclusão falhou para o produto " + id);
+                }
+                esperados.remove(id);
+            }
+            operacoes.incrementAndGet();
+        }
+    }
+
+    private static void ler(GerenciadorProdutos gerenciador, GeradorCatalogo gerador,
+                            AtomicBoolean executando, AtomicInteger operacoes) {
+        while (executando.get()) {
+            Instantaneo instantaneo = gerenciador.instantaneo();
+            int tamanho = instantaneo.tamanho();
+            if (instantaneo.listarPorPreco().size() != tamanho || instantaneo.listarPorNome().size() != tamanho) {
+                falhar("Instantâneo inconsistente: tamanhos diferentes entre as ordenações");
+            }
+            List<Produto> porId = instantaneo.listarPorId();
+            int inicio = tamanho == 0 ? 0 : gerador.inteiro(tamanho);
+            int anterior = Integer.MIN_VALUE;
+            for (Produto produto : porId.subList(inicio, Math.min(tamanho, inicio + 200))) {
+                if (produto.getId() <= anterior) {
+                    falhar("Ordem por ID inválida em " + produto.getId());
+                }
+                if (instantaneo.buscarPorId(produto.getId()) != produto) {
+                    falhar("Busca por ID diverge da listagem em " + produto.getId());
+                }
+                anterior = produto.getId();
+            }
+            gerenciador.buscarPorNome(gerador.termoDeBusca());
+            gerenciador.buscarPorCategoria(gerador.categoria());
+            operacoes.incrementAndGet();
+        }
+    }
+
+    private static void verificarEstadoFinal(GerenciadorProdutos gerenciador, Set<Integer> iniciais,
+                                             ConcurrentHashMap<Integer, Produto> esperados, Disputa disputa) {
+        List<Produto> todos = gerenciador.listarTodosPorID();
+        int tamanhoEsperado = iniciais.size() - disputa.excluidos() + esperados.size();
+        if (todos.size() != tamanhoEsperado) {
+            falhar("Tamanho final " + todos.size() + ", esperado " + tamanhoEsperado);
+        }
+        int anterior = Integer.MIN_VALUE;
+        for (Produto produto : todos) {
+            if (produto.getId() <= anterior) {
+                falhar("ID repetido ou fora de ordem no estado final: " + produto.getId());
+            }
+            anterior = produto.getId();
+        }
+        if (gerenciador.listarTodosPorPreco().size() != todos.size()
+                || gerenciador.listarTodosPorNome().size() != todos.size()) {
+            falhar("Listagens com tamanhos diferentes no estado final");
+        }
+        for (Produto produto : todos) {
+            if (iniciais.contains(produto.getId())) {
+                continue;
+            }
+            Produto esperado = esperados.get(produto.getId());
+            if (esperado == null) {
+                falhar("Produto excluído ainda presente: " + produto.getId());
+            } else if (!esperado.getNome().equals(produto.getNome()) || esperado.getPreco() != produto.getPreco()
+                    || esperado.getQuantidadeEstoque() != produto.getQuantidadeEstoque()) {
+                falhar("Produto " + produto.getId() + " não corresponde à última versão gravada");
+            }
+        }
+        for (Integer id : esperados.keySet()) {
+            if (gerenciador.buscarPorId(id) == null) {
+                falhar("Produto ausente: " + id);
+            }
+        }
+    }
+
+    private static void falhar(String motivo) {
+        synchronized (falhas) {
+            falhas.add(motivo);
+        }
+    }
+
+    /**
+     * Escritas concorrentes nos produtos compartilhados, com o intervalo de
+     * execução de cada uma, e a verificação do estado final contra elas.
+     */
+    private static final class Disputa {
+
+        // IDs dos produtos compartilhados
+        private final int[] ids;
+
+        // Escritas de cada produto: a versão inicial e as atualizações bem-sucedidas
+        private final ConcurrentHashMap<Integer, Queue<Escrita>> escritas = new ConcurrentHashMap<>();
+
+        // Exclusão bem-sucedida de cada produto e atualizações recusadas, com o fim de cada uma
+        private final ConcurrentHashMap<Integer, Escrita> exclusoes = new ConcurrentHashMap<>();
+        private final Queue<Escrita> recusadas = new ConcurrentLinkedQueue<>();
+
+        Disputa(List<Produto> produtos) {
+            ids = new int[produtos.size()];
+            long agora = System.nanoTime();
+            for (int i = 0; i < ids.length; i++) {
+                Produto produto = produtos.get(i);
+                ids[i] = produto.getId();
+                Queue<Escrita> fila = new ConcurrentLinkedQueue<>();
+                fila.add(new Escrita(produto.getId(), produto, agora, agora));
+                escritas.put(produto.getId(), fila);
+            }
+        }
+
+        void escrever(GerenciadorProdutos gerenciador, GeradorCatalogo gerador, String marca) {
+            int id = ids[gerador.inteiro(ids.length)];
+            if (gerador.inteiro(2000) == 0) {
+                long inicio = System.nanoTime();
+                boolean excluido = gerenciador.deletar(id);
+                long fim = System.nanoTime();
+                if (excluido && exclusoes.putIfAbsent(id, new Escrita(id, null, inicio, fim)) != null) {
+                    falhar("Produto compartilhado " + id + " excluído mais de uma vez");
+                }
+                return;
+            }
+            Produto nova = gerador.proximoProduto();
+            nova.setNome(nova.getNome() + " " + marca);
+            nova.setId(id);
+            long inicio = System.nanoTime();
+            boolean atualizado = gerenciador.atualizar(nova);
+            long fim = System.nanoTime();
+            Escrita escrita = new Escrita(id, nova, inicio, fim);
+            if (atualizado) {
+                escritas.get(id).add(escrita);
+            } else {
+                recusadas.add(escrita);
+            }
+        }
+
+        int excluidos() {
+            return exclusoes.size();
+        }
+
+        void verificar(GerenciadorProdutos gerenciador) {
+            for (Escrita recusada : recusadas) {
+                Escrita exclusao = exclusoes.get(recusada.id);
+                if (exclusao == null || exclusao.inicio > recusada.fim) {
+                    falhar("Atualização do produto compartilhado " + recusada.id + " recusada sem exclusão anterior");
+                }
+            }
+            for (int id : ids) {
+                Produto atual = gerenciador.buscarPorId(id);
+                Escrita exclusao = exclusoes.get(id);
+                if (exclusao != null) {
+                    if (atual != null) {
+                        falhar("Produto compartilhado " + id + " excluído ainda presente");
+                    }
+                    for (Escrita escrita : escritas.get(id)) {
+                        if (escrita.inicio > exclusao.fim) {
+                            falhar("Atualização do produto compartilhado " + id + " aceita depois da exclusão");
+                        }
+                    }
+                    continue;
+                }
+                if (atual == null) {
+                    falhar("Produto compartilhado ausente: " + id);
+                    continue;
+                }
+                long ultimoInicio = Long.MIN_VALUE;
+                for (Escrita escrita : escritas.get(id)) {
+                    ultimoInicio = Math.max(ultimoInicio, escrita.inicio);
+                }
+                boolean encontrada = false;
+                for (Escrita escrita : escritas.get(id)) {
+                    if (escrita.fim >= ultimoInicio && escrita.produto.getNome().equals(atual.getNome())) {
+                        encontrada = escrita.produto.getPreco() == atual.getPreco()
+                                && escrita.produto.getQuantidadeEstoque() == atual.getQuantidadeEstoque();
+                        break;
+                    }
+                }
+                if (!encontrada) {
+                    falhar("Produto compartilhado " + id + " não corresponde a nenhuma das últimas escritas: " + atual);
+                }
+            }
+        }
+    }
+
+    /**
+     * Uma escrita em um produto compartilhado e o intervalo em que ela executou.
+     */
+    private static final class Escrita {
+
+        // Produto escrito e versão gravada (null para uma exclusão)
+        final int id;
+        final Produto produto;
+
+        // Instantes (System.nanoTime) de início e fim da chamada
+        final long inicio;
+        final long fim;
+
+        Escrita(int id, Produto produto, long inicio, long fim) {
+            this.id = id;
+            this.produto = produto;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.loja.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Ponto de entrada do {@code benchmarks.jar}.
+ *
+ * Aceita as mesmas opções de linha de comando do JMH (por exemplo,
+ * {@code ConsultasBenchmark -p tamanho=1000}). Quando nenhum formato de resultado
+ * é informado com {@code -rf}, grava os resultados em JSON no arquivo
+ * {@code target/resultados-benchmarks.json}, para que possam ser comparados entre
+ * execuções.
+ *
+ * @since 2024
+ */
+public final class ExecutarBenchmarks {
+
+    // Arquivo padrão dos resultados
+    private static final String ARQUIVO_RESULTADOS = "target/resultados-benchmarks.json";
+
+    private ExecutarBenchmarks() {
+    }
+
+    /**
+     * Executa os benchmarks selecionados pelos argumentos.
+     *
+     * @param args Opções de linha de comando do JMH.
+     * @throws CommandLineOptionException Se alguma opção for inválida.
+     * @throws RunnerException Se a execução dos benchmarks falhar.
+     * @throws IOException Se a listagem dos benchmarks não puder ser lida.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions opcoes = new CommandLineOptions(args);
+        if (opcoes.shouldHelp()) {
+            opcoes.showHelp();
+            return;
+        }
+        if (opcoes.shouldList() || opcoes.shouldListWithParams() || opcoes.shouldListProfilers()
+                || opcoes.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder construtor = new OptionsBuilder().parent(opcoes);
+        if (!opcoes.getResultFormat().hasValue()) {
+            String arquivo = opcoes.getResult().orElse(ARQUIVO_RESULTADOS);
+            File diretorio = new File(arquivo).getAbsoluteFile().getParentFile();
+            if (diretorio != null) {
+                diretorio.mkdirs();
+            }
+            construtor.resultFormat(ResultFormatType.JSON).result(arquivo);
+        }
+        new Runner(construtor.build()).run();
+    }
+}
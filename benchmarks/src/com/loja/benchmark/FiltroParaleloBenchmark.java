@@ -0,0 +1,87 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.ExecutorConsultas;
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.gerenciador.Instantaneo;
+import com.loja.modelo.Produto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das varreduras com filtro do `ExecutorConsultas`, com pools de
+ * tamanhos diferentes.
+ *
+ * Com {@code paralelismo} igual a 1, o executor sempre percorre o catálogo em
+ * sequência, o que serve de referência para o ganho das varreduras paralelas. O
+ * filtro barato compara o preço e o estoque; o caro converte o nome para
+ * minúsculas e procura um termo, como a busca por nomes curtos.
+ *
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FiltroParaleloBenchmark {
+
+    // Quantidade de produtos do catálogo
+    @Param({"1000", "100000", "1000000"})
+    public int tamanho;
+
+    // Quantidade de threads do pool do executor
+    @Param({"1", "8", "32"})
+    public int paralelismo;
+
+    // Pool e executor das varreduras, instantâneo percorrido e gerador dos argumentos
+    private ForkJoinPool pool;
+    private ExecutorConsultas executor;
+    private Instantaneo instantaneo;
+    private GeradorCatalogo gerador;
+
+    /**
+     * Carrega o catálogo no tamanho do parâmetro e cria o pool.
+     */
+    @Setup(Level.Trial)
+    public void carregarCatalogo() {
+        GerenciadorProdutos.limpar();
+        GeradorCatalogo.popular(tamanho, 42);
+        instantaneo = new GerenciadorProdutos().instantaneo();
+        pool = new ForkJoinPool(paralelismo);
+        executor = new ExecutorConsultas(pool);
+        gerador = new GeradorCatalogo(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrarPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<Produto> filtroBarato() {
+        double preco = gerador.preco();
+        return executor.filtrar(instantaneo, p -> p.getPreco() >= preco && p.getQuantidadeEstoque() < 50);
+    }
+
+    @Benchmark
+    public List<Produto> filtroCaro() {
+        String termo = gerador.termoDeBusca().toLowerCase();
+        return executor.filtrar(instantaneo, p -> p.getNome().toLowerCase().contains(termo));
+    }
+}
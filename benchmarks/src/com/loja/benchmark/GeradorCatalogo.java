@@ -0,0 +1,193 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.modelo.Produto;
+
+import java.util.SplittableRandom;
+
+/**
+ * Gerador de catálogos de produtos realistas para os benchmarks.
+ *
+ * Os nomes combinam o tipo do produto, a marca, um atributo e um código de
+ * modelo (por exemplo, "Mouse Logitech Sem Fio M-4821"), de modo que a busca por
+ * parte do nome encontra desde poucos até muitos produtos, como em um catálogo
+ * real. As categorias seguem uma distribuição de Zipf (poucas categorias muito
+ * grandes e muitas pequenas), e os preços seguem uma distribuição log-normal em
+ * torno do preço típico de cada categoria.
+ *
+ * O gerador é determinístico para uma mesma semente. Esta classe não é
+ * thread-safe; cada thread deve usar o seu próprio gerador.
+ *
+ * @since 2024
+ */
+public final class GeradorCatalogo {
+
+    // Categorias, com o preço típico e os tipos de produto de cada uma
+    private static final String[] CATEGORIAS = {
+            "Informática", "Eletrônicos", "Casa", "Cozinha", "Esporte", "Brinquedos",
+            "Papelaria", "Ferramentas", "Beleza", "Moda", "Livros", "Automotivo",
+            "Jardim", "Pet Shop", "Games", "Bebidas", "Alimentos", "Saúde",
+            "Bebês", "Malas", "Instrumentos Musicais", "Iluminação", "Áudio", "Fotografia"
+    };
+    private static final double[] PRECOS_TIPICOS = {
+            350, 250, 120, 90, 150, 80, 15, 180, 60, 110, 45, 200,
+            70, 55, 280, 30, 20, 40, 95, 320, 900, 65, 400, 1500
+    };
+    private static final String[][] TIPOS = {
+            {"Mouse", "Teclado", "Monitor", "Notebook", "SSD", "Pendrive", "Webcam", "Roteador"},
+            {"Fone", "Carregador", "Cabo USB", "Smartwatch", "Tablet", "Controle Remoto"},
+            {"Toalha", "Lençol", "Travesseiro", "Cortina", "Tapete", "Organizador"},
+            {"Panela", "Frigideira", "Liquidificador", "Cafeteira", "Faca", "Jogo de Pratos"},
+            {"Bola", "Tênis de Corrida", "Halter", "Bicicleta", "Garrafa Térmica", "Luva"},
+            {"Boneca", "Carrinho", "Quebra-Cabeça", "Blocos de Montar", "Pelúcia"},
+            {"Caderno", "Caneta", "Lápis", "Mochila", "Agenda", "Marca-Texto"},
+            {"Furadeira", "Parafusadeira", "Martelo", "Chave de Fenda", "Serra", "Trena"},
+            {"Shampoo", "Perfume", "Hidratante", "Secador", "Escova", "Batom"},
+            {"Camiseta", "Calça Jeans", "Jaqueta", "Vestido", "Boné", "Meia"},
+            {"Livro", "Box de Livros", "Revista", "Dicionário", "Mangá"},
+            {"Pneu", "Óleo de Motor", "Palheta", "Capa de Banco", "Aspirador Automotivo"},
+            {"Mangueira", "Vaso", "Tesoura de Poda", "Adubo", "Regador"},
+            {"Ração", "Coleira", "Caminha", "Arranhador", "Brinquedo Pet"},
+            {"Console", "Controle", "Jogo", "Headset Gamer", "Cadeira Gamer"},
+            {"Café", "Chá", "Suco", "Vinho", "Cerveja", "Água Mineral"},
+            {"Biscoito", "Chocolate", "Arroz", "Azeite", "Macarrão", "Granola"},
+            {"Termômetro", "Vitamina", "Máscara", "Curativo", "Medidor de Pressão"},
+            {"Fralda", "Mamadeira", "Chupeta", "Carrinho de Bebê", "Berço"},
+            {"Mala de Viagem", "Mochila de Viagem", "Nécessaire", "Bolsa"},
+            {"Violão", "Teclado Musical", "Bateria", "Microfone", "Afinador"},
+            {"Lâmpada LED", "Luminária", "Fita LED", "Abajur", "Refletor"},
+            {"Caixa de Som", "Soundbar", "Amplificador", "Toca-Discos", "Rádio"},
+            {"Câmera", "Lente", "Tripé", "Cartão de Memória", "Flash"}
+    };
+    private static final String[] MARCAS = {
+            "Logitech", "Samsung", "Philips", "Tramontina", "Mondial", "Nike", "Adidas",
+            "Faber-Castell", "Bosch", "Makita", "Natura", "Boticário", "Lego", "Estrela",
+            "Sony", "JBL", "Multilaser", "Intelbras", "Electrolux", "Arno", "Oster",
+            "Tilibra", "Stanley", "Vonder", "Canon", "Nikon", "Yamaha", "Giannini", "Genérica"
+    };
+    private static final String[] ATRIBUTOS = {
+            "Sem Fio", "Preto", "Branco", "Azul", "Vermelho", "Inox", "Profissional",
+            "Compacto", "Premium", "Básico", "Bivolt", "Recarregável", "Tamanho P",
+            "Tamanho M", "Tamanho G", "Kit 3 Unidades", "Edição Especial", "Ultra", "Slim"
+    };
+
+    // Distribuição acumulada de Zipf (expoente 1) das categorias
+    private static final double[] ACUMULADA_CATEGORIAS = new double[CATEGORIAS.length];
+
+    static {
+        double soma = 0;
+        for (int i = 0; i < CATEGORIAS.length; i++) {
+            soma += 1.0 / (i + 1);
+            ACUMULADA_CATEGORIAS[i] = soma;
+        }
+        for (int i = 0; i < CATEGORIAS.length; i++) {
+            ACUMULADA_CATEGORIAS[i] /= soma;
+        }
+    }
+
+    // Gerador de números pseudoaleatórios
+    private final SplittableRandom aleatorio;
+
+    /**
+     * Cria um gerador com a semente informada.
+     *
+     * @param semente A semente do gerador.
+     */
+    public GeradorCatalogo(long semente) {
+        this.aleatorio = new SplittableRandom(semente);
+    }
+
+    /**
+     * Gera um novo produto, ainda sem ID.
+     *
+     * @return O produto gerado.
+     */
+    public Produto proximoProduto() {
+        int categoria = indiceCategoria();
+        String[] tipos = TIPOS[categoria];
+        String nome = tipos[aleatorio.nextInt(tipos.length)] + " "
+                + MARCAS[aleatorio.nextInt(MARCAS.length)] + " "
+                + ATRIBUTOS[aleatorio.nextInt(ATRIBUTOS.length)] + " "
+                + (char) ('A' + aleatorio.nextInt(26)) + "-" + (1000 + aleatorio.nextInt(9000));
+        int estoque = aleatorio.nextInt(10) == 0 ? 0 : aleatorio.nextInt(1, 500);
+        return new Produto(nome, preco(categoria), estoque, CATEGORIAS[categoria]);
+    }
+
+    /**
+     * Sorteia uma categoria, com a mesma distribuição usada nos produtos.
+     *
+     * @return O nome da categoria.
+     */
+    public String categoria() {
+        return CATEGORIAS[indiceCategoria()];
+    }
+
+    /**
+     * Sorteia um texto de busca por parte do nome: um tipo de produto, uma marca,
+     * o início de uma marca ou um código de modelo.
+     *
+     * @return O texto a ser buscado.
+     */
+    public String termoDeBusca() {
+        switch (aleatorio.nextInt(4)) {
+            case 0:
+                String[] tipos = TIPOS[indiceCategoria()];
+                return tipos[aleatorio.nextInt(tipos.length)].toLowerCase();
+            case 1:
+                return MARCAS[aleatorio.nextInt(MARCAS.length)];
+            case 2:
+                String marca = MARCAS[aleatorio.nextInt(MARCAS.length)];
+                return marca.substring(0, Math.min(4, marca.length()));
+            default:
+                return (char) ('A' + aleatorio.nextInt(26)) + "-" + (1000 + aleatorio.nextInt(9000));
+        }
+    }
+
+    /**
+     * Sorteia um preço com a mesma distribuição usada nos produtos.
+     *
+     * @return O preço sorteado.
+     */
+    public double preco() {
+        return preco(indiceCategoria());
+    }
+
+    /**
+     * Sorteia um número inteiro entre 0 (inclusivo) e o limite (exclusivo).
+     *
+     * @param limite O limite superior.
+     * @return O número sorteado.
+     */
+    public int inteiro(int limite) {
+        return aleatorio.nextInt(limite);
+    }
+
+    /**
+     * Cadastra no gerenciador a quantidade informada de produtos gerados.
+     *
+     * @param quantidade A quantidade de produtos.
+     * @param semente A semente do gerador.
+     */
+    public static void popular(int quantidade, long semente) {
+        GeradorCatalogo gerador = new GeradorCatalogo(semente);
+        for (int i = 0; i < quantidade; i++) {
+            GerenciadorProdutos.criar(gerador.proximoProduto());
+        }
+    }
+
+    private int indiceCategoria() {
+        double sorteio = aleatorio.nextDouble();
+        int i = 0;
+        while (i < ACUMULADA_CATEGORIAS.length - 1 && ACUMULADA_CATEGORIAS[i] < sorteio) {
+            i++;
+        }
+        return i;
+    }
+
+    private double preco(int categoria) {
+        double gaussiano = Math.sqrt(-2 * Math.log(1 - aleatorio.nextDouble()))
+                * Math.cos(2 * Math.PI * aleatorio.nextDouble());
+        double preco = PRECOS_TIPICOS[categoria] * Math.exp(0.6 * gaussiano);
+        return Math.max(0.99, Math.round(preco * 100) / 100.0);
+    }
+}
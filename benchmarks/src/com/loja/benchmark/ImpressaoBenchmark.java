@@ -0,0 +1,113 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.modelo.Produto;
+import com.loja.ui.ImpressoraProdutos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks da exibição de listagens no console.
+ *
+ * Compara a impressão de um produto por {@code println}, como o menu fazia, à
+ * `ImpressoraProdutos` nos formatos de lista e de tabela. A saída é um arquivo
+ * temporário aberto por um `PrintStream` com descarga automática, como o
+ * {@code System.out}, de modo que cada descarga custa uma escrita real no
+ * sistema operacional; o arquivo é esvaziado antes de cada listagem.
+ *
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImpressaoBenchmark {
+
+    // Quantidade de produtos do catálogo, todos exibidos a cada listagem
+    @Param({"100000"})
+    public int tamanho;
+
+    // Produtos exibidos, em ordem de ID
+    private List<Produto> produtos;
+
+    // Arquivo que recebe a saída e o fluxo aberto sobre ele
+    private File arquivo;
+    private FileOutputStream arquivoSaida;
+    private PrintStream saida;
+
+    // Impressoras nos dois formatos
+    private ImpressoraProdutos lista;
+    private ImpressoraProdutos tabela;
+
+    /**
+     * Carrega o catálogo e abre o arquivo de saída.
+     *
+     * @throws IOException Se o arquivo temporário não puder ser criado.
+     */
+    @Setup(Level.Trial)
+    public void carregarCatalogo() throws IOException {
+        GerenciadorProdutos.limpar();
+        GeradorCatalogo.popular(tamanho, 42);
+        produtos = new GerenciadorProdutos().listarTodosPorID();
+        arquivo = File.createTempFile("impressao", ".txt");
+        arquivoSaida = new FileOutputStream(arquivo);
+        saida = new PrintStream(arquivoSaida, true, StandardCharsets.UTF_8);
+        lista = new ImpressoraProdutos(saida, false, 0, false);
+        tabela = new ImpressoraProdutos(saida, true, 0, false);
+    }
+
+    /**
+     * Esvazia o arquivo de saída antes de cada listagem.
+     *
+     * @throws IOException Se o arquivo não puder ser truncado.
+     */
+    @Setup(Level.Invocation)
+    public void esvaziarSaida() throws IOException {
+        arquivoSaida.getChannel().truncate(0);
+    }
+
+    /**
+     * Fecha e remove o arquivo de saída.
+     */
+    @TearDown(Level.Trial)
+    public void removerArquivo() {
+        saida.close();
+        arquivo.delete();
+    }
+
+    @Benchmark
+    public void println() {
+        produtos.forEach(saida::println);
+    }
+
+    @Benchmark
+    public int impressoraLista() {
+        return lista.imprimir(produtos);
+    }
+
+    @Benchmark
+    public int impressoraTabela() {
+        return tabela.imprimir(produtos);
+    }
+}
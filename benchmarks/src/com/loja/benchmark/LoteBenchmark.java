@@ -0,0 +1,88 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.gerenciador.ResultadoLote;
+import com.loja.modelo.Produto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das atualizações em lote comparadas às atualizações uma a uma.
+ *
+ * Cada chamada aplica {@code lote} atualizações de preço, estoque e nome a
+ * produtos sorteados, o que mantém o tamanho do catálogo constante entre as
+ * iterações.
+ *
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoteBenchmark {
+
+    // Quantidade de produtos do catálogo
+    @Param({"100000", "1000000"})
+    public int tamanho;
+
+    // Quantidade de atualizações por chamada
+    @Param({"1000", "10000"})
+    public int lote;
+
+    // Gerenciador com o catálogo carregado e gerador das novas versões
+    private GerenciadorProdutos gerenciador;
+    private GeradorCatalogo gerador;
+
+    /**
+     * Carrega o catálogo no tamanho do parâmetro.
+     */
+    @Setup(Level.Trial)
+    public void carregarCatalogo() {
+        GerenciadorProdutos.limpar();
+        GeradorCatalogo.popular(tamanho, 42);
+        gerenciador = new GerenciadorProdutos();
+        gerador = new GeradorCatalogo(11);
+    }
+
+    @Benchmark
+    public ResultadoLote atualizarEmLote() {
+        return gerenciador.atualizarEmLote(novasVersoes());
+    }
+
+    @Benchmark
+    public int atualizarUmAUm() {
+        int atualizados = 0;
+        for (Produto produto : novasVersoes()) {
+            if (gerenciador.atualizar(produto)) {
+                atualizados++;
+            }
+        }
+        return atualizados;
+    }
+
+    private List<Produto> novasVersoes() {
+        List<Produto> versoes = new ArrayList<>(lote);
+        for (int i = 0; i < lote; i++) {
+            Produto produto = gerador.proximoProduto();
+            produto.setId(1 + gerador.inteiro(tamanho));
+            versoes.add(produto);
+        }
+        return versoes;
+    }
+}
@@ -0,0 +1,80 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.gerenciador.HistogramaLatencia;
+import com.loja.modelo.Produto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks do custo das métricas do `GerenciadorProdutos`.
+ *
+ * Mede as operações mais baratas do gerenciador, a busca por ID e a reserva de
+ * estoque, com a medição ativa e desativada, e o registro de um valor no
+ * `HistogramaLatencia` isolado.
+ *
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricasBenchmark {
+
+    // Quantidade de produtos do catálogo
+    @Param({"100000"})
+    public int tamanho;
+
+    // Indica se a medição das operações está ativa
+    @Param({"true", "false"})
+    public boolean ativo;
+
+    // Gerenciador consultado e gerador dos IDs
+    private GerenciadorProdutos gerenciador;
+    private GeradorCatalogo gerador;
+
+    // Histograma medido isoladamente
+    private final HistogramaLatencia histograma = new HistogramaLatencia();
+
+    /**
+     * Carrega o catálogo e configura a medição.
+     */
+    @Setup(Level.Trial)
+    public void carregarCatalogo() {
+        GerenciadorProdutos.limpar();
+        GeradorCatalogo.popular(tamanho, 42);
+        GerenciadorProdutos.metricas().setAtivo(ativo);
+        gerenciador = new GerenciadorProdutos();
+        gerador = new GeradorCatalogo(7);
+    }
+
+    @Benchmark
+    public Produto buscarPorId() {
+        return gerenciador.buscarPorId(1 + gerador.inteiro(tamanho));
+    }
+
+    @Benchmark
+    public boolean reservarEstoque() {
+        int id = 1 + gerador.inteiro(tamanho);
+        return gerenciador.reservarEstoque(id, 1) || gerenciador.reporEstoque(id, 1) > 0;
+    }
+
+    @Benchmark
+    public void registrarNoHistograma() {
+        histograma.registrar(gerador.inteiro(1_000_000));
+    }
+}
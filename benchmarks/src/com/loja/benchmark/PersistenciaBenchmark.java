@@ -0,0 +1,137 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.gerenciador.RelatorioImportacao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks de gravação e carregamento do catálogo: arquivo de texto, catálogo
+ * binário e importação e exportação em CSV.
+ *
+ * Cada fork usa um diretório temporário como {@code user.dir}, definido antes do
+ * primeiro uso do `GerenciadorProdutos`, para que os arquivos gravados não
+ * substituam os do diretório de trabalho. Os carregamentos esvaziam o catálogo
+ * em memória antes de ler o arquivo.
+ *
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PersistenciaBenchmark {
+
+    // Quantidade de produtos do catálogo
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int tamanho;
+
+    // Diretório temporário usado como user.dir e arquivo CSV de trabalho
+    private Path diretorio;
+    private File arquivoCsv;
+
+    /**
+     * Cria o diretório de trabalho, carrega o catálogo e grava os arquivos lidos
+     * pelos benchmarks de carregamento.
+     *
+     * @throws IOException Se o diretório temporário não puder ser criado.
+     */
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        diretorio = Files.createTempDirectory("benchmark-produtos");
+        System.setProperty("user.dir", diretorio.toString());
+        arquivoCsv = diretorio.resolve("produtos.csv").toFile();
+
+        GerenciadorProdutos.limpar();
+        GeradorCatalogo.popular(tamanho, 42);
+        GerenciadorProdutos.salvarProdutosEmArquivo();
+        salvarBinario();
+        exportarCsv();
+    }
+
+    /**
+     * Remove o diretório de trabalho.
+     *
+     * @throws IOException Se algum arquivo não puder ser removido.
+     */
+    @TearDown(Level.Trial)
+    public void remover() throws IOException {
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            for (Path arquivo : (Iterable<Path>) arquivos.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(arquivo);
+            }
+        }
+    }
+
+    @Benchmark
+    public void salvarTexto() {
+        GerenciadorProdutos.salvarProdutosEmArquivo();
+    }
+
+    @Benchmark
+    public void carregarTexto() {
+        GerenciadorProdutos.limpar();
+        GerenciadorProdutos.carregarProdutosDeArquivo();
+    }
+
+    @Benchmark
+    public void salvarBinario() {
+        GerenciadorProdutos.usarCatalogoBinario(true);
+        try {
+            GerenciadorProdutos.salvarProdutosEmArquivo();
+        } finally {
+            GerenciadorProdutos.usarCatalogoBinario(false);
+        }
+    }
+
+    @Benchmark
+    public void carregarBinario() {
+        GerenciadorProdutos.usarCatalogoBinario(true);
+        try {
+            GerenciadorProdutos.limpar();
+            GerenciadorProdutos.carregarProdutosDeArquivo();
+        } finally {
+            GerenciadorProdutos.usarCatalogoBinario(false);
+        }
+    }
+
+    @Benchmark
+    public int exportarCsv() throws IOException {
+        try (OutputStream saida = new FileOutputStream(arquivoCsv)) {
+            return GerenciadorProdutos.exportarCsv(saida);
+        }
+    }
+
+    @Benchmark
+    public RelatorioImportacao importarCsv() throws IOException {
+        GerenciadorProdutos.limpar();
+        try (InputStream entrada = new FileInputStream(arquivoCsv)) {
+            return GerenciadorProdutos.importarCsv(entrada);
+        }
+    }
+}
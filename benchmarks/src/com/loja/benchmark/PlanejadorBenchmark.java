@@ -0,0 +1,123 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.Consulta;
+import com.loja.gerenciador.Criterio;
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.modelo.Produto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das consultas compostas pelo planejador do `GerenciadorProdutos`
+ * comparadas à composição manual das buscas específicas.
+ *
+ * A consulta "categoria, faixa de preço e parte do nome, ordenada por preço,
+ * 50 primeiros" é feita pelo {@link GerenciadorProdutos#consultar(Consulta)} e
+ * também como antes dele: as três buscas, a interseção dos resultados por ID,
+ * a ordenação completa e o corte no limite. Os benchmarks {@code maisBaratos*}
+ * medem o top-K sem índice seletivo (estoque mínimo, ordenado por preço).
+ *
+ * @since 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanejadorBenchmark {
+
+    // Quantidade de produtos devolvidos pelas consultas
+    private static final int LIMITE = 50;
+
+    // Ordem do resultado, com desempate pelo ID
+    private static final Comparator<Produto> POR_PRECO =
+            Comparator.comparingDouble(Produto::getPreco).thenComparingInt(Produto::getId);
+
+    // Quantidade de produtos do catálogo
+    @Param({"100000", "1000000"})
+    public int tamanho;
+
+    // Gerenciador consultado e gerador dos argumentos das consultas
+    private GerenciadorProdutos gerenciador;
+    private GeradorCatalogo gerador;
+
+    /**
+     * Carrega o catálogo no tamanho do parâmetro.
+     */
+    @Setup(Level.Trial)
+    public void carregarCatalogo() {
+        GerenciadorProdutos.limpar();
+        // Mede as buscas em si, sem o cache de resultados
+        GerenciadorProdutos.configurarCache(0);
+        GeradorCatalogo.popular(tamanho, 42);
+        gerenciador = new GerenciadorProdutos();
+        gerador = new GeradorCatalogo(7);
+    }
+
+    @Benchmark
+    public List<Produto> compostaPeloPlanejador() {
+        String categoria = gerador.categoria();
+        double preco = gerador.preco();
+        String termo = gerador.termoDeBusca();
+        Criterio criterio = Criterio.categoria(categoria)
+                .e(Criterio.precoEntre(preco, preco * 2))
+                .e(Criterio.nomeContem(termo));
+        return gerenciador.consultar(Consulta.onde(criterio).ordenarPor(Consulta.Campo.PRECO).limite(LIMITE));
+    }
+
+    @Benchmark
+    public List<Produto> compostaManual() {
+        String categoria = gerador.categoria();
+        double preco = gerador.preco();
+        String termo = gerador.termoDeBusca();
+        Set<Integer> naCategoria = new HashSet<>();
+        for (Produto produto : gerenciador.buscarPorCategoria(categoria)) {
+            naCategoria.add(produto.getId());
+        }
+        Set<Integer> comNome = new HashSet<>();
+        for (Produto produto : gerenciador.buscarPorNome(termo)) {
+            comNome.add(produto.getId());
+        }
+        List<Produto> resultado = new ArrayList<>();
+        for (Produto produto : gerenciador.buscarPorFaixaDePreco(preco, preco * 2)) {
+            if (naCategoria.contains(produto.getId()) && comNome.contains(produto.getId())) {
+                resultado.add(produto);
+            }
+        }
+        resultado.sort(POR_PRECO);
+        return resultado.subList(0, Math.min(LIMITE, resultado.size()));
+    }
+
+    @Benchmark
+    public List<Produto> maisBaratosPeloPlanejador() {
+        int estoque = gerador.inteiro(100);
+        return gerenciador.consultar(Consulta.onde(Criterio.estoqueMinimo(estoque))
+                .ordenarPor(Consulta.Campo.PRECO).limite(LIMITE));
+    }
+
+    @Benchmark
+    public List<Produto> maisBaratosManual() {
+        int estoque = gerador.inteiro(100);
+        List<Produto> resultado = gerenciador.filtrar(p -> p.getQuantidadeEstoque() >= estoque);
+        resultado.sort(POR_PRECO);
+        return resultado.subList(0, Math.min(LIMITE, resultado.size()));
+    }
+}
@@ -0,0 +1,168 @@
+package com.loja.benchmark;
+
+import com.loja.exception.ValidacaoException;
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.modelo.Produto;
+import com.loja.persistencia.CatalogoBinario;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Verificação de regressão da conversão do arquivo de texto para o catálogo binário.
+ *
+ * Converte um arquivo de texto com o `CatalogoBinario`, carrega o resultado pelo
+ * `GerenciadorProdutos` com o catálogo binário ativo e confere que cada produto
+ * volta com o mesmo nome, preço, estoque e categoria, e que a busca por
+ * categoria encontra os produtos convertidos. Também confere que uma linha
+ * inválida impede a conversão e que um catálogo com o índice de categoria fora
+ * da tabela (mas com CRC32 válido) é recusado com `ValidacaoException`.
+ *
+ * Os arquivos são criados em um diretório temporário, usado como diretório de
+ * trabalho do gerenciador.
+ *
+ * Uso: {@code java -cp target/benchmarks.jar com.loja.benchmark.VerificacaoCatalogoBinario}.
+ * Termina com código de saída 1 se alguma verificação falhar.
+ *
+ * @since 2024
+ */
+public final class VerificacaoCatalogoBinario {
+
+    // Linhas do arquivo de texto convertido, no formato "id,nome,preço,estoque,categoria"
+    private static final String[] LINHAS = {
+            "1,Teclado,149.9,12,Perifericos",
+            "2,Monitor,899.0,3,Video",
+            "3,Mouse,59.5,40,Perifericos",
+            "4,Cabo HDMI,25.0,0,Video",
+            "5,Cadeira,1200.0,7,Moveis"
+    };
+
+    // Posição, no cabeçalho do catálogo, da posição dos produtos no arquivo
+    private static final int POSICAO_PRODUTOS = 32;
+
+    // Posição, no cabeçalho do catálogo, do CRC32 do conteúdo
+    private static final int POSICAO_CRC = 40;
+
+    // Tamanho do cabeçalho do catálogo; o CRC32 cobre tudo o que vem depois
+    private static final int TAMANHO_CABECALHO = 48;
+
+    // Falhas encontradas durante a execução
+    private static final List<String> falhas = new ArrayList<>();
+
+    private VerificacaoCatalogoBinario() {
+    }
+
+    /**
+     * Executa a verificação.
+     *
+     * @param args Não utilizado.
+     * @throws IOException Se os arquivos temporários não puderem ser criados.
+     */
+    public static void main(String[] args) throws IOException {
+        Path diretorio = Files.createTempDirectory("catalogo-binario");
+        // O gerenciador resolve os caminhos dos arquivos ao ser inicializado
+        System.setProperty("user.dir", diretorio.toString());
+
+        Path texto = diretorio.resolve("produtos.txt");
+        Path binario = diretorio.resolve("produtos.bin");
+        Files.write(texto, List.of(LINHAS));
+
+        int convertidos = CatalogoBinario.converterDeTexto(texto.toString(), binario.toString());
+        if (convertidos != LINHAS.length) {
+            falhar("Convertidos " + convertidos + " produtos, esperados " + LINHAS.length);
+        }
+
+        GerenciadorProdutos.usarCatalogoBinario(true);
+        GerenciadorProdutos.carregarProdutosDeArquivo();
+        GerenciadorProdutos gerenciador = new GerenciadorProdutos();
+        conferirCarregados(gerenciador);
+
+        conferirLinhaInvalida(diretorio);
+        conferirCategoriaForaDaTabela(binario);
+
+        if (!falhas.isEmpty()) {
+            falhas.stream().limit(20).forEach(System.out::println);
+            System.out.println("Falhas: " + falhas.size());
+            System.exit(1);
+        }
+        System.out.println("Nenhuma falha encontrada.");
+    }
+
+    /**
+     * Confere os produtos carregados do catálogo convertido contra as linhas do texto.
+     */
+    private static void conferirCarregados(GerenciadorProdutos gerenciador) {
+        List<Produto> carregados = gerenciador.listarTodosPorID();
+        if (carregados.size() != LINHAS.length) {
+            falhar("Carregados " + carregados.size() + " produtos, esperados " + LINHAS.length);
+            return;
+        }
+        for (int i = 0; i < LINHAS.length; i++) {
+            String[] dados = LINHAS[i].split(",");
+            Produto produto = carregados.get(i);
+            if (produto.getId() != i + 1
+                    || !produto.getNome().equals(dados[1])
+                    || produto.getPreco() != Double.parseDouble(dados[2])
+                    || produto.getQuantidadeEstoque() != Integer.parseInt(dados[3])
+                    || !dados[4].equals(produto.getCategoria())) {
+                falhar("Produto carregado diferente da linha " + (i + 1) + ": " + produto);
+            }
+        }
+        if (gerenciador.buscarPorCategoria("Perifericos").size() != 2
+                || gerenciador.buscarPorCategoria("Video").size() != 2
+                || gerenciador.buscarPorCategoria("Moveis").size() != 1) {
+            falhar("Busca por categoria não encontra os produtos convertidos");
+        }
+    }
+
+    /**
+     * Confere que uma linha inválida impede a conversão, sem gravar o destino.
+     */
+    private static void conferirLinhaInvalida(Path diretorio) throws IOException {
+        Path texto = diretorio.resolve("invalido.txt");
+        Path binario = diretorio.resolve("invalido.bin");
+        Files.write(texto, List.of(LINHAS[0], "2,Monitor,-1.0,3,Video"));
+        try {
+            CatalogoBinario.converterDeTexto(texto.toString(), binario.toString());
+            falhar("Conversão aceitou um produto com preço negativo");
+        } catch (ValidacaoException e) {
+            if (Files.exists(binario)) {
+                falhar("Conversão recusada gravou o catálogo binário");
+            }
+        }
+    }
+
+    /**
+     * Altera o índice de categoria do primeiro produto para fora da tabela,
+     * recalcula o CRC32 e confere que a leitura recusa o arquivo.
+     */
+    private static void conferirCategoriaForaDaTabela(Path binario) throws IOException {
+        Path corrompido = binario.resolveSibling("corrompido.bin");
+        ByteBuffer conteudo = ByteBuffer.wrap(Files.readAllBytes(binario));
+        int posicaoProdutos = (int) conteudo.getLong(POSICAO_PRODUTOS);
+        // id (int), preço (double) e estoque (int) antes do índice da categoria
+        conteudo.putInt(posicaoProdutos + 16, -1);
+        CRC32 crc = new CRC32();
+        crc.update(conteudo.array(), TAMANHO_CABECALHO, conteudo.capacity() - TAMANHO_CABECALHO);
+        conteudo.putInt(POSICAO_CRC, (int) crc.getValue());
+        Files.write(corrompido, conteudo.array());
+
+        try {
+            CatalogoBinario.ler(corrompido.toString(), produto -> { });
+            falhar("Leitura aceitou um índice de categoria fora da tabela");
+        } catch (ValidacaoException e) {
+            // Esperado
+        } catch (RuntimeException e) {
+            falhar("Leitura de índice de categoria fora da tabela lançou " + e);
+        }
+    }
+
+    private static void falhar(String motivo) {
+        falhas.add(motivo);
+    }
+}
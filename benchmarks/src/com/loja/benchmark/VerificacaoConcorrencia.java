@@ -0,0 +1,307 @@
+package com.loja.benchmark;
+
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.gerenciador.Instantaneo;
+import com.loja.modelo.Produto;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Verificação curta e determinística do `GerenciadorProdutos` sob chamadas paralelas.
+ *
+ * Ao contrário do {@link EstresseConcorrente}, que sorteia operações durante um
+ * tempo fixo, cada etapa desta verificação dispara as mesmas operações em várias
+ * threads ao mesmo tempo e confere um resultado exato:
+ * - criações paralelas recebem IDs distintos e todas aparecem nas listagens;
+ * - atualizações paralelas do mesmo produto deixam a última versão de uma das
+ *   threads, sem duplicar o produto nos índices;
+ * - reposições e reservas paralelas do mesmo estoque não perdem nenhuma alteração;
+ * - exclusões paralelas do mesmo produto têm sucesso uma única vez;
+ * - criações, atualizações e exclusões simultâneas, acompanhadas por leitoras,
+ *   terminam com listagens coerentes entre si.
+ *
+ * Uso: {@code java -cp target/benchmarks.jar com.loja.benchmark.VerificacaoConcorrencia [threads] [repetições]}.
+ * Termina com código de saída 1 se alguma verificação falhar.
+ *
+ * @since 2024
+ */
+public final class VerificacaoConcorrencia {
+
+    // Falhas encontradas durante a execução
+    private static final List<String> falhas = new ArrayList<>();
+
+    private VerificacaoConcorrencia() {
+    }
+
+    /**
+     * Executa a verificação.
+     *
+     * @param args Quantidade de threads e de repetições por thread em cada etapa.
+     * @throws InterruptedException Se a thread principal for interrompida.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int repeticoes = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        GerenciadorProdutos.limpar();
+        GerenciadorProdutos gerenciador = new GerenciadorProdutos();
+
+        verificarCriacoes(gerenciador, threads, repeticoes);
+        verificarAtualizacoesDoMesmoProduto(gerenciador, threads, repeticoes);
+        verificarEstoque(gerenciador, threads, repeticoes);
+        verificarExclusoes(gerenciador, threads, repeticoes / 10);
+        verificarOperacoesMistas(gerenciador, threads, repeticoes);
+
+        synchronized (falhas) {
+            if (!falhas.isEmpty()) {
+                falhas.stream().limit(20).forEach(System.out::println);
+                System.out.println("Falhas: " + falhas.size());
+                System.exit(1);
+            }
+        }
+        System.out.println("Nenhuma falha encontrada.");
+    }
+
+    private static void verificarCriacoes(GerenciadorProdutos gerenciador, int threads, int repeticoes)
+            throws InterruptedException {
+        int antes = gerenciador.listarTodosPorID().size();
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        emParalelo(threads, t -> {
+            for (int i = 0; i < repeticoes; i++) {
+                Produto produto = new Produto("Criado " + t + "-" + i, 1 + i, i, "Categoria " + (i % 7));
+                GerenciadorProdutos.criar(produto);
+                if (!ids.add(produto.getId())) {
+                    falhar("ID repetido na criação: " + produto.getId());
+                }
+            }
+        });
+        int esperado = antes + threads * repeticoes;
+        if (ids.size() != threads * repeticoes) {
+            falhar("Criações com IDs distintos: " + ids.size() + ", esperadas " + threads * repeticoes);
+        }
+        conferirListagens(gerenciador, esperado, "criações");
+        for (Integer id : ids) {
+            Produto produto = gerenciador.buscarPorId(id);
+            if (produto == null || !produto.getNome().startsWith("Criado ")) {
+                falhar("Produto criado ausente: " + id);
+            }
+        }
+    }
+
+    private static void verificarAtualizacoesDoMesmoProduto(GerenciadorProdutos gerenciador, int threads, int repeticoes)
+            throws InterruptedException {
+        Produto disputado = new Produto("Disputado inicial", 10, 5, "Disputa");
+        GerenciadorProdutos.criar(disputado);
+        int id = disputado.getId();
+        int tamanho = gerenciador.listarTodosPorID().size();
+        emParalelo(threads, t -> {
+            for (int i = 0; i < repeticoes; i++) {
+                Produto nova = new Produto("Disputado " + t + "-" + i, 10 + t * repeticoes + i, 5, "Disputa " + t);
+                nova.setId(id);
+                if (!gerenciador.atualizar(nova)) {
+                    falhar("Atualização perdida do produto disputado pela thread " + t);
+                }
+            }
+        });
+        Produto versaoFinal = gerenciador.buscarPorId(id);
+        boolean ultimaDeAlguma = false;
+        for (int t = 0; t < threads; t++) {
+            ultimaDeAlguma |= versaoFinal.getNome().equals("Disputado " + t + "-" + (repeticoes - 1));
+        }
+        if (!ultimaDeAlguma) {
+            falhar("Versão final do produto disputado não é a última de nenhuma thread: " + versaoFinal.getNome());
+        }
+        conferirListagens(gerenciador, tamanho, "atualizações do mesmo produto");
+        if (gerenciador.buscarPorNome("Disputado").size() != 1) {
+            falhar("Produto disputado aparece " + gerenciador.buscarPorNome("Disputado").size() + " vezes na busca por nome");
+        }
+        int naCategoria = 0;
+        for (int t = 0; t < threads; t++) {
+            naCategoria += gerenciador.buscarPorCategoria("Disputa " + t).size();
+        }
+        if (naCategoria != 1) {
+            falhar("Produto disputado aparece em " + naCategoria + " categorias");
+        }
+    }
+
+    private static void verificarEstoque(GerenciadorProdutos gerenciador, int threads, int repeticoes)
+            throws InterruptedException {
+        Produto reposto = new Produto("Reposto", 10, 0, "Estoque");
+        Produto equilibrado = new Produto("Equilibrado", 10, threads * repeticoes, "Estoque");
+        GerenciadorProdutos.criar(reposto);
+        GerenciadorProdutos.criar(equilibrado);
+        AtomicInteger reservas = new AtomicInteger();
+        emParalelo(threads, t -> {
+            for (int i = 0; i < repeticoes; i++) {
+                gerenciador.reporEstoque(reposto.getId(), 1);
+                if (gerenciador.reservarEstoque(equilibrado.getId(), 1)) {
+                    reservas.incrementAndGet();
+                }
+                gerenciador.reporEstoque(equilibrado.getId(), 1);
+            }
+        });
+        int estoqueReposto = gerenciador.buscarPorId(reposto.getId()).getQuantidadeEstoque();
+        if (estoqueReposto != threads * repeticoes) {
+            falhar("Reposições perdidas: estoque " + estoqueReposto + ", esperado " + threads * repeticoes);
+        }
+        int estoqueEquilibrado = gerenciador.buscarPorId(equilibrado.getId()).getQuantidadeEstoque();
+        int esperado = threads * repeticoes - reservas.get() + threads * repeticoes;
+        if (estoqueEquilibrado != esperado) {
+            falhar("Reservas ou reposições perdidas: estoque " + estoqueEquilibrado + ", esperado " + esperado);
+        }
+    }
+
+    private static void verificarExclusoes(GerenciadorProdutos gerenciador, int threads, int quantidade)
+            throws InterruptedException {
+        int[] ids = new int[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            Produto produto = new Produto("Excluído " + i, 1 + i, 1, "Exclusão");
+            GerenciadorProdutos.criar(produto);
+            ids[i] = produto.getId();
+        }
+        int tamanho = gerenciador.listarTodosPorID().size();
+        AtomicInteger[] sucessos = new AtomicInteger[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            sucessos[i] = new AtomicInteger();
+        }
+        emParalelo(threads, t -> {
+            for (int i = 0; i < quantidade; i++) {
+                if (gerenciador.deletar(ids[i])) {
+                    sucessos[i].incrementAndGet();
+                }
+            }
+        });
+        for (int i = 0; i < quantidade; i++) {
+            if (sucessos[i].get() != 1) {
+                falhar("Produto " + ids[i] + " excluído com sucesso " + sucessos[i].get() + " vezes");
+            }
+        }
+        conferirListagens(gerenciador, tamanho - quantidade, "exclusões");
+        if (!gerenciador.buscarPorCategoria("Exclusão").isEmpty()) {
+            falhar("Produtos excluídos ainda aparecem na busca por categoria");
+        }
+    }
+
+    private static void verificarOperacoesMistas(GerenciadorProdutos gerenciador, int threads, int repeticoes)
+            throws InterruptedException {
+        int antes = gerenciador.listarTodosPorID().size();
+        ConcurrentHashMap<Integer, String> esperados = new ConcurrentHashMap<>();
+        AtomicBoolean escrevendo = new AtomicBoolean(true);
+        List<Thread> leitoras = new ArrayList<>();
+        for (int l = 0; l < 2; l++) {
+            Thread leitora = new Thread(() -> {
+                while (escrevendo.get()) {
+                    Instantaneo instantaneo = gerenciador.instantaneo();
+                    int tamanho = instantaneo.tamanho();
+                    if (instantaneo.listarPorId().size() != tamanho
+                            || instantaneo.listarPorPreco().size() != tamanho
+                            || instantaneo.listarPorNome().size() != tamanho) {
+                        falhar("Instantâneo com ordenações de tamanhos diferentes");
+                    }
+                }
+            }, "leitora-" + l);
+            leitoras.add(leitora);
+            leitora.start();
+        }
+        emParalelo(threads, t -> {
+            List<Integer> meus = new ArrayList<>();
+            for (int i = 0; i < repeticoes; i++) {
+                Produto produto = new Produto("Misto " + t + "-" + i, 1 + i, 1, "Misto");
+                GerenciadorProdutos.criar(produto);
+                meus.add(produto.getId());
+                esperados.put(produto.getId(), produto.getNome());
+                if (i % 3 == 1) {
+                    int id = meus.get(meus.size() - 2);
+                    Produto nova = new Produto("Misto atualizado " + t + "-" + i, 2 + i, 3, "Misto");
+                    nova.setId(id);
+                    if (!gerenciador.atualizar(nova)) {
+                        falhar("Atualização perdida do produto " + id);
+                    }
+                    esperados.put(id, nova.getNome());
+                } else if (i % 3 == 2) {
+                    int id = meus.remove(meus.size() - 1);
+                    if (!gerenciador.deletar(id)) {
+                        falhar("Exclusão falhou para o produto " + id);
+                    }
+                    esperados.remove(id);
+                }
+            }
+        });
+        escrevendo.set(false);
+        for (Thread leitora : leitoras) {
+            leitora.join();
+        }
+        conferirListagens(gerenciador, antes + esperados.size(), "operações mistas");
+        esperados.forEach((id, nome) -> {
+            Produto produto = gerenciador.buscarPorId(id);
+            if (produto == null || !produto.getNome().equals(nome)) {
+                falhar("Produto " + id + " não corresponde à última versão gravada");
+            }
+        });
+    }
+
+    /**
+     * Confere que as três listagens têm o tamanho esperado e que a ordem por ID
+     * é estritamente crescente, isto é, sem IDs repetidos.
+     */
+    private static void conferirListagens(GerenciadorProdutos gerenciador, int esperado, String etapa) {
+        List<Produto> porId = gerenciador.listarTodosPorID();
+        if (porId.size() != esperado
+                || gerenciador.listarTodosPorPreco().size() != esperado
+                || gerenciador.listarTodosPorNome().size() != esperado) {
+            falhar("Listagens após " + etapa + " com " + porId.size() + " produtos, esperados " + esperado);
+        }
+        Set<Integer> vistos = new HashSet<>();
+        int anterior = Integer.MIN_VALUE;
+        for (Produto produto : porId) {
+            if (produto.getId() <= anterior || !vistos.add(produto.getId())) {
+                falhar("ID repetido ou fora de ordem após " + etapa + ": " + produto.getId());
+            }
+            anterior = produto.getId();
+        }
+    }
+
+    /**
+     * Executa a tarefa em várias threads, liberadas ao mesmo tempo, e espera todas terminarem.
+     *
+     * @param threads A quantidade de threads.
+     * @param tarefa A tarefa, que recebe o número da thread.
+     */
+    private static void emParalelo(int threads, IntConsumer tarefa) throws InterruptedException {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> executoras = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int numero = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    largada.await();
+                    tarefa.accept(numero);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    falhar("Thread " + numero + ": " + e);
+                }
+            }, "verificacao-" + t);
+            executoras.add(thread);
+            thread.start();
+        }
+        largada.countDown();
+        for (Thread thread : executoras) {
+            thread.join();
+        }
+    }
+
+    private static void falhar(String motivo) {
+        synchronized (falhas) {
+            falhas.add(motivo);
+        }
+    }
+}
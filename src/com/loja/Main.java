@@ -1,7 +1,11 @@
 package com.loja;
 
+import com.loja.api.ServidorHttp;
+import com.loja.ui.ImpressoraProdutos;
 import com.loja.ui.MenuProdutos;
+import com.loja.ui.ScriptComandos;
 import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.persistencia.ConfiguracaoLog;
 
 /**
  * Classe principal do sistema de Gerenciamento de Produtos.
@@ -13,7 +17,10 @@ import com.loja.gerenciador.GerenciadorProdutos;
  * Estrutura do Sistema:
  * - modelo: Contém a classe Produto e outras entidades de dados.
  * - gerenciador: Gerencia as operações de CRUD com uma lista de produtos.
+ * - indice: Estruturas de índice usadas pelo gerenciador para acelerar as consultas.
+ * - persistencia: Log de operações e demais formatos de gravação dos produtos.
  * - ui: Interface de interação com o usuário através do console.
+ * - api: Servidor HTTP que expõe as operações do gerenciador como uma API JSON.
  * - util: Contém classes utilitárias (não implementado neste exemplo).
  * - exception: Definição de exceções personalizadas para o sistema.
  *
@@ -28,10 +35,55 @@ public class Main {
      * do MenuProdutos inicia o loop principal, onde o usuário pode realizar
      * operações como cadastro, atualização, busca e remoção de produtos.
      *
+     * Com a propriedade de sistema {@code loja.persistencia=log}, os produtos são
+     * persistidos no log de operações configurado por {@link ConfiguracaoLog#doSistema()}
+     * em vez do arquivo de texto. Com {@code loja.persistencia=binario}, os produtos
+     * são persistidos no catálogo binário, carregado por mapeamento em memória.
+     *
+     * Com a propriedade de sistema {@code loja.http.porta}, o sistema não exibe o
+     * menu: inicia o {@link ServidorHttp} na porta informada e atende até a JVM
+     * ser encerrada, quando os produtos são salvos.
+     *
+     * As métricas do gerenciador são registradas no JMX da plataforma (ver
+     * {@link com.loja.gerenciador.MetricasGerenciador}); a medição das operações
+     * pode ser desligada com {@code loja.metricas=false}.
+     *
+     * Com a propriedade de sistema {@code loja.script}, o sistema não exibe o menu:
+     * executa o {@link ScriptComandos} do arquivo informado ({@code -} para a
+     * entrada padrão) e termina com código de saída 1 se algum comando falhar.
+     *
      * @param args Argumentos de linha de comando (não utilizados neste programa).
      */
     public static void main(String[] args) {
-        GerenciadorProdutos.carregarProdutosDeArquivo();
+        if ("log".equalsIgnoreCase(System.getProperty("loja.persistencia"))) {
+            GerenciadorProdutos.usarLogDeOperacoes(ConfiguracaoLog.doSistema());
+        } else if ("binario".equalsIgnoreCase(System.getProperty("loja.persistencia"))) {
+            GerenciadorProdutos.usarCatalogoBinario(true);
+        }
+        GerenciadorProdutos.metricas().registrarNoJmx();
+        long descartados = GerenciadorProdutos.carregarProdutosDeArquivo();
+        if (descartados > 0) {
+            System.out.println("Log de operações truncado: " + descartados + " bytes do final incompleto descartados.");
+        }
+        String porta = System.getProperty("loja.http.porta");
+        if (porta != null) {
+            ServidorHttp servidor = ServidorHttp.iniciar(Integer.parseInt(porta));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                servidor.parar();
+                GerenciadorProdutos.salvarProdutosEmArquivo();
+            }));
+            System.out.println("Servidor HTTP atendendo na porta " + servidor.getPorta()
+                    + (servidor.usaThreadsVirtuais() ? " (threads virtuais)." : " (pool de threads)."));
+            return;
+        }
+        String script = System.getProperty("loja.script");
+        if (script != null) {
+            int erros = new ScriptComandos(ImpressoraProdutos.doSistema(), System.err).executar(script);
+            if (erros > 0) {
+                System.exit(1);
+            }
+            return;
+        }
         MenuProdutos menu = new MenuProdutos();
         menu.exibirMenu();
     }
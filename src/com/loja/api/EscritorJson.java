@@ -0,0 +1,311 @@
+package com.loja.api;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Escritor de JSON que codifica os valores diretamente em um buffer de bytes.
+ *
+ * Como o `EscritorCsv`, o `EscritorJson` codifica os textos em UTF-8 caractere a
+ * caractere, sem criar vetores intermediários. Criado sobre uma saída, acumula
+ * os bytes em um buffer fixo de 64 KiB, enviado à saída sempre que enche, de
+ * modo que listagens de qualquer tamanho são escritas em fluxo com memória
+ * constante. Criado sem saída, o buffer cresce conforme necessário e o
+ * conteúdo é enviado de uma vez por {@link #enviarPara(OutputStream)}, o que
+ * permite conhecer o tamanho da resposta antes de enviá-la.
+ *
+ * As vírgulas entre os elementos são colocadas pelo próprio escritor. Esta
+ * classe não é thread-safe.
+ *
+ * @since 2024
+ */
+public class EscritorJson implements Flushable {
+
+    // Maior profundidade de objetos e listas aninhados
+    private static final int PROFUNDIDADE_MAXIMA = 64;
+
+    // Dígitos hexadecimais dos caracteres de controle escapados
+    private static final byte[] HEXADECIMAL = "0123456789abcdef".getBytes();
+
+    // Saída (null quando o conteúdo fica todo no buffer) e bytes ainda não enviados a ela
+    private final OutputStream saida;
+    private byte[] buffer;
+    private int tamanho;
+
+    // Indica, por nível de aninhamento, se o próximo elemento é o primeiro do nível
+    private final boolean[] primeiro = new boolean[PROFUNDIDADE_MAXIMA];
+    private int profundidade;
+
+    // Indica se o último item escrito foi o nome de um campo, que dispensa a vírgula
+    private boolean depoisDoNome;
+
+    /**
+     * Cria um escritor que envia o conteúdo em fluxo à saída fornecida.
+     *
+     * @param saida A saída que recebe o JSON em UTF-8; não é fechada pelo escritor.
+     */
+    public EscritorJson(OutputStream saida) {
+        this.saida = saida;
+        this.buffer = new byte[1 << 16];
+        this.primeiro[0] = true;
+    }
+
+    /**
+     * Cria um escritor que guarda todo o conteúdo no buffer, até ser enviado por
+     * {@link #enviarPara(OutputStream)}.
+     */
+    public EscritorJson() {
+        this.saida = null;
+        this.buffer = new byte[512];
+        this.primeiro[0] = true;
+    }
+
+    /**
+     * Inicia um objeto.
+     *
+     * @return Este escritor.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public EscritorJson inicioObjeto() throws IOException {
+        separador();
+        escreverByte('{');
+        aninhar();
+        return this;
+    }
+
+    /**
+     * Termina o objeto atual.
+     *
+     * @return Este escritor.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public EscritorJson fimObjeto() throws IOException {
+        profundidade--;
+        escreverByte('}');
+        return this;
+    }
+
+    /**
+     * Inicia uma lista.
+     *
+     * @return Este escritor.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public EscritorJson inicioLista() throws IOException {
+        separador();
+        escreverByte('[');
+        aninhar();
+        return this;
+    }
+
+    /**
+     * Termina a lista atual.
+     *
+     * @return Este escritor.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public EscritorJson fimLista() throws IOException {
+        profundidade--;
+        escreverByte(']');
+        return this;
+    }
+
+    /**
+     * Escreve o nome de um campo do objeto atual; o valor deve ser escrito em seguida.
+     *
+     * @param nome O nome do campo.
+     * @return Este escritor.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public EscritorJson nome(String nome) throws IOException {
+        separador();
+        texto(nome);
+        escreverByte(':');
+        depoisDoNome = true;
+        return this;
+    }
+
+    /**
+     * Escreve um texto.
+     *
+     * @param valor O texto (null é escrito como null).
+     * @return Este escritor.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public EscritorJson valor(String valor) throws IOException {
+        separador();
+        if (valor == null) {
+            escreverAscii("null");
+        } else {
+            texto(valor);
+        }
+        return this;
+    }
+
+    /**
+     * Escreve um número inteiro.
+     *
+     * @param valor O número.
+     * @return Este escritor.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public EscritorJson valor(long valor) throws IOException {
+        separador();
+        if (valor == Long.MIN_VALUE) {
+            escreverAscii(Long.toString(valor));
+            return this;
+        }
+        if (valor < 0) {
+            escreverByte('-');
+            valor = -valor;
+        }
+        long divisor = 1;
+        while (divisor <= valor / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            escreverByte('0' + (int) (valor / divisor));
+            valor %= divisor;
+        }
+        return this;
+    }
+
+    /**
+     * Escreve um número decimal, no formato de `Double.toString`.
+     *
+     * @param valor O número (NaN e infinitos, que o JSON não representa, são escritos como null).
+     * @return Este escritor.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public EscritorJson valor(double valor) throws IOException {
+        separador();
+        escreverAscii(Double.isFinite(valor) ? Double.toString(valor) : "null");
+        return this;
+    }
+
+    /**
+     * Escreve um valor lógico.
+     *
+     * @param valor O valor.
+     * @return Este escritor.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public EscritorJson valor(boolean valor) throws IOException {
+        separador();
+        escreverAscii(valor ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Retorna a quantidade de bytes guardados no buffer e ainda não enviados.
+     *
+     * @return Quantidade de bytes.
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Envia à saída informada os bytes guardados no buffer.
+     *
+     * @param destino A saída que recebe os bytes; não é fechada.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void enviarPara(OutputStream destino) throws IOException {
+        destino.write(buffer, 0, tamanho);
+        tamanho = 0;
+    }
+
+    /**
+     * Envia à saída os bytes acumulados no buffer.
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (saida != null) {
+            enviarPara(saida);
+            saida.flush();
+        }
+    }
+
+    private void aninhar() {
+        if (++profundidade == PROFUNDIDADE_MAXIMA) {
+            throw new IllegalStateException("JSON aninhado em mais de " + PROFUNDIDADE_MAXIMA + " níveis.");
+        }
+        primeiro[profundidade] = true;
+    }
+
+    private void separador() throws IOException {
+        if (depoisDoNome) {
+            depoisDoNome = false;
+            return;
+        }
+        if (!primeiro[profundidade]) {
+            escreverByte(',');
+        }
+        primeiro[profundidade] = false;
+    }
+
+    private void texto(String texto) throws IOException {
+        escreverByte('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    escreverByte('\\');
+                    escreverByte(c);
+                } else if (c == '\n') {
+                    escreverAscii("\\n");
+                } else if (c == '\r') {
+                    escreverAscii("\\r");
+                } else if (c == '\t') {
+                    escreverAscii("\\t");
+                } else if (c < 0x20) {
+                    escreverAscii("\\u00");
+                    escreverByte(HEXADECIMAL[c >> 4]);
+                    escreverByte(HEXADECIMAL[c & 0xF]);
+                } else {
+                    escreverByte(c);
+                }
+            } else if (c < 0x800) {
+                escreverByte(0xC0 | (c >> 6));
+                escreverByte(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < texto.length()
+                    && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                int codigo = Character.toCodePoint(c, texto.charAt(++i));
+                escreverByte(0xF0 | (codigo >> 18));
+                escreverByte(0x80 | ((codigo >> 12) & 0x3F));
+                escreverByte(0x80 | ((codigo >> 6) & 0x3F));
+                escreverByte(0x80 | (codigo & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                escreverByte('?');
+            } else {
+                escreverByte(0xE0 | (c >> 12));
+                escreverByte(0x80 | ((c >> 6) & 0x3F));
+                escreverByte(0x80 | (c & 0x3F));
+            }
+        }
+        escreverByte('"');
+    }
+
+    private void escreverAscii(String texto) throws IOException {
+        for (int i = 0; i < texto.length(); i++) {
+            escreverByte(texto.charAt(i));
+        }
+    }
+
+    private void escreverByte(int b) throws IOException {
+        if (tamanho == buffer.length) {
+            if (saida != null) {
+                saida.write(buffer, 0, tamanho);
+                tamanho = 0;
+            } else {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        buffer[tamanho++] = (byte) b;
+    }
+}
@@ -0,0 +1,231 @@
+package com.loja.api;
+
+import com.loja.exception.ValidacaoException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Leitor dos corpos JSON das requisições do {@link ServidorHttp}.
+ *
+ * O `LeitorJson` converte o texto em valores Java: objetos em `Map` (na ordem
+ * dos campos), listas em `List`, textos em `String`, números em `Double`,
+ * true/false em `Boolean` e null em null. Os corpos das requisições são
+ * pequenos (um produto ou um lote), por isso o texto é lido inteiro antes da
+ * conversão.
+ *
+ * @since 2024
+ */
+final class LeitorJson {
+
+    // Maior profundidade de objetos e listas aninhados
+    private static final int PROFUNDIDADE_MAXIMA = 64;
+
+    // Formato de um número JSON
+    private static final Pattern NUMERO = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+
+    // Texto lido e posição do próximo caractere
+    private final String texto;
+    private int posicao;
+
+    // Profundidade atual de aninhamento
+    private int profundidade;
+
+    private LeitorJson(String texto) {
+        this.texto = texto;
+    }
+
+    /**
+     * Converte um texto JSON em valores Java.
+     *
+     * @param texto O texto JSON.
+     * @return O valor convertido.
+     * @throws ValidacaoException Se o texto não for um JSON válido.
+     */
+    static Object ler(String texto) {
+        LeitorJson leitor = new LeitorJson(texto);
+        Object valor = leitor.valor();
+        leitor.pularEspacos();
+        if (leitor.posicao < texto.length()) {
+            throw leitor.erro("conteúdo após o fim do valor");
+        }
+        return valor;
+    }
+
+    private Object valor() {
+        pularEspacos();
+        if (posicao >= texto.length()) {
+            throw erro("fim inesperado do texto");
+        }
+        char c = texto.charAt(posicao);
+        switch (c) {
+            case '{':
+                return objeto();
+            case '[':
+                return lista();
+            case '"':
+                return texto();
+            case 't':
+                return palavra("true", Boolean.TRUE);
+            case 'f':
+                return palavra("false", Boolean.FALSE);
+            case 'n':
+                return palavra("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return numero();
+                }
+                throw erro("caractere inesperado '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> objeto() {
+        aninhar();
+        posicao++;
+        Map<String, Object> objeto = new LinkedHashMap<>();
+        pularEspacos();
+        if (consumir('}')) {
+            profundidade--;
+            return objeto;
+        }
+        do {
+            pularEspacos();
+            if (posicao >= texto.length() || texto.charAt(posicao) != '"') {
+                throw erro("nome de campo esperado");
+            }
+            String nome = texto();
+            pularEspacos();
+            if (!consumir(':')) {
+                throw erro("':' esperado");
+            }
+            objeto.put(nome, valor());
+            pularEspacos();
+        } while (consumir(','));
+        if (!consumir('}')) {
+            throw erro("',' ou '}' esperado");
+        }
+        profundidade--;
+        return objeto;
+    }
+
+    private List<Object> lista() {
+        aninhar();
+        posicao++;
+        List<Object> lista = new ArrayList<>();
+        pularEspacos();
+        if (consumir(']')) {
+            profundidade--;
+            return lista;
+        }
+        do {
+            lista.add(valor());
+            pularEspacos();
+        } while (consumir(','));
+        if (!consumir(']')) {
+            throw erro("',' ou ']' esperado");
+        }
+        profundidade--;
+        return lista;
+    }
+
+    private String texto() {
+        posicao++;
+        StringBuilder resultado = null;
+        int inicio = posicao;
+        while (posicao < texto.length()) {
+            char c = texto.charAt(posicao);
+            if (c == '"') {
+                String trecho = texto.substring(inicio, posicao++);
+                return resultado == null ? trecho : resultado.append(trecho).toString();
+            }
+            if (c < 0x20) {
+                throw erro("caractere de controle dentro de um texto");
+            }
+            if (c != '\\') {
+                posicao++;
+                continue;
+            }
+            if (resultado == null) {
+                resultado = new StringBuilder();
+            }
+            resultado.append(texto, inicio, posicao);
+            if (++posicao >= texto.length()) {
+                break;
+            }
+            char escape = texto.charAt(posicao++);
+            switch (escape) {
+                case '"', '\\', '/' -> resultado.append(escape);
+                case 'b' -> resultado.append('\b');
+                case 'f' -> resultado.append('\f');
+                case 'n' -> resultado.append('\n');
+                case 'r' -> resultado.append('\r');
+                case 't' -> resultado.append('\t');
+                case 'u' -> {
+                    if (posicao + 4 > texto.length()) {
+                        throw erro("escape \\u incompleto");
+                    }
+                    try {
+                        resultado.append((char) Integer.parseInt(texto.substring(posicao, posicao + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw erro("escape \\u inválido");
+                    }
+                    posicao += 4;
+                }
+                default -> throw erro("escape inválido '\\" + escape + "'");
+            }
+            inicio = posicao;
+        }
+        throw erro("texto sem aspas de fechamento");
+    }
+
+    private Double numero() {
+        int inicio = posicao;
+        while (posicao < texto.length() && "+-0123456789.eE".indexOf(texto.charAt(posicao)) >= 0) {
+            posicao++;
+        }
+        String trecho = texto.substring(inicio, posicao);
+        if (!NUMERO.matcher(trecho).matches()) {
+            throw erro("número inválido '" + trecho + "'");
+        }
+        return Double.valueOf(trecho);
+    }
+
+    private Object palavra(String palavra, Object valor) {
+        if (!texto.startsWith(palavra, posicao)) {
+            throw erro("valor inválido");
+        }
+        posicao += palavra.length();
+        return valor;
+    }
+
+    private void aninhar() {
+        if (++profundidade > PROFUNDIDADE_MAXIMA) {
+            throw erro("mais de " + PROFUNDIDADE_MAXIMA + " níveis de aninhamento");
+        }
+    }
+
+    private boolean consumir(char c) {
+        if (posicao < texto.length() && texto.charAt(posicao) == c) {
+            posicao++;
+            return true;
+        }
+        return false;
+    }
+
+    private void pularEspacos() {
+        while (posicao < texto.length()) {
+            char c = texto.charAt(posicao);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            posicao++;
+        }
+    }
+
+    private ValidacaoException erro(String motivo) {
+        return new ValidacaoException("JSON inválido na posição " + posicao + ": " + motivo + ".");
+    }
+}
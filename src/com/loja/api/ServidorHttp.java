@@ -0,0 +1,816 @@
+package com.loja.api;
+
+import com.loja.exception.ProdutoException;
+import com.loja.exception.ValidacaoException;
+import com.loja.gerenciador.Consulta;
+import com.loja.gerenciador.Criterio;
+import com.loja.gerenciador.Cursor;
+import com.loja.gerenciador.EstatisticasCache;
+import com.loja.gerenciador.FaixaDePreco;
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.gerenciador.OrdemListagem;
+import com.loja.gerenciador.Pagina;
+import com.loja.gerenciador.RelatorioImportacao;
+import com.loja.gerenciador.ResultadoLote;
+import com.loja.gerenciador.ResumoCategoria;
+import com.loja.modelo.Produto;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor HTTP que expõe as operações do `GerenciadorProdutos` como uma API JSON.
+ *
+ * O servidor usa o `HttpServer` do JDK, e cada requisição é tratada em uma
+ * thread virtual quando a JVM as oferece (Java 21 ou superior); nas versões
+ * anteriores, as requisições são tratadas por um pool fixo de threads. As
+ * respostas com até {@value #MAIOR_RESPOSTA_DIRETA} produtos são montadas em
+ * memória e enviadas com o tamanho conhecido; as maiores, como a listagem do
+ * catálogo inteiro, são escritas em fluxo pelo {@link EscritorJson}, com
+ * memória constante.
+ *
+ * Os produtos são representados como
+ * {@code {"id":1,"nome":"Mesa","preco":350.0,"quantidadeEstoque":4,"categoria":"Móveis"}}.
+ * Os recursos são:
+ *
+ * - {@code GET /produtos?ordem=id|nome|preco&limite=&apos=}: lista os produtos; com um
+ *   limite, a listagem é paginada por cursor, e o endereço da página seguinte vem
+ *   no cabeçalho {@code Link} ({@code rel="next"}). O parâmetro {@code deslocamento}
+ *   pagina por posição.
+ * - {@code POST /produtos}: cria um produto (201, com o ID atribuído).
+ * - {@code GET|PUT|DELETE /produtos/{id}}: busca, atualiza ou exclui um produto.
+ * - {@code POST /produtos/{id}/reserva|baixa|reposicao}: altera o estoque, com corpo {@code {"quantidade":n}}.
+ * - {@code POST /lotes/criacao|atualizacao|exclusao}: operações em lote, com uma lista de produtos ou de IDs.
+ * - {@code GET /busca/nome?termo=}, {@code /busca/categoria?nome=} e
+ *   {@code /busca/preco?minimo=&maximo=&limite=&apos=}: buscas específicas (a busca
+ *   por preço é paginada como a listagem);
+ *   {@code /busca/preco/contagem} conta os produtos da faixa.
+ * - {@code GET /consulta?categoria=&nome=&precoMinimo=&precoMaximo=&estoqueMinimo=&estoqueMaximo=&ordem=&decrescente=&limite=}:
+ *   consulta composta pelo planejador; {@code /consulta/plano} retorna o plano escolhido.
+ * - {@code GET /resumos/catalogo}, {@code /resumos/categorias} e {@code /resumos/categorias/{nome}}: resumos.
+ * - {@code GET /relatorios/estoque-baixo?limite=}: produtos com estoque até o limite.
+ * - {@code GET /cache}: estatísticas do cache de buscas.
+ * - {@code GET /metricas}: métricas do gerenciador em texto, no formato do Prometheus.
+ * - {@code GET /csv} e {@code POST /csv}: exportação e importação em CSV.
+ * - {@code POST /arquivo/salvar} e {@code POST /arquivo/snapshot}: persistência.
+ *
+ * Dados inválidos respondem 400, recursos inexistentes 404 e métodos não
+ * aceitos 405, sempre com o corpo {@code {"erro":"motivo"}}.
+ *
+ * @since 2024
+ */
+public class ServidorHttp {
+
+    // Quantidade de conexões aguardando aceitação
+    private static final int FILA_DE_CONEXOES = 1024;
+
+    // Maior tamanho aceito para o corpo JSON de uma requisição, em bytes
+    private static final int MAIOR_CORPO = 16 << 20;
+
+    // Maior quantidade de produtos de uma resposta montada em memória
+    private static final int MAIOR_RESPOSTA_DIRETA = 1000;
+
+    // Tipo do conteúdo das respostas JSON
+    private static final String TIPO_JSON = "application/json; charset=utf-8";
+
+    // Servidor do JDK e executor das requisições
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+
+    // Indica se as requisições são tratadas em threads virtuais
+    private final boolean threadsVirtuais;
+
+    // Gerenciador que executa as operações
+    private final GerenciadorProdutos gerenciador = new GerenciadorProdutos();
+
+    private ServidorHttp(HttpServer servidor, ExecutorService executor, boolean threadsVirtuais) {
+        this.servidor = servidor;
+        this.executor = executor;
+        this.threadsVirtuais = threadsVirtuais;
+    }
+
+    /**
+     * Inicia um servidor que atende na porta informada, em todas as interfaces.
+     *
+     * @param porta A porta (0 escolhe uma porta livre).
+     * @return O servidor iniciado.
+     * @throws ValidacaoException Se a porta não puder ser aberta.
+     */
+    public static ServidorHttp iniciar(int porta) {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            // Sem TCP_NODELAY, o corpo enviado depois do cabeçalho espera o ACK atrasado
+            // do cliente, o que soma cerca de 40 ms a cada resposta em uma conexão mantida
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer servidor;
+        try {
+            servidor = HttpServer.create(new InetSocketAddress(porta), FILA_DE_CONEXOES);
+        } catch (IOException e) {
+            throw new ValidacaoException("Erro ao abrir a porta " + porta + " do servidor HTTP: " + e.getMessage());
+        }
+        ExecutorService virtuais = executorDeThreadsVirtuais();
+        ExecutorService executor = virtuais != null ? virtuais : executorDePlataforma();
+        ServidorHttp api = new ServidorHttp(servidor, executor, virtuais != null);
+        servidor.createContext("/", api::tratar);
+        servidor.setExecutor(executor);
+        servidor.start();
+        return api;
+    }
+
+    /**
+     * Retorna a porta em que o servidor atende.
+     *
+     * @return O número da porta.
+     */
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Indica se as requisições são tratadas em threads virtuais.
+     *
+     * @return true com threads virtuais, false com o pool fixo de threads.
+     */
+    public boolean usaThreadsVirtuais() {
+        return threadsVirtuais;
+    }
+
+    /**
+     * Para o servidor, esperando até um segundo pelas requisições em andamento.
+     */
+    public void parar() {
+        servidor.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Cria o executor de uma thread virtual por requisição, se a JVM oferecer
+     * threads virtuais. O método é chamado por reflexão para que o sistema
+     * continue compilando e executando no Java 17.
+     */
+    private static ExecutorService executorDeThreadsVirtuais() {
+        try {
+            Method criar = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) criar.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService executorDePlataforma() {
+        AtomicInteger contador = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(16, 4 * Runtime.getRuntime().availableProcessors()), tarefa -> {
+            Thread thread = new Thread(tarefa, "http-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Trata uma requisição, encaminhando-a pelo primeiro segmento do caminho.
+     */
+    private void tratar(HttpExchange troca) throws IOException {
+        try {
+            String[] caminho = segmentos(troca.getRequestURI().getPath());
+            Map<String, String> parametros = parametros(troca.getRequestURI().getRawQuery());
+            String recurso = caminho.length == 0 ? "" : caminho[0];
+            switch (recurso) {
+                case "produtos" -> produtos(troca, caminho, parametros);
+                case "lotes" -> lotes(troca, caminho);
+                case "busca" -> busca(troca, caminho, parametros);
+                case "consulta" -> consulta(troca, caminho, parametros);
+                case "resumos" -> resumos(troca, caminho);
+                case "relatorios" -> relatorios(troca, caminho, parametros);
+                case "cache" -> cache(troca, caminho);
+                case "metricas" -> metricas(troca, caminho);
+                case "csv" -> csv(troca, caminho);
+                case "arquivo" -> arquivo(troca, caminho);
+                default -> throw new Falha(404, "Recurso não encontrado: " + troca.getRequestURI().getPath());
+            }
+        } catch (Falha e) {
+            responderErro(troca, e.status, e.getMessage());
+        } catch (ProdutoException | ValidacaoException e) {
+            responderErro(troca, 400, e.getMessage());
+        } catch (IOException e) {
+            // A conexão foi perdida; não há a quem responder
+        } catch (RuntimeException e) {
+            responderErro(troca, 500, "Erro interno: " + e);
+        } finally {
+            troca.close();
+        }
+    }
+
+    private void produtos(HttpExchange troca, String[] caminho, Map<String, String> parametros) throws IOException {
+        if (caminho.length == 1) {
+            if (metodo(troca, "GET", "POST").equals("GET")) {
+                String nomeOrdem = parametros.getOrDefault("ordem", "id");
+                OrdemListagem ordem = switch (nomeOrdem) {
+                    case "id" -> OrdemListagem.ID;
+                    case "nome" -> OrdemListagem.NOME;
+                    case "preco" -> OrdemListagem.PRECO;
+                    default -> throw new ValidacaoException("Ordem inválida: use id, nome ou preco.");
+                };
+                if (parametros.containsKey("deslocamento") || !porCursor(parametros)) {
+                    List<Produto> produtos = switch (ordem) {
+                        case ID -> gerenciador.listarTodosPorID();
+                        case NOME -> gerenciador.listarTodosPorNome();
+                        case PRECO -> gerenciador.listarTodosPorPreco();
+                    };
+                    responderProdutos(troca, pagina(produtos, parametros));
+                } else {
+                    int limite = limiteDaPagina(parametros);
+                    Pagina pagina = gerenciador.listarPagina(ordem, cursor(parametros), limite);
+                    responderPagina(troca, pagina, "/produtos?ordem=" + nomeOrdem + "&limite=" + limite);
+                }
+            } else {
+                Produto produto = lerProduto(objeto(lerCorpo(troca)));
+                GerenciadorProdutos.criar(produto);
+                troca.getResponseHeaders().set("Location", "/produtos/" + produto.getId());
+                responder(troca, 201, escritor -> escreverProduto(escritor, produto));
+            }
+            return;
+        }
+        int id = inteiro(caminho[1], "id");
+        if (caminho.length == 2) {
+            switch (metodo(troca, "GET", "PUT", "DELETE")) {
+                case "GET" -> {
+                    Produto produto = existente(id);
+                    responder(troca, 200, escritor -> escreverProduto(escritor, produto));
+                }
+                case "PUT" -> {
+                    Produto produto = lerProduto(objeto(lerCorpo(troca)));
+                    produto.setId(id);
+                    if (!gerenciador.atualizar(produto)) {
+                        throw naoEncontrado(id);
+                    }
+                    responder(troca, 200, escritor -> escreverProduto(escritor, produto));
+                }
+                default -> {
+                    if (!gerenciador.deletar(id)) {
+                        throw naoEncontrado(id);
+                    }
+                    responderVazio(troca);
+                }
+            }
+            return;
+        }
+        if (caminho.length != 3) {
+            throw new Falha(404, "Recurso não encontrado: " + troca.getRequestURI().getPath());
+        }
+        metodo(troca, "POST");
+        int quantidade = inteiro(objeto(lerCorpo(troca)).get("quantidade"), "quantidade");
+        existente(id);
+        switch (caminho[2]) {
+            case "reserva" -> {
+                boolean reservado = gerenciador.reservarEstoque(id, quantidade);
+                Produto produto = existente(id);
+                responder(troca, 200, escritor -> escritor.inicioObjeto()
+                        .nome("reservado").valor(reservado)
+                        .nome("estoque").valor(produto.getQuantidadeEstoque())
+                        .fimObjeto());
+            }
+            case "baixa" -> responderEstoque(troca, gerenciador.baixarEstoque(id, quantidade));
+            case "reposicao" -> responderEstoque(troca, gerenciador.reporEstoque(id, quantidade));
+            default -> throw new Falha(404, "Operação de estoque desconhecida: " + caminho[2]);
+        }
+    }
+
+    private void lotes(HttpExchange troca, String[] caminho) throws IOException {
+        if (caminho.length != 2) {
+            throw new Falha(404, "Informe a operação do lote: criacao, atualizacao ou exclusao.");
+        }
+        metodo(troca, "POST");
+        List<Object> itens = lista(lerCorpo(troca));
+        switch (caminho[1]) {
+            case "criacao" -> {
+                List<Produto> novos = new ArrayList<>(itens.size());
+                for (Object item : itens) {
+                    novos.add(lerProduto(objeto(item)));
+                }
+                ResultadoLote resultado = GerenciadorProdutos.criarEmLote(novos);
+                responder(troca, 200, escritor -> escreverLote(escritor, resultado, novos));
+            }
+            case "atualizacao" -> {
+                List<Produto> alterados = new ArrayList<>(itens.size());
+                for (Object item : itens) {
+                    Map<String, Object> campos = objeto(item);
+                    Produto produto = lerProduto(campos);
+                    produto.setId(inteiro(campos.get("id"), "id"));
+                    alterados.add(produto);
+                }
+                ResultadoLote resultado = gerenciador.atualizarEmLote(alterados);
+                responder(troca, 200, escritor -> escreverLote(escritor, resultado, null));
+            }
+            case "exclusao" -> {
+                List<Integer> ids = new ArrayList<>(itens.size());
+                for (Object item : itens) {
+                    ids.add(inteiro(item, "id"));
+                }
+                ResultadoLote resultado = gerenciador.deletarEmLote(ids);
+                responder(troca, 200, escritor -> escreverLote(escritor, resultado, null));
+            }
+            default -> throw new Falha(404, "Operação de lote desconhecida: " + caminho[1]);
+        }
+    }
+
+    private void busca(HttpExchange troca, String[] caminho, Map<String, String> parametros) throws IOException {
+        metodo(troca, "GET");
+        String tipo = caminho.length > 1 ? caminho[1] : "";
+        if (tipo.equals("nome") && caminho.length == 2) {
+            responderProdutos(troca, gerenciador.buscarPorNome(obrigatorio(parametros, "termo")));
+        } else if (tipo.equals("categoria") && caminho.length == 2) {
+            responderProdutos(troca, gerenciador.buscarPorCategoria(obrigatorio(parametros, "nome")));
+        } else if (tipo.equals("preco")) {
+            FaixaDePreco faixa = new FaixaDePreco(
+                    decimal(parametros.getOrDefault("minimo", "0"), "minimo"),
+                    decimal(parametros.getOrDefault("maximo", "Infinity"), "maximo"));
+            if (caminho.length == 2 && porCursor(parametros) && !parametros.containsKey("deslocamento")) {
+                int limite = limiteDaPagina(parametros);
+                Pagina pagina = gerenciador.buscarPorFaixaDePreco(faixa, cursor(parametros), limite);
+                responderPagina(troca, pagina, "/busca/preco?minimo=" + faixa.getPrecoMinimo()
+                        + "&maximo=" + faixa.getPrecoMaximo() + "&limite=" + limite);
+            } else if (caminho.length == 2) {
+                int deslocamento = inteiro(parametros.getOrDefault("deslocamento", "0"), "deslocamento");
+                int limite = inteiro(parametros.getOrDefault("limite", Integer.toString(Integer.MAX_VALUE)), "limite");
+                responderProdutos(troca, gerenciador.buscarPorFaixaDePreco(faixa, deslocamento, limite));
+            } else if (caminho.length == 3 && caminho[2].equals("contagem")) {
+                int quantidade = gerenciador.contarPorFaixaDePreco(faixa);
+                responder(troca, 200, escritor -> escritor.inicioObjeto().nome("quantidade").valor(quantidade).fimObjeto());
+            } else {
+                throw new Falha(404, "Recurso não encontrado: " + troca.getRequestURI().getPath());
+            }
+        } else {
+            throw new Falha(404, "Busca desconhecida: use nome, categoria ou preco.");
+        }
+    }
+
+    private void consulta(HttpExchange troca, String[] caminho, Map<String, String> parametros) throws IOException {
+        metodo(troca, "GET");
+        Consulta consulta = montarConsulta(parametros);
+        if (caminho.length == 1) {
+            responderProdutos(troca, gerenciador.consultar(consulta));
+        } else if (caminho.length == 2 && caminho[1].equals("plano")) {
+            String plano = gerenciador.explicar(consulta);
+            responder(troca, 200, escritor -> escritor.inicioObjeto().nome("plano").valor(plano).fimObjeto());
+        } else {
+            throw new Falha(404, "Recurso não encontrado: " + troca.getRequestURI().getPath());
+        }
+    }
+
+    private static Consulta montarConsulta(Map<String, String> parametros) {
+        Criterio criterio = null;
+        if (parametros.containsKey("categoria")) {
+            criterio = juntar(criterio, Criterio.categoria(parametros.get("categoria")));
+        }
+        if (parametros.containsKey("nome")) {
+            criterio = juntar(criterio, Criterio.nomeContem(parametros.get("nome")));
+        }
+        if (parametros.containsKey("precoMinimo") || parametros.containsKey("precoMaximo")) {
+            criterio = juntar(criterio, Criterio.precoEntre(
+                    decimal(parametros.getOrDefault("precoMinimo", "0"), "precoMinimo"),
+                    decimal(parametros.getOrDefault("precoMaximo", "Infinity"), "precoMaximo")));
+        }
+        if (parametros.containsKey("estoqueMinimo")) {
+            criterio = juntar(criterio, Criterio.estoqueMinimo(inteiro(parametros.get("estoqueMinimo"), "estoqueMinimo")));
+        }
+        if (parametros.containsKey("estoqueMaximo")) {
+            criterio = juntar(criterio, Criterio.estoqueMaximo(inteiro(parametros.get("estoqueMaximo"), "estoqueMaximo")));
+        }
+        Consulta consulta = criterio == null ? Consulta.todos() : Consulta.onde(criterio);
+        if (parametros.containsKey("ordem")) {
+            Consulta.Campo campo;
+            try {
+                campo = Consulta.Campo.valueOf(parametros.get("ordem").toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ValidacaoException("Ordem inválida: use id, preco, nome ou estoque.");
+            }
+            consulta = Boolean.parseBoolean(parametros.get("decrescente"))
+                    ? consulta.ordenarPorDecrescente(campo) : consulta.ordenarPor(campo);
+        }
+        if (parametros.containsKey("limite")) {
+            consulta = consulta.limite(inteiro(parametros.get("limite"), "limite"));
+        }
+        return consulta;
+    }
+
+    private static Criterio juntar(Criterio atual, Criterio novo) {
+        return atual == null ? novo : atual.e(novo);
+    }
+
+    private void resumos(HttpExchange troca, String[] caminho) throws IOException {
+        metodo(troca, "GET");
+        String tipo = caminho.length > 1 ? caminho[1] : "";
+        if (tipo.equals("catalogo") && caminho.length == 2) {
+            ResumoCategoria resumo = gerenciador.resumirCatalogo();
+            responder(troca, 200, escritor -> escreverResumo(escritor, resumo));
+        } else if (tipo.equals("categorias") && caminho.length == 2) {
+            List<ResumoCategoria> resumos = gerenciador.resumirCategorias();
+            responder(troca, 200, escritor -> {
+                escritor.inicioLista();
+                for (ResumoCategoria resumo : resumos) {
+                    escreverResumo(escritor, resumo);
+                }
+                escritor.fimLista();
+            });
+        } else if (tipo.equals("categorias") && caminho.length == 3) {
+            ResumoCategoria resumo = gerenciador.resumirCategoria(caminho[2]);
+            responder(troca, 200, escritor -> escreverResumo(escritor, resumo));
+        } else {
+            throw new Falha(404, "Resumo desconhecido: use catalogo ou categorias.");
+        }
+    }
+
+    private void relatorios(HttpExchange troca, String[] caminho, Map<String, String> parametros) throws IOException {
+        metodo(troca, "GET");
+        if (caminho.length != 2 || !caminho[1].equals("estoque-baixo")) {
+            throw new Falha(404, "Relatório desconhecido: use estoque-baixo.");
+        }
+        responderProdutos(troca, gerenciador.relatorioEstoqueBaixo(inteiro(obrigatorio(parametros, "limite"), "limite")));
+    }
+
+    private void cache(HttpExchange troca, String[] caminho) throws IOException {
+        metodo(troca, "GET");
+        if (caminho.length != 1) {
+            throw new Falha(404, "Recurso não encontrado: " + troca.getRequestURI().getPath());
+        }
+        EstatisticasCache estatisticas = gerenciador.estatisticasDoCache();
+        responder(troca, 200, escritor -> escritor.inicioObjeto()
+                .nome("acertos").valor(estatisticas.getAcertos())
+                .nome("falhas").valor(estatisticas.getFalhas())
+                .nome("taxaDeAcerto").valor(estatisticas.getTaxaDeAcerto())
+                .nome("despejos").valor(estatisticas.getDespejos())
+                .nome("invalidacoes").valor(estatisticas.getInvalidacoes())
+                .nome("tamanho").valor(estatisticas.getTamanho())
+                .nome("capacidade").valor(estatisticas.getCapacidade())
+                .fimObjeto());
+    }
+
+    private void metricas(HttpExchange troca, String[] caminho) throws IOException {
+        metodo(troca, "GET");
+        if (caminho.length != 1) {
+            throw new Falha(404, "Recurso não encontrado: " + troca.getRequestURI().getPath());
+        }
+        byte[] corpo = GerenciadorProdutos.metricas().relatorio().getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        troca.sendResponseHeaders(200, corpo.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(corpo);
+        }
+    }
+
+    private void csv(HttpExchange troca, String[] caminho) throws IOException {
+        if (caminho.length != 1) {
+            throw new Falha(404, "Recurso não encontrado: " + troca.getRequestURI().getPath());
+        }
+        if (metodo(troca, "GET", "POST").equals("GET")) {
+            troca.getResponseHeaders().set("Content-Type", "text/csv; charset=utf-8");
+            troca.sendResponseHeaders(200, 0);
+            try (OutputStream saida = troca.getResponseBody()) {
+                GerenciadorProdutos.exportarCsv(saida);
+            }
+        } else {
+            RelatorioImportacao relatorio;
+            try (InputStream entrada = troca.getRequestBody()) {
+                relatorio = GerenciadorProdutos.importarCsv(entrada);
+            }
+            responder(troca, 200, escritor -> {
+                escritor.inicioObjeto()
+                        .nome("importados").valor(relatorio.getImportados())
+                        .nome("rejeitados").valor(relatorio.getRejeitados())
+                        .nome("rejeicoes").inicioLista();
+                for (RelatorioImportacao.Rejeicao rejeicao : relatorio.getRejeicoes()) {
+                    escritor.inicioObjeto()
+                            .nome("linha").valor(rejeicao.getLinha())
+                            .nome("motivo").valor(rejeicao.getMotivo())
+                            .fimObjeto();
+                }
+                escritor.fimLista().fimObjeto();
+            });
+        }
+    }
+
+    private void arquivo(HttpExchange troca, String[] caminho) throws IOException {
+        metodo(troca, "POST");
+        String operacao = caminho.length == 2 ? caminho[1] : "";
+        switch (operacao) {
+            case "salvar" -> GerenciadorProdutos.salvarProdutosEmArquivo();
+            case "snapshot" -> GerenciadorProdutos.gravarSnapshot();
+            default -> throw new Falha(404, "Operação de arquivo desconhecida: use salvar ou snapshot.");
+        }
+        responderVazio(troca);
+    }
+
+    private Produto existente(int id) {
+        Produto produto = gerenciador.buscarPorId(id);
+        if (produto == null) {
+            throw naoEncontrado(id);
+        }
+        return produto;
+    }
+
+    private static Falha naoEncontrado(int id) {
+        return new Falha(404, "Produto " + id + " não encontrado.");
+    }
+
+    /**
+     * Confere o método da requisição entre os aceitos pelo recurso.
+     *
+     * @return O método da requisição.
+     */
+    private static String metodo(HttpExchange troca, String... aceitos) {
+        String metodo = troca.getRequestMethod();
+        for (String aceito : aceitos) {
+            if (aceito.equals(metodo)) {
+                return metodo;
+            }
+        }
+        troca.getResponseHeaders().set("Allow", String.join(", ", aceitos));
+        throw new Falha(405, "Método " + metodo + " não aceito neste recurso.");
+    }
+
+    private static Object lerCorpo(HttpExchange troca) throws IOException {
+        byte[] corpo;
+        try (InputStream entrada = troca.getRequestBody()) {
+            corpo = entrada.readNBytes(MAIOR_CORPO + 1);
+        }
+        if (corpo.length > MAIOR_CORPO) {
+            throw new Falha(413, "O corpo da requisição passa de " + MAIOR_CORPO + " bytes.");
+        }
+        return LeitorJson.ler(new String(corpo, StandardCharsets.UTF_8));
+    }
+
+    private static Produto lerProduto(Map<String, Object> campos) {
+        Object nome = campos.get("nome");
+        Object categoria = campos.get("categoria");
+        return new Produto(
+                nome == null ? null : texto(nome, "nome"),
+                campos.containsKey("preco") ? numero(campos.get("preco"), "preco") : 0,
+                campos.containsKey("quantidadeEstoque") ? inteiro(campos.get("quantidadeEstoque"), "quantidadeEstoque") : 0,
+                categoria == null ? null : texto(categoria, "categoria"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> objeto(Object valor) {
+        if (!(valor instanceof Map)) {
+            throw new ValidacaoException("Um objeto JSON era esperado.");
+        }
+        return (Map<String, Object>) valor;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> lista(Object valor) {
+        if (!(valor instanceof List)) {
+            throw new ValidacaoException("Uma lista JSON era esperada.");
+        }
+        return (List<Object>) valor;
+    }
+
+    private static String texto(Object valor, String campo) {
+        if (!(valor instanceof String)) {
+            throw new ValidacaoException("O campo '" + campo + "' deve ser um texto.");
+        }
+        return (String) valor;
+    }
+
+    private static double numero(Object valor, String campo) {
+        if (!(valor instanceof Double)) {
+            throw new ValidacaoException("O campo '" + campo + "' deve ser um número.");
+        }
+        return (Double) valor;
+    }
+
+    private static int inteiro(Object valor, String campo) {
+        double numero = numero(valor, campo);
+        if (numero != Math.rint(numero) || numero < Integer.MIN_VALUE || numero > Integer.MAX_VALUE) {
+            throw new ValidacaoException("O campo '" + campo + "' deve ser um número inteiro.");
+        }
+        return (int) numero;
+    }
+
+    private static int inteiro(String texto, String parametro) {
+        try {
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new ValidacaoException("O parâmetro '" + parametro + "' deve ser um número inteiro.");
+        }
+    }
+
+    private static double decimal(String texto, String parametro) {
+        try {
+            return Double.parseDouble(texto);
+        } catch (NumberFormatException e) {
+            throw new ValidacaoException("O parâmetro '" + parametro + "' deve ser um número.");
+        }
+    }
+
+    private static String obrigatorio(Map<String, String> parametros, String nome) {
+        String valor = parametros.get(nome);
+        if (valor == null) {
+            throw new ValidacaoException("O parâmetro '" + nome + "' é obrigatório.");
+        }
+        return valor;
+    }
+
+    private static List<Produto> pagina(List<Produto> produtos, Map<String, String> parametros) {
+        int deslocamento = inteiro(parametros.getOrDefault("deslocamento", "0"), "deslocamento");
+        int limite = inteiro(parametros.getOrDefault("limite", Integer.toString(Integer.MAX_VALUE)), "limite");
+        if (deslocamento < 0 || limite < 0) {
+            throw new ValidacaoException("O deslocamento e o limite não podem ser negativos.");
+        }
+        int inicio = Math.min(deslocamento, produtos.size());
+        return produtos.subList(inicio, inicio + Math.min(limite, produtos.size() - inicio));
+    }
+
+    /**
+     * Indica se a listagem deve ser paginada por cursor: com o parâmetro
+     * {@code apos} ou com um limite sem deslocamento.
+     */
+    private static boolean porCursor(Map<String, String> parametros) {
+        return parametros.containsKey("apos") || parametros.containsKey("limite");
+    }
+
+    private static Cursor cursor(Map<String, String> parametros) {
+        String apos = parametros.get("apos");
+        return apos == null || apos.isEmpty() ? null : Cursor.decodificar(apos);
+    }
+
+    private static int limiteDaPagina(Map<String, String> parametros) {
+        return inteiro(parametros.getOrDefault("limite", Integer.toString(MAIOR_RESPOSTA_DIRETA)), "limite");
+    }
+
+    private static String[] segmentos(String caminho) {
+        List<String> segmentos = new ArrayList<>();
+        for (String segmento : caminho.split("/")) {
+            if (!segmento.isEmpty()) {
+                segmentos.add(segmento);
+            }
+        }
+        return segmentos.toArray(new String[0]);
+    }
+
+    private static Map<String, String> parametros(String consulta) {
+        Map<String, String> parametros = new HashMap<>();
+        if (consulta == null || consulta.isEmpty()) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            String nome = igual < 0 ? par : par.substring(0, igual);
+            String valor = igual < 0 ? "" : par.substring(igual + 1);
+            try {
+                parametros.put(URLDecoder.decode(nome, StandardCharsets.UTF_8), URLDecoder.decode(valor, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new ValidacaoException("Parâmetro com codificação inválida: " + par);
+            }
+        }
+        return parametros;
+    }
+
+    private static void escreverProduto(EscritorJson escritor, Produto produto) throws IOException {
+        escritor.inicioObjeto()
+                .nome("id").valor(produto.getId())
+                .nome("nome").valor(produto.getNome())
+                .nome("preco").valor(produto.getPreco())
+                .nome("quantidadeEstoque").valor(produto.getQuantidadeEstoque())
+                .nome("categoria").valor(produto.getCategoria())
+                .fimObjeto();
+    }
+
+    private static void escreverResumo(EscritorJson escritor, ResumoCategoria resumo) throws IOException {
+        escritor.inicioObjeto()
+                .nome("categoria").valor(resumo.getCategoria())
+                .nome("quantidade").valor(resumo.getQuantidade())
+                .nome("estoqueTotal").valor(resumo.getEstoqueTotal())
+                .nome("semEstoque").valor(resumo.getSemEstoque())
+                .nome("valorEmEstoque").valor(resumo.getValorEmEstoque())
+                .nome("precoMinimo").valor(resumo.getPrecoMinimo())
+                .nome("precoMaximo").valor(resumo.getPrecoMaximo())
+                .nome("precoMedio").valor(resumo.getPrecoMedio())
+                .nome("valoresExatos").valor(resumo.isValoresExatos())
+                .fimObjeto();
+    }
+
+    /**
+     * Escreve o resultado de um lote; na criação, inclui o ID atribuído a cada produto aplicado.
+     */
+    private static void escreverLote(EscritorJson escritor, ResultadoLote resultado, List<Produto> criados) throws IOException {
+        escritor.inicioObjeto()
+                .nome("aplicados").valor(resultado.getAplicados())
+                .nome("naoEncontrados").valor(resultado.getNaoEncontrados())
+                .nome("invalidos").valor(resultado.getInvalidos())
+                .nome("itens").inicioLista();
+        for (int i = 0; i < resultado.tamanho(); i++) {
+            escritor.inicioObjeto().nome("situacao").valor(resultado.getSituacao(i).name());
+            if (criados != null && resultado.aplicado(i)) {
+                escritor.nome("id").valor(criados.get(i).getId());
+            }
+            if (resultado.getMotivo(i) != null) {
+                escritor.nome("motivo").valor(resultado.getMotivo(i));
+            }
+            escritor.fimObjeto();
+        }
+        escritor.fimLista().fimObjeto();
+    }
+
+    private void responderProdutos(HttpExchange troca, List<Produto> produtos) throws IOException {
+        Corpo corpo = escritor -> {
+            escritor.inicioLista();
+            for (Produto produto : produtos) {
+                escreverProduto(escritor, produto);
+            }
+            escritor.fimLista();
+        };
+        if (produtos.size() <= MAIOR_RESPOSTA_DIRETA) {
+            responder(troca, 200, corpo);
+            return;
+        }
+        troca.getResponseHeaders().set("Content-Type", TIPO_JSON);
+        troca.sendResponseHeaders(200, 0);
+        try (OutputStream saida = troca.getResponseBody()) {
+            EscritorJson escritor = new EscritorJson(saida);
+            corpo.escrever(escritor);
+            escritor.flush();
+        }
+    }
+
+    /**
+     * Responde uma página por cursor; se houver página seguinte, o seu endereço vai
+     * no cabeçalho {@code Link} com {@code rel="next"}.
+     */
+    private void responderPagina(HttpExchange troca, Pagina pagina, String endereco) throws IOException {
+        if (pagina.temMais()) {
+            troca.getResponseHeaders().set("Link",
+                    "<" + endereco + "&apos=" + pagina.getProximo().codificar() + ">; rel=\"next\"");
+        }
+        responderProdutos(troca, pagina.getProdutos());
+    }
+
+    private void responderEstoque(HttpExchange troca, int estoque) throws IOException {
+        responder(troca, 200, escritor -> escritor.inicioObjeto().nome("estoque").valor(estoque).fimObjeto());
+    }
+
+    /**
+     * Monta a resposta em memória e a envia com o tamanho conhecido.
+     */
+    private static void responder(HttpExchange troca, int status, Corpo corpo) throws IOException {
+        EscritorJson escritor = new EscritorJson();
+        corpo.escrever(escritor);
+        troca.getResponseHeaders().set("Content-Type", TIPO_JSON);
+        troca.sendResponseHeaders(status, escritor.tamanho());
+        try (OutputStream saida = troca.getResponseBody()) {
+            escritor.enviarPara(saida);
+        }
+    }
+
+    private static void responderVazio(HttpExchange troca) throws IOException {
+        troca.sendResponseHeaders(204, -1);
+    }
+
+    private static void responderErro(HttpExchange troca, int status, String mensagem) throws IOException {
+        if (troca.getResponseCode() != -1) {
+            // A resposta já começou a ser enviada; resta apenas fechar a conexão
+            return;
+        }
+        responder(troca, status, escritor -> escritor.inicioObjeto().nome("erro").valor(mensagem).fimObjeto());
+    }
+
+    /**
+     * Escrita do corpo JSON de uma resposta.
+     */
+    @FunctionalInterface
+    private interface Corpo {
+        void escrever(EscritorJson escritor) throws IOException;
+    }
+
+    /**
+     * Falha que encerra uma requisição com um código HTTP específico.
+     */
+    private static final class Falha extends RuntimeException {
+
+        // Versão da classe para serialização
+        private static final long serialVersionUID = 1L;
+
+        // Código HTTP da resposta
+        private final int status;
+
+        private Falha(int status, String mensagem) {
+            super(mensagem);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.loja.gerenciador;
+
+import com.loja.indice.IndicePrimario;
+import com.loja.modelo.DicionarioCategorias;
+import com.loja.modelo.Produto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totais dos produtos por categoria, mantidos a cada alteração.
+ *
+ * Para cada código de categoria, o `AgregadosCategorias` guarda a quantidade de
+ * produtos, a soma das quantidades em estoque, a quantidade de produtos sem
+ * estoque, o valor em estoque e a soma dos preços, além de um multiconjunto dos
+ * preços que dá o menor e o maior preço mesmo após exclusões. Os resumos são
+ * lidos desses totais, sem percorrer os produtos.
+ *
+ * Os valores em dinheiro são somados em centavos, com o preço de cada produto
+ * arredondado para o centavo: a contribuição de um produto é sempre calculada da
+ * mesma forma, de modo que retirá-lo desfaz exatamente a sua soma, sem o acúmulo
+ * de erros de arredondamento de uma soma em ponto flutuante.
+ *
+ * Um produto cujo preço passa de {@value #LIMITE_PRECO_CENTAVOS} centavos pode
+ * ter um valor em estoque que não cabe em um `long`; ele é contado à parte e o
+ * seu valor entra apenas nas somas em ponto flutuante. As somas exatas também
+ * podem passar do limite de um `long` com muitos produtos de valor alto. Nos
+ * dois casos, o resumo traz os valores das somas em ponto flutuante, limitados
+ * ao maior `long`, e indica que eles não são exatos
+ * ({@link ResumoCategoria#isValoresExatos()}), em vez de devolver uma soma que
+ * deu a volta.
+ *
+ * As criações, atualizações e exclusões chegam com a trava de alterações do
+ * gerenciador, mas as alterações de estoque não. Para que uma alteração de
+ * estoque e a retirada da mesma versão de um produto não se percam uma da outra,
+ * ambas são feitas com uma trava escolhida pelo ID do produto, e a alteração de
+ * estoque só é aplicada se a versão ainda for a atual no índice primário. Uma
+ * nova versão entra nos totais antes de ser publicada no índice primário, e a
+ * anterior sai depois, de modo que nenhuma alteração de estoque chega a uma
+ * versão que ainda não foi somada.
+ *
+ * Os resumos leem os totais um a um, sem travas. Com alterações em andamento, um
+ * resumo pode combinar totais de momentos diferentes, como a quantidade de
+ * produtos de antes de uma criação e o estoque total de depois dela; sem
+ * alterações em andamento, todos os totais correspondem ao mesmo estado.
+ *
+ * @since 2024
+ */
+final class AgregadosCategorias {
+
+    // Quantidade de travas por ID (potência de 2)
+    private static final int TRAVAS = 256;
+
+    // Maior preço, em centavos, cujo produto por qualquer quantidade em estoque cabe em um long
+    static final long LIMITE_PRECO_CENTAVOS = Long.MAX_VALUE / Integer.MAX_VALUE;
+
+    // Maior soma exata confiável, em centavos, com folga para o erro das somas em ponto flutuante
+    private static final double LIMITE_SOMA_CENTAVOS = 0x1p62;
+
+    // Índice primário, que indica a versão atual de cada produto
+    private final IndicePrimario produtos;
+
+    // Totais indexados pelo código da categoria, trocado por uma cópia maior quando necessário
+    private volatile Totais[] totais = new Totais[16];
+
+    // Travas que serializam as alterações de estoque e as retiradas de um mesmo produto
+    private final Object[] travas = new Object[TRAVAS];
+
+    AgregadosCategorias(IndicePrimario produtos) {
+        this.produtos = produtos;
+        for (int i = 0; i < TRAVAS; i++) {
+            travas[i] = new Object();
+        }
+    }
+
+    /**
+     * Soma uma versão de produto aos totais da sua categoria.
+     *
+     * Deve ser chamado com a trava de alterações, antes de a versão ser publicada
+     * no índice primário.
+     *
+     * @param produto A versão do produto.
+     */
+    void adicionar(Produto produto) {
+        int codigo = produto.getCodigoCategoria();
+        if (codigo < 0) {
+            return;
+        }
+        Totais[] atuais = totais;
+        if (codigo >= atuais.length) {
+            atuais = Arrays.copyOf(atuais, Math.max(atuais.length * 2, codigo + 1));
+        }
+        if (atuais[codigo] == null) {
+            atuais[codigo] = new Totais();
+        }
+        totais = atuais;
+        atuais[codigo].somar(produto, produto.getQuantidadeEstoque(), 1);
+    }
+
+    /**
+     * Retira uma versão de produto dos totais da sua categoria.
+     *
+     * Deve ser chamado com a trava de alterações, depois de a versão deixar de ser
+     * a atual no índice primário.
+     *
+     * @param produto A versão do produto.
+     */
+    void remover(Produto produto) {
+        Totais grupo = totais(produto.getCodigoCategoria());
+        if (grupo == null) {
+            return;
+        }
+        synchronized (trava(produto.getId())) {
+            // Lê o estoque com a trava, depois de todas as alterações de estoque aplicadas a esta versão
+            grupo.somar(produto, produto.getQuantidadeEstoque(), -1);
+        }
+    }
+
+    /**
+     * Troca a quantidade em estoque de uma versão de produto e atualiza os totais
+     * da sua categoria, se a versão ainda for a atual.
+     *
+     * @param versao A versão do produto.
+     * @param atual A quantidade lida anteriormente.
+     * @param nova A nova quantidade.
+     * @return true se a quantidade foi trocada, false se a versão foi substituída
+     *         ou se a quantidade foi alterada por outra thread.
+     */
+    boolean trocarEstoque(Produto versao, int atual, int nova) {
+        synchronized (trava(versao.getId())) {
+            if (produtos.buscar(versao.getId()) != versao || !versao.compararETrocarEstoque(atual, nova)) {
+                return false;
+            }
+            Totais grupo = totais(versao.getCodigoCategoria());
+            if (grupo != null) {
+                grupo.variarEstoque(versao, atual, nova);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Retira todos os produtos dos totais.
+     */
+    void limpar() {
+        totais = new Totais[16];
+    }
+
+    /**
+     * Retorna o resumo de uma categoria.
+     *
+     * @param codigo O código da categoria.
+     * @param categoria O nome informado, usado se a categoria não estiver registrada.
+     * @return O resumo, com quantidades zeradas se a categoria não tiver produtos.
+     */
+    ResumoCategoria resumir(int codigo, String categoria) {
+        Totais grupo = totais(codigo);
+        String nome = codigo < 0 ? categoria : DicionarioCategorias.nomeDe(codigo);
+        return grupo == null ? new ResumoCategoria(nome, 0, 0, 0, 0, 0, 0, 0, true) : grupo.resumir(nome);
+    }
+
+    /**
+     * Retorna os resumos das categorias com produtos, na ordem dos códigos.
+     *
+     * @return Lista com um resumo por categoria.
+     */
+    List<ResumoCategoria> resumirTodas() {
+        Totais[] atuais = totais;
+        List<ResumoCategoria> resumos = new ArrayList<>();
+        for (int codigo = 0; codigo < atuais.length; codigo++) {
+            if (atuais[codigo] != null && atuais[codigo].quantidade.sum() > 0) {
+                resumos.add(atuais[codigo].resumir(DicionarioCategorias.nomeDe(codigo)));
+            }
+        }
+        return resumos;
+    }
+
+    /**
+     * Retorna o resumo do catálogo inteiro, combinando os totais das categorias.
+     *
+     * @return O resumo, sem nome de categoria.
+     */
+    ResumoCategoria resumirCatalogo() {
+        long quantidade = 0, estoque = 0, semEstoque = 0, valor = 0, somaPrecos = 0;
+        double valorAproximado = 0, somaPrecosAproximada = 0;
+        boolean exatos = true;
+        double minimo = Double.POSITIVE_INFINITY, maximo = Double.NEGATIVE_INFINITY;
+        for (Totais grupo : totais) {
+            if (grupo == null) {
+                continue;
+            }
+            quantidade += grupo.quantidade.sum();
+            estoque += grupo.estoque.sum();
+            semEstoque += grupo.semEstoque.sum();
+            valorAproximado += grupo.valorAproximado.sum();
+            somaPrecosAproximada += grupo.somaPrecosAproximada.sum();
+            if (exatos && grupo.exatos()) {
+                valor += grupo.valorCentavos.sum();
+                somaPrecos += grupo.somaPrecosCentavos.sum();
+            } else {
+                exatos = false;
+            }
+            Map.Entry<Double, Integer> menor = grupo.precos.firstEntry();
+            Map.Entry<Double, Integer> maior = grupo.precos.lastEntry();
+            if (menor != null) {
+                minimo = Math.min(minimo, menor.getKey());
+            }
+            if (maior != null) {
+                maximo = Math.max(maximo, maior.getKey());
+            }
+        }
+        exatos = exatos && Math.abs(valorAproximado) < LIMITE_SOMA_CENTAVOS
+                && Math.abs(somaPrecosAproximada) < LIMITE_SOMA_CENTAVOS;
+        return new ResumoCategoria(null, quantidade, estoque, semEstoque,
+                exatos ? valor : (long) valorAproximado, exatos ? somaPrecos : (long) somaPrecosAproximada,
+                quantidade == 0 ? 0 : minimo, quantidade == 0 ? 0 : maximo, exatos);
+    }
+
+    private Totais totais(int codigo) {
+        Totais[] atuais = totais;
+        return codigo >= 0 && codigo < atuais.length ? atuais[codigo] : null;
+    }
+
+    private Object trava(int id) {
+        return travas[id & (TRAVAS - 1)];
+    }
+
+    private static long centavos(double preco) {
+        return Math.round(preco * 100);
+    }
+
+    /**
+     * Totais de uma categoria.
+     */
+    private static final class Totais {
+
+        // Quantidade de produtos, soma dos estoques e produtos sem estoque
+        private final LongAdder quantidade = new LongAdder();
+        private final LongAdder estoque = new LongAdder();
+        private final LongAdder semEstoque = new LongAdder();
+
+        // Soma de preço vezes estoque e soma dos preços, em centavos, dos produtos com preço até o limite
+        private final LongAdder valorCentavos = new LongAdder();
+        private final LongAdder somaPrecosCentavos = new LongAdder();
+
+        // As mesmas somas em ponto flutuante, de todos os produtos, usadas quando as exatas não valem
+        private final DoubleAdder valorAproximado = new DoubleAdder();
+        private final DoubleAdder somaPrecosAproximada = new DoubleAdder();
+
+        // Quantidade de produtos com preço acima do limite, que ficam fora das somas exatas
+        private final LongAdder foraDoLimite = new LongAdder();
+
+        // Quantidade de produtos por preço, para o menor e o maior preço
+        private final ConcurrentSkipListMap<Double, Integer> precos = new ConcurrentSkipListMap<>();
+
+        /**
+         * Soma (sinal 1) ou retira (sinal -1) um produto com a quantidade em estoque informada.
+         */
+        private void somar(Produto produto, int quantidadeEstoque, int sinal) {
+            quantidade.add(sinal);
+            estoque.add((long) sinal * quantidadeEstoque);
+            if (quantidadeEstoque == 0) {
+                semEstoque.add(sinal);
+            }
+            double preco = produto.getPreco() * 100;
+            valorAproximado.add(sinal * preco * quantidadeEstoque);
+            somaPrecosAproximada.add(sinal * preco);
+            long centavos = centavos(produto.getPreco());
+            if (centavos <= LIMITE_PRECO_CENTAVOS) {
+                valorCentavos.add(sinal * centavos * quantidadeEstoque);
+                somaPrecosCentavos.add(sinal * centavos);
+            } else {
+                foraDoLimite.add(sinal);
+            }
+            precos.merge(produto.getPreco(), sinal, (a, b) -> a + b == 0 ? null : a + b);
+        }
+
+        private void variarEstoque(Produto produto, int atual, int nova) {
+            long variacao = (long) nova - atual;
+            estoque.add(variacao);
+            valorAproximado.add(produto.getPreco() * 100 * variacao);
+            long centavos = centavos(produto.getPreco());
+            if (centavos <= LIMITE_PRECO_CENTAVOS) {
+                valorCentavos.add(centavos * variacao);
+            }
+            if (atual == 0 && nova != 0) {
+                semEstoque.decrement();
+            } else if (atual != 0 && nova == 0) {
+                semEstoque.increment();
+            }
+        }
+
+        /**
+         * Indica se as somas exatas valem: nenhum produto ficou fora delas e nenhuma
+         * passou do limite de um `long`.
+         */
+        private boolean exatos() {
+            return foraDoLimite.sum() == 0
+                    && Math.abs(valorAproximado.sum()) < LIMITE_SOMA_CENTAVOS
+                    && Math.abs(somaPrecosAproximada.sum()) < LIMITE_SOMA_CENTAVOS;
+        }
+
+        private ResumoCategoria resumir(String nome) {
+            Map.Entry<Double, Integer> menor = precos.firstEntry();
+            Map.Entry<Double, Integer> maior = precos.lastEntry();
+            boolean exatos = exatos();
+            return new ResumoCategoria(nome, quantidade.sum(), estoque.sum(), semEstoque.sum(),
+                    exatos ? valorCentavos.sum() : (long) valorAproximado.sum(),
+                    exatos ? somaPrecosCentavos.sum() : (long) somaPrecosAproximada.sum(),
+                    menor == null ? 0 : menor.getKey(), maior == null ? 0 : maior.getKey(), exatos);
+        }
+    }
+}
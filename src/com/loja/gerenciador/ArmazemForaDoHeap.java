@@ -0,0 +1,556 @@
+package com.loja.gerenciador;
+
+import com.loja.exception.ProdutoException;
+import com.loja.exception.ValidacaoException;
+import com.loja.modelo.DicionarioCategorias;
+import com.loja.modelo.Produto;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Armazenamento de produtos fora do heap, para catálogos muito grandes.
+ *
+ * O `ArmazemForaDoHeap` grava cada produto em um slot de tamanho fixo, em blocos
+ * de memória direta ({@link ByteBuffer#allocateDirect(int)}), e o nome em UTF-8
+ * em uma área de nomes separada, também em blocos diretos. Os slots dos
+ * produtos excluídos formam uma lista de slots livres, reaproveitados pelas
+ * criações seguintes junto com o espaço do nome, e uma tabela de endereçamento
+ * direto indexada pelo ID, também fora do heap, localiza o slot de cada produto.
+ * O heap guarda apenas as referências aos blocos, e não os produtos: o coletor
+ * de lixo não precisa percorrer o catálogo, e o uso do heap não cresce com ele.
+ *
+ * Um nome atualizado que não cabe no espaço do nome anterior é gravado no final
+ * da área de nomes, e o espaço antigo só é devolvido quando o armazém é
+ * descartado. A memória direta é liberada quando o armazém é recolhido pelo
+ * coletor de lixo.
+ *
+ * As consultas ({@link ConsultaProdutos}) percorrem os slots e montam produtos
+ * novos apenas para os resultados, que são ordenados na própria consulta; não há
+ * índices secundários. As alterações usam a trava de escrita de um
+ * `StampedLock`, a busca por ID usa leitura otimista, como os índices de
+ * trigramas e de categorias, e as varreduras usam a trava de leitura.
+ *
+ * @since 2024
+ */
+public final class ArmazemForaDoHeap implements ConsultaProdutos {
+
+    // Tamanho e deslocamento dos campos de um slot (nos slots livres, o campo do estoque guarda o próximo slot livre)
+    private static final int TAMANHO_SLOT = 40;
+    private static final int SLOT_ID = 0;
+    private static final int SLOT_ESTOQUE = 4;
+    private static final int SLOT_PRECO = 8;
+    private static final int SLOT_CATEGORIA = 16;
+    private static final int SLOT_TAMANHO_NOME = 20;
+    private static final int SLOT_POSICAO_NOME = 24;
+    private static final int SLOT_CAPACIDADE_NOME = 32;
+    private static final int SLOT_FORA_DO_LATIN1 = 36;
+
+    // Quantidade de slots por bloco (2^16, 2,5 MB por bloco)
+    private static final int BITS_SLOTS_POR_BLOCO = 16;
+
+    // Tamanho dos blocos da área de nomes (2^22 bytes, 4 MB), que também limita o tamanho de um nome
+    private static final int BITS_BLOCO_NOMES = 22;
+
+    // Quantidade de IDs por bloco da tabela de IDs (2^16, 256 KB por bloco)
+    private static final int BITS_IDS_POR_BLOCO = 16;
+
+    // Tentativas de leitura otimista antes de usar a trava de leitura
+    private static final int TENTATIVAS_OTIMISTAS = 3;
+
+    // Ordens dos resultados das consultas
+    private static final Comparator<Produto> POR_ID = Comparator.comparingInt(Produto::getId);
+    private static final Comparator<Produto> POR_PRECO = Comparator.comparingDouble(Produto::getPreco).thenComparing(POR_ID);
+    private static final Comparator<Produto> POR_NOME = Comparator.comparing(Produto::getNome).thenComparing(POR_ID);
+
+    // Blocos de slots, quantidade de slots já usados e início da lista de slots livres (-1 se vazia)
+    private ByteBuffer[] blocosSlots = new ByteBuffer[0];
+    private int slotsUsados;
+    private int primeiroLivre = -1;
+
+    // Blocos da área de nomes e posição do próximo nome gravado no final da área
+    private ByteBuffer[] blocosNomes = new ByteBuffer[0];
+    private long fimNomes;
+
+    // Blocos da tabela de IDs, com o slot de cada ID mais 1 (0 se o ID não existir)
+    private ByteBuffer[] blocosIds = new ByteBuffer[0];
+
+    // Quantidade de produtos armazenados e ID do próximo produto
+    private int quantidade;
+    private int proximoId = 1;
+
+    // Trava das alterações, validada pelas leituras otimistas
+    private final StampedLock trava = new StampedLock();
+
+    /**
+     * Cria um novo produto no armazém, atribuindo-lhe um ID.
+     *
+     * @param produto O produto a ser criado; recebe o ID atribuído.
+     * @throws ProdutoException Se o produto não passar nas validações (nome, preço, etc.).
+     */
+    public void criar(Produto produto) {
+        GerenciadorProdutos.validarProduto(produto);
+        GerenciadorProdutos.registrarCategoria(produto);
+        byte[] nome = codificarNome(produto);
+        long carimbo = trava.writeLock();
+        try {
+            int id = proximoId++;
+            int slot = alocarSlot();
+            gravar(slot, id, produto, nome);
+            definirSlotDoId(id, slot);
+            quantidade++;
+            produto.setId(id);
+        } finally {
+            trava.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Atualiza um produto existente, regravando o seu slot.
+     *
+     * @param produto O produto com os novos dados e o ID do produto a ser atualizado.
+     * @return true se o produto foi atualizado, false se não existir produto com o ID.
+     * @throws ProdutoException Se os novos dados não passarem nas validações.
+     */
+    public boolean atualizar(Produto produto) {
+        GerenciadorProdutos.validarProduto(produto);
+        GerenciadorProdutos.registrarCategoria(produto);
+        if (produto.getId() == null) {
+            return false;
+        }
+        int id = produto.getId();
+        byte[] nome = codificarNome(produto);
+        long carimbo = trava.writeLock();
+        try {
+            int slot = slotDoId(id);
+            if (slot < 0) {
+                return false;
+            }
+            gravar(slot, id, produto, nome);
+            return true;
+        } finally {
+            trava.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Deleta um produto pelo ID, devolvendo o seu slot à lista de slots livres.
+     *
+     * @param id O ID do produto a ser deletado.
+     * @return true se o produto foi deletado, false se não existir produto com o ID.
+     */
+    public boolean deletar(int id) {
+        long carimbo = trava.writeLock();
+        try {
+            int slot = slotDoId(id);
+            if (slot < 0) {
+                return false;
+            }
+            ByteBuffer bloco = blocoDoSlot(slot);
+            int base = baseDoSlot(slot);
+            bloco.putInt(base + SLOT_ID, 0);
+            bloco.putInt(base + SLOT_ESTOQUE, primeiroLivre);
+            primeiroLivre = slot;
+            definirSlotDoId(id, -1);
+            quantidade--;
+            return true;
+        } finally {
+            trava.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Retorna a quantidade de produtos armazenados.
+     *
+     * @return Quantidade de produtos.
+     */
+    public int tamanho() {
+        long carimbo = trava.readLock();
+        try {
+            return quantidade;
+        } finally {
+            trava.unlockRead(carimbo);
+        }
+    }
+
+    /**
+     * Retorna a quantidade de memória direta reservada pelos blocos do armazém.
+     *
+     * @return Quantidade de bytes fora do heap.
+     */
+    public long memoriaForaDoHeap() {
+        long carimbo = trava.readLock();
+        try {
+            return (long) blocosSlots.length * (TAMANHO_SLOT << BITS_SLOTS_POR_BLOCO)
+                    + (long) blocosNomes.length * (1 << BITS_BLOCO_NOMES)
+                    + (long) blocosIds.length * (Integer.BYTES << BITS_IDS_POR_BLOCO);
+        } finally {
+            trava.unlockRead(carimbo);
+        }
+    }
+
+    /**
+     * Busca um produto pelo ID, pela tabela de IDs, em tempo constante.
+     *
+     * @param id O ID do produto a ser buscado.
+     * @return Um novo produto com os dados armazenados, ou null se não houver produto com o ID fornecido.
+     */
+    @Override
+    public Produto buscarPorId(int id) {
+        for (int tentativa = 0; tentativa < TENTATIVAS_OTIMISTAS; tentativa++) {
+            long carimbo = trava.tryOptimisticRead();
+            if (carimbo == 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            try {
+                int slot = slotDoId(id);
+                Produto produto = slot < 0 ? null : ler(slot);
+                if (trava.validate(carimbo)) {
+                    return produto;
+                }
+            } catch (RuntimeException e) {
+                // Leitura inconsistente durante uma alteração: a validação falharia
+                if (trava.validate(carimbo)) {
+                    throw e;
+                }
+            }
+        }
+        long carimbo = trava.readLock();
+        try {
+            int slot = slotDoId(id);
+            return slot < 0 ? null : ler(slot);
+        } finally {
+            trava.unlockRead(carimbo);
+        }
+    }
+
+    @Override
+    public List<Produto> listarTodosPorID() {
+        return consultar((bloco, base) -> true, POR_ID);
+    }
+
+    @Override
+    public List<Produto> listarTodosPorPreco() {
+        return consultar((bloco, base) -> true, POR_PRECO);
+    }
+
+    @Override
+    public List<Produto> listarTodosPorNome() {
+        return consultar((bloco, base) -> true, POR_NOME);
+    }
+
+    /**
+     * Busca produtos pelo nome (case insensitive).
+     *
+     * Os nomes são comparados em bytes, sem decodificação, como na
+     * {@link TabelaColunar}; só os nomes com caracteres fora do Latin-1 são
+     * decodificados.
+     *
+     * @param nome O nome ou parte do nome do produto a ser buscado.
+     * @return A lista de produtos cujo nome contenha a string fornecida, ordenada por ID.
+     */
+    @Override
+    public List<Produto> buscarPorNome(String nome) {
+        String termo = nome.toLowerCase();
+        byte[] padrao = termo.getBytes(StandardCharsets.UTF_8);
+        boolean padraoLatin1 = ComparacaoNomes.latin1(termo);
+        return consultar(new CondicaoSlot() {
+            // Cópia do nome do slot, reaproveitada entre os slots
+            private byte[] texto = new byte[64];
+
+            @Override
+            public boolean aceita(ByteBuffer bloco, int base) {
+                int tamanho = bloco.getInt(base + SLOT_TAMANHO_NOME);
+                if (tamanho > texto.length) {
+                    texto = new byte[Math.max(texto.length * 2, tamanho)];
+                }
+                long posicao = bloco.getLong(base + SLOT_POSICAO_NOME);
+                blocoDeNomes(posicao).get(deslocamentoDoNome(posicao), texto, 0, tamanho);
+                if (bloco.getInt(base + SLOT_FORA_DO_LATIN1) != 0) {
+                    return new String(texto, 0, tamanho, StandardCharsets.UTF_8).toLowerCase().contains(termo);
+                }
+                return padraoLatin1 && ComparacaoNomes.contem(texto, 0, tamanho, padrao);
+            }
+        }, POR_ID);
+    }
+
+    /**
+     * Busca produtos pela categoria (case insensitive), comparando o código de categoria dos slots.
+     *
+     * @param categoria A categoria do produto a ser buscado.
+     * @return A lista de produtos pertencentes à categoria fornecida, ordenada por ID.
+     */
+    @Override
+    public List<Produto> buscarPorCategoria(String categoria) {
+        int codigo = DicionarioCategorias.buscarCodigo(categoria);
+        if (codigo < 0) {
+            return List.of();
+        }
+        return consultar((bloco, base) -> bloco.getInt(base + SLOT_CATEGORIA) == codigo, POR_ID);
+    }
+
+    @Override
+    public List<Produto> buscarPorFaixaDePreco(double precoMinimo, double precoMaximo) {
+        return buscarPorFaixaDePreco(FaixaDePreco.entre(precoMinimo, precoMaximo), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Busca uma página de produtos dentro de uma faixa de preço.
+     *
+     * Todos os produtos da faixa são selecionados e ordenados por preço antes da
+     * página ser separada.
+     *
+     * @param faixa A faixa de preço, que pode ser aberta em qualquer um dos lados.
+     * @param deslocamento Quantidade de produtos da faixa a serem pulados.
+     * @param limite Quantidade máxima de produtos a serem retornados.
+     * @return Lista de produtos da página, ordenados por preço.
+     * @throws ValidacaoException Se o deslocamento ou o limite forem negativos.
+     */
+    @Override
+    public List<Produto> buscarPorFaixaDePreco(FaixaDePreco faixa, int deslocamento, int limite) {
+        if (deslocamento < 0 || limite < 0) {
+            throw new ValidacaoException("O deslocamento e o limite da consulta não podem ser negativos.");
+        }
+        List<Produto> faixaCompleta = consultar((bloco, base) -> faixa.contem(bloco.getDouble(base + SLOT_PRECO)), POR_PRECO);
+        int primeiro = Math.min(faixaCompleta.size(), deslocamento);
+        int ultimo = (int) Math.min(faixaCompleta.size(), (long) primeiro + limite);
+        return primeiro == 0 && ultimo == faixaCompleta.size()
+                ? faixaCompleta
+                : List.copyOf(faixaCompleta.subList(primeiro, ultimo));
+    }
+
+    /**
+     * Conta os produtos dentro de uma faixa de preço, percorrendo os slots sem montar os produtos.
+     *
+     * @param faixa A faixa de preço, que pode ser aberta em qualquer um dos lados.
+     * @return A quantidade de produtos dentro da faixa.
+     */
+    @Override
+    public int contarPorFaixaDePreco(FaixaDePreco faixa) {
+        long carimbo = trava.readLock();
+        try {
+            int total = 0;
+            for (int slot = 0; slot < slotsUsados; slot++) {
+                ByteBuffer bloco = blocoDoSlot(slot);
+                int base = baseDoSlot(slot);
+                if (bloco.getInt(base + SLOT_ID) != 0 && faixa.contem(bloco.getDouble(base + SLOT_PRECO))) {
+                    total++;
+                }
+            }
+            return total;
+        } finally {
+            trava.unlockRead(carimbo);
+        }
+    }
+
+    /**
+     * Condição avaliada sobre o slot de um produto durante uma varredura.
+     */
+    private interface CondicaoSlot {
+
+        /**
+         * Verifica se o produto de um slot entra no resultado.
+         *
+         * @param bloco O bloco do slot.
+         * @param base A posição do slot no bloco.
+         * @return true se o produto entra no resultado.
+         */
+        boolean aceita(ByteBuffer bloco, int base);
+    }
+
+    /**
+     * Percorre todos os slots ocupados com a trava de leitura e monta os produtos aceitos pela condição.
+     *
+     * @param condicao A condição que seleciona os produtos.
+     * @param ordem A ordem do resultado.
+     * @return Lista imutável com os produtos selecionados, na ordem pedida.
+     */
+    private List<Produto> consultar(CondicaoSlot condicao, Comparator<Produto> ordem) {
+        List<Produto> resultado = new ArrayList<>();
+        long carimbo = trava.readLock();
+        try {
+            for (int slot = 0; slot < slotsUsados; slot++) {
+                ByteBuffer bloco = blocoDoSlot(slot);
+                int base = baseDoSlot(slot);
+                if (bloco.getInt(base + SLOT_ID) != 0 && condicao.aceita(bloco, base)) {
+                    resultado.add(ler(slot));
+                }
+            }
+        } finally {
+            trava.unlockRead(carimbo);
+        }
+        resultado.sort(ordem);
+        return Collections.unmodifiableList(resultado);
+    }
+
+    /**
+     * Monta um produto com os dados de um slot ocupado.
+     *
+     * @param slot O slot do produto.
+     * @return Um novo produto com os dados do slot.
+     */
+    private Produto ler(int slot) {
+        ByteBuffer bloco = blocoDoSlot(slot);
+        int base = baseDoSlot(slot);
+        byte[] nome = new byte[bloco.getInt(base + SLOT_TAMANHO_NOME)];
+        long posicao = bloco.getLong(base + SLOT_POSICAO_NOME);
+        blocoDeNomes(posicao).get(deslocamentoDoNome(posicao), nome);
+        Produto produto = new Produto(new String(nome, StandardCharsets.UTF_8),
+                bloco.getDouble(base + SLOT_PRECO), bloco.getInt(base + SLOT_ESTOQUE), null);
+        produto.setId(bloco.getInt(base + SLOT_ID));
+        int categoria = bloco.getInt(base + SLOT_CATEGORIA);
+        produto.setCodigoCategoria(categoria);
+        return produto;
+    }
+
+    /**
+     * Grava os dados de um produto em um slot, reaproveitando o espaço do nome
+     * anterior do slot quando o novo nome couber nele.
+     *
+     * Deve ser chamado com a trava de escrita.
+     *
+     * @param slot O slot a ser gravado.
+     * @param id O ID do produto.
+     * @param produto O produto com os dados.
+     * @param nome O nome do produto em UTF-8.
+     */
+    private void gravar(int slot, int id, Produto produto, byte[] nome) {
+        ByteBuffer bloco = blocoDoSlot(slot);
+        int base = baseDoSlot(slot);
+        long posicao = bloco.getLong(base + SLOT_POSICAO_NOME);
+        int capacidade = bloco.getInt(base + SLOT_CAPACIDADE_NOME);
+        if (nome.length > capacidade) {
+            posicao = alocarNome(nome.length);
+            capacidade = nome.length;
+        }
+        blocoDeNomes(posicao).put(deslocamentoDoNome(posicao), nome);
+
+        bloco.putInt(base + SLOT_ID, id);
+        bloco.putInt(base + SLOT_ESTOQUE, produto.getQuantidadeEstoque());
+        bloco.putDouble(base + SLOT_PRECO, produto.getPreco());
+        bloco.putInt(base + SLOT_CATEGORIA, produto.getCodigoCategoria());
+        bloco.putInt(base + SLOT_TAMANHO_NOME, nome.length);
+        bloco.putLong(base + SLOT_POSICAO_NOME, posicao);
+        bloco.putInt(base + SLOT_CAPACIDADE_NOME, capacidade);
+        bloco.putInt(base + SLOT_FORA_DO_LATIN1, ComparacaoNomes.latin1(produto.getNome()) ? 0 : 1);
+    }
+
+    /**
+     * Retira um slot da lista de slots livres ou, se ela estiver vazia, usa o
+     * próximo slot ainda não usado, criando um bloco quando necessário.
+     *
+     * @return O slot alocado.
+     */
+    private int alocarSlot() {
+        if (primeiroLivre >= 0) {
+            int slot = primeiroLivre;
+            primeiroLivre = blocoDoSlot(slot).getInt(baseDoSlot(slot) + SLOT_ESTOQUE);
+            return slot;
+        }
+        int slot = slotsUsados;
+        int indiceBloco = slot >>> BITS_SLOTS_POR_BLOCO;
+        if (indiceBloco == blocosSlots.length) {
+            blocosSlots = Arrays.copyOf(blocosSlots, indiceBloco + 1);
+            blocosSlots[indiceBloco] = novoBloco(TAMANHO_SLOT << BITS_SLOTS_POR_BLOCO);
+        }
+        slotsUsados++;
+        return slot;
+    }
+
+    /**
+     * Reserva espaço para um nome no final da área de nomes, passando para o
+     * bloco seguinte quando o nome não couber no que resta do bloco atual.
+     *
+     * @param tamanho O tamanho do nome em bytes.
+     * @return A posição do nome na área de nomes.
+     */
+    private long alocarNome(int tamanho) {
+        int indiceBloco = (int) (fimNomes >>> BITS_BLOCO_NOMES);
+        if (deslocamentoDoNome(fimNomes) + tamanho > 1 << BITS_BLOCO_NOMES) {
+            indiceBloco++;
+            fimNomes = (long) indiceBloco << BITS_BLOCO_NOMES;
+        }
+        if (indiceBloco == blocosNomes.length) {
+            blocosNomes = Arrays.copyOf(blocosNomes, indiceBloco + 1);
+            blocosNomes[indiceBloco] = novoBloco(1 << BITS_BLOCO_NOMES);
+        }
+        long posicao = fimNomes;
+        fimNomes += tamanho;
+        return posicao;
+    }
+
+    /**
+     * Retorna o slot de um ID pela tabela de IDs.
+     *
+     * @param id O ID procurado.
+     * @return O slot do produto, ou -1 se não houver produto com o ID.
+     */
+    private int slotDoId(int id) {
+        int indiceBloco = id >>> BITS_IDS_POR_BLOCO;
+        if (id <= 0 || indiceBloco >= blocosIds.length) {
+            return -1;
+        }
+        return blocosIds[indiceBloco].getInt((id & ((1 << BITS_IDS_POR_BLOCO) - 1)) * Integer.BYTES) - 1;
+    }
+
+    /**
+     * Grava o slot de um ID na tabela de IDs, criando os blocos que faltarem.
+     *
+     * @param id O ID do produto.
+     * @param slot O slot do produto, ou -1 para retirar o ID da tabela.
+     */
+    private void definirSlotDoId(int id, int slot) {
+        int indiceBloco = id >>> BITS_IDS_POR_BLOCO;
+        if (indiceBloco >= blocosIds.length) {
+            int anterior = blocosIds.length;
+            blocosIds = Arrays.copyOf(blocosIds, indiceBloco + 1);
+            for (int i = anterior; i <= indiceBloco; i++) {
+                blocosIds[i] = novoBloco(Integer.BYTES << BITS_IDS_POR_BLOCO);
+            }
+        }
+        blocosIds[indiceBloco].putInt((id & ((1 << BITS_IDS_POR_BLOCO) - 1)) * Integer.BYTES, slot + 1);
+    }
+
+    private ByteBuffer blocoDoSlot(int slot) {
+        return blocosSlots[slot >>> BITS_SLOTS_POR_BLOCO];
+    }
+
+    private static int baseDoSlot(int slot) {
+        return (slot & ((1 << BITS_SLOTS_POR_BLOCO) - 1)) * TAMANHO_SLOT;
+    }
+
+    private ByteBuffer blocoDeNomes(long posicao) {
+        return blocosNomes[(int) (posicao >>> BITS_BLOCO_NOMES)];
+    }
+
+    private static int deslocamentoDoNome(long posicao) {
+        return (int) (posicao & ((1 << BITS_BLOCO_NOMES) - 1));
+    }
+
+    private static ByteBuffer novoBloco(int tamanho) {
+        return ByteBuffer.allocateDirect(tamanho).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Codifica o nome de um produto em UTF-8, rejeitando os nomes maiores que um bloco da área de nomes.
+     *
+     * @param produto O produto.
+     * @return O nome em UTF-8.
+     * @throws ProdutoException Se o nome não couber em um bloco da área de nomes.
+     */
+    private static byte[] codificarNome(Produto produto) {
+        byte[] nome = produto.getNome().getBytes(StandardCharsets.UTF_8);
+        if (nome.length > 1 << BITS_BLOCO_NOMES) {
+            throw new ProdutoException("O nome do produto não pode ter mais de " + (1 << BITS_BLOCO_NOMES) + " bytes.");
+        }
+        return nome;
+    }
+}
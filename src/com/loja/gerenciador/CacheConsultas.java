@@ -0,0 +1,339 @@
+package com.loja.gerenciador;
+
+import com.loja.modelo.Produto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Cache dos resultados das buscas por nome e por categoria do gerenciador.
+ *
+ * Os resultados ficam em um mapa em ordem de acesso, limitado à capacidade: ao
+ * passar dela, o resultado usado há mais tempo é descartado (LRU). Os resultados
+ * guardam apenas referências aos produtos, e a soma dos seus tamanhos é limitada
+ * a {@value #MAXIMO_PRODUTOS} produtos: ao passar dela, também são descartados
+ * os resultados usados há mais tempo.
+ *
+ * Uma alteração descarta apenas os resultados que ela pode mudar: os das
+ * categorias da versão anterior e da nova versão do produto, e os das buscas
+ * por nome cujo termo esteja contido no nome anterior ou no novo. Para não
+ * comparar o nome com todos os termos guardados, os termos são agrupados pelos
+ * seus três primeiros caracteres, e apenas os grupos das sequências de três
+ * caracteres do nome alterado são conferidos; os termos com menos de três
+ * caracteres são conferidos um a um. Um lote com mais de
+ * {@value #MAIOR_LOTE_PRECISO} produtos descarta todos os resultados. As
+ * alterações de estoque não descartam nada, pois alteram a própria versão
+ * guardada nos resultados.
+ *
+ * O gerenciador avisa o início e o fim de cada alteração. Um resultado só é
+ * guardado se nenhuma alteração estiver em andamento nem tiver terminado
+ * enquanto ele era calculado, de modo que o cache nunca guarda um resultado
+ * anterior a uma alteração já descartada.
+ *
+ * @since 2024
+ */
+final class CacheConsultas {
+
+    // Maior soma dos tamanhos dos resultados guardados
+    static final int MAXIMO_PRODUTOS = 1_000_000;
+
+    // Quantidade de produtos de um lote acima da qual o lote descarta todos os resultados
+    private static final int MAIOR_LOTE_PRECISO = 10_000;
+
+    // Tamanho dos prefixos que agrupam os termos das buscas por nome
+    private static final int TAMANHO_PREFIXO = 3;
+
+    // Quantidade máxima de resultados (0 desativa o cache)
+    private final int capacidade;
+
+    // Resultados por chave ("n" + termo ou "c" + código da categoria), em ordem de acesso
+    private final LinkedHashMap<String, Entrada> entradas;
+
+    // Resultados das buscas por categoria, pelo código da categoria
+    private final Map<Integer, Entrada> porCategoria = new HashMap<>();
+
+    // Resultados das buscas por nome, pelos três primeiros caracteres do termo
+    private final Map<String, Set<Entrada>> porPrefixo = new HashMap<>();
+
+    // Resultados das buscas por nome com termos de menos de três caracteres
+    private final Set<Entrada> termosCurtos = new HashSet<>();
+
+    // Soma dos tamanhos dos resultados guardados
+    private long produtosGuardados;
+
+    // Versão das alterações: ímpar enquanto uma alteração está em andamento
+    private volatile long versao;
+
+    // Contadores das estatísticas
+    private long acertos;
+    private long falhas;
+    private long despejos;
+    private long invalidacoes;
+
+    /**
+     * Cria um cache com a capacidade informada.
+     *
+     * @param capacidade A quantidade máxima de resultados guardados (0 desativa o cache).
+     */
+    CacheConsultas(int capacidade) {
+        this.capacidade = capacidade;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> maisAntiga) {
+                if (size() <= CacheConsultas.this.capacidade) {
+                    return false;
+                }
+                desindexar(maisAntiga.getValue());
+                despejos++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Retorna o resultado guardado de uma busca por nome ou o calcula e o guarda.
+     *
+     * @param termo O termo buscado, em minúsculas.
+     * @param calcular O cálculo do resultado, usado se ele não estiver guardado.
+     * @return Lista imutável com o resultado.
+     */
+    List<Produto> buscarPorNome(String termo, Supplier<List<Produto>> calcular) {
+        return buscar("n" + termo, termo, -1, calcular);
+    }
+
+    /**
+     * Retorna o resultado guardado de uma busca por categoria ou o calcula e o guarda.
+     *
+     * @param codigo O código da categoria registrada.
+     * @param calcular O cálculo do resultado, usado se ele não estiver guardado.
+     * @return Lista imutável com o resultado.
+     */
+    List<Produto> buscarPorCategoria(int codigo, Supplier<List<Produto>> calcular) {
+        return buscar("c" + codigo, null, codigo, calcular);
+    }
+
+    private List<Produto> buscar(String chave, String termo, int codigo, Supplier<List<Produto>> calcular) {
+        if (capacidade == 0) {
+            return Collections.unmodifiableList(calcular.get());
+        }
+        long inicio = versao;
+        synchronized (this) {
+            Entrada entrada = entradas.get(chave);
+            if (entrada != null) {
+                acertos++;
+                return entrada.resultado;
+            }
+            falhas++;
+        }
+
+        List<Produto> resultado = Collections.unmodifiableList(calcular.get());
+        if ((inicio & 1) != 0 || resultado.size() > MAXIMO_PRODUTOS) {
+            return resultado;
+        }
+        synchronized (this) {
+            if (versao == inicio && !entradas.containsKey(chave)) {
+                Entrada entrada = new Entrada(chave, termo, codigo, resultado);
+                indexar(entrada);
+                entradas.put(chave, entrada);
+                despejarExcedente();
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Descarta os resultados usados há mais tempo até a soma dos tamanhos caber no limite.
+     */
+    private void despejarExcedente() {
+        Iterator<Entrada> maisAntigas = entradas.values().iterator();
+        while (produtosGuardados > MAXIMO_PRODUTOS) {
+            Entrada entrada = maisAntigas.next();
+            maisAntigas.remove();
+            desindexar(entrada);
+            despejos++;
+        }
+    }
+
+    /**
+     * Avisa o início de uma alteração; os resultados calculados a partir daqui
+     * não são guardados até o fim dela.
+     *
+     * Deve ser chamado com a trava de alterações do gerenciador.
+     */
+    void iniciarAlteracao() {
+        if (capacidade > 0) {
+            synchronized (this) {
+                versao++;
+            }
+        }
+    }
+
+    /**
+     * Avisa o fim de uma alteração e descarta os resultados que ela pode mudar.
+     *
+     * @param anterior A versão anterior do produto (null em uma criação).
+     * @param nova A nova versão do produto (null em uma exclusão).
+     */
+    void concluirAlteracao(Produto anterior, Produto nova) {
+        if (capacidade > 0) {
+            synchronized (this) {
+                invalidar(anterior);
+                invalidar(nova);
+                versao++;
+            }
+        }
+    }
+
+    /**
+     * Avisa o fim de uma alteração em lote e descarta os resultados que ela pode mudar.
+     *
+     * @param anteriores As versões anteriores dos produtos alterados ou excluídos.
+     * @param novas As novas versões dos produtos criados ou alterados.
+     */
+    void concluirAlteracao(Collection<Produto> anteriores, Collection<Produto> novas) {
+        if (capacidade > 0) {
+            synchronized (this) {
+                if (anteriores.size() + novas.size() > MAIOR_LOTE_PRECISO) {
+                    // Conferir cada produto de um lote tão grande custaria mais que recalcular os resultados
+                    invalidacoes += entradas.size();
+                    descartarTodos();
+                    versao++;
+                    return;
+                }
+                for (Produto produto : anteriores) {
+                    invalidar(produto);
+                }
+                for (Produto produto : novas) {
+                    invalidar(produto);
+                }
+                versao++;
+            }
+        }
+    }
+
+    /**
+     * Descarta todos os resultados.
+     *
+     * Deve ser chamado com a trava de alterações do gerenciador.
+     */
+    synchronized void limpar() {
+        descartarTodos();
+        // Mantém a paridade da versão e impede que um resultado calculado antes seja guardado
+        versao += 2;
+    }
+
+    private void descartarTodos() {
+        entradas.clear();
+        porCategoria.clear();
+        porPrefixo.clear();
+        termosCurtos.clear();
+        produtosGuardados = 0;
+    }
+
+    /**
+     * Retorna as estatísticas do cache.
+     *
+     * @return As estatísticas.
+     */
+    synchronized EstatisticasCache estatisticas() {
+        return new EstatisticasCache(acertos, falhas, despejos, invalidacoes, entradas.size(), capacidade);
+    }
+
+    /**
+     * Descarta os resultados que podem conter uma versão de produto ou passar a contê-la.
+     */
+    private void invalidar(Produto produto) {
+        if (produto == null || entradas.isEmpty()) {
+            return;
+        }
+        List<Entrada> afetadas = new ArrayList<>();
+        Entrada daCategoria = porCategoria.get(produto.getCodigoCategoria());
+        if (daCategoria != null) {
+            afetadas.add(daCategoria);
+        }
+        String nome = produto.getNome().toLowerCase();
+        for (Entrada entrada : termosCurtos) {
+            if (nome.contains(entrada.termo)) {
+                afetadas.add(entrada);
+            }
+        }
+        if (!porPrefixo.isEmpty()) {
+            for (int i = 0; i + TAMANHO_PREFIXO <= nome.length(); i++) {
+                Set<Entrada> grupo = porPrefixo.get(nome.substring(i, i + TAMANHO_PREFIXO));
+                if (grupo == null) {
+                    continue;
+                }
+                for (Entrada entrada : grupo) {
+                    if (nome.startsWith(entrada.termo, i)) {
+                        afetadas.add(entrada);
+                    }
+                }
+            }
+        }
+        for (Entrada entrada : afetadas) {
+            if (entradas.remove(entrada.chave) != null) {
+                desindexar(entrada);
+                invalidacoes++;
+            }
+        }
+    }
+
+    private void indexar(Entrada entrada) {
+        produtosGuardados += entrada.resultado.size();
+        if (entrada.termo == null) {
+            porCategoria.put(entrada.codigo, entrada);
+        } else if (entrada.termo.length() < TAMANHO_PREFIXO) {
+            termosCurtos.add(entrada);
+        } else {
+            porPrefixo.computeIfAbsent(entrada.termo.substring(0, TAMANHO_PREFIXO), p -> new HashSet<>()).add(entrada);
+        }
+    }
+
+    private void desindexar(Entrada entrada) {
+        produtosGuardados -= entrada.resultado.size();
+        if (entrada.termo == null) {
+            porCategoria.remove(entrada.codigo);
+        } else if (entrada.termo.length() < TAMANHO_PREFIXO) {
+            termosCurtos.remove(entrada);
+        } else {
+            String prefixo = entrada.termo.substring(0, TAMANHO_PREFIXO);
+            Set<Entrada> grupo = porPrefixo.get(prefixo);
+            grupo.remove(entrada);
+            if (grupo.isEmpty()) {
+                porPrefixo.remove(prefixo);
+            }
+        }
+    }
+
+    /**
+     * Resultado guardado de uma busca.
+     */
+    private static final class Entrada {
+
+        // Chave do resultado no mapa de entradas
+        private final String chave;
+
+        // Termo da busca por nome (null na busca por categoria) e código da categoria
+        private final String termo;
+        private final int codigo;
+
+        // Resultado imutável da busca
+        private final List<Produto> resultado;
+
+        private Entrada(String chave, String termo, int codigo, List<Produto> resultado) {
+            this.chave = chave;
+            this.termo = termo;
+            this.codigo = codigo;
+            this.resultado = resultado;
+        }
+    }
+}
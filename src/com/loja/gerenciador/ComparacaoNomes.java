@@ -0,0 +1,83 @@
+package com.loja.gerenciador;
+
+/**
+ * Comparação de nomes codificados em UTF-8, sem decodificá-los.
+ *
+ * Usada pelas estruturas que guardam os nomes como bytes ({@link TabelaColunar}
+ * e {@link ArmazemForaDoHeap}) na busca por parte do nome, com o mesmo resultado
+ * de {@code nome.toLowerCase().contains(termo)} para os nomes e termos formados
+ * apenas por caracteres do Latin-1 (até U+00FF), o que inclui as letras
+ * acentuadas do português. Os nomes com outros caracteres devem ser
+ * decodificados e comparados como texto.
+ *
+ * @since 2024
+ */
+final class ComparacaoNomes {
+
+    private ComparacaoNomes() {
+    }
+
+    /**
+     * Verifica se um texto tem apenas caracteres do Latin-1.
+     *
+     * @param texto O texto a ser verificado.
+     * @return true se nenhum caractere estiver acima de U+00FF.
+     */
+    static boolean latin1(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Verifica se um nome Latin-1 em UTF-8 contém o padrão, convertendo as letras
+     * do nome para minúsculas durante a comparação.
+     *
+     * Em UTF-8, as maiúsculas acentuadas de U+00C0 a U+00DE são o byte 0xC3
+     * seguido de 0x80 a 0x9E, e as minúsculas correspondentes ficam 0x20 acima
+     * no segundo byte, como nas letras ASCII (o sinal de multiplicação, 0x97,
+     * não tem minúscula).
+     *
+     * @param texto Vetor com o nome.
+     * @param inicio Posição do primeiro byte do nome.
+     * @param fim Posição logo após o último byte do nome.
+     * @param padrao O padrão em minúsculas, codificado em UTF-8.
+     * @return true se o nome contiver o padrão.
+     */
+    static boolean contem(byte[] texto, int inicio, int fim, byte[] padrao) {
+        if (padrao.length == 0) {
+            return true;
+        }
+        // O padrão começa no início de um caractere, então o primeiro byte só precisa da conversão ASCII
+        byte primeiro = padrao[0];
+        byte primeiroMaiusculo = primeiro >= 'a' && primeiro <= 'z' ? (byte) (primeiro - ('a' - 'A')) : primeiro;
+        int ultimo = fim - padrao.length;
+        for (int i = inicio; i <= ultimo; i++) {
+            byte inicial = texto[i];
+            if (inicial != primeiro && inicial != primeiroMaiusculo) {
+                continue;
+            }
+            int j = 1;
+            while (j < padrao.length) {
+                byte atual = texto[i + j];
+                if (atual >= 'A' && atual <= 'Z') {
+                    atual += 'a' - 'A';
+                } else if (atual >= (byte) 0x80 && atual <= (byte) 0x9E && atual != (byte) 0x97
+                        && texto[i + j - 1] == (byte) 0xC3) {
+                    atual += 0x20;
+                }
+                if (atual != padrao[j]) {
+                    break;
+                }
+                j++;
+            }
+            if (j == padrao.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
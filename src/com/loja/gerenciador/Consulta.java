@@ -0,0 +1,146 @@
+package com.loja.gerenciador;
+
+import com.loja.exception.ValidacaoException;
+import com.loja.modelo.Produto;
+
+import java.util.Comparator;
+
+/**
+ * Consulta composta de produtos: um critério, uma ordem e um limite.
+ *
+ * A `Consulta` é montada a partir de {@link #onde(Criterio)} ou {@link #todos()}
+ * e executada por {@link GerenciadorProdutos#consultar(Consulta)}, que escolhe o
+ * plano de execução. Sem ordem informada, os produtos são devolvidos por ID; sem
+ * limite, todos os produtos aceitos são devolvidos. Em qualquer ordem, os
+ * empates são desfeitos pelo ID, como nos índices ordenados.
+ *
+ * As consultas são imutáveis: cada método devolve uma nova consulta.
+ *
+ * @since 2024
+ */
+public final class Consulta {
+
+    /**
+     * Campos pelos quais o resultado de uma consulta pode ser ordenado.
+     */
+    public enum Campo {
+        ID(Comparator.comparingInt(Produto::getId)),
+        PRECO(Comparator.comparingDouble(Produto::getPreco).thenComparingInt(Produto::getId)),
+        NOME(Comparator.comparing(Produto::getNome).thenComparingInt(Produto::getId)),
+        ESTOQUE(Comparator.comparingInt(Produto::getQuantidadeEstoque).thenComparingInt(Produto::getId));
+
+        // Ordem crescente do campo, com desempate pelo ID
+        private final Comparator<Produto> ordem;
+
+        Campo(Comparator<Produto> ordem) {
+            this.ordem = ordem;
+        }
+    }
+
+    // Critério dos produtos (null para todos)
+    private final Criterio criterio;
+
+    // Campo da ordem e sentido
+    private final Campo campo;
+    private final boolean decrescente;
+
+    // Quantidade máxima de produtos devolvidos
+    private final int limite;
+
+    private Consulta(Criterio criterio, Campo campo, boolean decrescente, int limite) {
+        this.criterio = criterio;
+        this.campo = campo;
+        this.decrescente = decrescente;
+        this.limite = limite;
+    }
+
+    /**
+     * Cria uma consulta pelos produtos aceitos por um critério.
+     *
+     * @param criterio O critério.
+     * @return A consulta, ordenada por ID e sem limite.
+     */
+    public static Consulta onde(Criterio criterio) {
+        return new Consulta(criterio, Campo.ID, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Cria uma consulta por todos os produtos.
+     *
+     * @return A consulta, ordenada por ID e sem limite.
+     */
+    public static Consulta todos() {
+        return new Consulta(null, Campo.ID, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Ordena o resultado por um campo, em ordem crescente.
+     *
+     * @param campo O campo.
+     * @return A nova consulta.
+     */
+    public Consulta ordenarPor(Campo campo) {
+        return new Consulta(criterio, campo, false, limite);
+    }
+
+    /**
+     * Ordena o resultado por um campo, em ordem decrescente.
+     *
+     * @param campo O campo.
+     * @return A nova consulta.
+     */
+    public Consulta ordenarPorDecrescente(Campo campo) {
+        return new Consulta(criterio, campo, true, limite);
+    }
+
+    /**
+     * Limita a quantidade de produtos devolvidos aos primeiros na ordem da consulta.
+     *
+     * @param limite A quantidade máxima de produtos.
+     * @return A nova consulta.
+     * @throws ValidacaoException Se o limite for negativo.
+     */
+    public Consulta limite(int limite) {
+        if (limite < 0) {
+            throw new ValidacaoException("O limite da consulta não pode ser negativo.");
+        }
+        return new Consulta(criterio, campo, decrescente, limite);
+    }
+
+    Criterio criterio() {
+        return criterio;
+    }
+
+    Campo campo() {
+        return campo;
+    }
+
+    boolean decrescente() {
+        return decrescente;
+    }
+
+    int limite() {
+        return limite;
+    }
+
+    /**
+     * Retorna a ordem do resultado, com desempate pelo ID no mesmo sentido.
+     *
+     * @return O comparador da ordem.
+     */
+    Comparator<Produto> ordem() {
+        return decrescente ? campo.ordem.reversed() : campo.ordem;
+    }
+
+    /**
+     * Retorna uma representação em formato de string da consulta.
+     *
+     * @return String com o critério, a ordem e o limite.
+     */
+    @Override
+    public String toString() {
+        return (criterio == null ? "todos" : criterio.toString()) + " ordenado por " + campo
+                + (decrescente ? " decrescente" : "")
+                + (limite == Integer.MAX_VALUE ? "" : " limite " + limite);
+    }
+}
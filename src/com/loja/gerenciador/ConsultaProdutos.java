@@ -0,0 +1,94 @@
+package com.loja.gerenciador;
+
+import com.loja.exception.ValidacaoException;
+import com.loja.modelo.Produto;
+
+import java.util.List;
+
+/**
+ * Consultas sobre um catálogo de produtos.
+ *
+ * A `ConsultaProdutos` reúne as consultas do `GerenciadorProdutos`, de modo que o
+ * mesmo código de consulta possa usar tanto o gerenciador quanto uma
+ * {@link TabelaColunar} montada a partir dele. As listas devolvidas são
+ * imutáveis.
+ *
+ * @since 2024
+ */
+public interface ConsultaProdutos {
+
+    /**
+     * Busca um produto pelo seu ID.
+     *
+     * @param id O ID do produto a ser buscado.
+     * @return O produto encontrado ou null se não houver produto com o ID fornecido.
+     */
+    Produto buscarPorId(int id);
+
+    /**
+     * Retorna uma lista com todos os produtos ordenados por ID.
+     *
+     * @return A lista de todos os produtos.
+     */
+    List<Produto> listarTodosPorID();
+
+    /**
+     * Retorna uma lista com todos os produtos ordenados por preço (e por ID, em caso de empate).
+     *
+     * @return A lista de todos os produtos.
+     */
+    List<Produto> listarTodosPorPreco();
+
+    /**
+     * Retorna uma lista com todos os produtos ordenados por nome (e por ID, em caso de empate).
+     *
+     * @return A lista de todos os produtos.
+     */
+    List<Produto> listarTodosPorNome();
+
+    /**
+     * Busca produtos cujo nome contenha a string fornecida, ignorando diferenças
+     * de maiúsculas e minúsculas.
+     *
+     * @param nome O nome ou parte do nome do produto a ser buscado.
+     * @return A lista de produtos encontrados, ordenada por ID.
+     */
+    List<Produto> buscarPorNome(String nome);
+
+    /**
+     * Busca produtos pela categoria, ignorando diferenças de maiúsculas e
+     * minúsculas e espaços nas pontas.
+     *
+     * @param categoria A categoria do produto a ser buscado.
+     * @return A lista de produtos pertencentes à categoria, ordenada por ID.
+     */
+    List<Produto> buscarPorCategoria(String categoria);
+
+    /**
+     * Busca produtos dentro de uma faixa de preço, em ordem crescente de preço.
+     *
+     * @param precoMinimo O preço mínimo da faixa.
+     * @param precoMaximo O preço máximo da faixa.
+     * @return Lista de produtos dentro da faixa de preço.
+     */
+    List<Produto> buscarPorFaixaDePreco(double precoMinimo, double precoMaximo);
+
+    /**
+     * Busca uma página de produtos dentro de uma faixa de preço, em ordem crescente de preço.
+     *
+     * @param faixa A faixa de preço, que pode ser aberta em qualquer um dos lados.
+     * @param deslocamento Quantidade de produtos da faixa a serem pulados.
+     * @param limite Quantidade máxima de produtos a serem retornados.
+     * @return Lista de produtos da página.
+     * @throws ValidacaoException Se o deslocamento ou o limite forem negativos.
+     */
+    List<Produto> buscarPorFaixaDePreco(FaixaDePreco faixa, int deslocamento, int limite);
+
+    /**
+     * Conta os produtos dentro de uma faixa de preço.
+     *
+     * @param faixa A faixa de preço, que pode ser aberta em qualquer um dos lados.
+     * @return A quantidade de produtos dentro da faixa.
+     */
+    int contarPorFaixaDePreco(FaixaDePreco faixa);
+}
@@ -0,0 +1,440 @@
+package com.loja.gerenciador;
+
+import com.loja.modelo.DicionarioCategorias;
+import com.loja.modelo.Produto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Critério de seleção de produtos usado nas consultas compostas.
+ *
+ * Os critérios simples são criados pelos métodos estáticos (categoria, faixa de
+ * preço, parte do nome, estoque mínimo ou um filtro qualquer) e combinados com
+ * {@link #e(Criterio)} e {@link #ou(Criterio)}. Além de avaliar um produto, cada
+ * critério informa ao {@link PlanejadorConsultas} qual índice pode selecionar os
+ * seus candidatos: o grupo da categoria, o índice de trigramas ou o índice por
+ * preço. Os critérios de estoque e os filtros quaisquer não têm índice e só são
+ * avaliados sobre os candidatos escolhidos por outro critério ou em uma
+ * varredura.
+ *
+ * Os critérios podem ser reaproveitados em várias consultas e avaliados por
+ * várias threads ao mesmo tempo.
+ *
+ * @since 2024
+ */
+public abstract class Criterio implements Predicate<Produto> {
+
+    Criterio() {
+    }
+
+    /**
+     * Seleciona os produtos de uma categoria (case insensitive).
+     *
+     * @param categoria O nome da categoria.
+     * @return O critério.
+     */
+    public static Criterio categoria(String categoria) {
+        return new Categoria(categoria);
+    }
+
+    /**
+     * Seleciona os produtos com preço entre dois valores (inclusivos).
+     *
+     * @param precoMinimo O preço mínimo.
+     * @param precoMaximo O preço máximo.
+     * @return O critério.
+     */
+    public static Criterio precoEntre(double precoMinimo, double precoMaximo) {
+        return faixaDePreco(FaixaDePreco.entre(precoMinimo, precoMaximo));
+    }
+
+    /**
+     * Seleciona os produtos com preço dentro de uma faixa.
+     *
+     * @param faixa A faixa de preço, que pode ser aberta em qualquer um dos lados.
+     * @return O critério.
+     */
+    public static Criterio faixaDePreco(FaixaDePreco faixa) {
+        return new Faixa(faixa);
+    }
+
+    /**
+     * Seleciona os produtos cujo nome contenha um texto, ignorando diferenças de
+     * maiúsculas e minúsculas, como {@link GerenciadorProdutos#buscarPorNome(String)}.
+     *
+     * @param texto O texto buscado no nome.
+     * @return O critério.
+     */
+    public static Criterio nomeContem(String texto) {
+        return new Nome(texto);
+    }
+
+    /**
+     * Seleciona os produtos com pelo menos uma quantidade em estoque.
+     *
+     * @param quantidade A quantidade mínima em estoque.
+     * @return O critério.
+     */
+    public static Criterio estoqueMinimo(int quantidade) {
+        return new EstoqueMinimo(quantidade);
+    }
+
+    /**
+     * Seleciona os produtos com no máximo uma quantidade em estoque.
+     *
+     * @param quantidade A quantidade máxima em estoque.
+     * @return O critério.
+     */
+    public static Criterio estoqueMaximo(int quantidade) {
+        return new EstoqueMaximo(quantidade);
+    }
+
+    /**
+     * Seleciona os produtos aceitos por um filtro qualquer, que nunca usa índice.
+     *
+     * @param filtro O filtro, que pode ser chamado por várias threads ao mesmo tempo.
+     * @return O critério.
+     */
+    public static Criterio quando(Predicate<Produto> filtro) {
+        return new Filtro(filtro);
+    }
+
+    /**
+     * Combina este critério com outro, exigindo os dois.
+     *
+     * @param outro O outro critério.
+     * @return O critério que aceita os produtos aceitos pelos dois.
+     */
+    public Criterio e(Criterio outro) {
+        List<Criterio> partes = new ArrayList<>();
+        E.juntar(this, partes);
+        E.juntar(outro, partes);
+        return new E(partes);
+    }
+
+    /**
+     * Combina este critério com outro, exigindo qualquer um dos dois.
+     *
+     * @param outro O outro critério.
+     * @return O critério que aceita os produtos aceitos por pelo menos um dos dois.
+     */
+    public Criterio ou(Criterio outro) {
+        List<Criterio> partes = new ArrayList<>();
+        Ou.juntar(this, partes);
+        Ou.juntar(outro, partes);
+        return new Ou(partes);
+    }
+
+    /**
+     * Retorna o melhor acesso por índice aos candidatos deste critério.
+     *
+     * @param planejador O planejador que monta os acessos.
+     * @return O acesso, ou null se os candidatos só puderem ser encontrados por varredura.
+     */
+    abstract PlanejadorConsultas.Acesso acesso(PlanejadorConsultas planejador);
+
+    /**
+     * Retorna a faixa de preço que contém todos os produtos aceitos por este critério.
+     *
+     * @return A faixa, ou null se o critério não limitar o preço.
+     */
+    FaixaDePreco faixaDePreco() {
+        return null;
+    }
+
+    private static final class Categoria extends Criterio {
+
+        // Nome da categoria como informado
+        private final String nome;
+
+        // Código da categoria, buscado de novo enquanto ela não estiver registrada
+        private int codigo;
+
+        private Categoria(String nome) {
+            this.nome = nome;
+            this.codigo = DicionarioCategorias.buscarCodigo(nome);
+        }
+
+        private int codigo() {
+            if (codigo < 0) {
+                codigo = DicionarioCategorias.buscarCodigo(nome);
+            }
+            return codigo;
+        }
+
+        @Override
+        public boolean test(Produto produto) {
+            int atual = codigo();
+            return atual >= 0 && produto.getCodigoCategoria() == atual;
+        }
+
+        @Override
+        PlanejadorConsultas.Acesso acesso(PlanejadorConsultas planejador) {
+            return planejador.porCategoria(nome, codigo());
+        }
+
+        @Override
+        public String toString() {
+            return "categoria = '" + nome + "'";
+        }
+    }
+
+    private static final class Faixa extends Criterio {
+
+        // Faixa de preço aceita
+        private final FaixaDePreco faixa;
+
+        private Faixa(FaixaDePreco faixa) {
+            this.faixa = faixa;
+        }
+
+        @Override
+        public boolean test(Produto produto) {
+            return faixa.contem(produto.getPreco());
+        }
+
+        @Override
+        PlanejadorConsultas.Acesso acesso(PlanejadorConsultas planejador) {
+            return planejador.porFaixa(faixa);
+        }
+
+        @Override
+        FaixaDePreco faixaDePreco() {
+            return faixa;
+        }
+
+        @Override
+        public String toString() {
+            return "preço em " + faixa;
+        }
+    }
+
+    private static final class Nome extends Criterio {
+
+        // Texto como informado e em minúsculas, para a comparação
+        private final String texto;
+        private final String termo;
+
+        private Nome(String texto) {
+            this.texto = texto;
+            this.termo = texto.toLowerCase();
+        }
+
+        @Override
+        public boolean test(Produto produto) {
+            return produto.getNome().toLowerCase().contains(termo);
+        }
+
+        @Override
+        PlanejadorConsultas.Acesso acesso(PlanejadorConsultas planejador) {
+            return planejador.porNome(texto);
+        }
+
+        @Override
+        public String toString() {
+            return "nome contém '" + texto + "'";
+        }
+    }
+
+    private static final class EstoqueMinimo extends Criterio {
+
+        // Quantidade mínima em estoque
+        private final int quantidade;
+
+        private EstoqueMinimo(int quantidade) {
+            this.quantidade = quantidade;
+        }
+
+        @Override
+        public boolean test(Produto produto) {
+            return produto.getQuantidadeEstoque() >= quantidade;
+        }
+
+        @Override
+        PlanejadorConsultas.Acesso acesso(PlanejadorConsultas planejador) {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return "estoque >= " + quantidade;
+        }
+    }
+
+    private static final class EstoqueMaximo extends Criterio {
+
+        // Quantidade máxima em estoque
+        private final int quantidade;
+
+        private EstoqueMaximo(int quantidade) {
+            this.quantidade = quantidade;
+        }
+
+        @Override
+        public boolean test(Produto produto) {
+            return produto.getQuantidadeEstoque() <= quantidade;
+        }
+
+        @Override
+        PlanejadorConsultas.Acesso acesso(PlanejadorConsultas planejador) {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return "estoque <= " + quantidade;
+        }
+    }
+
+    private static final class Filtro extends Criterio {
+
+        // Filtro informado
+        private final Predicate<Produto> filtro;
+
+        private Filtro(Predicate<Produto> filtro) {
+            this.filtro = filtro;
+        }
+
+        @Override
+        public boolean test(Produto produto) {
+            return filtro.test(produto);
+        }
+
+        @Override
+        PlanejadorConsultas.Acesso acesso(PlanejadorConsultas planejador) {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return "filtro";
+        }
+    }
+
+    private static final class E extends Criterio {
+
+        // Critérios exigidos, sem outros critérios E aninhados
+        private final Criterio[] partes;
+
+        private E(List<Criterio> partes) {
+            this.partes = partes.toArray(new Criterio[0]);
+        }
+
+        private static void juntar(Criterio criterio, List<Criterio> destino) {
+            if (criterio instanceof E) {
+                destino.addAll(List.of(((E) criterio).partes));
+            } else {
+                destino.add(criterio);
+            }
+        }
+
+        @Override
+        public boolean test(Produto produto) {
+            for (Criterio parte : partes) {
+                if (!parte.test(produto)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Escolhe, entre os acessos das partes, o que deve trazer menos candidatos;
+         * as demais partes são avaliadas sobre eles.
+         */
+        @Override
+        PlanejadorConsultas.Acesso acesso(PlanejadorConsultas planejador) {
+            List<PlanejadorConsultas.Acesso> acessos = new ArrayList<>(partes.length);
+            for (Criterio parte : partes) {
+                PlanejadorConsultas.Acesso acesso = parte.acesso(planejador);
+                if (acesso != null) {
+                    acessos.add(acesso);
+                }
+            }
+            return acessos.isEmpty() ? null : planejador.intersecao(acessos);
+        }
+
+        @Override
+        FaixaDePreco faixaDePreco() {
+            FaixaDePreco resultado = null;
+            for (Criterio parte : partes) {
+                FaixaDePreco faixa = parte.faixaDePreco();
+                if (faixa == null) {
+                    continue;
+                }
+                resultado = resultado == null ? faixa : FaixaDePreco.entre(
+                        Math.max(resultado.getPrecoMinimo(), faixa.getPrecoMinimo()),
+                        Math.min(resultado.getPrecoMaximo(), faixa.getPrecoMaximo()));
+            }
+            return resultado;
+        }
+
+        @Override
+        public String toString() {
+            return juntarTexto(partes, " E ");
+        }
+    }
+
+    private static final class Ou extends Criterio {
+
+        // Critérios alternativos, sem outros critérios OU aninhados
+        private final Criterio[] partes;
+
+        private Ou(List<Criterio> partes) {
+            this.partes = partes.toArray(new Criterio[0]);
+        }
+
+        private static void juntar(Criterio criterio, List<Criterio> destino) {
+            if (criterio instanceof Ou) {
+                destino.addAll(List.of(((Ou) criterio).partes));
+            } else {
+                destino.add(criterio);
+            }
+        }
+
+        @Override
+        public boolean test(Produto produto) {
+            for (Criterio parte : partes) {
+                if (parte.test(produto)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Une os candidatos das partes; se alguma parte não tiver índice, a
+         * alternativa só pode ser avaliada por varredura.
+         */
+        @Override
+        PlanejadorConsultas.Acesso acesso(PlanejadorConsultas planejador) {
+            List<PlanejadorConsultas.Acesso> acessos = new ArrayList<>(partes.length);
+            for (Criterio parte : partes) {
+                PlanejadorConsultas.Acesso acesso = parte.acesso(planejador);
+                if (acesso == null) {
+                    return null;
+                }
+                acessos.add(acesso);
+            }
+            return planejador.uniao(acessos);
+        }
+
+        @Override
+        public String toString() {
+            return juntarTexto(partes, " OU ");
+        }
+    }
+
+    private static String juntarTexto(Criterio[] partes, String separador) {
+        StringBuilder texto = new StringBuilder("(");
+        for (int i = 0; i < partes.length; i++) {
+            if (i > 0) {
+                texto.append(separador);
+            }
+            texto.append(partes[i]);
+        }
+        return texto.append(')').toString();
+    }
+}
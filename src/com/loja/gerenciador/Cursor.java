@@ -0,0 +1,136 @@
+package com.loja.gerenciador;
+
+import com.loja.exception.ValidacaoException;
+import com.loja.modelo.Produto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posição de uma listagem paginada: a chave de ordenação do último produto entregue.
+ *
+ * Ao contrário de um deslocamento, o `Cursor` não guarda a posição numérica do
+ * produto, e sim os valores que o ordenam (o ID e, conforme a ordem, o nome ou o
+ * preço). A página seguinte começa no primeiro produto posterior a essa chave
+ * no instantâneo atual, localizado em O(log n) no índice da ordem. Assim, a
+ * listagem não repete nem pula produtos quando outros são criados ou excluídos
+ * entre uma página e outra, e continuar do meio de um catálogo grande custa o
+ * mesmo que começar do início.
+ *
+ * O cursor pode ser convertido em um texto opaco por {@link #codificar()}, para
+ * ser devolvido a um cliente e recebido de volta por {@link #decodificar(String)}.
+ *
+ * Esta classe é imutável.
+ *
+ * @since 2024
+ */
+public final class Cursor {
+
+    // Ordem da listagem
+    private final OrdemListagem ordem;
+
+    // Chave do último produto entregue: ID e, conforme a ordem, nome ou preço
+    private final int id;
+    private final String nome;
+    private final double preco;
+
+    private Cursor(OrdemListagem ordem, int id, String nome, double preco) {
+        this.ordem = ordem;
+        this.id = id;
+        this.nome = nome;
+        this.preco = preco;
+    }
+
+    /**
+     * Cria o cursor que continua uma listagem logo após um produto.
+     *
+     * @param ordem A ordem da listagem.
+     * @param ultimo O último produto já entregue.
+     * @return O cursor posicionado após o produto.
+     */
+    public static Cursor apos(OrdemListagem ordem, Produto ultimo) {
+        return new Cursor(ordem, ultimo.getId(),
+                ordem == OrdemListagem.NOME ? ultimo.getNome() : null,
+                ordem == OrdemListagem.PRECO ? ultimo.getPreco() : 0);
+    }
+
+    /**
+     * Retorna a ordem da listagem deste cursor.
+     *
+     * @return A ordem.
+     */
+    public OrdemListagem getOrdem() {
+        return ordem;
+    }
+
+    /**
+     * Indica se um produto vem na listagem até a posição do cursor (inclusive),
+     * isto é, se já foi entregue antes dele.
+     *
+     * @param produto O produto.
+     * @return true se o produto não vem depois da chave do cursor.
+     */
+    boolean alcancou(Produto produto) {
+        int comparacao = switch (ordem) {
+            case ID -> 0;
+            case NOME -> produto.getNome().compareTo(nome);
+            case PRECO -> Double.compare(produto.getPreco(), preco);
+        };
+        return comparacao < 0 || (comparacao == 0 && produto.getId() <= id);
+    }
+
+    /**
+     * Converte o cursor em um texto opaco, seguro para URLs.
+     *
+     * @return O texto que representa o cursor.
+     */
+    public String codificar() {
+        String chave = switch (ordem) {
+            case ID -> "I|" + id;
+            case NOME -> "N|" + id + "|" + nome;
+            case PRECO -> "P|" + id + "|" + preco;
+        };
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(chave.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Recupera o cursor representado por um texto gerado por {@link #codificar()}.
+     *
+     * @param texto O texto do cursor.
+     * @return O cursor.
+     * @throws ValidacaoException Se o texto não representar um cursor.
+     */
+    public static Cursor decodificar(String texto) {
+        try {
+            String chave = new String(Base64.getUrlDecoder().decode(texto), StandardCharsets.UTF_8);
+            String[] partes = chave.split("\\|", 3);
+            int id = Integer.parseInt(partes[1]);
+            switch (partes[0]) {
+                case "I":
+                    return new Cursor(OrdemListagem.ID, id, null, 0);
+                case "N":
+                    return new Cursor(OrdemListagem.NOME, id, partes[2], 0);
+                case "P":
+                    return new Cursor(OrdemListagem.PRECO, id, null, Double.parseDouble(partes[2]));
+                default:
+                    throw new IllegalArgumentException(partes[0]);
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new ValidacaoException("Cursor inválido: " + texto);
+        }
+    }
+
+    /**
+     * Retorna uma representação em formato de string do cursor.
+     *
+     * @return String com a ordem e a chave do último produto entregue.
+     */
+    @Override
+    public String toString() {
+        return "Após " + switch (ordem) {
+            case ID -> "ID " + id;
+            case NOME -> "'" + nome + "' (ID " + id + ")";
+            case PRECO -> "R$ " + preco + " (ID " + id + ")";
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package com.loja.gerenciador;
+
+/**
+ * Estatísticas do cache de resultados das buscas por nome e por categoria.
+ *
+ * @since 2024
+ */
+public class EstatisticasCache {
+
+    // Buscas respondidas pelo cache e buscas calculadas
+    private final long acertos;
+    private final long falhas;
+
+    // Resultados descartados por falta de espaço e por alterações nos produtos
+    private final long despejos;
+    private final long invalidacoes;
+
+    // Quantidade de resultados guardados e capacidade do cache
+    private final int tamanho;
+    private final int capacidade;
+
+    EstatisticasCache(long acertos, long falhas, long despejos, long invalidacoes, int tamanho, int capacidade) {
+        this.acertos = acertos;
+        this.falhas = falhas;
+        this.despejos = despejos;
+        this.invalidacoes = invalidacoes;
+        this.tamanho = tamanho;
+        this.capacidade = capacidade;
+    }
+
+    /**
+     * Retorna a quantidade de buscas respondidas pelo cache.
+     *
+     * @return Quantidade de acertos.
+     */
+    public long getAcertos() {
+        return acertos;
+    }
+
+    /**
+     * Retorna a quantidade de buscas que não estavam no cache e foram calculadas.
+     *
+     * @return Quantidade de falhas.
+     */
+    public long getFalhas() {
+        return falhas;
+    }
+
+    /**
+     * Retorna a quantidade de resultados descartados para abrir espaço a outros.
+     *
+     * @return Quantidade de despejos.
+     */
+    public long getDespejos() {
+        return despejos;
+    }
+
+    /**
+     * Retorna a quantidade de resultados descartados porque uma alteração poderia mudá-los.
+     *
+     * @return Quantidade de invalidações.
+     */
+    public long getInvalidacoes() {
+        return invalidacoes;
+    }
+
+    /**
+     * Retorna a quantidade de resultados guardados no cache.
+     *
+     * @return Quantidade de resultados.
+     */
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna a quantidade máxima de resultados guardados no cache.
+     *
+     * @return A capacidade (0 se o cache estiver desativado).
+     */
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    /**
+     * Retorna a fração das buscas respondidas pelo cache.
+     *
+     * @return A taxa de acerto, entre 0 e 1 (0 se não houve buscas).
+     */
+    public double getTaxaDeAcerto() {
+        long total = acertos + falhas;
+        return total == 0 ? 0 : (double) acertos / total;
+    }
+
+    /**
+     * Retorna uma representação em formato de string das estatísticas.
+     *
+     * @return String com os contadores e a taxa de acerto.
+     */
+    @Override
+    public String toString() {
+        return "Acertos: " + acertos + " | Falhas: " + falhas
+                + " | Taxa de acerto: " + String.format("%.1f%%", getTaxaDeAcerto() * 100)
+                + " | Despejos: " + despejos + " | Invalidações: " + invalidacoes
+                + " | Resultados: " + tamanho + "/" + capacidade;
+    }
+}
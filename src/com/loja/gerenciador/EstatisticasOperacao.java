@@ -0,0 +1,156 @@
+package com.loja.gerenciador;
+
+/**
+ * Quantidade de execuções e latências de uma operação do gerenciador de produtos.
+ *
+ * As latências estão em nanossegundos; os percentis são o maior valor da faixa
+ * do {@link HistogramaLatencia} em que caem, com erro relativo menor que 1,6%.
+ * Nas operações cronometradas por amostragem, a quantidade conta todas as
+ * execuções, os percentis e o máximo vêm da amostra e a soma é estimada a partir
+ * da média da amostra.
+ *
+ * @since 2024
+ */
+public class EstatisticasOperacao {
+
+    // Nome da operação
+    private final String operacao;
+
+    // Quantidade de execuções e de execuções cronometradas
+    private final long quantidade;
+    private final long amostras;
+
+    // Soma das latências, percentis 50, 90, 99 e 99,9 e maior latência, em nanossegundos
+    private final long soma;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+    private final long maximo;
+
+    EstatisticasOperacao(String operacao, long quantidade, long amostras, long soma, long p50, long p90, long p99,
+                         long p999, long maximo) {
+        this.operacao = operacao;
+        this.quantidade = quantidade;
+        this.amostras = amostras;
+        this.soma = soma;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.maximo = maximo;
+    }
+
+    /**
+     * Retorna o nome da operação, igual ao do método do gerenciador.
+     *
+     * @return Nome da operação.
+     */
+    public String getOperacao() {
+        return operacao;
+    }
+
+    /**
+     * Retorna a quantidade de execuções da operação.
+     *
+     * @return Quantidade de execuções.
+     */
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Retorna a quantidade de execuções cronometradas, das quais vêm as latências.
+     *
+     * @return Quantidade de execuções cronometradas.
+     */
+    public long getAmostras() {
+        return amostras;
+    }
+
+    /**
+     * Retorna a soma das latências de todas as execuções.
+     *
+     * @return Soma, em nanossegundos.
+     */
+    public long getSoma() {
+        return soma;
+    }
+
+    /**
+     * Retorna a latência média.
+     *
+     * @return Média, em nanossegundos (0 se não houver execuções).
+     */
+    public long getMedia() {
+        return quantidade == 0 ? 0 : soma / quantidade;
+    }
+
+    /**
+     * Retorna a mediana das latências.
+     *
+     * @return Percentil 50, em nanossegundos.
+     */
+    public long getP50() {
+        return p50;
+    }
+
+    /**
+     * Retorna o percentil 90 das latências.
+     *
+     * @return Percentil 90, em nanossegundos.
+     */
+    public long getP90() {
+        return p90;
+    }
+
+    /**
+     * Retorna o percentil 99 das latências.
+     *
+     * @return Percentil 99, em nanossegundos.
+     */
+    public long getP99() {
+        return p99;
+    }
+
+    /**
+     * Retorna o percentil 99,9 das latências.
+     *
+     * @return Percentil 99,9, em nanossegundos.
+     */
+    public long getP999() {
+        return p999;
+    }
+
+    /**
+     * Retorna a maior latência medida.
+     *
+     * @return Maior latência, em nanossegundos.
+     */
+    public long getMaximo() {
+        return maximo;
+    }
+
+    /**
+     * Estende as latências de uma amostra a uma quantidade maior de execuções,
+     * estimando a soma pela média da amostra.
+     *
+     * @param execucoes A quantidade total de execuções.
+     * @return As estatísticas com a quantidade e a soma estimada.
+     */
+    EstatisticasOperacao extrapolar(long execucoes) {
+        long estimada = amostras == 0 ? 0 : (long) ((double) soma * execucoes / amostras);
+        return new EstatisticasOperacao(operacao, execucoes, amostras, estimada, p50, p90, p99, p999, maximo);
+    }
+
+    /**
+     * Retorna uma representação em formato de string das estatísticas.
+     *
+     * @return String com a quantidade e as latências em microssegundos.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: %d execuções | média %.1f us | p50 %.1f us | p99 %.1f us | máx. %.1f us",
+                operacao, quantidade, getMedia() / 1e3, p50 / 1e3, p99 / 1e3, maximo / 1e3);
+    }
+}
@@ -0,0 +1,166 @@
+package com.loja.gerenciador;
+
+import com.loja.indice.IndiceOrdenado;
+import com.loja.modelo.Produto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+/**
+ * Executor das consultas sem índice, que avaliam um filtro sobre todos os produtos.
+ *
+ * O `ExecutorConsultas` percorre o índice ordenado por ID de um instantâneo.
+ * Os primeiros produtos são sempre avaliados em sequência, e o tempo gasto neles
+ * estima o custo do restante da varredura: se ele for pequeno (catálogo pequeno
+ * ou filtro barato), a varredura continua em sequência; caso contrário, o
+ * restante do índice é dividido em partes contíguas, avaliadas em paralelo em um
+ * `ForkJoinPool`. Cada parte começa na sua posição do índice em O(log n), e os
+ * resultados das partes são concatenados na ordem delas, de modo que o
+ * resultado final fica em ordem de ID, como na varredura sequencial.
+ *
+ * Como o instantâneo é imutável, as partes não precisam de nenhuma trava. O
+ * filtro é chamado por várias threads ao mesmo tempo e não deve depender de
+ * estado compartilhado sem sincronização.
+ *
+ * @since 2024
+ */
+public final class ExecutorConsultas {
+
+    // Produtos avaliados em sequência antes de estimar o custo da varredura
+    private static final int AMOSTRA = 256;
+
+    // Custo estimado do restante da varredura, em nanossegundos, a partir do qual ela é dividida
+    private static final long LIMIAR_PARALELO_NANOS = 500_000;
+
+    // Menor quantidade de produtos de uma parte
+    private static final int TAMANHO_MINIMO_PARTE = 4096;
+
+    // Partes por thread do pool, para equilibrar partes com custos diferentes
+    private static final int PARTES_POR_THREAD = 4;
+
+    // Pool que executa as partes
+    private final ForkJoinPool pool;
+
+    /**
+     * Cria um executor que usa o pool comum do `ForkJoinPool`.
+     */
+    public ExecutorConsultas() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Cria um executor que usa o pool informado.
+     *
+     * @param pool O pool que executa as partes das varreduras paralelas.
+     */
+    public ExecutorConsultas(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Retorna os produtos de um instantâneo aceitos por um filtro, em ordem de ID.
+     *
+     * @param instantaneo O instantâneo percorrido.
+     * @param filtro O filtro, que pode ser chamado por várias threads ao mesmo tempo.
+     * @return Lista com os produtos aceitos, ordenada por ID.
+     */
+    public List<Produto> filtrar(Instantaneo instantaneo, Predicate<Produto> filtro) {
+        IndiceOrdenado indice = instantaneo.indicePorId();
+        int tamanho = indice.tamanho();
+        int amostra = Math.min(AMOSTRA, tamanho);
+
+        List<Produto> resultado = new ArrayList<>();
+        long inicio = System.nanoTime();
+        avaliar(indice, filtro, 0, amostra, resultado);
+        long custoAmostra = System.nanoTime() - inicio;
+
+        int restantes = tamanho - amostra;
+        int partes = Math.min(restantes / TAMANHO_MINIMO_PARTE, pool.getParallelism() * PARTES_POR_THREAD);
+        double custoEstimado = (double) custoAmostra / Math.max(1, amostra) * restantes;
+        if (pool.getParallelism() < 2 || partes < 2 || custoEstimado < LIMIAR_PARALELO_NANOS) {
+            avaliar(indice, filtro, amostra, tamanho, resultado);
+            return resultado;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<Produto>[] resultados = new List[partes];
+        pool.invoke(new Partes(indice, filtro, amostra, restantes, 0, partes, resultados));
+        for (List<Produto> parte : resultados) {
+            resultado.addAll(parte);
+        }
+        return resultado;
+    }
+
+    /**
+     * Avalia o filtro sobre um intervalo de posições do índice, em ordem.
+     *
+     * @param indice O índice ordenado por ID.
+     * @param filtro O filtro.
+     * @param inicio A primeira posição (inclusiva).
+     * @param fim A posição final (exclusiva).
+     * @param destino Lista que recebe os produtos aceitos.
+     */
+    private static void avaliar(IndiceOrdenado indice, Predicate<Produto> filtro, int inicio, int fim,
+                                List<Produto> destino) {
+        for (Produto produto : indice.visao(inicio, fim)) {
+            if (filtro.test(produto)) {
+                destino.add(produto);
+            }
+        }
+    }
+
+    /**
+     * Tarefa que avalia um grupo de partes consecutivas, dividindo-o ao meio até
+     * chegar a uma única parte.
+     */
+    private static final class Partes extends RecursiveAction {
+
+        // Versão da classe para serialização
+        private static final long serialVersionUID = 1L;
+
+        // Índice percorrido e filtro avaliado
+        private final IndiceOrdenado indice;
+        private final Predicate<Produto> filtro;
+
+        // Posição da primeira parte no índice e quantidade de produtos de todas as partes
+        private final int base;
+        private final int total;
+
+        // Grupo de partes desta tarefa (primeira inclusiva, última exclusiva)
+        private final int primeira;
+        private final int ultima;
+
+        // Resultados de todas as partes, indexados pela parte
+        private final List<Produto>[] resultados;
+
+        private Partes(IndiceOrdenado indice, Predicate<Produto> filtro, int base, int total,
+                       int primeira, int ultima, List<Produto>[] resultados) {
+            this.indice = indice;
+            this.filtro = filtro;
+            this.base = base;
+            this.total = total;
+            this.primeira = primeira;
+            this.ultima = ultima;
+            this.resultados = resultados;
+        }
+
+        @Override
+        protected void compute() {
+            if (ultima - primeira > 1) {
+                int meio = (primeira + ultima) >>> 1;
+                invokeAll(new Partes(indice, filtro, base, total, primeira, meio, resultados),
+                        new Partes(indice, filtro, base, total, meio, ultima, resultados));
+                return;
+            }
+            int partes = resultados.length;
+            int inicio = base + (int) ((long) total * primeira / partes);
+            int fim = base + (int) ((long) total * ultima / partes);
+            List<Produto> encontrados = new ArrayList<>();
+            avaliar(indice, filtro, inicio, fim, encontrados);
+            resultados[primeira] = encontrados;
+        }
+    }
+}
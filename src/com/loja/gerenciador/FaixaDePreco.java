@@ -0,0 +1,98 @@
+package com.loja.gerenciador;
+
+/**
+ * Representa uma faixa de preço usada nas consultas do gerenciador.
+ *
+ * A `FaixaDePreco` define um limite mínimo e um limite máximo, ambos inclusivos.
+ * Qualquer um dos limites pode ser omitido, formando faixas abertas como
+ * "a partir de R$ 10" ou "até R$ 50". Uma faixa com mínimo maior que o máximo
+ * é válida, mas não contém nenhum preço.
+ *
+ * @since 2024
+ */
+public class FaixaDePreco {
+
+    // Limites da faixa (infinitos quando o limite é aberto)
+    private final double precoMinimo;
+    private final double precoMaximo;
+
+    /**
+     * Constrói uma faixa de preço com os limites fornecidos (inclusivos).
+     *
+     * @param precoMinimo O preço mínimo da faixa.
+     * @param precoMaximo O preço máximo da faixa.
+     */
+    public FaixaDePreco(double precoMinimo, double precoMaximo) {
+        this.precoMinimo = precoMinimo;
+        this.precoMaximo = precoMaximo;
+    }
+
+    /**
+     * Cria uma faixa entre dois preços (inclusivos).
+     *
+     * @param precoMinimo O preço mínimo da faixa.
+     * @param precoMaximo O preço máximo da faixa.
+     * @return A faixa de preço.
+     */
+    public static FaixaDePreco entre(double precoMinimo, double precoMaximo) {
+        return new FaixaDePreco(precoMinimo, precoMaximo);
+    }
+
+    /**
+     * Cria uma faixa aberta com apenas o preço mínimo.
+     *
+     * @param precoMinimo O preço mínimo da faixa.
+     * @return A faixa de preço.
+     */
+    public static FaixaDePreco aPartirDe(double precoMinimo) {
+        return new FaixaDePreco(precoMinimo, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Cria uma faixa aberta com apenas o preço máximo.
+     *
+     * @param precoMaximo O preço máximo da faixa.
+     * @return A faixa de preço.
+     */
+    public static FaixaDePreco ate(double precoMaximo) {
+        return new FaixaDePreco(Double.NEGATIVE_INFINITY, precoMaximo);
+    }
+
+    /**
+     * Retorna o preço mínimo da faixa.
+     *
+     * @return Preço mínimo (ou infinito negativo se a faixa for aberta).
+     */
+    public double getPrecoMinimo() {
+        return precoMinimo;
+    }
+
+    /**
+     * Retorna o preço máximo da faixa.
+     *
+     * @return Preço máximo (ou infinito positivo se a faixa for aberta).
+     */
+    public double getPrecoMaximo() {
+        return precoMaximo;
+    }
+
+    /**
+     * Verifica se um preço pertence à faixa.
+     *
+     * @param preco O preço a ser verificado.
+     * @return true se o preço estiver entre os limites, false caso contrário.
+     */
+    public boolean contem(double preco) {
+        return preco >= precoMinimo && preco <= precoMaximo;
+    }
+
+    /**
+     * Retorna uma representação em formato de string da faixa de preço.
+     *
+     * @return String com os limites da faixa.
+     */
+    @Override
+    public String toString() {
+        return "[" + precoMinimo + ", " + precoMaximo + "]";
+    }
+}
@@ -2,13 +2,31 @@ package com.loja.gerenciador;
 
 import com.loja.exception.ProdutoException;
 import com.loja.exception.ValidacaoException;
+import com.loja.indice.IndiceCategorias;
+import com.loja.indice.IndiceOrdenado;
+import com.loja.indice.IndicePrimario;
+import com.loja.indice.IndiceTrigramas;
+import com.loja.modelo.DicionarioCategorias;
 import com.loja.modelo.Produto;
+import com.loja.persistencia.CatalogoBinario;
+import com.loja.persistencia.ConfiguracaoLog;
+import com.loja.persistencia.EscritorCsv;
+import com.loja.persistencia.LeitorCsv;
+import com.loja.persistencia.LogOperacoes;
 
 import java.io.*;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Classe responsável pelo gerenciamento de produtos.
@@ -17,232 +35,1269 @@ import java.util.List;
  * atualizar, deletar e realizar buscas específicas (por nome e por categoria)
  * de produtos, além de realizar validações nas entradas de dados.
  *
- * Utiliza uma lista interna para armazenar os produtos e garante que o
- * produto esteja correto antes de ser adicionado ou atualizado.
+ * Utiliza um índice primário por ID e índices secundários por preço, por nome,
+ * por trigramas do nome e por categoria, mantidos a cada alteração, e garante
+ * que o produto esteja correto antes de ser adicionado ou atualizado. Pode ser
+ * usado por várias threads ao mesmo tempo (ver {@link #instantaneo()}).
  *
  * @since 2024
  */
-public class GerenciadorProdutos {
+public class GerenciadorProdutos implements ConsultaProdutos {
 
-    // Lista interna para armazenar os produtos
-    private static List<Produto> produtos = new ArrayList<>();
+    // Índice primário que localiza os produtos pelo ID
+    private static final IndicePrimario produtos = new IndicePrimario();
+
+    // Instantâneo atual com os índices ordenados por ID, por preço e por nome, trocado a cada alteração
+    private static volatile Instantaneo estado = Instantaneo.vazio();
+
+    // Índice invertido de trigramas dos nomes, usado na busca por parte do nome
+    private static final IndiceTrigramas trigramasDosNomes = new IndiceTrigramas();
+
+    // Grupos de produtos por código de categoria
+    private static final IndiceCategorias produtosPorCategoria = new IndiceCategorias();
+
+    // Totais por categoria (quantidade, estoque, valor em estoque e preços), mantidos a cada alteração
+    private static final AgregadosCategorias agregados = new AgregadosCategorias(produtos);
+
+    // Capacidade padrão do cache de resultados das buscas por nome e por categoria
+    private static final int CAPACIDADE_PADRAO_CACHE = 1024;
+
+    // Cache dos resultados das buscas por nome e por categoria, trocado com a trava de alterações
+    private static volatile CacheConsultas cacheConsultas = new CacheConsultas(CAPACIDADE_PADRAO_CACHE);
+
+    // Executor das consultas que percorrem todos os produtos
+    private static final ExecutorConsultas executorConsultas = new ExecutorConsultas();
+
+    // Execuções e latências de cada operação pública
+    private static final MetricasGerenciador metricas = new MetricasGerenciador();
 
     // Caminho onde salva os produtos cadastrados
     private static final String CAMINHO = System.getProperty("user.dir") + File.separator + "produtos.txt";
 
+    // Caminho do catálogo binário, usado quando o formato binário está ativo
+    private static final String CAMINHO_BINARIO = System.getProperty("user.dir") + File.separator + "produtos.bin";
+
+    // Indica se os produtos são salvos e carregados no catálogo binário em vez do arquivo de texto
+    private static boolean catalogoBinario;
+
+    // Quantidade de produtos validados gravados de uma vez na importação em CSV
+    private static final int TAMANHO_LOTE_IMPORTACAO = 4096;
+
     // ID do próximo produto a ser atribuído
-    private static int proximoId = 1;
+    private static final AtomicInteger proximoId = new AtomicInteger(1);
+
+    // Configuração do log de operações (null quando a persistência usa apenas o arquivo de texto)
+    private static ConfiguracaoLog configuracaoLog;
+
+    // Log de operações aberto por carregarProdutosDeArquivo (null no modo texto)
+    private static LogOperacoes log;
+
+    // Trava que serializa as alterações e a captura dos snapshots
+    private static final Object trava = new Object();
+
+    // Trava que impede dois snapshots simultâneos
+    private static final Object travaSnapshot = new Object();
+
+    // Agenda a verificação periódica da necessidade de um snapshot
+    private static ScheduledExecutorService agendadorSnapshots;
+
+    // Instante (System.nanoTime) do último snapshot gravado
+    private static volatile long ultimoSnapshot;
+
+    // Snapshots periódicos que falharam e a mensagem da última falha
+    private static final AtomicLong falhasDeSnapshot = new AtomicLong();
+    private static volatile String ultimaFalhaDeSnapshot;
+
+    /**
+     * Ativa a persistência por log de operações.
+     *
+     * Deve ser chamado antes de {@link #carregarProdutosDeArquivo()}, que abre o log
+     * e reaplica as operações gravadas. A partir daí, cada alteração é registrada
+     * no log e {@link #salvarProdutosEmArquivo()} apenas sincroniza o log com o disco.
+     *
+     * @param configuracao A configuração do log de operações.
+     */
+    public static void usarLogDeOperacoes(ConfiguracaoLog configuracao) {
+        configuracaoLog = configuracao;
+    }
+
+    /**
+     * Ativa ou desativa o uso do catálogo binário no lugar do arquivo de texto.
+     *
+     * Com o catálogo binário ativo, {@link #carregarProdutosDeArquivo()} lê o arquivo
+     * `produtos.bin` e, se ele ainda não existir, importa o arquivo de texto; a
+     * partir daí, {@link #salvarProdutosEmArquivo()} grava apenas o catálogo binário.
+     *
+     * @param ativo true para usar o catálogo binário.
+     */
+    public static void usarCatalogoBinario(boolean ativo) {
+        catalogoBinario = ativo;
+    }
+
+    /**
+     * Remove todos os produtos da memória e reinicia a numeração dos IDs.
+     *
+     * Os arquivos de persistência não são alterados. Como as exclusões não seriam
+     * registradas, este método não pode ser usado com o log de operações ativo.
+     *
+     * @throws ValidacaoException Se o log de operações estiver ativo.
+     */
+    public static void limpar() {
+        synchronized (trava) {
+            if (log != null) {
+                throw new ValidacaoException("Não é possível limpar os produtos com o log de operações ativo.");
+            }
+            produtos.limpar();
+            estado = Instantaneo.vazio();
+            trigramasDosNomes.limpar();
+            produtosPorCategoria.limpar();
+            agregados.limpar();
+            cacheConsultas.limpar();
+            proximoId.set(1);
+        }
+    }
+
+    /**
+     * Define a capacidade do cache de resultados das buscas por nome e por
+     * categoria, descartando os resultados guardados.
+     *
+     * O cache descarta os resultados menos usados recentemente, e cada alteração
+     * descarta apenas os resultados que podem conter a versão anterior ou a nova
+     * versão do produto alterado.
+     *
+     * @param capacidade A quantidade máxima de resultados guardados (0 desativa o cache).
+     * @throws ValidacaoException Se a capacidade for negativa.
+     */
+    public static void configurarCache(int capacidade) {
+        if (capacidade < 0) {
+            throw new ValidacaoException("A capacidade do cache não pode ser negativa.");
+        }
+        synchronized (trava) {
+            cacheConsultas = new CacheConsultas(capacidade);
+        }
+    }
+
+    /**
+     * Retorna as estatísticas do cache de resultados das buscas por nome e por categoria.
+     *
+     * @return Os acertos, falhas, despejos e invalidações desde a última configuração do cache.
+     */
+    public EstatisticasCache estatisticasDoCache() {
+        return cacheConsultas.estatisticas();
+    }
 
     /**
-     * Cria um novo produto e o adiciona à lista.
+     * Retorna as métricas do gerenciador: execuções e latências de cada operação
+     * e tamanho do catálogo e dos índices.
+     *
+     * @return As métricas, compartilhadas por todas as instâncias do gerenciador.
+     */
+    public static MetricasGerenciador metricas() {
+        return metricas;
+    }
+
+    static int tamanhoDoCatalogo() {
+        return produtos.tamanho();
+    }
+
+    static int quantidadeTrigramas() {
+        return trigramasDosNomes.quantidadeTrigramas();
+    }
+
+    static int quantidadeCategorias() {
+        return produtosPorCategoria.quantidadeCategorias();
+    }
+
+    static int resultadosEmCache() {
+        return cacheConsultas.estatisticas().getTamanho();
+    }
+
+    static long tamanhoDoLog() {
+        LogOperacoes atual = log;
+        return atual == null ? 0 : atual.tamanho();
+    }
+
+    static long falhasDeSnapshot() {
+        return falhasDeSnapshot.get();
+    }
+
+    static String ultimaFalhaDeSnapshot() {
+        return ultimaFalhaDeSnapshot;
+    }
+
+    /**
+     * Cria um novo produto e o adiciona ao índice primário.
      *
      * Este método atribui um ID único ao produto, valida os dados e, se válidos,
-     * adiciona o produto à lista interna de produtos.
+     * registra a criação no log de operações (se ativo) e adiciona uma cópia do
+     * produto ao índice primário e aos índices secundários.
      *
      * @param produto O produto a ser criado e adicionado.
      * @throws ProdutoException Se o produto não passar nas validações (nome, preço, etc.).
      */
     public static void criar(Produto produto) {
-        produto.setId(proximoId++);
-        validarProduto(produto);
-        produtos.add(produto);
+        metricas.medir(OperacaoGerenciador.CRIAR, () -> {
+            produto.setId(proximoId.getAndIncrement());
+            validarProduto(produto);
+            Produto versao = copiar(produto);
+            registrarCategoria(versao);
+            synchronized (trava) {
+                if (log != null) {
+                    log.registrarCriacao(versao);
+                }
+                indexar(versao);
+            }
+        });
+    }
+
+    /**
+     * Retorna o instantâneo atual do catálogo.
+     *
+     * O instantâneo é imutável e pode ser consultado e percorrido à vontade
+     * enquanto outras threads alteram os produtos; as alterações posteriores não
+     * aparecem nele.
+     *
+     * As alterações são validadas antes de entrar na trava interna, que apenas
+     * serializa a gravação no log e a atualização dos índices, e as consultas
+     * nunca esperam por elas: os produtos armazenados são versões imutáveis (uma
+     * atualização grava uma nova versão, em vez de alterar a existente), o índice
+     * primário é lido sem travas, os índices ordenados são persistentes e
+     * publicados juntos em um novo instantâneo a cada alteração, e os índices de
+     * trigramas e de categorias usam leituras otimistas. Os produtos retornados
+     * pelas consultas não devem ser alterados.
+     *
+     * @return O instantâneo publicado pela última alteração.
+     */
+    public Instantaneo instantaneo() {
+        return estado;
+    }
+
+    /**
+     * Retorna a tabela colunar com os produtos do instantâneo atual.
+     *
+     * A tabela segue a mesma interface {@link ConsultaProdutos} do gerenciador e
+     * guarda os produtos em vetores de tipos primitivos, para varreduras e somas
+     * por faixa de preço. Ela é montada na primeira chamada após cada alteração
+     * e reaproveitada enquanto o catálogo não mudar; a quantidade em estoque é a
+     * do momento da montagem.
+     *
+     * @return A tabela colunar do instantâneo atual.
+     */
+    public TabelaColunar tabelaColunar() {
+        return estado.tabelaColunar();
     }
 
     /**
      * Busca um produto pelo seu ID.
      *
-     * Este método percorre a lista de produtos e retorna o primeiro produto
-     * encontrado com o ID especificado, ou retorna null se o produto não for encontrado.
+     * Este método consulta o índice primário em tempo constante e retorna o produto
+     * com o ID especificado, ou retorna null se o produto não for encontrado.
      *
      * @param id O ID do produto a ser buscado.
      * @return O produto encontrado ou null se não houver produto com o ID fornecido.
      */
+    @Override
     public Produto buscarPorId(int id) {
-        return produtos.stream().filter(p -> p.getId() == id).findFirst().orElse(null);
+        return metricas.medir(OperacaoGerenciador.BUSCAR_POR_ID, () -> produtos.buscar(id));
     }
 
     /**
      * Retorna uma lista com todos os produtos ordenados por ID.
      *
-     * Este método retorna uma nova lista com todos os produtos cadastrados
-     * na lista interna, garantindo que a lista interna não seja manipulada diretamente.
+     * Este método retorna uma lista imutável apoiada no índice ordenado por ID do
+     * instantâneo atual, em O(1) e sem copiar os produtos. A lista não muda
+     * com as alterações feitas depois da chamada.
      *
      * @return A lista de todos os produtos.
      */
+    @Override
     public List<Produto> listarTodosPorID() {
-        return new ArrayList<>(produtos);
+        return metricas.medir(OperacaoGerenciador.LISTAR_TODOS_POR_ID, () -> estado.listarPorId());
     }
 
     /**
      * Retorna uma lista com todos os produtos ordenados por Preço.
      *
-     * Este método retorna uma nova lista com todos os produtos cadastrados
-     * na lista interna, garantindo que a lista interna não seja manipulada diretamente.
+     * Este método retorna uma lista imutável apoiada no índice ordenado por preço
+     * do instantâneo atual, sem precisar ordenar nem copiar os produtos.
      *
      * @return A lista de todos os produtos.
      */
+    @Override
     public List<Produto> listarTodosPorPreco() {
-        new ArrayList<>(produtos);
-        Collections.sort(produtos, Comparator.comparingDouble(Produto::getPreco));
-        return produtos;
+        return metricas.medir(OperacaoGerenciador.LISTAR_TODOS_POR_PRECO, () -> estado.listarPorPreco());
     }
 
     /**
      * Retorna uma lista com todos os produtos ordenados por Nome.
      *
-     * Este método retorna uma nova lista com todos os produtos cadastrados
-     * na lista interna, garantindo que a lista interna não seja manipulada diretamente.
+     * Este método retorna uma lista imutável apoiada no índice ordenado por nome
+     * do instantâneo atual, sem precisar ordenar nem copiar os produtos.
      *
      * @return A lista de todos os produtos.
      */
+    @Override
     public List<Produto> listarTodosPorNome() {
-        new ArrayList<>(produtos);
-        Collections.sort(produtos, Comparator.comparing(Produto::getNome));
-        return produtos;
+        return metricas.medir(OperacaoGerenciador.LISTAR_TODOS_POR_NOME, () -> estado.listarPorNome());
+    }
+
+    /**
+     * Retorna uma página da listagem de todos os produtos, continuando de um cursor.
+     *
+     * A página seguinte começa logo após a chave (ID, nome ou preço) do último
+     * produto da página anterior, localizada em O(log n) no índice da ordem do
+     * instantâneo atual. Ao contrário de um deslocamento, o cursor não repete nem
+     * pula produtos quando outros são criados ou excluídos entre as páginas.
+     *
+     * @param ordem A ordem da listagem.
+     * @param apos O cursor devolvido pela página anterior, ou null para a primeira página.
+     * @param limite Quantidade máxima de produtos da página, maior que zero.
+     * @return A página, com os produtos e o cursor da seguinte (null se esta for a última).
+     * @throws ValidacaoException Se o limite não for positivo ou se o cursor for de outra ordem.
+     */
+    public Pagina listarPagina(OrdemListagem ordem, Cursor apos, int limite) {
+        return metricas.medir(OperacaoGerenciador.LISTAR_PAGINA, () -> estado.listarPagina(ordem, apos, limite));
+    }
+
+    /**
+     * Percorre todos os produtos em uma ordem, sob demanda.
+     *
+     * O stream percorre o índice da ordem do instantâneo atual conforme é
+     * consumido, sem montar uma lista, e não enxerga as alterações feitas depois
+     * da chamada.
+     *
+     * @param ordem A ordem do percurso.
+     * @return Stream sequencial com os produtos.
+     */
+    public Stream<Produto> percorrer(OrdemListagem ordem) {
+        return metricas.medir(OperacaoGerenciador.PERCORRER, () -> estado.percorrer(ordem, null));
+    }
+
+    /**
+     * Percorre, sob demanda, os produtos posteriores a um cursor em uma ordem.
+     *
+     * @param ordem A ordem do percurso.
+     * @param apos O cursor a partir do qual o percurso começa.
+     * @return Stream sequencial com os produtos depois do cursor.
+     * @throws ValidacaoException Se o cursor for de outra ordem.
+     */
+    public Stream<Produto> percorrer(OrdemListagem ordem, Cursor apos) {
+        return metricas.medir(OperacaoGerenciador.PERCORRER, () -> estado.percorrer(ordem, apos));
     }
 
     /**
      * Atualiza um produto existente.
      *
-     * Este método busca o produto pelo ID e, caso encontrado, atualiza seus dados
-     * (nome, preço, quantidade em estoque e categoria).
+     * Este método busca o produto pelo ID e, caso encontrado, valida os novos dados,
+     * registra a atualização no log de operações (se ativo) e substitui o produto
+     * armazenado por uma nova versão com os novos dados (nome, preço, quantidade
+     * em estoque e categoria) em todos os índices.
+     *
+     * Como em {@link #criar(Produto)}, a validação e a cópia são feitas antes da
+     * trava de alterações; a existência do produto é conferida de novo com a
+     * trava, pois ele pode ter sido excluído nesse meio tempo.
      *
      * @param produto O produto com os novos dados a serem atualizados.
      * @return true se o produto foi atualizado com sucesso, false se o produto não foi encontrado.
+     * @throws ProdutoException Se os novos dados não passarem nas validações.
      */
     public boolean atualizar(Produto produto) {
-        Produto existente = buscarPorId(produto.getId());
-        if (existente != null) {
-            existente.setNome(produto.getNome());
-            existente.setPreco(produto.getPreco());
-            existente.setQuantidadeEstoque(produto.getQuantidadeEstoque());
-            existente.setCategoria(produto.getCategoria());
-            return true;
-        }
-        return false;
+        return metricas.medir(OperacaoGerenciador.ATUALIZAR, () -> {
+            if (produtos.buscar(produto.getId()) == null) {
+                return false;
+            }
+            validarProduto(produto);
+            Produto versao = copiar(produto);
+            registrarCategoria(versao);
+            synchronized (trava) {
+                Produto existente = produtos.buscar(versao.getId());
+                if (existente == null) {
+                    return false;
+                }
+                if (log != null) {
+                    log.registrarAtualizacao(versao);
+                }
+                aplicarAtualizacao(existente, versao);
+                return true;
+            }
+        });
     }
 
     /**
      * Deleta um produto pelo ID.
      *
-     * Este método remove o produto com o ID especificado da lista interna.
+     * Este método registra a exclusão no log de operações (se ativo) e remove o
+     * produto com o ID especificado do índice primário e dos índices secundários.
      *
      * @param id O ID do produto a ser deletado.
      * @return true se o produto foi removido com sucesso, false se o produto não foi encontrado.
      */
     public boolean deletar(int id) {
-        return produtos.removeIf(produto -> produto.getId() == id);
+        return metricas.medir(OperacaoGerenciador.DELETAR, () -> {
+            synchronized (trava) {
+                if (!produtos.contem(id)) {
+                    return false;
+                }
+                if (log != null) {
+                    log.registrarExclusao(id);
+                }
+                removerDosIndices(id);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Reserva unidades do estoque de um produto, se houver quantidade suficiente.
+     *
+     * O estoque é baixado atomicamente, sem a trava de alterações: esta é a única
+     * alteração feita na própria versão armazenada, cuja quantidade é lida e
+     * trocada por compare-and-set, e a troca é refeita se outra thread alterar o
+     * estoque do mesmo produto no meio dela. Assim, duas reservas simultâneas do
+     * mesmo produto nunca perdem uma à outra, e o estoque nunca fica negativo.
+     * Com o log de operações ativo, a alteração é registrada no log e feita com
+     * a trava de alterações, para manter a ordem dos registros.
+     *
+     * @param id O ID do produto.
+     * @param quantidade A quantidade a reservar, maior que zero.
+     * @return true se as unidades foram reservadas, false se o estoque era insuficiente.
+     * @throws ProdutoException Se a quantidade não for positiva ou se o produto não existir.
+     */
+    public boolean reservarEstoque(int id, int quantidade) {
+        return metricas.medir(OperacaoGerenciador.RESERVAR_ESTOQUE, () -> {
+            validarQuantidade(quantidade);
+            return alterarEstoque(id, -quantidade) >= 0;
+        });
+    }
+
+    /**
+     * Baixa unidades do estoque de um produto, como em uma venda ou uma perda.
+     *
+     * Funciona como {@link #reservarEstoque(int, int)}, mas a falta de estoque é
+     * tratada como erro em vez de uma tentativa recusada.
+     *
+     * @param id O ID do produto.
+     * @param quantidade A quantidade a baixar, maior que zero.
+     * @return A quantidade em estoque após a baixa.
+     * @throws ProdutoException Se a quantidade não for positiva, se o produto não existir ou se o estoque for insuficiente.
+     */
+    public int baixarEstoque(int id, int quantidade) {
+        return metricas.medirInteiro(OperacaoGerenciador.BAIXAR_ESTOQUE, () -> {
+            validarQuantidade(quantidade);
+            int estoque = alterarEstoque(id, -quantidade);
+            if (estoque < 0) {
+                throw new ProdutoException("Estoque insuficiente para baixar " + quantidade + " unidades do produto " + id + ".");
+            }
+            return estoque;
+        });
+    }
+
+    /**
+     * Repõe unidades no estoque de um produto, atomicamente e sem a trava de
+     * alterações, como em {@link #reservarEstoque(int, int)}.
+     *
+     * @param id O ID do produto.
+     * @param quantidade A quantidade a repor, maior que zero.
+     * @return A quantidade em estoque após a reposição.
+     * @throws ProdutoException Se a quantidade não for positiva, se o produto não existir ou se o estoque exceder o limite.
+     */
+    public int reporEstoque(int id, int quantidade) {
+        return metricas.medirInteiro(OperacaoGerenciador.REPOR_ESTOQUE, () -> {
+            validarQuantidade(quantidade);
+            return alterarEstoque(id, quantidade);
+        });
+    }
+
+    /**
+     * Cria vários produtos de uma vez.
+     *
+     * Todos os produtos são validados antes de entrar na trava de alterações. Os
+     * válidos recebem IDs consecutivos, na ordem do lote, e são registrados no log
+     * de operações (se ativo) com uma única aplicação da política de sincronização.
+     * Em seguida entram nos índices ordenados em uma única passada, que publica um
+     * único instantâneo. Os inválidos são marcados no resultado e não impedem a
+     * criação dos demais.
+     *
+     * @param novos Os produtos a serem criados; os válidos recebem o ID atribuído.
+     * @return O resultado de cada produto, na ordem do lote.
+     */
+    public static ResultadoLote criarEmLote(Collection<Produto> novos) {
+        return metricas.medir(OperacaoGerenciador.CRIAR_EM_LOTE, () -> {
+            ResultadoLote resultado = new ResultadoLote(novos.size());
+            List<Produto> validos = new ArrayList<>(novos.size());
+            List<Produto> versoes = new ArrayList<>(novos.size());
+            int posicao = 0;
+            for (Produto produto : novos) {
+                try {
+                    validarProduto(produto);
+                    Produto versao = copiar(produto);
+                    registrarCategoria(versao);
+                    validos.add(produto);
+                    versoes.add(versao);
+                    resultado.aplicar(posicao);
+                } catch (ProdutoException e) {
+                    resultado.invalidar(posicao, e.getMessage());
+                }
+                posicao++;
+            }
+            gravarLote(versoes);
+            for (int i = 0; i < validos.size(); i++) {
+                validos.get(i).setId(versoes.get(i).getId());
+            }
+            return resultado;
+        });
+    }
+
+    /**
+     * Atualiza vários produtos de uma vez.
+     *
+     * Os novos dados são validados antes de entrar na trava de alterações. Cada
+     * produto é localizado pelo ID no índice primário, em O(1), e as novas versões
+     * são registradas no log de operações (se ativo) com uma única aplicação da
+     * política de sincronização. Os índices ordenados recebem todas as versões em
+     * uma única passada, que publica um único instantâneo. Se o mesmo ID aparecer
+     * mais de uma vez, prevalece a última versão do lote.
+     *
+     * @param alterados Os produtos com os novos dados, identificados pelo ID.
+     * @return O resultado de cada produto, na ordem do lote.
+     */
+    public ResultadoLote atualizarEmLote(Collection<Produto> alterados) {
+        return metricas.medir(OperacaoGerenciador.ATUALIZAR_EM_LOTE, () -> {
+            ResultadoLote resultado = new ResultadoLote(alterados.size());
+            Produto[] versoes = new Produto[alterados.size()];
+            int posicao = 0;
+            for (Produto produto : alterados) {
+                try {
+                    validarProduto(produto);
+                    versoes[posicao] = copiar(produto);
+                    registrarCategoria(versoes[posicao]);
+                } catch (ProdutoException e) {
+                    resultado.invalidar(posicao, e.getMessage());
+                }
+                posicao++;
+            }
+
+            Map<Integer, Produto> anteriores = new HashMap<>();
+            Map<Integer, Produto> novas = new HashMap<>();
+            synchronized (trava) {
+                cacheConsultas.iniciarAlteracao();
+                if (log != null) {
+                    log.iniciarLote();
+                }
+                try {
+                    for (int i = 0; i < versoes.length; i++) {
+                        Produto versao = versoes[i];
+                        if (versao == null) {
+                            continue;
+                        }
+                        Produto existente = versao.getId() == null ? null : produtos.buscar(versao.getId());
+                        if (existente == null) {
+                            resultado.naoEncontrar(i);
+                            continue;
+                        }
+                        if (log != null) {
+                            log.registrarAtualizacao(versao);
+                        }
+                        agregados.adicionar(versao);
+                        produtos.inserir(versao);
+                        agregados.remover(existente);
+                        anteriores.putIfAbsent(versao.getId(), existente);
+                        novas.put(versao.getId(), versao);
+                        resultado.aplicar(i);
+                    }
+                } finally {
+                    atualizarIndicesDeBuscaEmLote(anteriores, novas);
+                    estado = estado.comAlteracoes(anteriores.values(), novas.values());
+                    cacheConsultas.concluirAlteracao(anteriores.values(), novas.values());
+                    if (log != null) {
+                        log.concluirLote();
+                    }
+                }
+            }
+            return resultado;
+        });
+    }
+
+    /**
+     * Deleta vários produtos de uma vez, pelos IDs.
+     *
+     * As exclusões são registradas no log de operações (se ativo) com uma única
+     * aplicação da política de sincronização, e os produtos são retirados dos
+     * índices ordenados em uma única passada por cada índice, que publica um
+     * único instantâneo, em vez de uma passada por ID.
+     *
+     * @param ids Os IDs dos produtos a serem deletados.
+     * @return O resultado de cada ID, na ordem do lote.
+     */
+    public ResultadoLote deletarEmLote(Collection<Integer> ids) {
+        return metricas.medir(OperacaoGerenciador.DELETAR_EM_LOTE, () -> {
+            ResultadoLote resultado = new ResultadoLote(ids.size());
+            List<Produto> removidos = new ArrayList<>();
+            synchronized (trava) {
+                cacheConsultas.iniciarAlteracao();
+                if (log != null) {
+                    log.iniciarLote();
+                }
+                try {
+                    int posicao = 0;
+                    for (Integer id : ids) {
+                        if (id == null || !produtos.contem(id)) {
+                            resultado.naoEncontrar(posicao++);
+                            continue;
+                        }
+                        if (log != null) {
+                            log.registrarExclusao(id);
+                        }
+                        Produto removido = produtos.remover(id);
+                        agregados.remover(removido);
+                        removidos.add(removido);
+                        resultado.aplicar(posicao++);
+                    }
+                } finally {
+                    trigramasDosNomes.removerTodos(removidos);
+                    produtosPorCategoria.removerTodos(removidos);
+                    estado = estado.comAlteracoes(removidos, List.of());
+                    cacheConsultas.concluirAlteracao(removidos, List.of());
+                    if (log != null) {
+                        log.concluirLote();
+                    }
+                }
+            }
+            return resultado;
+        });
+    }
+
+    /**
+     * Soma uma variação ao estoque da versão armazenada de um produto.
+     *
+     * Sem o log de operações, a variação é aplicada por compare-and-set, sem a
+     * trava de alterações, e somada aos totais da categoria com a trava do
+     * produto em {@link AgregadosCategorias}; se a versão for substituída no meio,
+     * a variação é refeita sobre a nova versão. Com o log ativo, a nova
+     * quantidade é registrada antes de ser aplicada, com a trava de alterações.
+     *
+     * @param id O ID do produto.
+     * @param variacao A quantidade a somar (negativa para baixar).
+     * @return A nova quantidade em estoque, ou -1 se ela ficaria negativa (nada é alterado).
+     * @throws ProdutoException Se o produto não existir ou se o estoque exceder o limite.
+     */
+    private static int alterarEstoque(int id, int variacao) {
+        if (log == null) {
+            while (true) {
+                Produto versao = buscarParaEstoque(id);
+                int atual = versao.getQuantidadeEstoque();
+                int novo = somarEstoque(atual, variacao);
+                if (novo < 0 || agregados.trocarEstoque(versao, atual, novo)) {
+                    return novo;
+                }
+                Thread.onSpinWait();
+            }
+        }
+        synchronized (trava) {
+            Produto versao = buscarParaEstoque(id);
+            int atual = versao.getQuantidadeEstoque();
+            int novo = somarEstoque(atual, variacao);
+            if (novo >= 0) {
+                Produto registro = copiar(versao);
+                registro.setQuantidadeEstoque(novo);
+                log.registrarAtualizacao(registro);
+                agregados.trocarEstoque(versao, atual, novo);
+            }
+            return novo;
+        }
+    }
+
+    private static Produto buscarParaEstoque(int id) {
+        Produto versao = produtos.buscar(id);
+        if (versao == null) {
+            throw new ProdutoException("Produto com ID " + id + " não encontrado.");
+        }
+        return versao;
+    }
+
+    private static int somarEstoque(int atual, int variacao) {
+        long novo = (long) atual + variacao;
+        if (novo > Integer.MAX_VALUE) {
+            throw new ProdutoException("A quantidade em estoque excederia o limite.");
+        }
+        return novo < 0 ? -1 : (int) novo;
+    }
+
+    private static void validarQuantidade(int quantidade) {
+        if (quantidade <= 0) {
+            throw new ProdutoException("A quantidade deve ser maior que zero.");
+        }
+    }
+
+    /**
+     * Cria uma cópia do produto, que passa a ser a versão armazenada nos índices.
+     *
+     * Também é usada para congelar a quantidade em estoque de uma versão
+     * armazenada, que a cópia não acompanha.
+     *
+     * @param produto O produto recebido.
+     * @return Uma nova instância com os mesmos dados e o mesmo ID.
+     */
+    static Produto copiar(Produto produto) {
+        Produto copia = new Produto(produto.getNome(), produto.getPreco(), produto.getQuantidadeEstoque(), null);
+        copia.setId(produto.getId());
+        if (produto.getCodigoCategoria() != DicionarioCategorias.SEM_CATEGORIA) {
+            copia.setCodigoCategoria(produto.getCodigoCategoria());
+        } else {
+            copia.setCategoria(produto.getCategoria());
+        }
+        return copia;
+    }
+
+    /**
+     * Adiciona um produto, já com ID, ao índice primário e aos índices secundários.
+     *
+     * Deve ser chamado com a trava de alterações.
+     *
+     * @param produto O produto a ser indexado, que não deve mais ser alterado.
+     */
+    private static void indexar(Produto produto) {
+        cacheConsultas.iniciarAlteracao();
+        agregados.adicionar(produto);
+        produtos.inserir(produto);
+        estado = estado.comProduto(produto);
+        trigramasDosNomes.indexar(produto.getId(), produto.getNome());
+        produtosPorCategoria.adicionar(produto.getCodigoCategoria(), produto.getId());
+        cacheConsultas.concluirAlteracao(null, produto);
+    }
+
+    /**
+     * Substitui a versão armazenada de um produto pela nova versão em todos os índices.
+     *
+     * A versão anterior não é alterada, de modo que consultas em andamento continuam
+     * vendo dados consistentes; os índices de nome e categoria só mudam se esses
+     * campos mudarem. Deve ser chamado com a trava de alterações.
+     *
+     * @param existente A versão armazenada do produto.
+     * @param produto A nova versão, com o mesmo ID, que não deve mais ser alterada.
+     */
+    private static void aplicarAtualizacao(Produto existente, Produto produto) {
+        cacheConsultas.iniciarAlteracao();
+        agregados.adicionar(produto);
+        produtos.inserir(produto);
+        agregados.remover(existente);
+        estado = estado.comSubstituicao(existente, produto);
+        if (!existente.getNome().equals(produto.getNome())) {
+            trigramasDosNomes.remover(existente.getId(), existente.getNome());
+            trigramasDosNomes.indexar(existente.getId(), produto.getNome());
+        }
+        if (existente.getCodigoCategoria() != produto.getCodigoCategoria()) {
+            produtosPorCategoria.remover(existente.getCodigoCategoria(), existente.getId());
+            produtosPorCategoria.adicionar(produto.getCodigoCategoria(), existente.getId());
+        }
+        cacheConsultas.concluirAlteracao(existente, produto);
+    }
+
+    /**
+     * Remove um produto do índice primário e dos índices secundários.
+     *
+     * Deve ser chamado com a trava de alterações.
+     *
+     * @param id O ID do produto a ser removido.
+     * @return O produto removido, ou null se o ID não existia.
+     */
+    private static Produto removerDosIndices(int id) {
+        cacheConsultas.iniciarAlteracao();
+        Produto removido = produtos.remover(id);
+        if (removido != null) {
+            agregados.remover(removido);
+            estado = estado.semProduto(removido);
+            trigramasDosNomes.remover(removido.getId(), removido.getNome());
+            produtosPorCategoria.remover(removido.getCodigoCategoria(), removido.getId());
+        }
+        cacheConsultas.concluirAlteracao(removido, null);
+        return removido;
+    }
+
+    /**
+     * Atualiza os índices de trigramas e de categorias após um lote de
+     * atualizações, comparando a versão armazenada antes do lote com a última
+     * versão gravada de cada produto. Os nomes e categorias que mudaram são
+     * retirados e adicionados de uma vez, com uma única passada por lista de IDs.
+     *
+     * @param anteriores As versões armazenadas antes do lote, por ID.
+     * @param novas As últimas versões gravadas no lote, por ID.
+     */
+    private static void atualizarIndicesDeBuscaEmLote(Map<Integer, Produto> anteriores, Map<Integer, Produto> novas) {
+        List<Produto> nomesAntigos = new ArrayList<>();
+        List<Produto> nomesNovos = new ArrayList<>();
+        List<Produto> categoriasAntigas = new ArrayList<>();
+        List<Produto> categoriasNovas = new ArrayList<>();
+        for (Produto existente : anteriores.values()) {
+            Produto nova = novas.get(existente.getId());
+            if (!existente.getNome().equals(nova.getNome())) {
+                nomesAntigos.add(existente);
+                nomesNovos.add(nova);
+            }
+            if (existente.getCodigoCategoria() != nova.getCodigoCategoria()) {
+                categoriasAntigas.add(existente);
+                categoriasNovas.add(nova);
+            }
+        }
+        trigramasDosNomes.removerTodos(nomesAntigos);
+        trigramasDosNomes.indexarTodos(nomesNovos);
+        produtosPorCategoria.removerTodos(categoriasAntigas);
+        produtosPorCategoria.adicionarTodos(categoriasNovas);
     }
 
     /**
      * Busca produtos pelo nome (case insensitive).
      *
      * Este método retorna uma lista de produtos cujo nome contenha a string
-     * fornecida, ignorando diferenças de maiúsculas e minúsculas.
+     * fornecida, ignorando diferenças de maiúsculas e minúsculas. O índice de
+     * trigramas seleciona os candidatos e apenas eles são conferidos; buscas com
+     * menos de três caracteres percorrem todos os produtos com {@link #filtrar(Predicate)}.
+     * O resultado é guardado no cache de buscas até que uma alteração possa mudá-lo.
      *
      * @param nome O nome ou parte do nome do produto a ser buscado.
-     * @return A lista de produtos cujo nome contenha a string fornecida.
+     * @return Lista imutável com os produtos cujo nome contenha a string fornecida, ordenada por ID.
      */
+    @Override
     public List<Produto> buscarPorNome(String nome) {
-        return produtos.stream()
-                .filter(p -> p.getNome().toLowerCase().contains(nome.toLowerCase()))
-                .toList();
+        return metricas.medir(OperacaoGerenciador.BUSCAR_POR_NOME, () -> {
+            String termo = nome.toLowerCase();
+            return cacheConsultas.buscarPorNome(termo, () -> calcularBuscaPorNome(termo));
+        });
+    }
+
+    private List<Produto> calcularBuscaPorNome(String termo) {
+        int[] candidatos = trigramasDosNomes.candidatos(termo);
+        if (candidatos == null) {
+            return filtrar(p -> p.getNome().toLowerCase().contains(termo));
+        }
+
+        List<Produto> resultado = new ArrayList<>(candidatos.length);
+        for (int id : candidatos) {
+            Produto produto = produtos.buscar(id);
+            if (produto != null && produto.getNome().toLowerCase().contains(termo)) {
+                resultado.add(produto);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Busca os produtos aceitos por um filtro qualquer, percorrendo todo o catálogo.
+     *
+     * A varredura usa o instantâneo atual e é dividida entre as threads do pool
+     * comum do `ForkJoinPool` quando o custo estimado a partir dos primeiros
+     * produtos compensa (catálogos grandes ou filtros caros); caso contrário, é
+     * feita em sequência na própria thread. O filtro pode ser chamado por várias
+     * threads ao mesmo tempo.
+     *
+     * @param filtro O filtro que seleciona os produtos.
+     * @return A lista de produtos aceitos pelo filtro, ordenada por ID.
+     */
+    public List<Produto> filtrar(Predicate<Produto> filtro) {
+        return metricas.medir(OperacaoGerenciador.FILTRAR, () -> executorConsultas.filtrar(estado, filtro));
+    }
+
+    /**
+     * Executa uma consulta composta, com critérios combinados, ordem e limite.
+     *
+     * O plano de execução é escolhido pelo custo estimado: o acesso por índice
+     * (categoria, trigramas do nome ou faixa de preço) que deve trazer menos
+     * candidatos, a varredura do índice ordenado da ordem pedida até o limite, ou
+     * a varredura de todos os produtos com {@link #filtrar(Predicate)}. Com
+     * limite, os melhores produtos são mantidos em um heap limitado ao seu
+     * tamanho, em vez de uma ordenação de todos os aceitos.
+     *
+     * @param consulta A consulta.
+     * @return Lista imutável com os produtos aceitos, na ordem da consulta e até o limite.
+     */
+    public List<Produto> consultar(Consulta consulta) {
+        return metricas.medir(OperacaoGerenciador.CONSULTAR, () -> planejador().planejar(consulta).executar());
+    }
+
+    /**
+     * Explica o plano que seria usado para executar uma consulta, sem executá-la.
+     *
+     * @param consulta A consulta.
+     * @return Texto com a estratégia, o índice escolhido, a estimativa de produtos
+     *         examinados e a forma de ordenação.
+     */
+    public String explicar(Consulta consulta) {
+        return metricas.medir(OperacaoGerenciador.EXPLICAR, () -> planejador().planejar(consulta).toString());
+    }
+
+    private static PlanejadorConsultas planejador() {
+        return new PlanejadorConsultas(produtos, trigramasDosNomes, produtosPorCategoria, executorConsultas, estado);
     }
 
     /**
      * Busca produtos pela categoria (case insensitive).
      *
      * Este método retorna uma lista de produtos que pertençam à categoria fornecida,
-     * ignorando diferenças de maiúsculas e minúsculas.
+     * ignorando diferenças de maiúsculas e minúsculas e espaços nas pontas. A
+     * categoria é convertida no seu código pelo `DicionarioCategorias` e os
+     * produtos são lidos diretamente do grupo correspondente. O resultado é
+     * guardado no cache de buscas até que uma alteração possa mudá-lo.
      *
      * @param categoria A categoria do produto a ser buscado.
-     * @return A lista de produtos pertencentes à categoria fornecida.
+     * @return Lista imutável com os produtos pertencentes à categoria fornecida, ordenada por ID.
      */
+    @Override
     public List<Produto> buscarPorCategoria(String categoria) {
-        return produtos.stream()
-                .filter(p -> p.getCategoria().equalsIgnoreCase(categoria))
-                .toList();
+        return metricas.medir(OperacaoGerenciador.BUSCAR_POR_CATEGORIA, () -> {
+            int codigo = DicionarioCategorias.buscarCodigo(categoria);
+            if (codigo < 0) {
+                return List.of();
+            }
+            return cacheConsultas.buscarPorCategoria(codigo, () -> calcularBuscaPorCategoria(codigo));
+        });
+    }
+
+    private List<Produto> calcularBuscaPorCategoria(int codigo) {
+        int[] ids = produtosPorCategoria.ids(codigo);
+        List<Produto> resultado = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Produto produto = produtos.buscar(id);
+            // Confere o produto, que pode ter sido alterado depois da leitura do grupo
+            if (produto != null && produto.getCodigoCategoria() == codigo) {
+                resultado.add(produto);
+            }
+        }
+        return resultado;
     }
 
     /**
      * Busca produtos dentro de uma faixa de preço específica.
      *
+     * Os produtos são retornados em ordem crescente de preço (e de ID, em caso de
+     * empate), localizados diretamente no índice ordenado por preço.
+     *
      * @param precoMinimo O preço mínimo da faixa.
      * @param precoMaximo O preço máximo da faixa.
      * @return Lista de produtos dentro da faixa de preço.
      */
+    @Override
     public List<Produto> buscarPorFaixaDePreco(double precoMinimo, double precoMaximo) {
-        List<Produto> resultado = new ArrayList<>();
+        return buscarPorFaixaDePreco(FaixaDePreco.entre(precoMinimo, precoMaximo), 0, Integer.MAX_VALUE);
+    }
 
-        for (Produto produto : produtos) {
-            if (produto.getPreco() >= precoMinimo && produto.getPreco() <= precoMaximo) {
-                resultado.add(produto);
-            }
-        }
+    /**
+     * Busca uma página de produtos dentro de uma faixa de preço.
+     *
+     * Este método localiza no índice ordenado por preço do instantâneo atual as
+     * posições do primeiro e do último produto da faixa em O(log n) e devolve a
+     * página como uma lista imutável apoiada no índice, sem copiar os produtos.
+     *
+     * @param faixa A faixa de preço, que pode ser aberta em qualquer um dos lados.
+     * @param deslocamento Quantidade de produtos da faixa a serem pulados.
+     * @param limite Quantidade máxima de produtos a serem retornados.
+     * @return Lista de produtos da página, ordenados por preço.
+     * @throws ValidacaoException Se o deslocamento ou o limite forem negativos.
+     */
+    @Override
+    public List<Produto> buscarPorFaixaDePreco(FaixaDePreco faixa, int deslocamento, int limite) {
+        return metricas.medir(OperacaoGerenciador.BUSCAR_POR_FAIXA_DE_PRECO,
+                () -> estado.buscarPorFaixaDePreco(faixa, deslocamento, limite));
+    }
 
-        return resultado;
+    /**
+     * Busca uma página de produtos dentro de uma faixa de preço, continuando de um
+     * cursor da ordem por preço.
+     *
+     * @param faixa A faixa de preço, que pode ser aberta em qualquer um dos lados.
+     * @param apos O cursor devolvido pela página anterior, ou null para a primeira página.
+     * @param limite Quantidade máxima de produtos da página, maior que zero.
+     * @return A página, ordenada por preço, com o cursor da seguinte (null se esta for a última).
+     * @throws ValidacaoException Se o limite não for positivo ou se o cursor não for da ordem por preço.
+     */
+    public Pagina buscarPorFaixaDePreco(FaixaDePreco faixa, Cursor apos, int limite) {
+        return metricas.medir(OperacaoGerenciador.BUSCAR_POR_FAIXA_DE_PRECO,
+                () -> estado.buscarPorFaixaDePreco(faixa, apos, limite));
+    }
+
+    /**
+     * Conta os produtos dentro de uma faixa de preço, sem montar a lista de resultados.
+     *
+     * A contagem é a diferença entre as posições dos limites no índice ordenado
+     * por preço e custa O(log n), independentemente do tamanho da faixa.
+     *
+     * @param faixa A faixa de preço, que pode ser aberta em qualquer um dos lados.
+     * @return A quantidade de produtos dentro da faixa.
+     */
+    @Override
+    public int contarPorFaixaDePreco(FaixaDePreco faixa) {
+        return metricas.medirInteiro(OperacaoGerenciador.CONTAR_POR_FAIXA_DE_PRECO,
+                () -> estado.contarPorFaixaDePreco(faixa));
+    }
+
+    /**
+     * Resume os produtos de uma categoria: quantidade, estoque total, produtos sem
+     * estoque, valor em estoque e menor, maior e média dos preços.
+     *
+     * Os totais de cada categoria são atualizados a cada criação, atualização,
+     * exclusão e alteração de estoque, e o resumo é lido deles sem percorrer os
+     * produtos.
+     *
+     * @param categoria A categoria (case insensitive).
+     * @return O resumo, com quantidades zeradas se a categoria não tiver produtos.
+     */
+    public ResumoCategoria resumirCategoria(String categoria) {
+        return metricas.medir(OperacaoGerenciador.RESUMIR_CATEGORIA,
+                () -> agregados.resumir(DicionarioCategorias.buscarCodigo(categoria), categoria));
+    }
+
+    /**
+     * Resume os produtos de cada categoria, como {@link #resumirCategoria(String)}.
+     *
+     * @return Lista com o resumo de cada categoria com produtos.
+     */
+    public List<ResumoCategoria> resumirCategorias() {
+        return metricas.medir(OperacaoGerenciador.RESUMIR_CATEGORIAS, () -> agregados.resumirTodas());
+    }
+
+    /**
+     * Resume todos os produtos do catálogo, combinando os totais das categorias.
+     *
+     * @return O resumo do catálogo, sem nome de categoria.
+     */
+    public ResumoCategoria resumirCatalogo() {
+        return metricas.medir(OperacaoGerenciador.RESUMIR_CATALOGO, () -> agregados.resumirCatalogo());
+    }
+
+    /**
+     * Lista os produtos com estoque baixo, do menor para o maior estoque.
+     *
+     * @param limite A maior quantidade em estoque considerada baixa.
+     * @return Lista com os produtos com estoque até o limite, ordenada por estoque (e por ID).
+     */
+    public List<Produto> relatorioEstoqueBaixo(int limite) {
+        return metricas.medir(OperacaoGerenciador.RELATORIO_ESTOQUE_BAIXO, () -> {
+            Consulta consulta = Consulta.onde(Criterio.estoqueMaximo(limite)).ordenarPor(Consulta.Campo.ESTOQUE);
+            return planejador().planejar(consulta).executar();
+        });
     }
 
     /**
      * Valida as informações de um produto antes de ser adicionado ou atualizado.
      *
-     * Este método realiza validações nos atributos do produto, como o nome, preço,
-     * quantidade em estoque e categoria. Se algum atributo não atender aos critérios
-     * estabelecidos, uma exceção é lançada.
+     * As regras ficam em {@link Produto#validar()}, usadas também na conversão do
+     * arquivo de texto para o catálogo binário.
      *
      * @param produto O produto a ser validado.
      * @throws ProdutoException Se algum atributo do produto não for válido.
      */
-    private static void validarProduto(Produto produto) {
-        if (produto.getNome() == null || produto.getNome().trim().length() < 2) {
-            throw new ProdutoException("O nome do produto deve conter pelo menos 2 caracteres.");
-        }
-
-        if (produto.getPreco() <= 0) {
-            throw new ProdutoException("O preço do produto deve ser maior que zero.");
-        }
-
-        if (produto.getQuantidadeEstoque() < 0) {
-            throw new ProdutoException("A quantidade em estoque não pode ser negativa.");
-        }
+    static void validarProduto(Produto produto) {
+        produto.validar();
+    }
 
-        if (produto.getCategoria() == null || produto.getCategoria().trim().isEmpty()) {
-            throw new ProdutoException("A categoria do produto não pode estar vazia.");
-        }
+    /**
+     * Registra a categoria de um produto já validado no `DicionarioCategorias` e
+     * associa ao produto o código atribuído.
+     *
+     * A categoria só é registrada depois da validação, para que produtos
+     * rejeitados não deixem categorias no dicionário, que nunca diminui. A partir
+     * daí, o produto guarda apenas o código, e a categoria é exibida com o nome
+     * registrado no dicionário.
+     *
+     * @param produto O produto validado, ainda não armazenado.
+     */
+    static void registrarCategoria(Produto produto) {
+        produto.setCodigoCategoria(DicionarioCategorias.codigoDe(produto.getCategoria()));
     }
 
     /**
      * Salva os produtos em um arquivo de texto.
+     *
+     * Com o log de operações ativo, as alterações já estão gravadas no log, e este
+     * método apenas grava os registros pendentes e sincroniza o log com o disco.
+     * Com o catálogo binário ativo, os produtos são gravados no catálogo binário.
+     * Os produtos gravados são os de um único instantâneo, mas a quantidade em
+     * estoque de cada um é a do momento em que ele é gravado (ver {@link Instantaneo}).
      */
     public static void salvarProdutosEmArquivo() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(CAMINHO))) {
-            for (Produto produto : produtos) {
-                writer.write(produto.getId() + "," + produto.getNome() + "," + produto.getPreco() + ","
-                        + produto.getQuantidadeEstoque() + "," + produto.getCategoria());
-                writer.newLine();
+        metricas.medir(OperacaoGerenciador.SALVAR, () -> {
+            if (log != null) {
+                log.sincronizar();
+                return;
             }
-        } catch (IOException e) {
-            throw new ValidacaoException("Erro ao salvar os produtos no arquivo." + e);
-        }
+            if (catalogoBinario) {
+                IndiceOrdenado versao;
+                int proximo;
+                synchronized (trava) {
+                    versao = estado.indicePorId();
+                    proximo = proximoId.get();
+                }
+                CatalogoBinario.gravar(CAMINHO_BINARIO, 0, proximo, versao);
+                return;
+            }
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(CAMINHO))) {
+                for (Produto produto : estado.indicePorId()) {
+                    writer.write(produto.getId() + "," + produto.getNome() + "," + produto.getPreco() + ","
+                            + produto.getQuantidadeEstoque() + "," + produto.getCategoria());
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                throw new ValidacaoException("Erro ao salvar os produtos no arquivo." + e);
+            }
+        });
     }
 
     /**
      * Carrega os produtos de um arquivo de texto.
+     *
+     * Com o log de operações ativo, carrega o último snapshot (se existir) e
+     * reaplica apenas os segmentos do log posteriores a ele, descartando um
+     * eventual registro incompleto no final. Se não houver snapshot nem operações
+     * e existir um arquivo de texto, os produtos do arquivo são importados para o
+     * log. Em seguida, inicia a verificação periódica de snapshots.
+     *
+     * Com o catálogo binário ativo, os produtos são lidos do catálogo por
+     * mapeamento em memória, mantendo os IDs gravados; se o catálogo ainda não
+     * existir, o arquivo de texto é importado. Os produtos do catálogo e do
+     * snapshot são adicionados aos índices de uma só vez, como em
+     * {@link #criarEmLote(Collection)}.
+     *
+     * @return A quantidade de bytes do final incompleto do log de operações
+     *         descartados na carga, para ser informada ao usuário; 0 se o log
+     *         estava íntegro ou não está ativo.
      */
-    public static void carregarProdutosDeArquivo() {
-        File arquivo = new File(CAMINHO);
+    public static long carregarProdutosDeArquivo() {
+        return metricas.medir(OperacaoGerenciador.CARREGAR, () -> {
+            File arquivo = new File(CAMINHO);
 
-        // Verifica se o arquivo existe, caso contrário cria um arquivo em branco
-        if (!arquivo.exists()) {
-            try {
-                arquivo.createNewFile(); // Cria o arquivo em branco se não existir
-                System.out.println("Arquivo não encontrado, criado arquivo vazio: " + CAMINHO);
-            } catch (IOException e) {
-                System.out.println("Erro ao criar o arquivo: " + CAMINHO);
-                e.printStackTrace();
+            if (configuracaoLog != null) {
+                synchronized (trava) {
+                    long primeiroSegmento = 0;
+                    List<Produto> lidos = new ArrayList<>();
+                    CatalogoBinario snapshot = CatalogoBinario.ler(configuracaoLog.getCaminhoSnapshot(), lidos::add);
+                    indexarTodos(lidos);
+                    if (snapshot != null) {
+                        proximoId.accumulateAndGet(snapshot.getProximoId(), Math::max);
+                        primeiroSegmento = snapshot.getPrimeiroSegmento();
+                    }
+                    log = LogOperacoes.abrir(configuracaoLog, new AplicadorDoLog(), primeiroSegmento);
+                    if (produtos.tamanho() == 0 && arquivo.length() > 0) {
+                        carregarArquivoDeTexto(arquivo);
+                        log.sincronizar();
+                    }
+                }
+                iniciarSnapshotsPeriodicos();
+                return log.getBytesDescartados();
+            }
+
+            if (catalogoBinario) {
+                synchronized (trava) {
+                    List<Produto> lidos = new ArrayList<>();
+                    CatalogoBinario catalogo = CatalogoBinario.ler(CAMINHO_BINARIO, lidos::add);
+                    indexarTodos(lidos);
+                    if (catalogo != null) {
+                        proximoId.accumulateAndGet(catalogo.getProximoId(), Math::max);
+                        return 0L;
+                    }
+                }
+                if (arquivo.exists()) {
+                    carregarArquivoDeTexto(arquivo);
+                }
+                return 0L;
+            }
+
+            // Verifica se o arquivo existe, caso contrário cria um arquivo em branco
+            if (!arquivo.exists()) {
+                try {
+                    arquivo.createNewFile(); // Cria o arquivo em branco se não existir
+                    System.out.println("Arquivo não encontrado, criado arquivo vazio: " + CAMINHO);
+                } catch (IOException e) {
+                    System.out.println("Erro ao criar o arquivo: " + CAMINHO);
+                    e.printStackTrace();
+                }
+            }
+
+            carregarArquivoDeTexto(arquivo);
+            return 0L;
+        });
+    }
+
+    /**
+     * Grava um snapshot de todos os produtos e compacta o log de operações.
+     *
+     * Com a trava de alterações, o log passa para um novo segmento e o
+     * instantâneo atual é guardado, sem copiar os produtos, que são imutáveis
+     * exceto pela quantidade em estoque. A gravação do arquivo ocorre fora da
+     * trava, em um arquivo temporário renomeado ao final. Só então os segmentos do
+     * log cobertos pelo snapshot são removidos.
+     *
+     * O estoque de cada produto é lido durante a gravação e pode já incluir
+     * alterações posteriores à troca de segmento. Como essas alterações também
+     * estão no novo segmento, registradas com a quantidade final e não com a
+     * variação, reaplicá-las sobre o snapshot leva ao mesmo estado.
+     *
+     * @throws ValidacaoException Se o log de operações não estiver ativo ou
+     *                            ocorrer um erro ao gravar o snapshot.
+     */
+    public static void gravarSnapshot() {
+        metricas.medir(OperacaoGerenciador.GRAVAR_SNAPSHOT, () -> {
+            synchronized (travaSnapshot) {
+                long primeiroSegmento;
+                int proximo;
+                IndiceOrdenado versao;
+                synchronized (trava) {
+                    if (log == null) {
+                        throw new ValidacaoException("O snapshot exige o log de operações ativo.");
+                    }
+                    primeiroSegmento = log.rotacionar();
+                    proximo = proximoId.get();
+                    versao = estado.indicePorId();
+                }
+                CatalogoBinario.gravar(configuracaoLog.getCaminhoSnapshot(), primeiroSegmento, proximo, versao);
+                log.removerSegmentosAnteriores(primeiroSegmento);
+                ultimoSnapshot = System.nanoTime();
             }
+        });
+    }
+
+    /**
+     * Inicia a tarefa em segundo plano que grava um snapshot quando o intervalo
+     * configurado termina ou quando o log atinge o tamanho configurado.
+     *
+     * As falhas são escritas na saída de erros e contadas nas métricas
+     * ({@link MetricasGerenciador#getFalhasDeSnapshot()}); a tarefa continua e
+     * tenta de novo na próxima verificação.
+     */
+    private static void iniciarSnapshotsPeriodicos() {
+        long intervalo = configuracaoLog.getIntervaloSnapshotMs();
+        long tamanhoLimite = configuracaoLog.getTamanhoLogParaSnapshot();
+        if (agendadorSnapshots != null || (intervalo == 0 && tamanhoLimite == 0)) {
+            return;
         }
+        ultimoSnapshot = System.nanoTime();
+        agendadorSnapshots = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "snapshot-produtos");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long verificacao = intervalo > 0 ? Math.min(intervalo, 1000) : 1000;
+        agendadorSnapshots.scheduleWithFixedDelay(() -> {
+            long tamanhoLog = log.tamanho();
+            boolean porTempo = intervalo > 0 && tamanhoLog > 0
+                    && TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ultimoSnapshot) >= intervalo;
+            boolean porTamanho = tamanhoLimite > 0 && tamanhoLog >= tamanhoLimite;
+            if (porTempo || porTamanho) {
+                try {
+                    gravarSnapshot();
+                } catch (ValidacaoException e) {
+                    falhasDeSnapshot.incrementAndGet();
+                    ultimaFalhaDeSnapshot = e.getMessage();
+                    System.err.println("Falha no snapshot periódico: " + e.getMessage());
+                }
+            }
+        }, verificacao, verificacao, TimeUnit.MILLISECONDS);
+    }
 
+    /**
+     * Lê os produtos de um arquivo de texto e os cadastra com {@link #criar(Produto)}.
+     *
+     * @param arquivo O arquivo de texto com um produto por linha.
+     */
+    private static void carregarArquivoDeTexto(File arquivo) {
         // Tenta carregar os produtos do arquivo
         try (BufferedReader reader = new BufferedReader(new FileReader(arquivo))) {
             String linha;
@@ -262,4 +1317,217 @@ public class GerenciadorProdutos {
             throw new ValidacaoException("Erro ao carregar os produtos no arquivo." + e);
         }
     }
+
+    /**
+     * Importa produtos de um conteúdo CSV, em fluxo.
+     *
+     * Cada registro deve ter os campos "id,nome,preço,estoque,categoria" (o ID é
+     * ignorado e um novo é atribuído) ou "nome,preço,estoque,categoria". Uma linha
+     * de cabeçalho no início é ignorada. Os registros são lidos diretamente dos
+     * bytes da entrada pelo `LeitorCsv` e validados fora da trava de alterações;
+     * os produtos válidos são gravados em lotes de {@value #TAMANHO_LOTE_IMPORTACAO},
+     * cada lote com uma única aquisição da trava. Registros inválidos são
+     * anotados no relatório e não interrompem a importação. Com o log de operações
+     * ativo, o log é sincronizado uma única vez, ao final.
+     *
+     * @param entrada A entrada com o conteúdo CSV em UTF-8; não é fechada.
+     * @return O relatório com a quantidade de produtos importados e as linhas rejeitadas.
+     * @throws ValidacaoException Se ocorrer um erro de leitura da entrada.
+     */
+    public static RelatorioImportacao importarCsv(InputStream entrada) {
+        return metricas.medir(OperacaoGerenciador.IMPORTAR_CSV, () -> {
+            RelatorioImportacao relatorio = new RelatorioImportacao();
+            LeitorCsv leitor = new LeitorCsv(entrada);
+            List<Produto> lote = new ArrayList<>(TAMANHO_LOTE_IMPORTACAO);
+            try {
+                boolean primeiro = true;
+                while (leitor.proximoRegistro()) {
+                    if (leitor.vazio()) {
+                        continue;
+                    }
+                    if (primeiro) {
+                        primeiro = false;
+                        if (leitor.igual(0, "id") || leitor.igual(0, "nome")) {
+                            continue;
+                        }
+                    }
+                    try {
+                        Produto produto = lerProdutoCsv(leitor);
+                        validarProduto(produto);
+                        registrarCategoria(produto);
+                        lote.add(produto);
+                    } catch (ProdutoException | NumberFormatException e) {
+                        relatorio.rejeitar(leitor.getLinha(), e.getMessage());
+                        continue;
+                    }
+                    if (lote.size() == TAMANHO_LOTE_IMPORTACAO) {
+                        gravarLote(lote);
+                        relatorio.adicionarImportados(lote.size());
+                        lote.clear();
+                    }
+                }
+            } catch (IOException e) {
+                throw new ValidacaoException("Erro ao importar os produtos do CSV." + e);
+            } finally {
+                gravarLote(lote);
+                relatorio.adicionarImportados(lote.size());
+                if (log != null) {
+                    log.sincronizar();
+                }
+            }
+            return relatorio;
+        });
+    }
+
+    /**
+     * Exporta todos os produtos em CSV, em fluxo, na ordem do índice primário.
+     *
+     * A primeira linha é o cabeçalho "id,nome,preco,quantidadeEstoque,categoria".
+     * Os registros são codificados pelo `EscritorCsv` em um buffer de tamanho fixo,
+     * de modo que a memória usada não depende da quantidade de produtos; a saída
+     * deve ser lida pelo {@link #importarCsv(InputStream)}. A exportação percorre o
+     * instantâneo publicado no início, de modo que o conteúdo
+     * corresponde a um único instante sem bloquear as alterações; a exceção é a
+     * quantidade em estoque, lida de cada produto no momento em que ele é escrito
+     * (ver {@link Instantaneo}).
+     *
+     * @param saida A saída que recebe o conteúdo CSV em UTF-8; não é fechada.
+     * @return A quantidade de produtos exportados.
+     * @throws ValidacaoException Se ocorrer um erro de escrita na saída.
+     */
+    public static int exportarCsv(OutputStream saida) {
+        return metricas.medirInteiro(OperacaoGerenciador.EXPORTAR_CSV, () -> {
+            EscritorCsv escritor = new EscritorCsv(saida);
+            try {
+                escritor.campo("id");
+                escritor.campo("nome");
+                escritor.campo("preco");
+                escritor.campo("quantidadeEstoque");
+                escritor.campo("categoria");
+                escritor.fimDoRegistro();
+                int quantidade = 0;
+                for (Produto produto : estado.indicePorId()) {
+                    escritor.campo(produto.getId());
+                    escritor.campo(produto.getNome());
+                    escritor.campo(produto.getPreco());
+                    escritor.campo(produto.getQuantidadeEstoque());
+                    escritor.campo(produto.getCategoria());
+                    escritor.fimDoRegistro();
+                    quantidade++;
+                }
+                escritor.flush();
+                return quantidade;
+            } catch (IOException e) {
+                throw new ValidacaoException("Erro ao exportar os produtos para CSV." + e);
+            }
+        });
+    }
+
+    /**
+     * Monta um produto a partir do registro atual do leitor de CSV.
+     *
+     * @param leitor O leitor posicionado em um registro.
+     * @return O produto lido, ainda sem ID.
+     * @throws ProdutoException Se o registro não tiver a quantidade de campos esperada.
+     * @throws NumberFormatException Se o preço ou o estoque não forem números válidos.
+     */
+    private static Produto lerProdutoCsv(LeitorCsv leitor) {
+        if (leitor.aspasAbertas()) {
+            throw new ProdutoException("Aspas não fechadas no registro.");
+        }
+        int campos = leitor.quantidadeCampos();
+        if (campos != 4 && campos != 5) {
+            throw new ProdutoException("O registro deve ter 4 ou 5 campos, mas tem " + campos + ".");
+        }
+        int primeiro = campos - 4;
+        return new Produto(leitor.texto(primeiro), leitor.decimal(primeiro + 1),
+                leitor.inteiro(primeiro + 2), leitor.texto(primeiro + 3));
+    }
+
+    /**
+     * Atribui IDs aos produtos já validados e os adiciona aos índices, com uma
+     * única aquisição da trava de alterações, uma única aplicação da política de
+     * sincronização do log e uma única passada pelos índices ordenados.
+     *
+     * @param lote Os produtos validados, que passam a ser as versões armazenadas.
+     */
+    private static void gravarLote(List<Produto> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        List<Produto> registrados = new ArrayList<>(lote.size());
+        synchronized (trava) {
+            if (log != null) {
+                log.iniciarLote();
+            }
+            try {
+                for (Produto produto : lote) {
+                    produto.setId(proximoId.getAndIncrement());
+                    if (log != null) {
+                        log.registrarCriacao(produto);
+                    }
+                    registrados.add(produto);
+                }
+            } finally {
+                indexarTodos(registrados);
+                if (log != null) {
+                    log.concluirLote();
+                }
+            }
+        }
+    }
+
+    /**
+     * Adiciona de uma vez aos índices produtos que já têm ID, com uma única
+     * passada pelos índices ordenados, pelo índice de trigramas e pelos grupos de
+     * categorias, e a publicação de um único instantâneo.
+     *
+     * Deve ser chamado com a trava de alterações.
+     *
+     * @param lote Os produtos, que passam a ser as versões armazenadas.
+     */
+    private static void indexarTodos(List<Produto> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        cacheConsultas.iniciarAlteracao();
+        try {
+            for (Produto produto : lote) {
+                agregados.adicionar(produto);
+                produtos.inserir(produto);
+            }
+        } finally {
+            trigramasDosNomes.indexarTodos(lote);
+            produtosPorCategoria.adicionarTodos(lote);
+            estado = estado.comAlteracoes(List.of(), lote);
+            cacheConsultas.concluirAlteracao(List.of(), lote);
+        }
+    }
+
+    /**
+     * Reaplica nos índices as operações lidas do log, preservando os IDs originais.
+     */
+    private static class AplicadorDoLog implements LogOperacoes.Aplicador {
+
+        @Override
+        public void criar(Produto produto) {
+            registrarCategoria(produto);
+            indexar(produto);
+            proximoId.accumulateAndGet(produto.getId() + 1, Math::max);
+        }
+
+        @Override
+        public void atualizar(Produto produto) {
+            Produto existente = produtos.buscar(produto.getId());
+            if (existente != null) {
+                registrarCategoria(produto);
+                aplicarAtualizacao(existente, produto);
+            }
+        }
+
+        @Override
+        public void deletar(int id) {
+            removerDosIndices(id);
+        }
+    }
 }
@@ -0,0 +1,143 @@
+package com.loja.gerenciador;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências com faixas log-lineares, no estilo do HdrHistogram.
+ *
+ * Os valores até {@value #SUBFAIXAS} nanossegundos têm uma faixa cada; acima
+ * disso, cada potência de 2 é dividida em {@value #SUBFAIXAS} faixas iguais, de
+ * modo que o erro relativo de qualquer valor registrado é menor que 1/64
+ * (cerca de 1,6%), de nanossegundos a minutos. Valores acima de 2^41 ns (cerca
+ * de 36 minutos) ficam na última faixa.
+ *
+ * As faixas são contadores de um vetor atômico alocado na criação: registrar
+ * um valor custa um cálculo de índice e um incremento atômico, sem travas nem
+ * alocação, e pode ser feito por várias threads ao mesmo tempo. As leituras
+ * ({@link #estatisticas(String)}) copiam os contadores e não interrompem os
+ * registros; como a cópia não é atômica, registros simultâneos podem aparecer
+ * em parte.
+ *
+ * @since 2024
+ */
+public final class HistogramaLatencia {
+
+    // Bits de precisão de cada faixa e quantidade de faixas por potência de 2
+    private static final int BITS_PRECISAO = 6;
+    private static final int SUBFAIXAS = 1 << BITS_PRECISAO;
+
+    // Maior expoente com faixas próprias; valores maiores ficam na última faixa
+    private static final int MAIOR_EXPOENTE = 40;
+
+    // Quantidade total de faixas, incluindo a última, dos valores acima do maior expoente
+    private static final int FAIXAS = SUBFAIXAS + (MAIOR_EXPOENTE - BITS_PRECISAO + 1) * SUBFAIXAS + 1;
+
+    // Quantidade de registros por faixa
+    private final AtomicLongArray contagens = new AtomicLongArray(FAIXAS);
+
+    // Soma e maior valor registrado, em nanossegundos
+    private final LongAdder soma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra uma latência.
+     *
+     * @param nanos A latência, em nanossegundos (valores negativos contam como 0).
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(0, nanos);
+        contagens.incrementAndGet(faixa(valor));
+        soma.add(valor);
+        long atual = maximo.get();
+        while (valor > atual && !maximo.compareAndSet(atual, valor)) {
+            atual = maximo.get();
+        }
+    }
+
+    /**
+     * Calcula as estatísticas dos valores registrados até agora.
+     *
+     * @param operacao O nome da operação medida, copiado para as estatísticas.
+     * @return A quantidade, a média, os percentis e o maior valor registrado.
+     */
+    public EstatisticasOperacao estatisticas(String operacao) {
+        long[] copia = new long[FAIXAS];
+        long quantidade = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            copia[i] = contagens.get(i);
+            quantidade += copia[i];
+        }
+        long maior = maximo.get();
+        return new EstatisticasOperacao(operacao, quantidade, quantidade,
+                soma.sum(),
+                percentil(copia, quantidade, 0.50, maior),
+                percentil(copia, quantidade, 0.90, maior),
+                percentil(copia, quantidade, 0.99, maior),
+                percentil(copia, quantidade, 0.999, maior),
+                maior);
+    }
+
+    /**
+     * Descarta os valores registrados.
+     */
+    public void zerar() {
+        for (int i = 0; i < FAIXAS; i++) {
+            contagens.set(i, 0);
+        }
+        soma.reset();
+        maximo.set(0);
+    }
+
+    /**
+     * Retorna o maior valor da faixa que contém o percentil, limitado ao maior
+     * valor registrado.
+     */
+    private static long percentil(long[] contagens, long quantidade, double fracao, long maior) {
+        if (quantidade == 0) {
+            return 0;
+        }
+        long alvo = Math.max(1, (long) Math.ceil(quantidade * fracao));
+        long acumulado = 0;
+        for (int i = 0; i < contagens.length; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= alvo) {
+                return Math.min(limiteSuperior(i), maior);
+            }
+        }
+        return maior;
+    }
+
+    /**
+     * Retorna a faixa de um valor não negativo.
+     */
+    static int faixa(long valor) {
+        if (valor < SUBFAIXAS) {
+            return (int) valor;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(valor);
+        if (expoente > MAIOR_EXPOENTE) {
+            return FAIXAS - 1;
+        }
+        int deslocamento = expoente - BITS_PRECISAO;
+        int subfaixa = (int) (valor >>> deslocamento) & (SUBFAIXAS - 1);
+        return SUBFAIXAS + deslocamento * SUBFAIXAS + subfaixa;
+    }
+
+    /**
+     * Retorna o maior valor que cai em uma faixa.
+     */
+    static long limiteSuperior(int faixa) {
+        if (faixa < SUBFAIXAS) {
+            return faixa;
+        }
+        if (faixa == FAIXAS - 1) {
+            return Long.MAX_VALUE;
+        }
+        int deslocamento = (faixa - SUBFAIXAS) / SUBFAIXAS;
+        long subfaixa = (faixa - SUBFAIXAS) % SUBFAIXAS;
+        long inicio = (1L << (deslocamento + BITS_PRECISAO)) | (subfaixa << deslocamento);
+        return inicio + (1L << deslocamento) - 1;
+    }
+}
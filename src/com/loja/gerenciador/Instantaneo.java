@@ -0,0 +1,335 @@
+package com.loja.gerenciador;
+
+import com.loja.exception.ValidacaoException;
+import com.loja.indice.IndiceOrdenado;
+import com.loja.modelo.Produto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Visão imutável do catálogo de produtos em um instante.
+ *
+ * O `Instantaneo` reúne as versões dos índices ordenados por ID, por preço e por
+ * nome publicadas juntas pelo `GerenciadorProdutos` após uma alteração. Como os
+ * índices são persistentes e os produtos armazenados são imutáveis, obter um
+ * instantâneo custa apenas a leitura de uma referência, e as listas devolvidas
+ * por ele são apoiadas diretamente nos índices, sem cópia. Todas as consultas de
+ * um mesmo instantâneo enxergam o mesmo estado do catálogo, mesmo que outras
+ * threads continuem alterando os produtos. A única exceção é a quantidade em
+ * estoque, que as operações de estoque do gerenciador alteram no próprio produto
+ * armazenado, sem a trava de alterações e sem publicar um novo instantâneo: ela
+ * é uma célula à parte, que o instantâneo não congela e que sempre mostra o
+ * valor atual. O mesmo vale para os resultados guardados no cache de consultas,
+ * para a {@link TabelaColunar} e para as gravações e exportações, que leem o
+ * estoque de cada produto no momento em que chegam a ele. Quem precisa de
+ * estoques estáveis, como a ordenação por estoque das consultas, trabalha sobre
+ * cópias dos produtos.
+ *
+ * Um instantâneo mantém vivos os nós dos índices da sua versão enquanto for
+ * usado; quando nenhuma thread o referencia mais, os nós que não são
+ * compartilhados com as versões mais novas são recolhidos pelo coletor de lixo.
+ *
+ * @since 2024
+ */
+public final class Instantaneo {
+
+    // Versões dos índices ordenados que compõem este instante
+    private final IndiceOrdenado porId;
+    private final IndiceOrdenado porPreco;
+    private final IndiceOrdenado porNome;
+
+    // Tabela colunar deste instante, montada na primeira vez em que é pedida
+    private volatile TabelaColunar tabela;
+
+    Instantaneo(IndiceOrdenado porId, IndiceOrdenado porPreco, IndiceOrdenado porNome) {
+        this.porId = porId;
+        this.porPreco = porPreco;
+        this.porNome = porNome;
+    }
+
+    /**
+     * Cria um instantâneo de um catálogo vazio.
+     *
+     * @return O instantâneo vazio.
+     */
+    static Instantaneo vazio() {
+        return new Instantaneo(IndiceOrdenado.porId(), IndiceOrdenado.porPreco(), IndiceOrdenado.porNome());
+    }
+
+    /**
+     * Retorna o instantâneo seguinte, com o produto adicionado.
+     *
+     * @param produto O produto a ser adicionado.
+     * @return O novo instantâneo.
+     */
+    Instantaneo comProduto(Produto produto) {
+        return new Instantaneo(porId.inserir(produto), porPreco.inserir(produto), porNome.inserir(produto));
+    }
+
+    /**
+     * Retorna o instantâneo seguinte, sem o produto informado.
+     *
+     * @param produto A versão armazenada do produto a ser retirado.
+     * @return O novo instantâneo.
+     */
+    Instantaneo semProduto(Produto produto) {
+        return new Instantaneo(porId.remover(produto), porPreco.remover(produto), porNome.remover(produto));
+    }
+
+    /**
+     * Retorna o instantâneo seguinte, com uma versão de produto trocada por outra.
+     *
+     * @param anterior A versão armazenada do produto.
+     * @param nova A nova versão, com o mesmo ID.
+     * @return O novo instantâneo.
+     */
+    Instantaneo comSubstituicao(Produto anterior, Produto nova) {
+        return new Instantaneo(porId.remover(anterior).inserir(nova),
+                porPreco.remover(anterior).inserir(nova),
+                porNome.remover(anterior).inserir(nova));
+    }
+
+    /**
+     * Retorna o instantâneo seguinte a um lote de alterações, com as versões
+     * retiradas e as inseridas aplicadas a cada índice em uma única passada.
+     *
+     * Uma atualização aparece nas duas coleções: a versão armazenada em
+     * {@code removidos} e a nova versão em {@code inseridos}.
+     *
+     * @param removidos As versões armazenadas dos produtos a serem retirados.
+     * @param inseridos Os produtos a serem adicionados.
+     * @return O novo instantâneo.
+     */
+    Instantaneo comAlteracoes(Collection<Produto> removidos, Collection<Produto> inseridos) {
+        return new Instantaneo(porId.removerTodos(removidos).inserirTodos(inseridos),
+                porPreco.removerTodos(removidos).inserirTodos(inseridos),
+                porNome.removerTodos(removidos).inserirTodos(inseridos));
+    }
+
+    /**
+     * Retorna o índice ordenado por ID deste instante.
+     *
+     * @return A versão do índice por ID.
+     */
+    IndiceOrdenado indicePorId() {
+        return porId;
+    }
+
+    /**
+     * Retorna a quantidade de produtos do catálogo neste instante.
+     *
+     * @return Quantidade de produtos.
+     */
+    public int tamanho() {
+        return porId.tamanho();
+    }
+
+    /**
+     * Busca um produto pelo ID neste instante, em O(log n).
+     *
+     * @param id O ID do produto a ser buscado.
+     * @return O produto encontrado ou null se não houver produto com o ID fornecido.
+     */
+    public Produto buscarPorId(int id) {
+        int posicao = porId.contarAntes(p -> p.getId() < id);
+        if (posicao < porId.tamanho()) {
+            Produto produto = porId.obter(posicao);
+            if (produto.getId() == id) {
+                return produto;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retorna os produtos ordenados por ID, sem cópia.
+     *
+     * @return Lista imutável com os produtos deste instante.
+     */
+    public List<Produto> listarPorId() {
+        return porId.visao();
+    }
+
+    /**
+     * Retorna os produtos ordenados por preço, sem cópia.
+     *
+     * @return Lista imutável com os produtos deste instante.
+     */
+    public List<Produto> listarPorPreco() {
+        return porPreco.visao();
+    }
+
+    /**
+     * Retorna os produtos ordenados por nome, sem cópia.
+     *
+     * @return Lista imutável com os produtos deste instante.
+     */
+    public List<Produto> listarPorNome() {
+        return porNome.visao();
+    }
+
+    /**
+     * Retorna uma página da listagem em uma ordem, a partir de um cursor.
+     *
+     * A posição seguinte à chave do cursor é localizada no índice da ordem em
+     * O(log n), e a página é devolvida como uma lista apoiada no índice, sem
+     * cópia. Produtos criados ou excluídos desde a página anterior não fazem a
+     * listagem repetir nem pular os demais.
+     *
+     * @param ordem A ordem da listagem.
+     * @param apos O cursor da página anterior, ou null para a primeira página.
+     * @param limite Quantidade máxima de produtos da página, maior que zero.
+     * @return A página, com o cursor da seguinte (null se esta for a última).
+     * @throws ValidacaoException Se o limite não for positivo ou se o cursor for de outra ordem.
+     */
+    public Pagina listarPagina(OrdemListagem ordem, Cursor apos, int limite) {
+        IndiceOrdenado indice = indice(ordem);
+        return pagina(ordem, indice, posicaoApos(ordem, indice, apos), indice.tamanho(), limite);
+    }
+
+    /**
+     * Retorna uma página dos produtos de uma faixa de preço, em ordem de preço, a
+     * partir de um cursor de {@link OrdemListagem#PRECO}.
+     *
+     * @param faixa A faixa de preço, que pode ser aberta em qualquer um dos lados.
+     * @param apos O cursor da página anterior, ou null para a primeira página.
+     * @param limite Quantidade máxima de produtos da página, maior que zero.
+     * @return A página, com o cursor da seguinte (null se esta for a última).
+     * @throws ValidacaoException Se o limite não for positivo ou se o cursor não for da ordem por preço.
+     */
+    public Pagina buscarPorFaixaDePreco(FaixaDePreco faixa, Cursor apos, int limite) {
+        int inicio = Math.max(posicaoInicial(faixa), posicaoApos(OrdemListagem.PRECO, porPreco, apos));
+        return pagina(OrdemListagem.PRECO, porPreco, inicio, posicaoFinal(faixa), limite);
+    }
+
+    /**
+     * Percorre os produtos em uma ordem, conforme o stream os consome.
+     *
+     * O stream é apoiado no índice da ordem deste instante: nenhum produto é
+     * copiado para uma lista, e interromper o stream (com {@code limit},
+     * {@code findFirst} etc.) encerra o percurso.
+     *
+     * @param ordem A ordem do percurso.
+     * @param apos O cursor a partir do qual o percurso começa, ou null para começar do início.
+     * @return Stream sequencial com os produtos.
+     * @throws ValidacaoException Se o cursor for de outra ordem.
+     */
+    public Stream<Produto> percorrer(OrdemListagem ordem, Cursor apos) {
+        IndiceOrdenado indice = indice(ordem);
+        return indice.stream(posicaoApos(ordem, indice, apos));
+    }
+
+    private IndiceOrdenado indice(OrdemListagem ordem) {
+        return switch (ordem) {
+            case ID -> porId;
+            case NOME -> porNome;
+            case PRECO -> porPreco;
+        };
+    }
+
+    /**
+     * Retorna a posição, no índice da ordem, do primeiro produto depois do cursor.
+     */
+    private static int posicaoApos(OrdemListagem ordem, IndiceOrdenado indice, Cursor apos) {
+        if (apos == null) {
+            return 0;
+        }
+        if (apos.getOrdem() != ordem) {
+            throw new ValidacaoException("O cursor é de uma listagem por " + apos.getOrdem()
+                    + " e não pode continuar uma listagem por " + ordem + ".");
+        }
+        return indice.contarAntes(apos::alcancou);
+    }
+
+    private static Pagina pagina(OrdemListagem ordem, IndiceOrdenado indice, int inicio, int fim, int limite) {
+        if (limite <= 0) {
+            throw new ValidacaoException("O limite da página deve ser maior que zero.");
+        }
+        if (inicio >= fim) {
+            return new Pagina(List.of(), null);
+        }
+        int ultimo = (int) Math.min(fim, (long) inicio + limite);
+        List<Produto> produtos = indice.visao(inicio, ultimo);
+        Cursor proximo = ultimo < fim ? Cursor.apos(ordem, produtos.get(produtos.size() - 1)) : null;
+        return new Pagina(produtos, proximo);
+    }
+
+    /**
+     * Retorna a tabela colunar com os produtos deste instante.
+     *
+     * A tabela é montada na primeira chamada, em O(n log n), e reaproveitada nas
+     * seguintes; como no instantâneo, a quantidade em estoque é lida dos produtos
+     * armazenados a cada consulta.
+     *
+     * @return A tabela colunar deste instante.
+     */
+    public TabelaColunar tabelaColunar() {
+        TabelaColunar atual = tabela;
+        if (atual == null) {
+            atual = new TabelaColunar(this);
+            tabela = atual;
+        }
+        return atual;
+    }
+
+    /**
+     * Busca uma página de produtos dentro de uma faixa de preço.
+     *
+     * As posições do primeiro e do último produto da faixa são localizadas no
+     * índice por preço em O(log n), e a página é devolvida como uma lista apoiada
+     * no índice, sem cópia.
+     *
+     * @param faixa A faixa de preço, que pode ser aberta em qualquer um dos lados.
+     * @param deslocamento Quantidade de produtos da faixa a serem pulados.
+     * @param limite Quantidade máxima de produtos a serem retornados.
+     * @return Lista imutável com os produtos da página, ordenados por preço.
+     * @throws ValidacaoException Se o deslocamento ou o limite forem negativos.
+     */
+    public List<Produto> buscarPorFaixaDePreco(FaixaDePreco faixa, int deslocamento, int limite) {
+        if (deslocamento < 0 || limite < 0) {
+            throw new ValidacaoException("O deslocamento e o limite da consulta não podem ser negativos.");
+        }
+        int inicio = posicaoInicial(faixa);
+        int fim = posicaoFinal(faixa);
+        long primeiro = (long) inicio + deslocamento;
+        long ultimo = Math.min(fim, primeiro + limite);
+        if (primeiro >= ultimo) {
+            return List.of();
+        }
+        return porPreco.visao((int) primeiro, (int) ultimo);
+    }
+
+    /**
+     * Conta os produtos dentro de uma faixa de preço, em O(log n).
+     *
+     * @param faixa A faixa de preço, que pode ser aberta em qualquer um dos lados.
+     * @return A quantidade de produtos dentro da faixa.
+     */
+    public int contarPorFaixaDePreco(FaixaDePreco faixa) {
+        return Math.max(0, posicaoFinal(faixa) - posicaoInicial(faixa));
+    }
+
+    /**
+     * Retorna a posição, no índice por preço, do primeiro produto da faixa.
+     *
+     * @param faixa A faixa de preço.
+     * @return A quantidade de produtos com preço abaixo do mínimo da faixa.
+     */
+    private int posicaoInicial(FaixaDePreco faixa) {
+        double minimo = faixa.getPrecoMinimo();
+        return porPreco.contarAntes(p -> p.getPreco() < minimo);
+    }
+
+    /**
+     * Retorna a posição, no índice por preço, logo após o último produto da faixa.
+     *
+     * @param faixa A faixa de preço.
+     * @return A quantidade de produtos com preço até o máximo da faixa.
+     */
+    private int posicaoFinal(FaixaDePreco faixa) {
+        double maximo = faixa.getPrecoMaximo();
+        return porPreco.contarAntes(p -> p.getPreco() <= maximo);
+    }
+}
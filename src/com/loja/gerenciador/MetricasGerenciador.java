@@ -0,0 +1,285 @@
+package com.loja.gerenciador;
+
+import com.loja.exception.ValidacaoException;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Métricas do `GerenciadorProdutos`: execuções e latências de cada operação,
+ * tamanho do catálogo e dos índices e falhas dos snapshots periódicos.
+ *
+ * Cada operação pública do gerenciador é contada em um `LongAdder` e registra a
+ * sua duração em um {@link HistogramaLatencia} próprio, sem travas nem alocação,
+ * de modo que a medição pode ficar sempre ativa. A leitura do relógio é o que
+ * mais custa: além de levar dezenas de nanossegundos, ela impede o processador
+ * de sobrepor os acessos à memória de buscas consecutivas, e chegava a
+ * multiplicar por dez o tempo de uma sequência de buscas por ID. Por isso, as
+ * operações mais baratas ({@link OperacaoGerenciador#getAmostragem()}) são
+ * cronometradas em uma amostra sorteada das execuções, e todas são contadas.
+ *
+ * A medição pode ser desligada pela propriedade de sistema
+ * {@code loja.metricas=false} ou em execução, por {@link #setAtivo(boolean)}.
+ *
+ * As métricas são expostas por JMX ({@link #registrarNoJmx()}, com o nome
+ * {@value #NOME_JMX}) e por um relatório em texto ({@link #relatorio()}) no
+ * formato de exposição do Prometheus, servido pela API HTTP em {@code /metricas}.
+ *
+ * @since 2024
+ */
+public final class MetricasGerenciador implements MetricasGerenciadorMXBean {
+
+    /**
+     * Nome com que as métricas são registradas no servidor JMX da plataforma.
+     */
+    public static final String NOME_JMX = "com.loja:type=GerenciadorProdutos,name=Metricas";
+
+    // Operações medidas, na ordem dos histogramas
+    private static final OperacaoGerenciador[] OPERACOES = OperacaoGerenciador.values();
+
+    // Execuções e histograma das latências de cada operação
+    private final LongAdder[] execucoes = new LongAdder[OPERACOES.length];
+    private final HistogramaLatencia[] histogramas = new HistogramaLatencia[OPERACOES.length];
+
+    // Indica se as operações estão sendo medidas
+    private volatile boolean ativo = !"false".equalsIgnoreCase(System.getProperty("loja.metricas"));
+
+    MetricasGerenciador() {
+        for (int i = 0; i < histogramas.length; i++) {
+            execucoes[i] = new LongAdder();
+            histogramas[i] = new HistogramaLatencia();
+        }
+    }
+
+    /**
+     * Conta o início de uma operação e decide se ela será cronometrada.
+     *
+     * @param operacao A operação.
+     * @return O instante do início, ou 0 se a medição estiver desativada ou a
+     *         execução não tiver sido sorteada para a amostra.
+     */
+    private long iniciar(OperacaoGerenciador operacao) {
+        if (!ativo) {
+            return 0;
+        }
+        execucoes[operacao.ordinal()].increment();
+        int amostragem = operacao.getAmostragem();
+        if (amostragem > 1 && ThreadLocalRandom.current().nextInt(amostragem) != 0) {
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Registra a duração de uma operação iniciada por {@link #iniciar(OperacaoGerenciador)}.
+     *
+     * @param operacao A operação.
+     * @param inicio O valor devolvido por {@link #iniciar(OperacaoGerenciador)}.
+     */
+    private void registrar(OperacaoGerenciador operacao, long inicio) {
+        if (inicio != 0) {
+            histogramas[operacao.ordinal()].registrar(System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Executa uma operação contando a execução e, se ela for sorteada para a
+     * amostra, registrando a sua duração, inclusive quando ela lança uma exceção.
+     *
+     * @param operacao A operação.
+     * @param corpo O corpo da operação.
+     * @param <T> O tipo do resultado.
+     * @return O resultado do corpo.
+     */
+    <T> T medir(OperacaoGerenciador operacao, Supplier<T> corpo) {
+        long inicio = iniciar(operacao);
+        try {
+            return corpo.get();
+        } finally {
+            registrar(operacao, inicio);
+        }
+    }
+
+    /**
+     * Executa uma operação sem resultado, como em {@link #medir(OperacaoGerenciador, Supplier)}.
+     *
+     * @param operacao A operação.
+     * @param corpo O corpo da operação.
+     */
+    void medir(OperacaoGerenciador operacao, Runnable corpo) {
+        long inicio = iniciar(operacao);
+        try {
+            corpo.run();
+        } finally {
+            registrar(operacao, inicio);
+        }
+    }
+
+    /**
+     * Executa uma operação com resultado inteiro, como em
+     * {@link #medir(OperacaoGerenciador, Supplier)}, sem encaixotar o resultado.
+     *
+     * @param operacao A operação.
+     * @param corpo O corpo da operação.
+     * @return O resultado do corpo.
+     */
+    int medirInteiro(OperacaoGerenciador operacao, IntSupplier corpo) {
+        long inicio = iniciar(operacao);
+        try {
+            return corpo.getAsInt();
+        } finally {
+            registrar(operacao, inicio);
+        }
+    }
+
+    /**
+     * Registra estas métricas no servidor JMX da plataforma, se ainda não estiverem registradas.
+     *
+     * @throws ValidacaoException Se o registro falhar.
+     */
+    public void registrarNoJmx() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(NOME_JMX));
+        } catch (InstanceAlreadyExistsException e) {
+            // Já registradas por uma chamada anterior
+        } catch (JMException e) {
+            throw new ValidacaoException("Erro ao registrar as métricas no JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retorna as estatísticas de uma operação.
+     *
+     * @param operacao A operação.
+     * @return A quantidade de execuções e as latências medidas.
+     */
+    public EstatisticasOperacao estatisticas(OperacaoGerenciador operacao) {
+        int i = operacao.ordinal();
+        return histogramas[i].estatisticas(operacao.getMetodo()).extrapolar(execucoes[i].sum());
+    }
+
+    @Override
+    public boolean isAtivo() {
+        return ativo;
+    }
+
+    @Override
+    public void setAtivo(boolean ativo) {
+        this.ativo = ativo;
+    }
+
+    @Override
+    public int getProdutos() {
+        return GerenciadorProdutos.tamanhoDoCatalogo();
+    }
+
+    @Override
+    public int getTrigramas() {
+        return GerenciadorProdutos.quantidadeTrigramas();
+    }
+
+    @Override
+    public int getCategorias() {
+        return GerenciadorProdutos.quantidadeCategorias();
+    }
+
+    @Override
+    public int getResultadosEmCache() {
+        return GerenciadorProdutos.resultadosEmCache();
+    }
+
+    @Override
+    public long getTamanhoDoLog() {
+        return GerenciadorProdutos.tamanhoDoLog();
+    }
+
+    @Override
+    public long getFalhasDeSnapshot() {
+        return GerenciadorProdutos.falhasDeSnapshot();
+    }
+
+    @Override
+    public String getUltimaFalhaDeSnapshot() {
+        return GerenciadorProdutos.ultimaFalhaDeSnapshot();
+    }
+
+    @Override
+    public List<EstatisticasOperacao> getOperacoes() {
+        List<EstatisticasOperacao> estatisticas = new ArrayList<>(OPERACOES.length);
+        for (OperacaoGerenciador operacao : OPERACOES) {
+            estatisticas.add(estatisticas(operacao));
+        }
+        return estatisticas;
+    }
+
+    /**
+     * Retorna o relatório das métricas no formato de exposição em texto do
+     * Prometheus: uma medida por linha, com as latências de cada operação como
+     * um resumo em segundos (percentis, quantidade, soma e máximo).
+     *
+     * @return O relatório.
+     */
+    @Override
+    public String relatorio() {
+        StringBuilder texto = new StringBuilder(8192);
+        medida(texto, "loja_produtos", "Quantidade de produtos do catálogo.", getProdutos());
+        medida(texto, "loja_trigramas", "Trigramas distintos do índice de nomes.", getTrigramas());
+        medida(texto, "loja_categorias", "Categorias com produtos.", getCategorias());
+        medida(texto, "loja_cache_resultados", "Resultados guardados no cache de buscas.", getResultadosEmCache());
+        medida(texto, "loja_log_bytes", "Tamanho dos segmentos do log de operações.", getTamanhoDoLog());
+        texto.append("# HELP loja_snapshot_falhas_total Snapshots periódicos que falharam.\n");
+        texto.append("# TYPE loja_snapshot_falhas_total counter\n");
+        texto.append("loja_snapshot_falhas_total ").append(getFalhasDeSnapshot()).append('\n');
+
+        texto.append("# HELP loja_operacao_segundos Latência das operações do gerenciador.\n");
+        texto.append("# TYPE loja_operacao_segundos summary\n");
+        for (EstatisticasOperacao e : getOperacoes()) {
+            String rotulo = "{operacao=\"" + e.getOperacao() + "\"";
+            percentil(texto, rotulo, "0.5", e.getP50());
+            percentil(texto, rotulo, "0.9", e.getP90());
+            percentil(texto, rotulo, "0.99", e.getP99());
+            percentil(texto, rotulo, "0.999", e.getP999());
+            texto.append("loja_operacao_segundos_count").append(rotulo).append("} ").append(e.getQuantidade()).append('\n');
+            texto.append("loja_operacao_segundos_sum").append(rotulo).append("} ").append(segundos(e.getSoma())).append('\n');
+        }
+        texto.append("# HELP loja_operacao_segundos_max Maior latência de cada operação.\n");
+        texto.append("# TYPE loja_operacao_segundos_max gauge\n");
+        for (EstatisticasOperacao e : getOperacoes()) {
+            texto.append("loja_operacao_segundos_max{operacao=\"").append(e.getOperacao()).append("\"} ")
+                    .append(segundos(e.getMaximo())).append('\n');
+        }
+        return texto.toString();
+    }
+
+    @Override
+    public void zerar() {
+        for (int i = 0; i < histogramas.length; i++) {
+            execucoes[i].reset();
+            histogramas[i].zerar();
+        }
+    }
+
+    private static void medida(StringBuilder texto, String nome, String descricao, long valor) {
+        texto.append("# HELP ").append(nome).append(' ').append(descricao).append('\n');
+        texto.append("# TYPE ").append(nome).append(" gauge\n");
+        texto.append(nome).append(' ').append(valor).append('\n');
+    }
+
+    private static void percentil(StringBuilder texto, String rotulo, String quantil, long nanos) {
+        texto.append("loja_operacao_segundos").append(rotulo).append(",quantile=\"").append(quantil).append("\"} ")
+                .append(segundos(nanos)).append('\n');
+    }
+
+    private static String segundos(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
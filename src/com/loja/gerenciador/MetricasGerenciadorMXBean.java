@@ -0,0 +1,97 @@
+package com.loja.gerenciador;
+
+import java.util.List;
+
+/**
+ * Interface de gerenciamento JMX das {@link MetricasGerenciador}.
+ *
+ * Registrada com o nome {@value MetricasGerenciador#NOME_JMX}, expõe o tamanho
+ * do catálogo e dos índices, as estatísticas de cada operação e o relatório em
+ * texto.
+ *
+ * @since 2024
+ */
+public interface MetricasGerenciadorMXBean {
+
+    /**
+     * Indica se as operações estão sendo medidas.
+     *
+     * @return true se a medição estiver ativa.
+     */
+    boolean isAtivo();
+
+    /**
+     * Ativa ou desativa a medição das operações.
+     *
+     * @param ativo true para medir as operações.
+     */
+    void setAtivo(boolean ativo);
+
+    /**
+     * Retorna a quantidade de produtos do catálogo.
+     *
+     * @return Quantidade de produtos.
+     */
+    int getProdutos();
+
+    /**
+     * Retorna a quantidade de trigramas distintos do índice de nomes.
+     *
+     * @return Quantidade de trigramas.
+     */
+    int getTrigramas();
+
+    /**
+     * Retorna a quantidade de categorias com produtos.
+     *
+     * @return Quantidade de categorias.
+     */
+    int getCategorias();
+
+    /**
+     * Retorna a quantidade de resultados guardados no cache de buscas.
+     *
+     * @return Quantidade de resultados em cache.
+     */
+    int getResultadosEmCache();
+
+    /**
+     * Retorna o tamanho dos segmentos do log de operações.
+     *
+     * @return Tamanho em bytes, ou 0 se o log não estiver ativo.
+     */
+    long getTamanhoDoLog();
+
+    /**
+     * Retorna a quantidade de snapshots periódicos que falharam.
+     *
+     * @return Quantidade de falhas desde o início da execução.
+     */
+    long getFalhasDeSnapshot();
+
+    /**
+     * Retorna a mensagem da última falha de um snapshot periódico.
+     *
+     * @return A mensagem, ou null se nenhum snapshot periódico falhou.
+     */
+    String getUltimaFalhaDeSnapshot();
+
+    /**
+     * Retorna as estatísticas de todas as operações.
+     *
+     * @return As estatísticas, na ordem de {@link OperacaoGerenciador}.
+     */
+    List<EstatisticasOperacao> getOperacoes();
+
+    /**
+     * Retorna o relatório das métricas em texto.
+     *
+     * @return O relatório, uma medida por linha.
+     */
+    String relatorio();
+
+    /**
+     * Descarta as estatísticas das operações.
+     */
+    void zerar();
+}
@@ -0,0 +1,77 @@
+package com.loja.gerenciador;
+
+/**
+ * Operações do `GerenciadorProdutos` medidas pelas {@link MetricasGerenciador}.
+ *
+ * Cada operação corresponde a um método público do gerenciador, cujo nome é
+ * usado nas estatísticas; as variantes de um mesmo método são somadas na mesma
+ * operação. As operações que levam poucas dezenas de nanossegundos têm a
+ * duração medida em uma amostra das execuções (ver {@link #getAmostragem()}).
+ * Nos percursos, a duração medida é a da criação do stream, não a do consumo.
+ *
+ * @since 2024
+ */
+public enum OperacaoGerenciador {
+
+    BUSCAR_POR_ID("buscarPorId", 64),
+    BUSCAR_POR_NOME("buscarPorNome", 1),
+    BUSCAR_POR_CATEGORIA("buscarPorCategoria", 1),
+    BUSCAR_POR_FAIXA_DE_PRECO("buscarPorFaixaDePreco", 1),
+    CONTAR_POR_FAIXA_DE_PRECO("contarPorFaixaDePreco", 64),
+    LISTAR_TODOS_POR_ID("listarTodosPorID", 64),
+    LISTAR_TODOS_POR_NOME("listarTodosPorNome", 64),
+    LISTAR_TODOS_POR_PRECO("listarTodosPorPreco", 64),
+    LISTAR_PAGINA("listarPagina", 1),
+    PERCORRER("percorrer", 64),
+    FILTRAR("filtrar", 1),
+    CONSULTAR("consultar", 1),
+    EXPLICAR("explicar", 1),
+    RESUMIR_CATEGORIA("resumirCategoria", 64),
+    RESUMIR_CATEGORIAS("resumirCategorias", 1),
+    RESUMIR_CATALOGO("resumirCatalogo", 1),
+    RELATORIO_ESTOQUE_BAIXO("relatorioEstoqueBaixo", 1),
+    CRIAR("criar", 1),
+    ATUALIZAR("atualizar", 1),
+    DELETAR("deletar", 1),
+    CRIAR_EM_LOTE("criarEmLote", 1),
+    ATUALIZAR_EM_LOTE("atualizarEmLote", 1),
+    DELETAR_EM_LOTE("deletarEmLote", 1),
+    RESERVAR_ESTOQUE("reservarEstoque", 64),
+    BAIXAR_ESTOQUE("baixarEstoque", 64),
+    REPOR_ESTOQUE("reporEstoque", 64),
+    SALVAR("salvarProdutosEmArquivo", 1),
+    CARREGAR("carregarProdutosDeArquivo", 1),
+    GRAVAR_SNAPSHOT("gravarSnapshot", 1),
+    IMPORTAR_CSV("importarCsv", 1),
+    EXPORTAR_CSV("exportarCsv", 1);
+
+    // Nome do método do gerenciador
+    private final String metodo;
+
+    // Uma em cada quantas execuções tem a duração medida
+    private final int amostragem;
+
+    OperacaoGerenciador(String metodo, int amostragem) {
+        this.metodo = metodo;
+        this.amostragem = amostragem;
+    }
+
+    /**
+     * Retorna o nome do método do gerenciador que executa a operação.
+     *
+     * @return Nome do método.
+     */
+    public String getMetodo() {
+        return metodo;
+    }
+
+    /**
+     * Retorna o intervalo de amostragem da duração da operação: em média, uma em
+     * cada {@code amostragem} execuções é cronometrada, e todas são contadas.
+     *
+     * @return 1 se todas as execuções forem cronometradas.
+     */
+    public int getAmostragem() {
+        return amostragem;
+    }
+}
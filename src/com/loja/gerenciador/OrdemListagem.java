@@ -0,0 +1,28 @@
+package com.loja.gerenciador;
+
+/**
+ * Ordens em que o catálogo pode ser listado por páginas e percorrido em fluxo.
+ *
+ * Cada ordem corresponde a um dos índices ordenados do {@link Instantaneo}, e os
+ * empates são desempatados pelo ID, de modo que cada produto ocupa uma posição
+ * única e um {@link Cursor} identifica exatamente onde a listagem parou.
+ *
+ * @since 2024
+ */
+public enum OrdemListagem {
+
+    /**
+     * Ordem crescente de ID.
+     */
+    ID,
+
+    /**
+     * Ordem alfabética do nome (e do ID, em caso de empate).
+     */
+    NOME,
+
+    /**
+     * Ordem crescente de preço (e de ID, em caso de empate).
+     */
+    PRECO
+}
@@ -0,0 +1,55 @@
+package com.loja.gerenciador;
+
+import com.loja.modelo.Produto;
+
+import java.util.List;
+
+/**
+ * Uma página de uma listagem por cursor.
+ *
+ * A `Pagina` traz os produtos da página, apoiados no índice do instantâneo em
+ * que foi lida, sem cópia, e o cursor da página seguinte, ou null quando a
+ * listagem terminou.
+ *
+ * @since 2024
+ */
+public final class Pagina {
+
+    // Produtos da página, na ordem da listagem
+    private final List<Produto> produtos;
+
+    // Cursor da página seguinte (null na última página)
+    private final Cursor proximo;
+
+    Pagina(List<Produto> produtos, Cursor proximo) {
+        this.produtos = produtos;
+        this.proximo = proximo;
+    }
+
+    /**
+     * Retorna os produtos da página.
+     *
+     * @return Lista imutável com os produtos, na ordem da listagem.
+     */
+    public List<Produto> getProdutos() {
+        return produtos;
+    }
+
+    /**
+     * Retorna o cursor que continua a listagem após esta página.
+     *
+     * @return O cursor da página seguinte, ou null se esta for a última.
+     */
+    public Cursor getProximo() {
+        return proximo;
+    }
+
+    /**
+     * Indica se há produtos depois desta página.
+     *
+     * @return true se existir uma página seguinte.
+     */
+    public boolean temMais() {
+        return proximo != null;
+    }
+}
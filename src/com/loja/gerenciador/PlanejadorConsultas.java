@@ -0,0 +1,464 @@
+package com.loja.gerenciador;
+
+import com.loja.indice.IndiceCategorias;
+import com.loja.indice.IndicePrimario;
+import com.loja.indice.IndiceTrigramas;
+import com.loja.modelo.Produto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Planejador das consultas compostas ({@link Consulta}).
+ *
+ * O planejador compara três estratégias pela quantidade estimada de produtos
+ * examinados:
+ *
+ * - Índice: o critério indica os acessos por índice possíveis (grupo da
+ *   categoria, trigramas do nome, faixa no índice por preço ou a união deles em
+ *   um OU), com uma estimativa barata da quantidade de candidatos de cada um. Em
+ *   um E, é escolhido o acesso com a menor estimativa, e o critério inteiro é
+ *   conferido em cada candidato. A quantidade de produtos aceitos por um E é
+ *   estimada supondo as partes independentes.
+ * - Varredura ordenada: quando a ordem da consulta é a de um índice ordenado
+ *   (ID, preço ou nome), o índice é percorrido na ordem pedida e a varredura
+ *   para no limite. Com a ordem por preço, percorre apenas a faixa de preço do
+ *   critério. Compensa quando o limite é pequeno em relação aos produtos aceitos.
+ * - Varredura paralela: sem índice aplicável, o critério é avaliado em todos os
+ *   produtos pelo {@link ExecutorConsultas}.
+ *
+ * Fora da varredura ordenada, o resultado é colocado na ordem da consulta por um
+ * heap limitado ao tamanho do limite (top-K), ou por uma ordenação completa
+ * quando não há limite; na ordem por ID, os candidatos já chegam ordenados e a
+ * coleta para no limite.
+ *
+ * Um planejador é criado para cada consulta, com o instantâneo publicado no
+ * início dela.
+ *
+ * @since 2024
+ */
+final class PlanejadorConsultas {
+
+    /**
+     * Estratégias de execução de uma consulta.
+     */
+    enum Estrategia {
+        VAZIA, INDICE, VARREDURA_ORDENADA, VARREDURA_PARALELA
+    }
+
+    // Índices do gerenciador usados nos acessos
+    private final IndicePrimario produtos;
+    private final IndiceTrigramas trigramas;
+    private final IndiceCategorias categorias;
+
+    // Executor das varreduras sem índice
+    private final ExecutorConsultas executor;
+
+    // Instantâneo percorrido pelas varreduras
+    private final Instantaneo instantaneo;
+
+    PlanejadorConsultas(IndicePrimario produtos, IndiceTrigramas trigramas, IndiceCategorias categorias,
+                        ExecutorConsultas executor, Instantaneo instantaneo) {
+        this.produtos = produtos;
+        this.trigramas = trigramas;
+        this.categorias = categorias;
+        this.executor = executor;
+        this.instantaneo = instantaneo;
+    }
+
+    /**
+     * Acesso aos candidatos de um critério por um índice, com a estimativa da
+     * quantidade de candidatos.
+     */
+    static final class Acesso {
+
+        // Quantidade estimada de candidatos (um limite superior)
+        private final int estimativa;
+
+        // Quantidade estimada de produtos aceitos pelo critério, que pode ser menor que a de candidatos
+        private final double aceitos;
+
+        // Descrição do acesso, usada na explicação do plano
+        private final String descricao;
+
+        // Leitura dos IDs dos candidatos, em ordem crescente
+        private final Supplier<int[]> ids;
+
+        private Acesso(int estimativa, double aceitos, String descricao, Supplier<int[]> ids) {
+            this.estimativa = estimativa;
+            this.aceitos = aceitos;
+            this.descricao = descricao;
+            this.ids = ids;
+        }
+
+        private Acesso(int estimativa, String descricao, Supplier<int[]> ids) {
+            this(estimativa, estimativa, descricao, ids);
+        }
+
+        @Override
+        public String toString() {
+            return descricao + " (~" + estimativa + " candidatos)";
+        }
+    }
+
+    /**
+     * Cria o acesso pelo grupo de uma categoria.
+     *
+     * @param nome O nome da categoria, para a explicação.
+     * @param codigo O código da categoria (negativo se ela não estiver registrada).
+     * @return O acesso.
+     */
+    Acesso porCategoria(String nome, int codigo) {
+        return new Acesso(categorias.tamanho(codigo), "grupo da categoria '" + nome + "'",
+                () -> categorias.ids(codigo));
+    }
+
+    /**
+     * Cria o acesso pelo índice de trigramas.
+     *
+     * @param texto O texto buscado no nome.
+     * @return O acesso, ou null se o texto for curto demais para o índice.
+     */
+    Acesso porNome(String texto) {
+        int estimativa = trigramas.estimarCandidatos(texto);
+        if (estimativa < 0) {
+            return null;
+        }
+        return new Acesso(estimativa, "trigramas de '" + texto + "'", () -> {
+            int[] candidatos = trigramas.candidatos(texto);
+            return candidatos != null ? candidatos : new int[0];
+        });
+    }
+
+    /**
+     * Cria o acesso por uma faixa do índice por preço.
+     *
+     * @param faixa A faixa de preço.
+     * @return O acesso.
+     */
+    Acesso porFaixa(FaixaDePreco faixa) {
+        return new Acesso(instantaneo.contarPorFaixaDePreco(faixa), "índice por preço na faixa " + faixa, () -> {
+            List<Produto> encontrados = instantaneo.buscarPorFaixaDePreco(faixa, 0, Integer.MAX_VALUE);
+            int[] ids = new int[encontrados.size()];
+            int i = 0;
+            for (Produto produto : encontrados) {
+                ids[i++] = produto.getId();
+            }
+            Arrays.sort(ids);
+            return ids;
+        });
+    }
+
+    /**
+     * Cria o acesso pela união dos candidatos de vários acessos.
+     *
+     * @param acessos Os acessos unidos.
+     * @return O acesso.
+     */
+    Acesso uniao(List<Acesso> acessos) {
+        long estimativa = 0;
+        double aceitos = 0;
+        StringBuilder descricao = new StringBuilder("união de (");
+        for (int i = 0; i < acessos.size(); i++) {
+            estimativa += acessos.get(i).estimativa;
+            aceitos += acessos.get(i).aceitos;
+            descricao.append(i > 0 ? "; " : "").append(acessos.get(i));
+        }
+        descricao.append(')');
+        int tamanho = instantaneo.tamanho();
+        return new Acesso((int) Math.min(estimativa, tamanho), Math.min(aceitos, tamanho), descricao.toString(), () -> {
+            int[] uniao = new int[0];
+            for (Acesso acesso : acessos) {
+                uniao = unir(uniao, acesso.ids.get());
+            }
+            return uniao;
+        });
+    }
+
+    /**
+     * Cria o acesso de um E: os candidatos do acesso mais seletivo, com a
+     * quantidade de aceitos estimada supondo as partes independentes.
+     *
+     * @param acessos Os acessos das partes que têm índice (pelo menos um).
+     * @return O acesso.
+     */
+    Acesso intersecao(List<Acesso> acessos) {
+        double total = Math.max(1, instantaneo.tamanho());
+        Acesso melhor = acessos.get(0);
+        double aceitos = total;
+        for (Acesso acesso : acessos) {
+            if (acesso.estimativa < melhor.estimativa) {
+                melhor = acesso;
+            }
+            aceitos *= Math.min(1, acesso.aceitos / total);
+        }
+        return new Acesso(melhor.estimativa, Math.min(aceitos, melhor.estimativa), melhor.descricao, melhor.ids);
+    }
+
+    /**
+     * Une dois vetores ordenados de IDs, sem repetições.
+     */
+    private static int[] unir(int[] a, int[] b) {
+        int[] resultado = new int[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                resultado[k++] = a[i++];
+            } else if (a[i] > b[j]) {
+                resultado[k++] = b[j++];
+            } else {
+                resultado[k++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            resultado[k++] = a[i++];
+        }
+        while (j < b.length) {
+            resultado[k++] = b[j++];
+        }
+        return Arrays.copyOf(resultado, k);
+    }
+
+    /**
+     * Escolhe o plano de execução de uma consulta.
+     *
+     * @param consulta A consulta.
+     * @return O plano, que pode ser executado ou explicado.
+     */
+    Plano planejar(Consulta consulta) {
+        Criterio criterio = consulta.criterio();
+        int limite = consulta.limite();
+        if (limite == 0) {
+            return new Plano(consulta, Estrategia.VAZIA, null, null, 0);
+        }
+        Acesso acesso = criterio == null ? null : criterio.acesso(this);
+
+        List<Produto> fonte = fonteOrdenada(consulta);
+        if (fonte != null) {
+            // Produtos examinados pela varredura ordenada até encontrar o limite, supondo os aceitos espalhados
+            long tamanhoFonte = fonte.size();
+            long aceitos = Math.max(1, acesso == null ? tamanhoFonte : (long) Math.min(acesso.aceitos, tamanhoFonte));
+            long custoOrdenado = limite >= aceitos ? tamanhoFonte : Math.min(tamanhoFonte, limite * tamanhoFonte / aceitos);
+            long custoSemOrdem = acesso == null ? instantaneo.tamanho() : acesso.estimativa;
+            // No empate com um índice, a varredura ordenada evita a ordenação dos candidatos
+            if (custoOrdenado < custoSemOrdem || (custoOrdenado == custoSemOrdem && acesso != null)) {
+                return new Plano(consulta, Estrategia.VARREDURA_ORDENADA, null, fonte, custoOrdenado);
+            }
+        }
+        if (acesso != null) {
+            return new Plano(consulta, Estrategia.INDICE, acesso, null, acesso.estimativa);
+        }
+        return new Plano(consulta, Estrategia.VARREDURA_PARALELA, null, null, instantaneo.tamanho());
+    }
+
+    /**
+     * Retorna os produtos do instantâneo na ordem crescente do campo da consulta,
+     * restritos à faixa de preço do critério quando a ordem é por preço.
+     *
+     * @param consulta A consulta.
+     * @return Lista apoiada no índice ordenado, ou null se o campo não tiver índice.
+     */
+    private List<Produto> fonteOrdenada(Consulta consulta) {
+        switch (consulta.campo()) {
+            case ID:
+                return instantaneo.listarPorId();
+            case NOME:
+                return instantaneo.listarPorNome();
+            case PRECO:
+                FaixaDePreco faixa = consulta.criterio() == null ? null : consulta.criterio().faixaDePreco();
+                return faixa == null
+                        ? instantaneo.listarPorPreco()
+                        : instantaneo.buscarPorFaixaDePreco(faixa, 0, Integer.MAX_VALUE);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Plano de execução de uma consulta.
+     */
+    final class Plano {
+
+        // Consulta planejada e estratégia escolhida
+        private final Consulta consulta;
+        private final Estrategia estrategia;
+
+        // Acesso por índice (estratégia INDICE) ou produtos ordenados percorridos (VARREDURA_ORDENADA)
+        private final Acesso acesso;
+        private final List<Produto> fonte;
+
+        // Quantidade estimada de produtos examinados
+        private final long custo;
+
+        private Plano(Consulta consulta, Estrategia estrategia, Acesso acesso, List<Produto> fonte, long custo) {
+            this.consulta = consulta;
+            this.estrategia = estrategia;
+            this.acesso = acesso;
+            this.fonte = fonte;
+            this.custo = custo;
+        }
+
+        Estrategia estrategia() {
+            return estrategia;
+        }
+
+        /**
+         * Executa o plano.
+         *
+         * @return Lista imutável com os produtos aceitos, na ordem da consulta e até o limite.
+         */
+        List<Produto> executar() {
+            Predicate<Produto> filtro = consulta.criterio() == null ? p -> true : consulta.criterio();
+            Coletor coletor = new Coletor(consulta,
+                    estrategia == Estrategia.VARREDURA_ORDENADA || consulta.campo() == Consulta.Campo.ID, filtro);
+            switch (estrategia) {
+                case VARREDURA_ORDENADA:
+                    percorrer(fonte, consulta.decrescente(), filtro, coletor);
+                    break;
+                case INDICE:
+                    int[] ids = acesso.ids.get();
+                    boolean decrescente = consulta.decrescente() && consulta.campo() == Consulta.Campo.ID;
+                    for (int i = 0; i < ids.length && !coletor.cheio(); i++) {
+                        Produto produto = produtos.buscar(ids[decrescente ? ids.length - 1 - i : i]);
+                        // Confere o critério inteiro, inclusive no produto alterado depois da leitura do índice
+                        if (produto != null && filtro.test(produto)) {
+                            coletor.adicionar(produto);
+                        }
+                    }
+                    break;
+                case VARREDURA_PARALELA:
+                    percorrer(executor.filtrar(instantaneo, filtro), consulta.decrescente()
+                            && consulta.campo() == Consulta.Campo.ID, p -> true, coletor);
+                    break;
+                default:
+                    break;
+            }
+            return coletor.resultado();
+        }
+
+        private void percorrer(List<Produto> lista, boolean decrescente, Predicate<Produto> filtro, Coletor coletor) {
+            for (int i = 0; i < lista.size() && !coletor.cheio(); i++) {
+                Produto produto = lista.get(decrescente ? lista.size() - 1 - i : i);
+                if (filtro.test(produto)) {
+                    coletor.adicionar(produto);
+                }
+            }
+        }
+
+        /**
+         * Retorna a explicação do plano, com a estratégia, o acesso escolhido, a
+         * estimativa de produtos examinados e a forma de ordenação.
+         *
+         * @return Texto com a explicação.
+         */
+        @Override
+        public String toString() {
+            StringBuilder texto = new StringBuilder("Consulta: ").append(consulta).append('\n');
+            switch (estrategia) {
+                case VAZIA:
+                    return texto.append("Plano: nenhum produto (limite 0)").toString();
+                case VARREDURA_ORDENADA:
+                    texto.append("Plano: varredura ordenada por ").append(consulta.campo())
+                            .append(consulta.decrescente() ? " decrescente" : "")
+                            .append(" em ").append(fonte.size()).append(" produtos");
+                    break;
+                case INDICE:
+                    texto.append("Plano: índice, ").append(acesso);
+                    break;
+                default:
+                    texto.append("Plano: varredura paralela de ").append(instantaneo.tamanho()).append(" produtos");
+                    break;
+            }
+            texto.append("\nProdutos examinados (estimativa): ").append(custo);
+            if (consulta.criterio() != null) {
+                texto.append("\nFiltro: ").append(consulta.criterio());
+            }
+            texto.append("\nOrdenação: ");
+            if (estrategia == Estrategia.VARREDURA_ORDENADA || consulta.campo() == Consulta.Campo.ID) {
+                texto.append("na ordem da leitura");
+            } else if (consulta.limite() != Integer.MAX_VALUE) {
+                texto.append("heap limitado a ").append(consulta.limite()).append(" produtos");
+            } else {
+                texto.append("ordenação completa");
+            }
+            return texto.toString();
+        }
+    }
+
+    /**
+     * Coleta os produtos aceitos na ordem da consulta, até o limite.
+     *
+     * Se os produtos chegam na ordem da consulta, basta guardá-los até o limite;
+     * caso contrário, um heap com a ordem invertida guarda os melhores até o
+     * momento (o pior fica no topo e sai quando entra um melhor) ou, sem limite,
+     * todos são guardados e ordenados no final.
+     *
+     * Na ordem por estoque, cada produto aceito é copiado ao chegar, e o critério
+     * é conferido de novo na cópia: o estoque das versões armazenadas muda sem a
+     * trava de alterações (ver {@link Instantaneo}), e a ordenação e o heap
+     * precisam de valores que não mudem enquanto são comparados. O resultado
+     * traz essas cópias, com o estoque do momento da coleta.
+     */
+    private static final class Coletor {
+
+        // Ordem do resultado e quantidade máxima de produtos
+        private final Comparator<Produto> ordem;
+        private final int limite;
+
+        // Produtos chegando na ordem da consulta (varredura ordenada ou ordem por ID)
+        private final boolean emOrdem;
+
+        // Critério da consulta, conferido de novo nas cópias da ordem por estoque
+        private final Predicate<Produto> filtro;
+        private final boolean congelarEstoque;
+
+        // Produtos guardados, em lista ou no heap limitado
+        private final List<Produto> lista = new ArrayList<>();
+        private final PriorityQueue<Produto> heap;
+
+        private Coletor(Consulta consulta, boolean emOrdem, Predicate<Produto> filtro) {
+            this.ordem = consulta.ordem();
+            this.limite = consulta.limite();
+            this.emOrdem = emOrdem;
+            this.filtro = filtro;
+            this.congelarEstoque = consulta.campo() == Consulta.Campo.ESTOQUE;
+            this.heap = emOrdem || limite == Integer.MAX_VALUE ? null : new PriorityQueue<>(ordem.reversed());
+        }
+
+        boolean cheio() {
+            return emOrdem && lista.size() >= limite;
+        }
+
+        void adicionar(Produto produto) {
+            if (congelarEstoque) {
+                produto = GerenciadorProdutos.copiar(produto);
+                if (!filtro.test(produto)) {
+                    return;
+                }
+            }
+            if (heap == null) {
+                lista.add(produto);
+            } else if (heap.size() < limite) {
+                heap.add(produto);
+            } else if (ordem.compare(produto, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(produto);
+            }
+        }
+
+        List<Produto> resultado() {
+            List<Produto> resultado = heap == null ? lista : new ArrayList<>(heap);
+            if (!emOrdem) {
+                resultado.sort(ordem);
+            }
+            return Collections.unmodifiableList(resultado);
+        }
+    }
+}
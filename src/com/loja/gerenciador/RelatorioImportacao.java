@@ -0,0 +1,113 @@
+package com.loja.gerenciador;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de uma importação de produtos em CSV.
+ *
+ * O `RelatorioImportacao` conta os produtos importados e as linhas rejeitadas e
+ * guarda, para as primeiras {@value #LIMITE_REJEICOES} rejeições, a linha e o
+ * motivo. Uma linha rejeitada não interrompe a importação.
+ *
+ * @since 2024
+ */
+public class RelatorioImportacao {
+
+    // Quantidade máxima de rejeições guardadas com detalhes
+    public static final int LIMITE_REJEICOES = 1000;
+
+    // Contadores da importação
+    private int importados;
+    private int rejeitados;
+
+    // Primeiras rejeições, na ordem das linhas
+    private final List<Rejeicao> rejeicoes = new ArrayList<>();
+
+    /**
+     * Retorna a quantidade de produtos importados.
+     *
+     * @return Quantidade de produtos importados.
+     */
+    public int getImportados() {
+        return importados;
+    }
+
+    /**
+     * Retorna a quantidade de linhas rejeitadas.
+     *
+     * @return Quantidade de linhas rejeitadas, incluindo as que não têm detalhes guardados.
+     */
+    public int getRejeitados() {
+        return rejeitados;
+    }
+
+    /**
+     * Retorna as primeiras rejeições, com a linha e o motivo.
+     *
+     * @return Lista não modificável de rejeições.
+     */
+    public List<Rejeicao> getRejeicoes() {
+        return Collections.unmodifiableList(rejeicoes);
+    }
+
+    void adicionarImportados(int quantidade) {
+        importados += quantidade;
+    }
+
+    void rejeitar(int linha, String motivo) {
+        rejeitados++;
+        if (rejeicoes.size() < LIMITE_REJEICOES) {
+            rejeicoes.add(new Rejeicao(linha, motivo));
+        }
+    }
+
+    /**
+     * Retorna um resumo da importação.
+     *
+     * @return Texto com a quantidade de produtos importados e de linhas rejeitadas.
+     */
+    @Override
+    public String toString() {
+        return "Importados: " + importados + " | Rejeitados: " + rejeitados;
+    }
+
+    /**
+     * Uma linha rejeitada na importação.
+     */
+    public static class Rejeicao {
+
+        // Linha da entrada em que o registro começa e motivo da rejeição
+        private final int linha;
+        private final String motivo;
+
+        Rejeicao(int linha, String motivo) {
+            this.linha = linha;
+            this.motivo = motivo;
+        }
+
+        /**
+         * Retorna a linha da entrada em que o registro rejeitado começa.
+         *
+         * @return Número da linha, a partir de 1.
+         */
+        public int getLinha() {
+            return linha;
+        }
+
+        /**
+         * Retorna o motivo da rejeição.
+         *
+         * @return Mensagem de erro.
+         */
+        public String getMotivo() {
+            return motivo;
+        }
+
+        @Override
+        public String toString() {
+            return "Linha " + linha + ": " + motivo;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.loja.gerenciador;
+
+/**
+ * Resultado de uma operação em lote do gerenciador de produtos.
+ *
+ * O `ResultadoLote` guarda, para cada item do lote e na mesma ordem em que os
+ * itens foram informados, a situação da operação e, quando o item foi
+ * rejeitado, o motivo. Um item rejeitado não impede a aplicação dos demais.
+ *
+ * @since 2024
+ */
+public class ResultadoLote {
+
+    /**
+     * Situação de um item do lote.
+     */
+    public enum Situacao {
+
+        /**
+         * A operação foi aplicada.
+         */
+        APLICADO,
+
+        /**
+         * Não existe produto com o ID informado (ou ele já foi excluído por um item anterior do lote).
+         */
+        NAO_ENCONTRADO,
+
+        /**
+         * Os dados do produto não passaram nas validações.
+         */
+        INVALIDO
+    }
+
+    // Situação e motivo da rejeição de cada item, na ordem do lote
+    private final Situacao[] situacoes;
+    private final String[] motivos;
+
+    // Contadores por situação
+    private int aplicados;
+    private int naoEncontrados;
+    private int invalidos;
+
+    ResultadoLote(int tamanho) {
+        this.situacoes = new Situacao[tamanho];
+        this.motivos = new String[tamanho];
+    }
+
+    /**
+     * Retorna a quantidade de itens do lote.
+     *
+     * @return Quantidade de itens.
+     */
+    public int tamanho() {
+        return situacoes.length;
+    }
+
+    /**
+     * Retorna a situação de um item do lote.
+     *
+     * @param posicao A posição do item no lote, a partir de 0.
+     * @return A situação do item.
+     */
+    public Situacao getSituacao(int posicao) {
+        return situacoes[posicao];
+    }
+
+    /**
+     * Retorna o motivo da rejeição de um item do lote.
+     *
+     * @param posicao A posição do item no lote, a partir de 0.
+     * @return A mensagem de erro, ou null se o item foi aplicado.
+     */
+    public String getMotivo(int posicao) {
+        return motivos[posicao];
+    }
+
+    /**
+     * Indica se a operação de um item foi aplicada.
+     *
+     * @param posicao A posição do item no lote, a partir de 0.
+     * @return true se o item foi aplicado.
+     */
+    public boolean aplicado(int posicao) {
+        return situacoes[posicao] == Situacao.APLICADO;
+    }
+
+    /**
+     * Retorna a quantidade de itens aplicados.
+     *
+     * @return Quantidade de itens aplicados.
+     */
+    public int getAplicados() {
+        return aplicados;
+    }
+
+    /**
+     * Retorna a quantidade de itens cujo produto não foi encontrado.
+     *
+     * @return Quantidade de itens não encontrados.
+     */
+    public int getNaoEncontrados() {
+        return naoEncontrados;
+    }
+
+    /**
+     * Retorna a quantidade de itens rejeitados nas validações.
+     *
+     * @return Quantidade de itens inválidos.
+     */
+    public int getInvalidos() {
+        return invalidos;
+    }
+
+    void aplicar(int posicao) {
+        situacoes[posicao] = Situacao.APLICADO;
+        aplicados++;
+    }
+
+    void naoEncontrar(int posicao) {
+        situacoes[posicao] = Situacao.NAO_ENCONTRADO;
+        motivos[posicao] = "Produto não encontrado.";
+        naoEncontrados++;
+    }
+
+    void invalidar(int posicao, String motivo) {
+        situacoes[posicao] = Situacao.INVALIDO;
+        motivos[posicao] = motivo;
+        invalidos++;
+    }
+
+    /**
+     * Retorna um resumo do lote.
+     *
+     * @return Texto com a quantidade de itens em cada situação.
+     */
+    @Override
+    public String toString() {
+        return "Aplicados: " + aplicados + " | Não encontrados: " + naoEncontrados + " | Inválidos: " + invalidos;
+    }
+}
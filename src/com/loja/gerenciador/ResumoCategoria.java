@@ -0,0 +1,151 @@
+package com.loja.gerenciador;
+
+/**
+ * Resumo dos produtos de uma categoria (ou do catálogo inteiro) em um instante.
+ *
+ * O `ResumoCategoria` é montado a partir dos totais mantidos pelo gerenciador a
+ * cada alteração, sem percorrer os produtos. Os valores em dinheiro (valor em
+ * estoque e preço médio) são somados em centavos, com o preço de cada produto
+ * arredondado para o centavo mais próximo. Quando essas somas não cabem em um
+ * `long` de centavos, os valores são aproximados e limitados ao maior `long`
+ * (ver {@link #isValoresExatos()}).
+ *
+ * Os totais são lidos um a um; com alterações em andamento, um resumo pode
+ * combinar totais de momentos ligeiramente diferentes.
+ *
+ * @since 2024
+ */
+public class ResumoCategoria {
+
+    // Nome da categoria (null no resumo do catálogo inteiro)
+    private final String categoria;
+
+    // Quantidade de produtos, soma das quantidades em estoque e produtos sem estoque
+    private final long quantidade;
+    private final long estoqueTotal;
+    private final long semEstoque;
+
+    // Soma de preço vezes estoque e soma dos preços, em centavos
+    private final long valorEmEstoqueCentavos;
+    private final long somaPrecosCentavos;
+
+    // Menor e maior preço (0 se não houver produtos)
+    private final double precoMinimo;
+    private final double precoMaximo;
+
+    // Indica se o valor em estoque e a soma dos preços são exatos
+    private final boolean valoresExatos;
+
+    ResumoCategoria(String categoria, long quantidade, long estoqueTotal, long semEstoque,
+                    long valorEmEstoqueCentavos, long somaPrecosCentavos, double precoMinimo, double precoMaximo,
+                    boolean valoresExatos) {
+        this.categoria = categoria;
+        this.quantidade = quantidade;
+        this.estoqueTotal = estoqueTotal;
+        this.semEstoque = semEstoque;
+        this.valorEmEstoqueCentavos = valorEmEstoqueCentavos;
+        this.somaPrecosCentavos = somaPrecosCentavos;
+        this.precoMinimo = precoMinimo;
+        this.precoMaximo = precoMaximo;
+        this.valoresExatos = valoresExatos;
+    }
+
+    /**
+     * Retorna o nome da categoria resumida.
+     *
+     * @return O nome da categoria, ou null no resumo do catálogo inteiro.
+     */
+    public String getCategoria() {
+        return categoria;
+    }
+
+    /**
+     * Retorna a quantidade de produtos.
+     *
+     * @return Quantidade de produtos.
+     */
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Retorna a soma das quantidades em estoque dos produtos.
+     *
+     * @return Total de unidades em estoque.
+     */
+    public long getEstoqueTotal() {
+        return estoqueTotal;
+    }
+
+    /**
+     * Retorna a quantidade de produtos com estoque zerado.
+     *
+     * @return Quantidade de produtos sem estoque.
+     */
+    public long getSemEstoque() {
+        return semEstoque;
+    }
+
+    /**
+     * Retorna o valor em estoque, a soma de preço vezes quantidade em estoque.
+     *
+     * @return O valor em estoque.
+     */
+    public double getValorEmEstoque() {
+        return valorEmEstoqueCentavos / 100.0;
+    }
+
+    /**
+     * Retorna o menor preço dos produtos.
+     *
+     * @return O menor preço, ou 0 se não houver produtos.
+     */
+    public double getPrecoMinimo() {
+        return precoMinimo;
+    }
+
+    /**
+     * Retorna o maior preço dos produtos.
+     *
+     * @return O maior preço, ou 0 se não houver produtos.
+     */
+    public double getPrecoMaximo() {
+        return precoMaximo;
+    }
+
+    /**
+     * Retorna a média dos preços dos produtos.
+     *
+     * @return O preço médio, ou 0 se não houver produtos.
+     */
+    public double getPrecoMedio() {
+        return quantidade == 0 ? 0 : somaPrecosCentavos / 100.0 / quantidade;
+    }
+
+    /**
+     * Indica se o valor em estoque e o preço médio são exatos.
+     *
+     * @return true se as somas em centavos couberam em um `long`; false se os
+     *         valores forem aproximados, limitados ao maior `long` de centavos.
+     */
+    public boolean isValoresExatos() {
+        return valoresExatos;
+    }
+
+    /**
+     * Retorna uma representação em formato de string do resumo.
+     *
+     * @return String com a categoria, as quantidades, o valor em estoque e os preços.
+     */
+    @Override
+    public String toString() {
+        return (categoria == null ? "Catálogo" : "Categoria: " + categoria)
+                + " | Produtos: " + quantidade
+                + " | Estoque: " + estoqueTotal
+                + " | Sem estoque: " + semEstoque
+                + " | Valor em estoque: R$ " + String.format("%.2f", getValorEmEstoque()) + (valoresExatos ? "" : " (aproximado)")
+                + " | Preço mínimo: R$ " + precoMinimo
+                + " | Preço máximo: R$ " + precoMaximo
+                + " | Preço médio: R$ " + String.format("%.2f", getPrecoMedio());
+    }
+}
@@ -0,0 +1,401 @@
+package com.loja.gerenciador;
+
+import com.loja.exception.ValidacaoException;
+import com.loja.modelo.DicionarioCategorias;
+import com.loja.modelo.Produto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Tabela colunar, somente leitura, com os produtos de um instantâneo.
+ *
+ * A `TabelaColunar` guarda cada atributo dos produtos em um vetor de tipo
+ * primitivo: os IDs e os códigos de categoria em vetores de `int`, os preços em
+ * um vetor de `double` e os nomes, codificados em UTF-8, lado a lado em um único
+ * vetor de bytes. As linhas ficam na ordem do índice por preço, de modo que uma
+ * faixa de preço é um trecho contínuo de cada coluna, localizado por busca
+ * binária na coluna de preços. As buscas por nome e por categoria varrem as
+ * colunas de nomes e de categorias do início ao fim; como a tabela não tem o
+ * índice de trigramas, a busca por nome é mais lenta que a do gerenciador em
+ * catálogos grandes.
+ *
+ * A quantidade em estoque não é copiada para uma coluna: ela é a única parte
+ * mutável de um produto armazenado (ver {@link Instantaneo}), e a tabela guarda
+ * as próprias versões armazenadas e lê o estoque atual delas a cada consulta,
+ * como o instantâneo e as listas do gerenciador. Por isso as somas sobre uma
+ * faixa ({@link #somarEstoque(FaixaDePreco)} e {@link #valorEmEstoque(FaixaDePreco)})
+ * seguem uma referência por linha, e cada estoque é lido em um momento
+ * diferente, sem um corte comum entre eles.
+ *
+ * Cada produto ocupa cerca de 36 bytes mais o nome, contra o objeto do produto,
+ * o seu ID, o seu nome e os nós dos três índices ordenados no gerenciador; a
+ * tabela mantém vivas as versões armazenadas do seu instante.
+ *
+ * A tabela oferece as mesmas consultas do gerenciador ({@link ConsultaProdutos}).
+ * Os produtos das listas devolvidas são montados a partir das colunas a cada
+ * acesso, com o estoque do momento do acesso, e podem ser alterados sem afetar
+ * a tabela. A tabela é imutável e pode ser consultada por várias threads.
+ *
+ * @since 2024
+ */
+public final class TabelaColunar implements ConsultaProdutos {
+
+    // Quantidade de linhas (produtos) da tabela
+    private final int quantidade;
+
+    // Colunas, com as linhas em ordem de preço (e de ID, em caso de empate)
+    private final int[] ids;
+    private final double[] precos;
+    private final int[] categorias;
+
+    // Versões armazenadas, de onde a quantidade em estoque atual é lida
+    private final Produto[] versoes;
+
+    // Nomes em UTF-8; o nome da linha i vai de inicioNomes[i] até inicioNomes[i + 1]
+    private final byte[] nomes;
+    private final int[] inicioNomes;
+
+    // Linhas cujo nome tem caracteres fora do Latin-1 (acima de U+00FF)
+    private final BitSet nomesForaDoLatin1 = new BitSet();
+
+    // IDs em ordem crescente e a linha de cada um
+    private final int[] idsOrdenados;
+    private final int[] linhasPorId;
+
+    // Linhas em ordem de nome (e de ID, em caso de empate)
+    private final int[] linhasPorNome;
+
+    /**
+     * Monta a tabela com os produtos de um instantâneo, em O(n log n).
+     *
+     * @param instantaneo O instantâneo cujos produtos formam a tabela.
+     */
+    TabelaColunar(Instantaneo instantaneo) {
+        List<Produto> porPreco = instantaneo.listarPorPreco();
+        quantidade = porPreco.size();
+        ids = new int[quantidade];
+        precos = new double[quantidade];
+        categorias = new int[quantidade];
+        versoes = new Produto[quantidade];
+        inicioNomes = new int[quantidade + 1];
+
+        byte[] arena = new byte[Math.max(16, quantidade * 16)];
+        int tamanhoNomes = 0;
+        long[] chaves = new long[quantidade];
+        int linha = 0;
+        for (Produto produto : porPreco) {
+            int id = produto.getId();
+            ids[linha] = id;
+            precos[linha] = produto.getPreco();
+            categorias[linha] = produto.getCodigoCategoria();
+            versoes[linha] = produto;
+
+            String nome = produto.getNome();
+            byte[] codificado = nome.getBytes(StandardCharsets.UTF_8);
+            if (!ComparacaoNomes.latin1(nome)) {
+                nomesForaDoLatin1.set(linha);
+            }
+            if (tamanhoNomes + codificado.length > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(arena.length * 2, tamanhoNomes + codificado.length));
+            }
+            System.arraycopy(codificado, 0, arena, tamanhoNomes, codificado.length);
+            tamanhoNomes += codificado.length;
+
+            chaves[linha] = (long) id << 32 | linha;
+            linha++;
+            inicioNomes[linha] = tamanhoNomes;
+        }
+        nomes = Arrays.copyOf(arena, tamanhoNomes);
+
+        Arrays.sort(chaves);
+        idsOrdenados = new int[quantidade];
+        linhasPorId = new int[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            idsOrdenados[i] = (int) (chaves[i] >>> 32);
+            linhasPorId[i] = (int) chaves[i];
+        }
+
+        linhasPorNome = new int[quantidade];
+        int posicao = 0;
+        for (Produto produto : instantaneo.listarPorNome()) {
+            linhasPorNome[posicao++] = linhaDoId(produto.getId());
+        }
+    }
+
+    /**
+     * Retorna a quantidade de produtos da tabela.
+     *
+     * @return Quantidade de produtos.
+     */
+    public int tamanho() {
+        return quantidade;
+    }
+
+    /**
+     * Busca um produto pelo ID, por busca binária na coluna de IDs ordenados.
+     *
+     * @param id O ID do produto a ser buscado.
+     * @return O produto encontrado ou null se não houver produto com o ID fornecido.
+     */
+    @Override
+    public Produto buscarPorId(int id) {
+        int linha = linhaDoId(id);
+        return linha < 0 ? null : produto(linha);
+    }
+
+    @Override
+    public List<Produto> listarTodosPorID() {
+        return new Linhas(linhasPorId, 0, quantidade);
+    }
+
+    @Override
+    public List<Produto> listarTodosPorPreco() {
+        return new Linhas(null, 0, quantidade);
+    }
+
+    @Override
+    public List<Produto> listarTodosPorNome() {
+        return new Linhas(linhasPorNome, 0, quantidade);
+    }
+
+    /**
+     * Busca produtos pelo nome (case insensitive).
+     *
+     * A coluna de nomes é varrida diretamente em bytes, convertendo para
+     * minúsculas as letras do Latin-1 (o que inclui as letras acentuadas do
+     * português) durante a comparação; só os nomes com outros caracteres são
+     * decodificados e comparados como no gerenciador.
+     *
+     * @param nome O nome ou parte do nome do produto a ser buscado.
+     * @return A lista de produtos cujo nome contenha a string fornecida, ordenada por ID.
+     */
+    @Override
+    public List<Produto> buscarPorNome(String nome) {
+        String termo = nome.toLowerCase();
+        byte[] padrao = termo.getBytes(StandardCharsets.UTF_8);
+        boolean padraoLatin1 = ComparacaoNomes.latin1(termo);
+        long[] encontrados = new long[16];
+        int total = 0;
+        for (int linha = 0; linha < quantidade; linha++) {
+            boolean contem = nomesForaDoLatin1.get(linha)
+                    ? nome(linha).toLowerCase().contains(termo)
+                    : padraoLatin1 && ComparacaoNomes.contem(nomes, inicioNomes[linha], inicioNomes[linha + 1], padrao);
+            if (contem) {
+                if (total == encontrados.length) {
+                    encontrados = Arrays.copyOf(encontrados, total * 2);
+                }
+                encontrados[total++] = (long) ids[linha] << 32 | linha;
+            }
+        }
+        return ordenadasPorId(encontrados, total);
+    }
+
+    /**
+     * Busca produtos pela categoria (case insensitive), varrendo a coluna de códigos de categoria.
+     *
+     * @param categoria A categoria do produto a ser buscado.
+     * @return A lista de produtos pertencentes à categoria fornecida, ordenada por ID.
+     */
+    @Override
+    public List<Produto> buscarPorCategoria(String categoria) {
+        int codigo = DicionarioCategorias.buscarCodigo(categoria);
+        if (codigo < 0) {
+            return List.of();
+        }
+        long[] encontrados = new long[16];
+        int total = 0;
+        for (int linha = 0; linha < quantidade; linha++) {
+            if (categorias[linha] == codigo) {
+                if (total == encontrados.length) {
+                    encontrados = Arrays.copyOf(encontrados, total * 2);
+                }
+                encontrados[total++] = (long) ids[linha] << 32 | linha;
+            }
+        }
+        return ordenadasPorId(encontrados, total);
+    }
+
+    @Override
+    public List<Produto> buscarPorFaixaDePreco(double precoMinimo, double precoMaximo) {
+        return buscarPorFaixaDePreco(FaixaDePreco.entre(precoMinimo, precoMaximo), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Busca uma página de produtos dentro de uma faixa de preço.
+     *
+     * A faixa é localizada por busca binária na coluna de preços, e a página é
+     * devolvida como uma lista apoiada no trecho correspondente das colunas.
+     *
+     * @param faixa A faixa de preço, que pode ser aberta em qualquer um dos lados.
+     * @param deslocamento Quantidade de produtos da faixa a serem pulados.
+     * @param limite Quantidade máxima de produtos a serem retornados.
+     * @return Lista de produtos da página, ordenados por preço.
+     * @throws ValidacaoException Se o deslocamento ou o limite forem negativos.
+     */
+    @Override
+    public List<Produto> buscarPorFaixaDePreco(FaixaDePreco faixa, int deslocamento, int limite) {
+        if (deslocamento < 0 || limite < 0) {
+            throw new ValidacaoException("O deslocamento e o limite da consulta não podem ser negativos.");
+        }
+        int inicio = contarAntes(faixa.getPrecoMinimo(), false);
+        int fim = contarAntes(faixa.getPrecoMaximo(), true);
+        long primeiro = (long) inicio + deslocamento;
+        long ultimo = Math.min(fim, primeiro + limite);
+        if (primeiro >= ultimo) {
+            return List.of();
+        }
+        return new Linhas(null, (int) primeiro, (int) ultimo);
+    }
+
+    @Override
+    public int contarPorFaixaDePreco(FaixaDePreco faixa) {
+        return Math.max(0, contarAntes(faixa.getPrecoMaximo(), true) - contarAntes(faixa.getPrecoMinimo(), false));
+    }
+
+    /**
+     * Soma as quantidades em estoque atuais dos produtos dentro de uma faixa de
+     * preço, lidas das versões armazenadas do trecho da faixa.
+     *
+     * @param faixa A faixa de preço, que pode ser aberta em qualquer um dos lados.
+     * @return A soma das quantidades em estoque.
+     */
+    public long somarEstoque(FaixaDePreco faixa) {
+        int fim = contarAntes(faixa.getPrecoMaximo(), true);
+        long soma = 0;
+        for (int linha = contarAntes(faixa.getPrecoMinimo(), false); linha < fim; linha++) {
+            soma += versoes[linha].getQuantidadeEstoque();
+        }
+        return soma;
+    }
+
+    /**
+     * Calcula o valor em estoque (preço vezes quantidade atual) dos produtos
+     * dentro de uma faixa de preço, percorrendo o trecho da coluna de preços e
+     * lendo o estoque das versões armazenadas.
+     *
+     * @param faixa A faixa de preço, que pode ser aberta em qualquer um dos lados.
+     * @return A soma do preço vezes a quantidade em estoque de cada produto.
+     */
+    public double valorEmEstoque(FaixaDePreco faixa) {
+        int fim = contarAntes(faixa.getPrecoMaximo(), true);
+        double valor = 0;
+        for (int linha = contarAntes(faixa.getPrecoMinimo(), false); linha < fim; linha++) {
+            valor += precos[linha] * versoes[linha].getQuantidadeEstoque();
+        }
+        return valor;
+    }
+
+    /**
+     * Conta as linhas com preço abaixo do informado (ou até ele), por busca binária.
+     *
+     * @param preco O preço de referência.
+     * @param incluirIguais Se as linhas com o mesmo preço também são contadas.
+     * @return A posição da primeira linha que não entra na contagem.
+     */
+    private int contarAntes(double preco, boolean incluirIguais) {
+        int baixo = 0;
+        int alto = quantidade;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            double atual = precos[meio];
+            if (atual < preco || (incluirIguais && atual == preco)) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    /**
+     * Retorna a linha de um ID, por busca binária na coluna de IDs ordenados.
+     *
+     * @param id O ID procurado.
+     * @return A linha do produto, ou -1 se o ID não estiver na tabela.
+     */
+    private int linhaDoId(int id) {
+        int posicao = Arrays.binarySearch(idsOrdenados, id);
+        return posicao < 0 ? -1 : linhasPorId[posicao];
+    }
+
+    /**
+     * Ordena por ID as linhas encontradas por uma varredura.
+     *
+     * @param encontrados Os IDs (nos 32 bits altos) e as linhas (nos 32 bits baixos) encontrados.
+     * @param total Quantidade de linhas encontradas.
+     * @return Lista imutável com os produtos das linhas, ordenados por ID.
+     */
+    private List<Produto> ordenadasPorId(long[] encontrados, int total) {
+        Arrays.sort(encontrados, 0, total);
+        int[] linhas = new int[total];
+        for (int i = 0; i < total; i++) {
+            linhas[i] = (int) encontrados[i];
+        }
+        return new Linhas(linhas, 0, total);
+    }
+
+    private String nome(int linha) {
+        int inicio = inicioNomes[linha];
+        return new String(nomes, inicio, inicioNomes[linha + 1] - inicio, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Monta um produto com os valores de uma linha das colunas e o estoque atual
+     * da versão armazenada.
+     *
+     * @param linha A linha do produto.
+     * @return Um novo produto com os dados da linha.
+     */
+    private Produto produto(int linha) {
+        Produto produto = new Produto(nome(linha), precos[linha], versoes[linha].getQuantidadeEstoque(), null);
+        produto.setId(ids[linha]);
+        produto.setCodigoCategoria(categorias[linha]);
+        return produto;
+    }
+
+    /**
+     * Lista imutável de linhas da tabela, que monta cada produto ao ser acessado.
+     */
+    private final class Linhas extends AbstractList<Produto> implements RandomAccess {
+
+        // Linhas da lista (null quando são as próprias linhas da tabela, em ordem de preço)
+        private final int[] linhas;
+
+        // Intervalo de posições coberto pela lista
+        private final int inicio;
+        private final int fim;
+
+        private Linhas(int[] linhas, int inicio, int fim) {
+            this.linhas = linhas;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        public Produto get(int posicao) {
+            if (posicao < 0 || posicao >= fim - inicio) {
+                throw new IndexOutOfBoundsException("Posição fora da lista: " + posicao);
+            }
+            int indice = inicio + posicao;
+            return produto(linhas == null ? indice : linhas[indice]);
+        }
+
+        @Override
+        public int size() {
+            return fim - inicio;
+        }
+
+        @Override
+        public List<Produto> subList(int de, int ate) {
+            if (de < 0 || ate > fim - inicio || de > ate) {
+                throw new IndexOutOfBoundsException("Intervalo fora da lista: " + de + " a " + ate);
+            }
+            return new Linhas(linhas, inicio + de, inicio + ate);
+        }
+    }
+}
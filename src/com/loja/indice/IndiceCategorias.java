@@ -0,0 +1,242 @@
+package com.loja.indice;
+
+import com.loja.modelo.Produto;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Índice secundário que agrupa os produtos por categoria.
+ *
+ * O `IndiceCategorias` mantém um grupo de IDs para cada código de categoria do
+ * `DicionarioCategorias`. Os grupos ficam em um vetor indexado pelo próprio
+ * código, de modo que buscar os produtos de uma categoria é um acesso direto,
+ * sem comparar o nome da categoria de cada produto.
+ *
+ * As alterações usam a trava de escrita de um `StampedLock`, e as consultas
+ * usam leituras otimistas, refeitas apenas se uma alteração ocorrer no meio delas,
+ * como no `IndiceTrigramas`.
+ *
+ * @since 2024
+ */
+public class IndiceCategorias {
+
+    // Grupos de IDs, indexados pelo código da categoria
+    private ListaIds[] grupos = new ListaIds[16];
+
+    // Tentativas de leitura otimista antes de usar a trava de leitura
+    private static final int TENTATIVAS_OTIMISTAS = 3;
+
+    // Trava das alterações, validada pelas leituras otimistas
+    private final StampedLock trava = new StampedLock();
+
+    /**
+     * Adiciona um produto ao grupo da sua categoria.
+     *
+     * @param codigo O código da categoria.
+     * @param id O ID do produto.
+     */
+    public void adicionar(int codigo, int id) {
+        if (codigo < 0) {
+            return;
+        }
+        long carimbo = trava.writeLock();
+        try {
+            if (codigo >= grupos.length) {
+                grupos = Arrays.copyOf(grupos, Math.max(grupos.length * 2, codigo + 1));
+            }
+            if (grupos[codigo] == null) {
+                grupos[codigo] = new ListaIds();
+            }
+            grupos[codigo].adicionar(id);
+        } finally {
+            trava.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Remove um produto do grupo da sua categoria.
+     *
+     * @param codigo O código da categoria.
+     * @param id O ID do produto.
+     */
+    public void remover(int codigo, int id) {
+        long carimbo = trava.writeLock();
+        try {
+            if (codigo >= 0 && codigo < grupos.length && grupos[codigo] != null) {
+                grupos[codigo].remover(id);
+            }
+        } finally {
+            trava.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Adiciona vários produtos aos grupos das suas categorias de uma vez, com uma
+     * única passada por grupo.
+     *
+     * @param produtos Os produtos a serem adicionados.
+     */
+    public void adicionarTodos(Collection<Produto> produtos) {
+        ListaIds[] porCodigo = agrupar(produtos);
+        long carimbo = trava.writeLock();
+        try {
+            if (porCodigo.length > grupos.length) {
+                grupos = Arrays.copyOf(grupos, Math.max(grupos.length * 2, porCodigo.length));
+            }
+            for (int codigo = 0; codigo < porCodigo.length; codigo++) {
+                if (porCodigo[codigo] != null) {
+                    if (grupos[codigo] == null) {
+                        grupos[codigo] = new ListaIds();
+                    }
+                    grupos[codigo].adicionarTodos(porCodigo[codigo]);
+                }
+            }
+        } finally {
+            trava.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Remove vários produtos dos grupos das suas categorias de uma vez, com uma
+     * única passada por grupo.
+     *
+     * @param produtos Os produtos, com as categorias em que foram adicionados.
+     */
+    public void removerTodos(Collection<Produto> produtos) {
+        ListaIds[] porCodigo = agrupar(produtos);
+        long carimbo = trava.writeLock();
+        try {
+            for (int codigo = 0; codigo < porCodigo.length && codigo < grupos.length; codigo++) {
+                if (porCodigo[codigo] != null && grupos[codigo] != null) {
+                    grupos[codigo].removerTodos(porCodigo[codigo]);
+                }
+            }
+        } finally {
+            trava.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Retorna a quantidade de produtos de uma categoria.
+     *
+     * @param codigo O código da categoria.
+     * @return Quantidade de produtos do grupo.
+     */
+    public int tamanho(int codigo) {
+        long carimbo = trava.tryOptimisticRead();
+        ListaIds[] atuais = grupos;
+        int tamanho = codigo >= 0 && codigo < atuais.length && atuais[codigo] != null ? atuais[codigo].tamanho() : 0;
+        if (trava.validate(carimbo)) {
+            return tamanho;
+        }
+        carimbo = trava.readLock();
+        try {
+            return codigo >= 0 && codigo < grupos.length && grupos[codigo] != null ? grupos[codigo].tamanho() : 0;
+        } finally {
+            trava.unlockRead(carimbo);
+        }
+    }
+
+    /**
+     * Retorna a quantidade de categorias com pelo menos um produto.
+     *
+     * @return Quantidade de grupos não vazios.
+     */
+    public int quantidadeCategorias() {
+        long carimbo = trava.readLock();
+        try {
+            int quantidade = 0;
+            for (ListaIds grupo : grupos) {
+                if (grupo != null && grupo.tamanho() > 0) {
+                    quantidade++;
+                }
+            }
+            return quantidade;
+        } finally {
+            trava.unlockRead(carimbo);
+        }
+    }
+
+    /**
+     * Retorna os IDs dos produtos de uma categoria, em ordem crescente.
+     *
+     * @param codigo O código da categoria.
+     * @return Vetor com os IDs do grupo (vazio se a categoria não tiver produtos).
+     */
+    public int[] ids(int codigo) {
+        if (codigo < 0) {
+            return new int[0];
+        }
+        for (int tentativa = 0; tentativa < TENTATIVAS_OTIMISTAS; tentativa++) {
+            long carimbo = trava.tryOptimisticRead();
+            if (carimbo == 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            try {
+                int[] ids = copiar(codigo);
+                if (trava.validate(carimbo)) {
+                    return ids;
+                }
+            } catch (RuntimeException e) {
+                // Leitura inconsistente durante uma alteração: a validação falharia
+                if (trava.validate(carimbo)) {
+                    throw e;
+                }
+            }
+        }
+        long carimbo = trava.readLock();
+        try {
+            return copiar(codigo);
+        } finally {
+            trava.unlockRead(carimbo);
+        }
+    }
+
+    /**
+     * Separa os IDs dos produtos pelo código da categoria, em ordem crescente.
+     *
+     * @param produtos Os produtos.
+     * @return Vetor indexado pelo código, com os IDs de cada categoria (null se não houver).
+     */
+    private static ListaIds[] agrupar(Collection<Produto> produtos) {
+        Produto[] ordenados = produtos.toArray(new Produto[0]);
+        Arrays.sort(ordenados, Comparator.comparingInt(Produto::getId));
+        ListaIds[] porCodigo = new ListaIds[0];
+        for (Produto produto : ordenados) {
+            int codigo = produto.getCodigoCategoria();
+            if (codigo < 0) {
+                continue;
+            }
+            if (codigo >= porCodigo.length) {
+                porCodigo = Arrays.copyOf(porCodigo, Math.max(porCodigo.length * 2, codigo + 1));
+            }
+            if (porCodigo[codigo] == null) {
+                porCodigo[codigo] = new ListaIds();
+            }
+            porCodigo[codigo].adicionar(produto.getId());
+        }
+        return porCodigo;
+    }
+
+    private int[] copiar(int codigo) {
+        ListaIds[] atuais = grupos;
+        ListaIds grupo = codigo < atuais.length ? atuais[codigo] : null;
+        return grupo == null ? new int[0] : grupo.paraVetor();
+    }
+
+    /**
+     * Remove todos os produtos do índice.
+     */
+    public void limpar() {
+        long carimbo = trava.writeLock();
+        try {
+            grupos = new ListaIds[16];
+        } finally {
+            trava.unlockWrite(carimbo);
+        }
+    }
+}
@@ -0,0 +1,660 @@
+package com.loja.indice;
+
+import com.loja.modelo.Produto;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Índice secundário que mantém os produtos ordenados por um critério.
+ *
+ * O `IndiceOrdenado` é uma árvore binária de busca balanceada por prioridades
+ * pseudoaleatórias (treap). Cada nó guarda o tamanho da sua subárvore, o que
+ * permite inserir e remover em O(log n), percorrer todos os produtos em ordem em
+ * O(n), sem precisar ordenar a coleção a cada listagem, e localizar a posição
+ * (rank) de uma chave em O(log n), o que atende consultas por faixa em O(log n + k).
+ *
+ * O índice é persistente: os nós nunca são alterados depois de criados, e
+ * {@link #inserir(Produto)} e {@link #remover(Produto)} devolvem uma nova versão
+ * do índice, copiando apenas os O(log n) nós do caminho até a posição alterada e
+ * compartilhando o restante da árvore com a versão anterior. Assim, quem guarda
+ * uma versão pode consultá-la de qualquer thread, sem travas, enquanto outras
+ * versões são criadas; versões que deixam de ser usadas são recolhidas pelo
+ * coletor de lixo. Pelo mesmo motivo, {@link #visao()} expõe uma versão como uma
+ * lista imutável sem copiar os produtos.
+ *
+ * Produtos com a mesma chave de ordenação são desempatados pelo ID, de forma que
+ * cada produto ocupa uma posição única no índice. Os produtos indexados não
+ * devem ter os campos da chave alterados; uma alteração é feita removendo a
+ * versão antiga do produto e inserindo a nova.
+ *
+ * Esta classe é imutável e thread-safe.
+ *
+ * @since 2024
+ */
+public final class IndiceOrdenado implements Iterable<Produto> {
+
+    /**
+     * Nó imutável da árvore, com o produto, a prioridade e o tamanho da subárvore.
+     */
+    private static final class No {
+        private final Produto produto;
+        private final int prioridade;
+        private final int tamanho;
+        private final No esquerda;
+        private final No direita;
+
+        private No(Produto produto, int prioridade, No esquerda, No direita) {
+            this.produto = produto;
+            this.prioridade = prioridade;
+            this.esquerda = esquerda;
+            this.direita = direita;
+            this.tamanho = 1 + IndiceOrdenado.tamanho(esquerda) + IndiceOrdenado.tamanho(direita);
+        }
+
+        private No comFilhos(No esquerda, No direita) {
+            return new No(produto, prioridade, esquerda, direita);
+        }
+    }
+
+    // Critério de ordenação, já desempatado pelo ID do produto
+    private final Comparator<Produto> ordem;
+
+    // Raiz da árvore desta versão (null quando o índice está vazio)
+    private final No raiz;
+
+    private IndiceOrdenado(Comparator<Produto> ordem, No raiz) {
+        this.ordem = ordem;
+        this.raiz = raiz;
+    }
+
+    /**
+     * Cria um índice vazio ordenado pelo critério informado.
+     *
+     * @param criterio O critério de ordenação dos produtos; empates são resolvidos pelo ID.
+     */
+    public IndiceOrdenado(Comparator<Produto> criterio) {
+        this(criterio.thenComparing((a, b) -> Integer.compare(a.getId(), b.getId())), null);
+    }
+
+    /**
+     * Cria um índice de produtos ordenados por ID.
+     *
+     * @return Um índice vazio ordenado por ID.
+     */
+    public static IndiceOrdenado porId() {
+        return new IndiceOrdenado((a, b) -> 0);
+    }
+
+    /**
+     * Cria um índice de produtos ordenados por preço.
+     *
+     * @return Um índice vazio ordenado por preço.
+     */
+    public static IndiceOrdenado porPreco() {
+        return new IndiceOrdenado((a, b) -> Double.compare(a.getPreco(), b.getPreco()));
+    }
+
+    /**
+     * Cria um índice de produtos ordenados por nome.
+     *
+     * @return Um índice vazio ordenado por nome.
+     */
+    public static IndiceOrdenado porNome() {
+        return new IndiceOrdenado((a, b) -> a.getNome().compareTo(b.getNome()));
+    }
+
+    /**
+     * Retorna a quantidade de produtos presentes no índice.
+     *
+     * @return Quantidade de produtos.
+     */
+    public int tamanho() {
+        return tamanho(raiz);
+    }
+
+    /**
+     * Retorna uma nova versão do índice com o produto inserido na posição
+     * determinada pelos seus valores.
+     *
+     * @param produto O produto a ser inserido.
+     * @return A nova versão do índice; esta versão não é alterada.
+     */
+    public IndiceOrdenado inserir(Produto produto) {
+        return new IndiceOrdenado(ordem, inserir(raiz, produto, prioridade(produto.getId())));
+    }
+
+    /**
+     * Retorna uma nova versão do índice sem o produto informado.
+     *
+     * O produto deve ter os mesmos valores de chave da versão que foi inserida.
+     *
+     * @param produto O produto a ser removido.
+     * @return A nova versão do índice, ou esta mesma versão se o produto não estiver presente.
+     */
+    public IndiceOrdenado remover(Produto produto) {
+        No novaRaiz = remover(raiz, produto);
+        return novaRaiz == raiz ? this : new IndiceOrdenado(ordem, novaRaiz);
+    }
+
+    /**
+     * Retorna uma nova versão do índice com vários produtos inseridos de uma vez.
+     *
+     * Os produtos são ordenados e montados em uma árvore própria, que é unida à
+     * árvore atual em uma única passada; apenas os caminhos onde os novos produtos
+     * se encaixam são copiados, em O(m log(n/m + 1)) para m produtos. Nenhum
+     * produto pode já estar presente no índice.
+     *
+     * @param novos Os produtos a serem inseridos.
+     * @return A nova versão do índice; esta versão não é alterada.
+     */
+    public IndiceOrdenado inserirTodos(Collection<Produto> novos) {
+        if (novos.isEmpty()) {
+            return this;
+        }
+        Produto[] ordenados = novos.toArray(new Produto[0]);
+        Arrays.sort(ordenados, ordem);
+        return new IndiceOrdenado(ordem, unirConjuntos(raiz, construir(ordenados, 0, ordenados.length)));
+    }
+
+    /**
+     * Retorna uma nova versão do índice sem vários produtos, removidos de uma vez.
+     *
+     * Os produtos são ordenados e separados ao descer a árvore, de modo que cada
+     * nó é visitado no máximo uma vez, e só são visitadas as subárvores que
+     * contêm algum produto a remover. Produtos ausentes são ignorados.
+     *
+     * @param removidos Os produtos a serem removidos, com os mesmos valores de chave das versões inseridas.
+     * @return A nova versão do índice, ou esta mesma versão se nenhum produto estiver presente.
+     */
+    public IndiceOrdenado removerTodos(Collection<Produto> removidos) {
+        if (removidos.isEmpty()) {
+            return this;
+        }
+        Produto[] ordenados = removidos.toArray(new Produto[0]);
+        Arrays.sort(ordenados, ordem);
+        No novaRaiz = removerTodos(raiz, ordenados, 0, ordenados.length);
+        return novaRaiz == raiz ? this : new IndiceOrdenado(ordem, novaRaiz);
+    }
+
+    /**
+     * Retorna uma versão vazia do índice, com o mesmo critério de ordenação.
+     *
+     * @return O índice vazio.
+     */
+    public IndiceOrdenado limpar() {
+        return new IndiceOrdenado(ordem, null);
+    }
+
+    /**
+     * Retorna uma nova lista com todos os produtos na ordem do índice.
+     *
+     * A lista é preenchida por um percurso em ordem da árvore, em tempo linear.
+     *
+     * @return Lista ordenada com os produtos do índice.
+     */
+    public List<Produto> listar() {
+        return listar(0, tamanho(raiz));
+    }
+
+    /**
+     * Retorna uma lista imutável com os produtos desta versão, na ordem do índice,
+     * sem copiá-los.
+     *
+     * O acesso por posição custa O(log n) e a iteração custa O(1) amortizado por
+     * produto. A lista não muda quando novas versões do índice são criadas.
+     *
+     * @return Lista imutável apoiada nesta versão do índice.
+     */
+    public List<Produto> visao() {
+        return new Visao(0, tamanho(raiz));
+    }
+
+    /**
+     * Retorna uma lista imutável com os produtos entre duas posições desta versão,
+     * sem copiá-los.
+     *
+     * @param inicio A posição do primeiro produto (inclusiva).
+     * @param fim A posição final (exclusiva).
+     * @return Lista imutável apoiada nesta versão do índice.
+     */
+    public List<Produto> visao(int inicio, int fim) {
+        inicio = Math.max(inicio, 0);
+        fim = Math.min(fim, tamanho(raiz));
+        return new Visao(inicio, Math.max(inicio, fim));
+    }
+
+    /**
+     * Retorna o produto de uma posição do índice, descendo pelos tamanhos das
+     * subárvores em O(log n).
+     *
+     * @param posicao A posição do produto, entre 0 e {@code tamanho() - 1}.
+     * @return O produto da posição.
+     * @throws IndexOutOfBoundsException Se a posição estiver fora do índice.
+     */
+    public Produto obter(int posicao) {
+        if (posicao < 0 || posicao >= tamanho(raiz)) {
+            throw new IndexOutOfBoundsException("Posição fora do índice: " + posicao);
+        }
+        No no = raiz;
+        while (true) {
+            int esquerda = tamanho(no.esquerda);
+            if (posicao < esquerda) {
+                no = no.esquerda;
+            } else if (posicao == esquerda) {
+                return no.produto;
+            } else {
+                posicao -= esquerda + 1;
+                no = no.direita;
+            }
+        }
+    }
+
+    /**
+     * Conta quantos produtos precedem uma chave de busca.
+     *
+     * O predicado deve ser monótono em relação à ordem do índice: verdadeiro para
+     * um prefixo dos produtos e falso para o restante. O resultado é a posição do
+     * primeiro produto para o qual o predicado é falso, calculada em O(log n)
+     * com base nos tamanhos das subárvores.
+     *
+     * @param antes Predicado que indica se o produto vem antes da chave buscada.
+     * @return A quantidade de produtos para os quais o predicado é verdadeiro.
+     */
+    public int contarAntes(Predicate<Produto> antes) {
+        int posicao = 0;
+        No no = raiz;
+        while (no != null) {
+            if (antes.test(no.produto)) {
+                posicao += tamanho(no.esquerda) + 1;
+                no = no.direita;
+            } else {
+                no = no.esquerda;
+            }
+        }
+        return posicao;
+    }
+
+    /**
+     * Retorna os produtos entre duas posições do índice.
+     *
+     * A árvore é descida até a posição inicial em O(log n) e a partir dela é
+     * percorrida em ordem, de modo que o custo total é O(log n + k).
+     *
+     * @param inicio A posição do primeiro produto (inclusiva).
+     * @param fim A posição final (exclusiva).
+     * @return Lista ordenada com os produtos do intervalo.
+     */
+    public List<Produto> listar(int inicio, int fim) {
+        inicio = Math.max(inicio, 0);
+        fim = Math.min(fim, tamanho(raiz));
+        if (inicio >= fim) {
+            return new ArrayList<>();
+        }
+
+        List<Produto> lista = new ArrayList<>(fim - inicio);
+        Iterator<Produto> iterador = iterador(inicio);
+        while (lista.size() < fim - inicio) {
+            lista.add(iterador.next());
+        }
+        return lista;
+    }
+
+    /**
+     * Retorna um iterador sobre os produtos desta versão, na ordem do índice.
+     *
+     * @return Iterador sobre os produtos do índice.
+     */
+    @Override
+    public Iterator<Produto> iterator() {
+        return iterador(0);
+    }
+
+    /**
+     * Retorna um stream sequencial sobre os produtos desta versão, na ordem do índice.
+     *
+     * @return Stream com os produtos do índice.
+     */
+    public Stream<Produto> stream() {
+        return stream(0);
+    }
+
+    /**
+     * Retorna um stream sequencial sobre os produtos desta versão a partir de uma
+     * posição, na ordem do índice.
+     *
+     * A árvore é descida até a posição em O(log n) e os produtos são percorridos
+     * conforme o stream os consome, sem montar uma lista.
+     *
+     * @param inicio A posição do primeiro produto percorrido.
+     * @return Stream com os produtos do índice a partir da posição.
+     */
+    public Stream<Produto> stream(int inicio) {
+        inicio = Math.min(Math.max(inicio, 0), tamanho(raiz));
+        return StreamSupport.stream(Spliterators.spliterator(iterador(inicio), tamanho(raiz) - inicio,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * Lista imutável apoiada em um intervalo de posições desta versão do índice.
+     */
+    private final class Visao extends AbstractList<Produto> {
+
+        // Intervalo de posições do índice coberto pela lista
+        private final int inicio;
+        private final int fim;
+
+        private Visao(int inicio, int fim) {
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        public Produto get(int posicao) {
+            if (posicao < 0 || posicao >= fim - inicio) {
+                throw new IndexOutOfBoundsException("Posição fora da lista: " + posicao);
+            }
+            return obter(inicio + posicao);
+        }
+
+        @Override
+        public int size() {
+            return fim - inicio;
+        }
+
+        @Override
+        public Iterator<Produto> iterator() {
+            Iterator<Produto> iterador = iterador(inicio);
+            return new Iterator<>() {
+                private int restantes = fim - inicio;
+
+                @Override
+                public boolean hasNext() {
+                    return restantes > 0;
+                }
+
+                @Override
+                public Produto next() {
+                    if (restantes == 0) {
+                        throw new NoSuchElementException();
+                    }
+                    restantes--;
+                    return iterador.next();
+                }
+            };
+        }
+
+        @Override
+        public List<Produto> subList(int de, int ate) {
+            if (de < 0 || ate > fim - inicio || de > ate) {
+                throw new IndexOutOfBoundsException("Intervalo fora da lista: " + de + " a " + ate);
+            }
+            return new Visao(inicio + de, inicio + ate);
+        }
+    }
+
+    /**
+     * Retorna um iterador que começa na posição informada, descendo até ela em O(log n).
+     *
+     * @param inicio A posição do primeiro produto percorrido.
+     * @return Iterador sobre os produtos a partir da posição.
+     */
+    private Iterator<Produto> iterador(int inicio) {
+        Deque<No> pilha = new ArrayDeque<>();
+        No no = raiz;
+        int restante = inicio;
+        while (no != null) {
+            int esquerda = tamanho(no.esquerda);
+            if (restante < esquerda) {
+                pilha.push(no);
+                no = no.esquerda;
+            } else if (restante == esquerda) {
+                pilha.push(no);
+                break;
+            } else {
+                restante -= esquerda + 1;
+                no = no.direita;
+            }
+        }
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !pilha.isEmpty();
+            }
+
+            @Override
+            public Produto next() {
+                if (pilha.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                No atual = pilha.pop();
+                for (No filho = atual.direita; filho != null; filho = filho.esquerda) {
+                    pilha.push(filho);
+                }
+                return atual.produto;
+            }
+        };
+    }
+
+    /**
+     * Insere um produto na subárvore, copiando o caminho e rotacionando para
+     * manter a ordem das prioridades.
+     *
+     * @param no A raiz da subárvore.
+     * @param produto O produto a ser inserido.
+     * @param prioridade A prioridade do novo nó.
+     * @return A raiz da nova subárvore.
+     */
+    private No inserir(No no, Produto produto, int prioridade) {
+        if (no == null) {
+            return new No(produto, prioridade, null, null);
+        }
+        if (ordem.compare(produto, no.produto) < 0) {
+            No esquerda = inserir(no.esquerda, produto, prioridade);
+            if (esquerda.prioridade > no.prioridade) {
+                return esquerda.comFilhos(esquerda.esquerda, no.comFilhos(esquerda.direita, no.direita));
+            }
+            return no.comFilhos(esquerda, no.direita);
+        }
+        No direita = inserir(no.direita, produto, prioridade);
+        if (direita.prioridade > no.prioridade) {
+            return direita.comFilhos(no.comFilhos(no.esquerda, direita.esquerda), direita.direita);
+        }
+        return no.comFilhos(no.esquerda, direita);
+    }
+
+    /**
+     * Remove um produto da subárvore, copiando o caminho e unindo os filhos do nó removido.
+     *
+     * @param no A raiz da subárvore.
+     * @param produto O produto a ser removido.
+     * @return A raiz da nova subárvore, ou a mesma raiz se o produto não estiver presente.
+     */
+    private No remover(No no, Produto produto) {
+        if (no == null) {
+            return null;
+        }
+        int comparacao = ordem.compare(produto, no.produto);
+        if (comparacao == 0) {
+            return unir(no.esquerda, no.direita);
+        }
+        if (comparacao < 0) {
+            No esquerda = remover(no.esquerda, produto);
+            return esquerda == no.esquerda ? no : no.comFilhos(esquerda, no.direita);
+        }
+        No direita = remover(no.direita, produto);
+        return direita == no.direita ? no : no.comFilhos(no.esquerda, direita);
+    }
+
+    /**
+     * Remove da subárvore os produtos de um intervalo do vetor ordenado.
+     *
+     * @param no A raiz da subárvore.
+     * @param ordenados Os produtos a remover, na ordem do índice.
+     * @param de A posição do primeiro produto do intervalo (inclusiva).
+     * @param ate A posição final do intervalo (exclusiva).
+     * @return A raiz da nova subárvore, ou a mesma raiz se nenhum produto estiver presente.
+     */
+    private No removerTodos(No no, Produto[] ordenados, int de, int ate) {
+        if (no == null || de >= ate) {
+            return no;
+        }
+        int meio = primeiroNaoMenor(ordenados, de, ate, no.produto);
+        boolean presente = meio < ate && ordem.compare(ordenados[meio], no.produto) == 0;
+        No esquerda = removerTodos(no.esquerda, ordenados, de, meio);
+        No direita = removerTodos(no.direita, ordenados, presente ? meio + 1 : meio, ate);
+        if (presente) {
+            return unir(esquerda, direita);
+        }
+        return esquerda == no.esquerda && direita == no.direita ? no : no.comFilhos(esquerda, direita);
+    }
+
+    /**
+     * Localiza, por busca binária, o primeiro produto do intervalo que não precede a chave.
+     *
+     * @param ordenados Os produtos, na ordem do índice.
+     * @param de A posição inicial do intervalo (inclusiva).
+     * @param ate A posição final do intervalo (exclusiva).
+     * @param chave O produto usado como chave.
+     * @return A posição encontrada, ou {@code ate} se todos precederem a chave.
+     */
+    private int primeiroNaoMenor(Produto[] ordenados, int de, int ate, Produto chave) {
+        while (de < ate) {
+            int meio = (de + ate) >>> 1;
+            if (ordem.compare(ordenados[meio], chave) < 0) {
+                de = meio + 1;
+            } else {
+                ate = meio;
+            }
+        }
+        return de;
+    }
+
+    /**
+     * Monta uma subárvore com os produtos de um intervalo do vetor ordenado,
+     * colocando na raiz o produto de maior prioridade.
+     *
+     * @param ordenados Os produtos, na ordem do índice.
+     * @param de A posição do primeiro produto (inclusiva).
+     * @param ate A posição final (exclusiva).
+     * @return A raiz da subárvore montada.
+     */
+    private static No construir(Produto[] ordenados, int de, int ate) {
+        if (de >= ate) {
+            return null;
+        }
+        int maior = de;
+        int prioridadeMaior = prioridade(ordenados[de].getId());
+        for (int i = de + 1; i < ate; i++) {
+            int prioridade = prioridade(ordenados[i].getId());
+            if (prioridade > prioridadeMaior) {
+                maior = i;
+                prioridadeMaior = prioridade;
+            }
+        }
+        return new No(ordenados[maior], prioridadeMaior,
+                construir(ordenados, de, maior), construir(ordenados, maior + 1, ate));
+    }
+
+    /**
+     * Une duas subárvores com produtos distintos e intercalados, dividindo a de
+     * menor prioridade pela raiz da outra.
+     *
+     * @param a Uma das subárvores.
+     * @param b A outra subárvore.
+     * @return A raiz da subárvore com os produtos das duas.
+     */
+    private No unirConjuntos(No a, No b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.prioridade < b.prioridade) {
+            No troca = a;
+            a = b;
+            b = troca;
+        }
+        No[] partes = dividir(b, a.produto);
+        return a.comFilhos(unirConjuntos(a.esquerda, partes[0]), unirConjuntos(a.direita, partes[1]));
+    }
+
+    /**
+     * Divide uma subárvore entre os produtos que precedem a chave e os demais.
+     *
+     * @param no A raiz da subárvore.
+     * @param chave O produto usado como chave, que não deve estar na subárvore.
+     * @return As raízes das duas partes, nessa ordem.
+     */
+    private No[] dividir(No no, Produto chave) {
+        if (no == null) {
+            return new No[2];
+        }
+        if (ordem.compare(no.produto, chave) < 0) {
+            No[] partes = dividir(no.direita, chave);
+            partes[0] = no.comFilhos(no.esquerda, partes[0]);
+            return partes;
+        }
+        No[] partes = dividir(no.esquerda, chave);
+        partes[1] = no.comFilhos(partes[1], no.direita);
+        return partes;
+    }
+
+    /**
+     * Une duas subárvores em que todos os produtos da primeira precedem os da segunda.
+     *
+     * @param esquerda A subárvore com os menores produtos.
+     * @param direita A subárvore com os maiores produtos.
+     * @return A raiz da subárvore resultante.
+     */
+    private static No unir(No esquerda, No direita) {
+        if (esquerda == null) {
+            return direita;
+        }
+        if (direita == null) {
+            return esquerda;
+        }
+        if (esquerda.prioridade > direita.prioridade) {
+            return esquerda.comFilhos(esquerda.esquerda, unir(esquerda.direita, direita));
+        }
+        return direita.comFilhos(unir(esquerda, direita.esquerda), direita.direita);
+    }
+
+    private static int tamanho(No no) {
+        return no == null ? 0 : no.tamanho;
+    }
+
+    /**
+     * Calcula a prioridade de um nó a partir do ID do produto.
+     *
+     * A prioridade é uma mistura dos bits do ID (finalizador do MurmurHash3), o que
+     * a torna independente da ordem das chaves e dispensa um gerador com estado.
+     *
+     * @param id O ID do produto.
+     * @return A prioridade do nó.
+     */
+    private static int prioridade(int id) {
+        int h = id;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,185 @@
+package com.loja.indice;
+
+import com.loja.modelo.Produto;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Índice primário de produtos, indexado pelo ID.
+ *
+ * O `IndicePrimario` é uma tabela hash de endereçamento aberto (sondagem linear)
+ * com chaves `int` primitivas, evitando o boxing de `Integer` em cada consulta.
+ * Busca, inserção, atualização e remoção por ID custam O(1) em média.
+ *
+ * As consultas não usam travas: cada posição da tabela guarda diretamente o
+ * produto, publicado com semântica de liberação (release) e lido com semântica
+ * de aquisição (acquire), e o ID é lido do próprio produto, que não pode ter o ID
+ * alterado depois de inserido. Uma substituição troca o produto da posição em uma
+ * única escrita; uma remoção deixa um marcador no lugar, para não interromper
+ * sondagens em andamento. Quando os marcadores e as posições ocupadas passam da
+ * metade da tabela, uma nova tabela é montada e publicada, enquanto consultas
+ * iniciadas antes continuam na tabela anterior, que não é mais alterada.
+ *
+ * As alterações são serializadas pela própria instância; as consultas podem ser
+ * feitas de qualquer thread ao mesmo tempo que as alterações.
+ *
+ * @since 2024
+ */
+public class IndicePrimario {
+
+    // Capacidade inicial da tabela hash (sempre potência de dois)
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    // Marcador de uma posição cujo produto foi removido
+    private static final Produto REMOVIDO = new Produto("", 0, 0, null);
+
+    // Tabela hash com os produtos (null indica posição nunca ocupada)
+    private volatile AtomicReferenceArray<Produto> tabela = new AtomicReferenceArray<>(CAPACIDADE_INICIAL);
+
+    // Quantidade de produtos presentes no índice
+    private volatile int tamanho;
+
+    // Quantidade de posições ocupadas por produtos ou marcadores de remoção
+    private int usadas;
+
+    /**
+     * Retorna a quantidade de produtos presentes no índice.
+     *
+     * @return Quantidade de produtos.
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Busca um produto pelo seu ID, sem travas.
+     *
+     * @param id O ID do produto a ser buscado.
+     * @return O produto encontrado ou null se não houver produto com o ID fornecido.
+     */
+    public Produto buscar(int id) {
+        AtomicReferenceArray<Produto> atual = tabela;
+        int mascara = atual.length() - 1;
+        int i = espalhar(id) & mascara;
+        Produto produto;
+        while ((produto = atual.getAcquire(i)) != null) {
+            if (produto != REMOVIDO && produto.getId() == id) {
+                return produto;
+            }
+            i = (i + 1) & mascara;
+        }
+        return null;
+    }
+
+    /**
+     * Verifica se existe um produto com o ID informado.
+     *
+     * @param id O ID a ser verificado.
+     * @return true se o ID estiver presente no índice, false caso contrário.
+     */
+    public boolean contem(int id) {
+        return buscar(id) != null;
+    }
+
+    /**
+     * Insere um produto no índice ou substitui o produto que já possui o mesmo ID.
+     *
+     * @param produto O produto a ser inserido; seu ID não pode ser nulo.
+     * @return O produto substituído, ou null se o ID ainda não existia.
+     */
+    public synchronized Produto inserir(Produto produto) {
+        int id = produto.getId();
+        AtomicReferenceArray<Produto> atual = tabela;
+        int mascara = atual.length() - 1;
+        int i = espalhar(id) & mascara;
+        Produto existente;
+        while ((existente = atual.get(i)) != null) {
+            if (existente != REMOVIDO && existente.getId() == id) {
+                atual.setRelease(i, produto);
+                return existente;
+            }
+            i = (i + 1) & mascara;
+        }
+
+        if ((usadas + 1) * 2 > atual.length()) {
+            atual = reconstruir(Math.max(CAPACIDADE_INICIAL, Integer.highestOneBit(tamanho + 1) * 4));
+            mascara = atual.length() - 1;
+            i = espalhar(id) & mascara;
+            while (atual.get(i) != null) {
+                i = (i + 1) & mascara;
+            }
+        }
+        atual.setRelease(i, produto);
+        usadas++;
+        tamanho++;
+        return null;
+    }
+
+    /**
+     * Remove o produto com o ID informado, deixando um marcador na sua posição.
+     *
+     * @param id O ID do produto a ser removido.
+     * @return O produto removido, ou null se o ID não existia.
+     */
+    public synchronized Produto remover(int id) {
+        AtomicReferenceArray<Produto> atual = tabela;
+        int mascara = atual.length() - 1;
+        int i = espalhar(id) & mascara;
+        Produto existente;
+        while ((existente = atual.get(i)) != null) {
+            if (existente != REMOVIDO && existente.getId() == id) {
+                atual.setRelease(i, REMOVIDO);
+                tamanho--;
+                return existente;
+            }
+            i = (i + 1) & mascara;
+        }
+        return null;
+    }
+
+    /**
+     * Remove todos os produtos do índice.
+     */
+    public synchronized void limpar() {
+        tabela = new AtomicReferenceArray<>(CAPACIDADE_INICIAL);
+        usadas = 0;
+        tamanho = 0;
+    }
+
+    /**
+     * Monta uma nova tabela com os produtos presentes, sem os marcadores de
+     * remoção, e a publica no lugar da atual.
+     *
+     * @param capacidade A capacidade da nova tabela (potência de dois).
+     * @return A nova tabela.
+     */
+    private AtomicReferenceArray<Produto> reconstruir(int capacidade) {
+        AtomicReferenceArray<Produto> antiga = tabela;
+        AtomicReferenceArray<Produto> nova = new AtomicReferenceArray<>(capacidade);
+        int mascara = capacidade - 1;
+        for (int j = 0; j < antiga.length(); j++) {
+            Produto produto = antiga.get(j);
+            if (produto != null && produto != REMOVIDO) {
+                int i = espalhar(produto.getId()) & mascara;
+                while (nova.get(i) != null) {
+                    i = (i + 1) & mascara;
+                }
+                nova.setPlain(i, produto);
+            }
+        }
+        usadas = tamanho;
+        tabela = nova;
+        return nova;
+    }
+
+    /**
+     * Espalha os bits do ID para distribuir IDs sequenciais pela tabela.
+     *
+     * @param id O ID a ser espalhado.
+     * @return O código hash do ID.
+     */
+    private static int espalhar(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
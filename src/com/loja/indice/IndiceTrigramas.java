@@ -0,0 +1,461 @@
+package com.loja.indice;
+
+import com.loja.modelo.Produto;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Índice invertido de trigramas para busca de produtos por parte do nome.
+ *
+ * O `IndiceTrigramas` normaliza cada nome (letras minúsculas e sem acentos) e
+ * registra o ID do produto na lista de ocorrências de cada sequência de três
+ * caracteres (trigrama) do nome normalizado. Uma busca por substring decompõe o
+ * texto buscado nos seus trigramas e intersecta as listas correspondentes,
+ * começando pela menor, o que reduz os candidatos a poucos produtos sem percorrer
+ * o catálogo inteiro.
+ *
+ * O índice apenas seleciona candidatos: todo nome que contém o texto buscado
+ * aparece entre eles, mas os candidatos ainda precisam ser verificados por quem
+ * consulta o índice. Textos com menos de três caracteres não podem ser
+ * decompostos em trigramas e exigem uma busca sequencial.
+ *
+ * As alterações usam a trava de escrita de um `StampedLock`. As buscas usam
+ * leituras otimistas, sem bloquear: a busca é feita sem trava e só é refeita se
+ * uma alteração tiver ocorrido no meio dela; após algumas tentativas sem sucesso,
+ * a busca aguarda a trava de leitura.
+ *
+ * @since 2024
+ */
+public class IndiceTrigramas {
+
+    // Quantidade de caracteres de um trigrama
+    private static final int TAMANHO_TRIGRAMA = 3;
+
+    // Caracteres latinos pré-calculados pela tabela de remoção de acentos
+    private static final char[] SEM_ACENTO = new char[0x250];
+
+    static {
+        for (char c = 0; c < SEM_ACENTO.length; c++) {
+            String decomposto = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            SEM_ACENTO[c] = decomposto.charAt(0);
+        }
+    }
+
+    // Tabela hash de endereçamento aberto: trigrama codificado -> lista de IDs
+    private long[] chaves = new long[64];
+    private ListaIds[] listas = new ListaIds[64];
+
+    // Quantidade de trigramas distintos registrados
+    private int quantidadeTrigramas;
+
+    // Tentativas de leitura otimista antes de usar a trava de leitura
+    private static final int TENTATIVAS_OTIMISTAS = 3;
+
+    // Trava das alterações, validada pelas leituras otimistas
+    private final StampedLock trava = new StampedLock();
+
+    /**
+     * Normaliza um texto para indexação: converte para minúsculas e remove acentos.
+     *
+     * A remoção de acentos é feita caractere a caractere, preservando o tamanho do
+     * texto, de modo que uma substring do texto original continua sendo uma
+     * substring do texto normalizado.
+     *
+     * @param texto O texto a ser normalizado.
+     * @return O texto normalizado.
+     */
+    public static String normalizar(String texto) {
+        char[] caracteres = texto.toLowerCase().toCharArray();
+        for (int i = 0; i < caracteres.length; i++) {
+            char c = caracteres[i];
+            if (c >= 0x80 && c < SEM_ACENTO.length) {
+                caracteres[i] = SEM_ACENTO[c];
+            }
+        }
+        return new String(caracteres);
+    }
+
+    /**
+     * Registra o nome de um produto no índice.
+     *
+     * @param id O ID do produto.
+     * @param nome O nome do produto.
+     */
+    public void indexar(int id, String nome) {
+        String normalizado = normalizar(nome);
+        long carimbo = trava.writeLock();
+        try {
+            for (int i = 0; i + TAMANHO_TRIGRAMA <= normalizado.length(); i++) {
+                listaParaIndexar(codificar(normalizado, i)).adicionar(id);
+            }
+        } finally {
+            trava.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Registra os nomes de vários produtos de uma vez.
+     *
+     * Os IDs de cada trigrama são reunidos primeiro e depois intercalados na
+     * lista de ocorrências em uma única passada por lista, em vez de uma inserção
+     * por produto.
+     *
+     * @param produtos Os produtos a serem indexados.
+     */
+    public void indexarTodos(Collection<Produto> produtos) {
+        Produto[] ordenados = ordenarPorId(produtos);
+        String[] normalizados = normalizarNomes(ordenados);
+        long carimbo = trava.writeLock();
+        try {
+            for (String normalizado : normalizados) {
+                for (int i = 0; i + TAMANHO_TRIGRAMA <= normalizado.length(); i++) {
+                    listaParaIndexar(codificar(normalizado, i));
+                }
+            }
+            ListaIds[] novos = agruparPorTrigrama(ordenados, normalizados);
+            for (int posicao = 0; posicao < novos.length; posicao++) {
+                if (novos[posicao] != null) {
+                    listas[posicao].adicionarTodos(novos[posicao]);
+                }
+            }
+        } finally {
+            trava.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Remove do índice o nome de um produto.
+     *
+     * O nome informado deve ser o mesmo usado na indexação do produto.
+     *
+     * @param id O ID do produto.
+     * @param nome O nome com o qual o produto foi indexado.
+     */
+    public void remover(int id, String nome) {
+        String normalizado = normalizar(nome);
+        long carimbo = trava.writeLock();
+        try {
+            for (int i = 0; i + TAMANHO_TRIGRAMA <= normalizado.length(); i++) {
+                ListaIds lista = listas[localizar(codificar(normalizado, i))];
+                if (lista != null) {
+                    lista.remover(id);
+                }
+            }
+        } finally {
+            trava.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Remove do índice os nomes de vários produtos de uma vez.
+     *
+     * Os IDs de cada trigrama são reunidos primeiro e depois retirados da lista de
+     * ocorrências em uma única passada por lista, em vez de um deslocamento dos
+     * elementos por produto. Os nomes devem ser os mesmos usados na indexação.
+     *
+     * @param produtos Os produtos, com os nomes com os quais foram indexados.
+     */
+    public void removerTodos(Collection<Produto> produtos) {
+        Produto[] ordenados = ordenarPorId(produtos);
+        String[] normalizados = normalizarNomes(ordenados);
+        long carimbo = trava.writeLock();
+        try {
+            ListaIds[] removidos = agruparPorTrigrama(ordenados, normalizados);
+            for (int posicao = 0; posicao < removidos.length; posicao++) {
+                if (removidos[posicao] != null) {
+                    listas[posicao].removerTodos(removidos[posicao]);
+                }
+            }
+        } finally {
+            trava.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Retorna a quantidade de trigramas distintos registrados.
+     *
+     * @return Quantidade de trigramas do índice.
+     */
+    public int quantidadeTrigramas() {
+        long carimbo = trava.readLock();
+        try {
+            return quantidadeTrigramas;
+        } finally {
+            trava.unlockRead(carimbo);
+        }
+    }
+
+    /**
+     * Remove todos os nomes do índice.
+     */
+    public void limpar() {
+        long carimbo = trava.writeLock();
+        try {
+            chaves = new long[64];
+            listas = new ListaIds[64];
+            quantidadeTrigramas = 0;
+        } finally {
+            trava.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Retorna os IDs dos produtos cujo nome normalizado contém todos os trigramas
+     * do texto buscado.
+     *
+     * As listas de ocorrências são intersectadas da menor para a maior, e a
+     * interseção é interrompida assim que fica vazia.
+     *
+     * @param texto O texto buscado.
+     * @return Os IDs candidatos em ordem crescente, ou null se o texto normalizado
+     *         tiver menos de três caracteres e não puder usar o índice.
+     */
+    public int[] candidatos(String texto) {
+        String normalizado = normalizar(texto);
+        int quantidade = normalizado.length() - TAMANHO_TRIGRAMA + 1;
+        if (quantidade <= 0) {
+            return null;
+        }
+
+        for (int tentativa = 0; tentativa < TENTATIVAS_OTIMISTAS; tentativa++) {
+            long carimbo = trava.tryOptimisticRead();
+            if (carimbo == 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            try {
+                int[] resultado = intersectar(normalizado, quantidade);
+                if (trava.validate(carimbo)) {
+                    return resultado;
+                }
+            } catch (RuntimeException e) {
+                // Leitura inconsistente durante uma alteração: a validação falharia
+                if (trava.validate(carimbo)) {
+                    throw e;
+                }
+            }
+        }
+        long carimbo = trava.readLock();
+        try {
+            return intersectar(normalizado, quantidade);
+        } finally {
+            trava.unlockRead(carimbo);
+        }
+    }
+
+    /**
+     * Estima a quantidade de candidatos de um texto sem intersectar as listas de
+     * ocorrências: o tamanho da menor lista entre as dos seus trigramas é um
+     * limite superior para a quantidade de candidatos.
+     *
+     * @param texto O texto buscado.
+     * @return O limite superior, ou -1 se o texto normalizado tiver menos de três
+     *         caracteres e não puder usar o índice.
+     */
+    public int estimarCandidatos(String texto) {
+        String normalizado = normalizar(texto);
+        int quantidade = normalizado.length() - TAMANHO_TRIGRAMA + 1;
+        if (quantidade <= 0) {
+            return -1;
+        }
+
+        long carimbo = trava.tryOptimisticRead();
+        if (carimbo != 0) {
+            try {
+                int menor = menorLista(normalizado, quantidade);
+                if (trava.validate(carimbo)) {
+                    return menor;
+                }
+            } catch (RuntimeException e) {
+                // Leitura inconsistente durante uma alteração: a validação falharia
+                if (trava.validate(carimbo)) {
+                    throw e;
+                }
+            }
+        }
+        carimbo = trava.readLock();
+        try {
+            return menorLista(normalizado, quantidade);
+        } finally {
+            trava.unlockRead(carimbo);
+        }
+    }
+
+    /**
+     * Retorna o tamanho da menor lista de ocorrências dos trigramas de um texto normalizado.
+     *
+     * @param normalizado O texto buscado, já normalizado.
+     * @param quantidade A quantidade de trigramas do texto.
+     * @return O tamanho da menor lista (0 se algum trigrama não tiver ocorrências).
+     */
+    private int menorLista(String normalizado, int quantidade) {
+        int menor = Integer.MAX_VALUE;
+        for (int i = 0; i < quantidade && menor > 0; i++) {
+            ListaIds lista = listas[localizar(codificar(normalizado, i))];
+            menor = Math.min(menor, lista == null ? 0 : lista.tamanho());
+        }
+        return menor;
+    }
+
+    /**
+     * Intersecta as listas de ocorrências dos trigramas de um texto normalizado.
+     *
+     * @param normalizado O texto buscado, já normalizado.
+     * @param quantidade A quantidade de trigramas do texto.
+     * @return Os IDs candidatos em ordem crescente.
+     */
+    private int[] intersectar(String normalizado, int quantidade) {
+        ListaIds[] ocorrencias = new ListaIds[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            ListaIds lista = listas[localizar(codificar(normalizado, i))];
+            if (lista == null || lista.tamanho() == 0) {
+                return new int[0];
+            }
+            ocorrencias[i] = lista;
+        }
+        Arrays.sort(ocorrencias, (a, b) -> Integer.compare(a.tamanho(), b.tamanho()));
+
+        int[] resultado = ocorrencias[0].paraVetor();
+        int tamanho = resultado.length;
+        for (int i = 1; i < ocorrencias.length && tamanho > 0; i++) {
+            if (ocorrencias[i] == ocorrencias[i - 1]) {
+                continue;
+            }
+            int mantidos = 0;
+            for (int j = 0; j < tamanho; j++) {
+                if (ocorrencias[i].contem(resultado[j])) {
+                    resultado[mantidos++] = resultado[j];
+                }
+            }
+            tamanho = mantidos;
+        }
+        return tamanho == resultado.length ? resultado : Arrays.copyOf(resultado, tamanho);
+    }
+
+    /**
+     * Codifica os três caracteres a partir de uma posição em um único `long`.
+     *
+     * @param texto O texto normalizado.
+     * @param inicio A posição do primeiro caractere do trigrama.
+     * @return O trigrama codificado.
+     */
+    private static long codificar(String texto, int inicio) {
+        return ((long) texto.charAt(inicio) << 32)
+                | ((long) texto.charAt(inicio + 1) << 16)
+                | texto.charAt(inicio + 2);
+    }
+
+    /**
+     * Localiza a posição de um trigrama na tabela hash (sondagem linear).
+     *
+     * @param trigrama O trigrama codificado.
+     * @return A posição do trigrama, ou a posição livre onde ele seria inserido.
+     */
+    private int localizar(long trigrama) {
+        int mascara = chaves.length - 1;
+        long h = trigrama * 0x9E3779B97F4A7C15L;
+        int i = (int) (h ^ (h >>> 32)) & mascara;
+        while (listas[i] != null && chaves[i] != trigrama) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    /**
+     * Retorna a lista de ocorrências de um trigrama, criando-a se ainda não existir.
+     *
+     * Deve ser chamado com a trava de escrita.
+     *
+     * @param trigrama O trigrama codificado.
+     * @return A lista de ocorrências do trigrama.
+     */
+    private ListaIds listaParaIndexar(long trigrama) {
+        int posicao = localizar(trigrama);
+        if (listas[posicao] == null) {
+            chaves[posicao] = trigrama;
+            listas[posicao] = new ListaIds();
+            quantidadeTrigramas++;
+            if (quantidadeTrigramas * 2 > chaves.length) {
+                redimensionar();
+                posicao = localizar(trigrama);
+            }
+        }
+        return listas[posicao];
+    }
+
+    /**
+     * Reúne os IDs dos produtos pela posição de cada trigrama do nome na tabela
+     * hash, em ordem crescente; trigramas ainda não registrados são ignorados.
+     *
+     * Deve ser chamado com a trava de escrita, já que as posições mudam quando a
+     * tabela é redimensionada.
+     *
+     * @param ordenados Os produtos, em ordem crescente de ID.
+     * @param normalizados Os nomes normalizados dos produtos, na mesma ordem.
+     * @return Vetor paralelo à tabela, com os IDs de cada trigrama (null se não houver).
+     */
+    private ListaIds[] agruparPorTrigrama(Produto[] ordenados, String[] normalizados) {
+        ListaIds[] grupos = new ListaIds[listas.length];
+        for (int p = 0; p < ordenados.length; p++) {
+            String normalizado = normalizados[p];
+            for (int i = 0; i + TAMANHO_TRIGRAMA <= normalizado.length(); i++) {
+                int posicao = localizar(codificar(normalizado, i));
+                if (listas[posicao] != null) {
+                    if (grupos[posicao] == null) {
+                        grupos[posicao] = new ListaIds();
+                    }
+                    grupos[posicao].adicionar(ordenados[p].getId());
+                }
+            }
+        }
+        return grupos;
+    }
+
+    /**
+     * Ordena os produtos pelo ID, para que os IDs de cada trigrama sejam reunidos
+     * em ordem crescente.
+     *
+     * @param produtos Os produtos.
+     * @return Vetor com os produtos ordenados pelo ID.
+     */
+    private static Produto[] ordenarPorId(Collection<Produto> produtos) {
+        Produto[] ordenados = produtos.toArray(new Produto[0]);
+        Arrays.sort(ordenados, Comparator.comparingInt(Produto::getId));
+        return ordenados;
+    }
+
+    /**
+     * Normaliza os nomes dos produtos, fora da trava de escrita.
+     *
+     * @param produtos Os produtos.
+     * @return Os nomes normalizados, na mesma ordem.
+     */
+    private static String[] normalizarNomes(Produto[] produtos) {
+        String[] normalizados = new String[produtos.length];
+        for (int i = 0; i < produtos.length; i++) {
+            normalizados[i] = normalizar(produtos[i].getNome());
+        }
+        return normalizados;
+    }
+
+    /**
+     * Dobra a capacidade da tabela hash e reposiciona os trigramas.
+     */
+    private void redimensionar() {
+        long[] chavesAntigas = chaves;
+        ListaIds[] listasAntigas = listas;
+        chaves = new long[chavesAntigas.length * 2];
+        listas = new ListaIds[listasAntigas.length * 2];
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (listasAntigas[i] != null) {
+                int posicao = localizar(chavesAntigas[i]);
+                chaves[posicao] = chavesAntigas[i];
+                listas[posicao] = listasAntigas[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.loja.indice;
+
+import java.util.Arrays;
+
+/**
+ * Lista ordenada de IDs de produtos, sem repetições.
+ *
+ * A `ListaIds` guarda os IDs em um vetor de `int` primitivos em ordem crescente
+ * e é usada como lista de ocorrências pelos índices secundários. Como os IDs
+ * novos são sempre maiores que os existentes, a inserção mais comum é um simples
+ * acréscimo no final; inserções e remoções no meio deslocam os elementos seguintes,
+ * e por isso os lotes usam {@link #adicionarTodos(ListaIds)} e
+ * {@link #removerTodos(ListaIds)}, que percorrem a lista uma única vez.
+ *
+ * Esta classe não é thread-safe.
+ *
+ * @since 2024
+ */
+public class ListaIds {
+
+    // IDs em ordem crescente
+    private int[] ids = new int[4];
+
+    // Quantidade de IDs presentes na lista
+    private int tamanho;
+
+    /**
+     * Retorna a quantidade de IDs presentes na lista.
+     *
+     * @return Quantidade de IDs.
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna o ID da posição informada.
+     *
+     * @param posicao A posição do ID, entre 0 e {@code tamanho() - 1}.
+     * @return O ID na posição.
+     */
+    public int get(int posicao) {
+        return ids[posicao];
+    }
+
+    /**
+     * Adiciona um ID à lista, mantendo a ordem crescente.
+     *
+     * @param id O ID a ser adicionado.
+     * @return true se o ID foi adicionado, false se ele já estava na lista.
+     */
+    public boolean adicionar(int id) {
+        int posicao;
+        if (tamanho == 0 || id > ids[tamanho - 1]) {
+            posicao = tamanho;
+        } else {
+            posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (posicao >= 0) {
+                return false;
+            }
+            posicao = -posicao - 1;
+        }
+        if (tamanho == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        System.arraycopy(ids, posicao, ids, posicao + 1, tamanho - posicao);
+        ids[posicao] = id;
+        tamanho++;
+        return true;
+    }
+
+    /**
+     * Remove um ID da lista.
+     *
+     * @param id O ID a ser removido.
+     * @return true se o ID foi removido, false se ele não estava na lista.
+     */
+    public boolean remover(int id) {
+        int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+        if (posicao < 0) {
+            return false;
+        }
+        System.arraycopy(ids, posicao + 1, ids, posicao, tamanho - posicao - 1);
+        tamanho--;
+        return true;
+    }
+
+    /**
+     * Adiciona vários IDs à lista de uma vez, intercalando-os com os existentes em
+     * uma única passada; quando todos são maiores que os existentes, são apenas
+     * acrescentados no final.
+     *
+     * @param novos Os IDs a serem adicionados; os já presentes são ignorados.
+     */
+    public void adicionarTodos(ListaIds novos) {
+        int quantidade = novos.tamanho;
+        if (quantidade == 0) {
+            return;
+        }
+        if (tamanho == 0 || novos.ids[0] > ids[tamanho - 1]) {
+            if (tamanho + quantidade > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(ids.length * 2, tamanho + quantidade));
+            }
+            System.arraycopy(novos.ids, 0, ids, tamanho, quantidade);
+            tamanho += quantidade;
+            return;
+        }
+        int[] resultado = new int[tamanho + quantidade];
+        int i = 0;
+        int j = 0;
+        int total = 0;
+        while (i < tamanho && j < quantidade) {
+            int atual = ids[i];
+            int novo = novos.ids[j];
+            if (atual < novo) {
+                resultado[total++] = atual;
+                i++;
+            } else if (novo < atual) {
+                resultado[total++] = novo;
+                j++;
+            } else {
+                resultado[total++] = atual;
+                i++;
+                j++;
+            }
+        }
+        System.arraycopy(ids, i, resultado, total, tamanho - i);
+        total += tamanho - i;
+        System.arraycopy(novos.ids, j, resultado, total, quantidade - j);
+        total += quantidade - j;
+        ids = resultado;
+        tamanho = total;
+    }
+
+    /**
+     * Remove vários IDs da lista de uma vez, compactando-a em uma única passada a
+     * partir da posição do menor ID removido.
+     *
+     * @param removidos Os IDs a serem removidos; os ausentes são ignorados.
+     */
+    public void removerTodos(ListaIds removidos) {
+        int quantidade = removidos.tamanho;
+        if (quantidade == 0 || tamanho == 0) {
+            return;
+        }
+        int inicio = Arrays.binarySearch(ids, 0, tamanho, removidos.ids[0]);
+        int escrita = inicio >= 0 ? inicio : -inicio - 1;
+        int leitura = escrita;
+        int r = 0;
+        while (leitura < tamanho) {
+            int id = ids[leitura];
+            while (r < quantidade && removidos.ids[r] < id) {
+                r++;
+            }
+            if (r == quantidade) {
+                break;
+            }
+            if (removidos.ids[r] == id) {
+                r++;
+            } else {
+                ids[escrita++] = id;
+            }
+            leitura++;
+        }
+        System.arraycopy(ids, leitura, ids, escrita, tamanho - leitura);
+        tamanho = escrita + tamanho - leitura;
+    }
+
+    /**
+     * Verifica se um ID está presente na lista (busca binária).
+     *
+     * @param id O ID a ser verificado.
+     * @return true se o ID estiver na lista, false caso contrário.
+     */
+    public boolean contem(int id) {
+        return Arrays.binarySearch(ids, 0, tamanho, id) >= 0;
+    }
+
+    /**
+     * Retorna uma cópia dos IDs da lista, em ordem crescente.
+     *
+     * @return Vetor com os IDs.
+     */
+    public int[] paraVetor() {
+        return Arrays.copyOf(ids, tamanho);
+    }
+}
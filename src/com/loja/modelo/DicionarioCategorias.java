@@ -0,0 +1,125 @@
+package com.loja.modelo;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dicionário global das categorias de produtos.
+ *
+ * O `DicionarioCategorias` associa cada categoria distinta a um código inteiro
+ * pequeno e sequencial (0, 1, 2, ...). As categorias são canonicalizadas antes
+ * de receberem um código: espaços nas pontas são descartados e maiúsculas e
+ * minúsculas não são diferenciadas, de modo que "Eletrônicos" e " ELETRÔNICOS "
+ * recebem o mesmo código. O nome exibido de cada código é a grafia da primeira
+ * ocorrência registrada.
+ *
+ * Como o catálogo possui poucas dezenas de categorias, cada produto guarda apenas
+ * o código da sua categoria, e os índices podem separar os produtos em grupos
+ * acessados diretamente pelo código.
+ *
+ * As consultas são seguras para uso concorrente e não bloqueiam; o registro de
+ * uma categoria nova é sincronizado.
+ *
+ * @since 2024
+ */
+public class DicionarioCategorias {
+
+    // Código usado para uma categoria ausente (null)
+    public static final int SEM_CATEGORIA = -1;
+
+    // Categoria canonicalizada -> código
+    private static final Map<String, Integer> codigos = new ConcurrentHashMap<>();
+
+    // Código -> nome exibido da categoria
+    private static volatile String[] nomes = new String[16];
+
+    // Quantidade de categorias registradas
+    private static volatile int quantidade;
+
+    /**
+     * Retorna o código de uma categoria, registrando-a se ainda não existir.
+     *
+     * @param categoria O nome da categoria.
+     * @return O código da categoria, ou {@link #SEM_CATEGORIA} se ela for nula.
+     */
+    public static int codigoDe(String categoria) {
+        if (categoria == null) {
+            return SEM_CATEGORIA;
+        }
+        String chave = canonicalizar(categoria);
+        Integer codigo = codigos.get(chave);
+        return codigo != null ? codigo : registrar(chave, categoria.trim());
+    }
+
+    /**
+     * Retorna o código de uma categoria já registrada, sem registrá-la.
+     *
+     * @param categoria O nome da categoria.
+     * @return O código da categoria, ou {@link #SEM_CATEGORIA} se ela for nula ou
+     *         ainda não tiver sido registrada.
+     */
+    public static int buscarCodigo(String categoria) {
+        if (categoria == null) {
+            return SEM_CATEGORIA;
+        }
+        Integer codigo = codigos.get(canonicalizar(categoria));
+        return codigo != null ? codigo : SEM_CATEGORIA;
+    }
+
+    /**
+     * Retorna o nome exibido da categoria de um código.
+     *
+     * @param codigo O código da categoria.
+     * @return O nome da categoria, ou null para {@link #SEM_CATEGORIA}.
+     */
+    public static String nomeDe(int codigo) {
+        return codigo == SEM_CATEGORIA ? null : nomes[codigo];
+    }
+
+    /**
+     * Retorna a quantidade de categorias registradas.
+     *
+     * Os códigos válidos vão de 0 até a quantidade menos 1.
+     *
+     * @return Quantidade de categorias.
+     */
+    public static int quantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Registra uma categoria nova e atribui a ela o próximo código.
+     *
+     * @param chave A categoria canonicalizada.
+     * @param nome O nome exibido da categoria.
+     * @return O código atribuído (ou o já existente, se outra thread registrou antes).
+     */
+    private static synchronized int registrar(String chave, String nome) {
+        Integer existente = codigos.get(chave);
+        if (existente != null) {
+            return existente;
+        }
+        int codigo = quantidade;
+        String[] atuais = nomes;
+        if (codigo == atuais.length) {
+            atuais = Arrays.copyOf(atuais, atuais.length * 2);
+        }
+        atuais[codigo] = nome;
+        nomes = atuais;
+        quantidade = codigo + 1;
+        codigos.put(chave, codigo);
+        return codigo;
+    }
+
+    /**
+     * Canonicaliza o nome de uma categoria para comparação.
+     *
+     * @param categoria O nome da categoria.
+     * @return O nome sem espaços nas pontas e em letras minúsculas.
+     */
+    private static String canonicalizar(String categoria) {
+        return categoria.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,6 +1,9 @@
 package com.loja.modelo;
 
+import com.loja.exception.ProdutoException;
+
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * Representa um produto no sistema.
@@ -14,6 +17,21 @@ import java.util.Objects;
  * A classe é utilizada no sistema de gerenciamento de produtos, podendo ser cadastrada,
  * atualizada, buscada e deletada, além de ser exibida de forma legível no menu.
  *
+ * A categoria é guardada apenas como o seu código no `DicionarioCategorias`, e
+ * o nome é obtido do dicionário ao ser consultado. O produto apenas consulta o
+ * dicionário; quem registra as categorias novas é o gerenciador, depois de
+ * validar o produto, de modo que produtos rejeitados não deixam categorias no
+ * dicionário. Até lá, o nome de uma categoria ainda não registrada fica
+ * guardado no produto; os produtos armazenados nunca o guardam.
+ *
+ * A quantidade em estoque pode ser alterada atomicamente por
+ * {@link #compararETrocarEstoque(int, int)}, o que permite ao gerenciador baixar
+ * e repor o estoque de um produto armazenado sem travas, mesmo com várias
+ * threads alterando o mesmo produto. Nos produtos armazenados, o estoque é o
+ * único atributo alterado no lugar: os demais só mudam com uma nova versão, e
+ * quem compartilha a versão (instantâneos, resultados em cache, gravações)
+ * sempre enxerga o estoque atual.
+ *
  * @since 2024
  */
 public class Produto {
@@ -21,8 +39,17 @@ public class Produto {
     private Integer id;
     private String nome;
     private double preco;
-    private int quantidadeEstoque;
-    private String categoria;
+    private volatile int quantidadeEstoque;
+
+    // Código da categoria no dicionário, ou SEM_CATEGORIA se ela não estiver registrada
+    private int codigoCategoria;
+
+    // Nome da categoria enquanto ela não estiver registrada no dicionário; null depois
+    private String categoriaPendente;
+
+    // Acesso atômico (compare-and-set) à quantidade em estoque
+    private static final AtomicIntegerFieldUpdater<Produto> ESTOQUE =
+            AtomicIntegerFieldUpdater.newUpdater(Produto.class, "quantidadeEstoque");
 
     /**
      * Constrói um objeto Produto com o nome, preço, quantidade em estoque e categoria fornecidos.
@@ -36,7 +63,7 @@ public class Produto {
         this.nome = nome;
         this.preco = preco;
         this.quantidadeEstoque = quantidadeEstoque;
-        this.categoria = categoria;
+        setCategoria(categoria);
     }
 
     /**
@@ -111,22 +138,92 @@ public class Produto {
         this.quantidadeEstoque = quantidadeEstoque;
     }
 
+    /**
+     * Troca a quantidade em estoque atomicamente, apenas se ela ainda for a esperada.
+     *
+     * @param esperada A quantidade lida anteriormente.
+     * @param nova A nova quantidade.
+     * @return true se a quantidade foi trocada, false se ela foi alterada por outra thread.
+     */
+    public boolean compararETrocarEstoque(int esperada, int nova) {
+        return ESTOQUE.compareAndSet(this, esperada, nova);
+    }
+
     /**
      * Retorna a categoria do produto.
      *
      * @return Categoria do produto.
      */
     public String getCategoria() {
-        return categoria;
+        return codigoCategoria != DicionarioCategorias.SEM_CATEGORIA
+                ? DicionarioCategorias.nomeDe(codigoCategoria)
+                : categoriaPendente;
+    }
+
+    /**
+     * Retorna o código da categoria do produto no `DicionarioCategorias`.
+     *
+     * @return Código da categoria, ou {@link DicionarioCategorias#SEM_CATEGORIA}
+     *         se ela não estiver registrada.
+     */
+    public int getCodigoCategoria() {
+        return codigoCategoria;
     }
 
     /**
-     * Define a categoria do produto.
+     * Define a categoria do produto, sem registrá-la no `DicionarioCategorias`.
+     *
+     * Se a categoria já estiver registrada, o produto guarda apenas o seu código;
+     * caso contrário, guarda o nome informado até que o código seja definido por
+     * {@link #setCodigoCategoria(int)}.
      *
      * @param categoria Categoria do produto.
      */
     public void setCategoria(String categoria) {
-        this.categoria = categoria;
+        this.codigoCategoria = DicionarioCategorias.buscarCodigo(categoria);
+        this.categoriaPendente = codigoCategoria == DicionarioCategorias.SEM_CATEGORIA ? categoria : null;
+    }
+
+    /**
+     * Define a categoria do produto pelo seu código já registrado no
+     * `DicionarioCategorias`, sem consultar o dicionário.
+     *
+     * @param codigoCategoria Código registrado para a categoria.
+     */
+    public void setCodigoCategoria(int codigoCategoria) {
+        this.codigoCategoria = codigoCategoria;
+        this.categoriaPendente = null;
+    }
+
+    /**
+     * Valida as informações do produto antes de ele ser adicionado ou atualizado.
+     *
+     * Este método realiza validações nos atributos do produto, como o nome, preço,
+     * quantidade em estoque e categoria. Se algum atributo não atender aos critérios
+     * estabelecidos, uma exceção é lançada.
+     *
+     * @throws ProdutoException Se algum atributo do produto não for válido.
+     */
+    public void validar() {
+        if (nome == null || nome.trim().length() < 2) {
+            throw new ProdutoException("O nome do produto deve conter pelo menos 2 caracteres.");
+        }
+
+        if (preco <= 0) {
+            throw new ProdutoException("O preço do produto deve ser maior que zero.");
+        }
+
+        if (!Double.isFinite(preco)) {
+            throw new ProdutoException("O preço do produto deve ser um número finito.");
+        }
+
+        if (quantidadeEstoque < 0) {
+            throw new ProdutoException("A quantidade em estoque não pode ser negativa.");
+        }
+
+        if (getCategoria() == null || getCategoria().trim().isEmpty()) {
+            throw new ProdutoException("A categoria do produto não pode estar vazia.");
+        }
     }
 
     /**
@@ -141,7 +238,7 @@ public class Produto {
                 " | Nome: " + nome +
                 " | Preço: R$ " + preco +
                 " | Estoque: " + quantidadeEstoque +
-                " | Categoria: " + categoria;
+                " | Categoria: " + getCategoria();
     }
 
     /**
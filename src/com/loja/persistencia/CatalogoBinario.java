@@ -0,0 +1,307 @@
+package com.loja.persistencia;
+
+import com.loja.exception.ProdutoException;
+import com.loja.exception.ValidacaoException;
+import com.loja.modelo.DicionarioCategorias;
+import com.loja.modelo.Produto;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Catálogo de produtos em formato binário compacto e versionado.
+ *
+ * O `CatalogoBinario` grava todos os produtos em um único arquivo que é carregado
+ * por mapeamento em memória (`MappedByteBuffer`), sem leitura linha a linha e sem
+ * conversões de texto para número. Os nomes são gravados em UTF-8 precedidos
+ * pelo tamanho, de modo que vírgulas ou quebras de linha nos nomes não causam
+ * problemas, e as categorias são gravadas uma única vez, em uma tabela de textos
+ * referenciada pelo código de cada produto.
+ *
+ * Formato (inteiros em big-endian):
+ * - cabeçalho de 48 bytes: int mágico, short versão, short reservado, int
+ *   quantidade de produtos, int próximo ID, long primeiro segmento do log, long
+ *   posição da tabela de categorias, long posição dos produtos, int CRC32 do
+ *   conteúdo após o cabeçalho e int reservado;
+ * - tabela de categorias: int quantidade e, para cada categoria, o nome em UTF-8
+ *   precedido pelo tamanho;
+ * - produtos: int ID, double preço, int estoque, int posição da categoria na
+ *   tabela e o nome em UTF-8 precedido pelo tamanho.
+ *
+ * O mesmo formato é usado pelos snapshots do log de operações; nesse caso, o
+ * cabeçalho indica o primeiro segmento do log que não está no arquivo. Os arquivos
+ * são gravados em um arquivo temporário e renomeados ao final.
+ *
+ * @since 2024
+ */
+public class CatalogoBinario {
+
+    // Identificação e versão do formato
+    private static final int MAGICO = 0x4C434154;
+    private static final short VERSAO = 1;
+
+    // Tamanho fixo do cabeçalho, em bytes
+    private static final int TAMANHO_CABECALHO = 48;
+
+    // Informações do cabeçalho de um catálogo lido
+    private final int quantidade;
+    private final int proximoId;
+    private final long primeiroSegmento;
+
+    private CatalogoBinario(int quantidade, int proximoId, long primeiroSegmento) {
+        this.quantidade = quantidade;
+        this.proximoId = proximoId;
+        this.primeiroSegmento = primeiroSegmento;
+    }
+
+    /**
+     * Retorna a quantidade de produtos do catálogo.
+     *
+     * @return Quantidade de produtos.
+     */
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Retorna o próximo ID a ser atribuído no momento da gravação.
+     *
+     * @return Próximo ID.
+     */
+    public int getProximoId() {
+        return proximoId;
+    }
+
+    /**
+     * Retorna o primeiro segmento do log de operações que não está no catálogo.
+     *
+     * @return Número do segmento (0 para catálogos gravados fora do modo de log).
+     */
+    public long getPrimeiroSegmento() {
+        return primeiroSegmento;
+    }
+
+    /**
+     * Grava um catálogo binário de forma atômica.
+     *
+     * @param caminho O caminho do arquivo do catálogo.
+     * @param primeiroSegmento O primeiro segmento do log que não está no catálogo.
+     * @param proximoId O próximo ID a ser atribuído.
+     * @param produtos Os produtos a serem gravados, com categorias registradas no
+     *                 `DicionarioCategorias`; não devem ser alterados durante a gravação.
+     * @throws ValidacaoException Se algum produto não tiver categoria registrada ou
+     *                            ocorrer um erro de escrita no arquivo.
+     */
+    public static void gravar(String caminho, long primeiroSegmento, int proximoId, Iterable<Produto> produtos) {
+        Path destino = Path.of(caminho);
+        Path temporario = Path.of(caminho + ".tmp");
+        try (FileOutputStream arquivo = new FileOutputStream(temporario.toFile())) {
+            arquivo.write(new byte[TAMANHO_CABECALHO]);
+
+            CRC32 crc = new CRC32();
+            DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(arquivo, crc), 1 << 16));
+            int categorias = DicionarioCategorias.quantidade();
+            saida.writeInt(categorias);
+            for (int codigo = 0; codigo < categorias; codigo++) {
+                escreverTexto(saida, DicionarioCategorias.nomeDe(codigo));
+            }
+            long posicaoProdutos = TAMANHO_CABECALHO + saida.size();
+
+            int quantidade = 0;
+            for (Produto produto : produtos) {
+                if (produto.getCodigoCategoria() < 0 || produto.getCodigoCategoria() >= categorias) {
+                    throw new ValidacaoException("O produto " + produto.getId() + " não tem categoria registrada.");
+                }
+                saida.writeInt(produto.getId());
+                saida.writeDouble(produto.getPreco());
+                saida.writeInt(produto.getQuantidadeEstoque());
+                saida.writeInt(produto.getCodigoCategoria());
+                escreverTexto(saida, produto.getNome());
+                quantidade++;
+            }
+            saida.flush();
+
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+            cabecalho.putInt(MAGICO).putShort(VERSAO).putShort((short) 0)
+                    .putInt(quantidade).putInt(proximoId).putLong(primeiroSegmento)
+                    .putLong(TAMANHO_CABECALHO).putLong(posicaoProdutos)
+                    .putInt((int) crc.getValue()).putInt(0)
+                    .flip();
+            FileChannel canal = arquivo.getChannel();
+            while (cabecalho.hasRemaining()) {
+                canal.write(cabecalho, cabecalho.position());
+            }
+            canal.force(true);
+        } catch (IOException e) {
+            throw new ValidacaoException("Erro ao gravar o catálogo binário." + e);
+        }
+
+        try {
+            try {
+                Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new ValidacaoException("Erro ao substituir o catálogo binário." + e);
+        }
+    }
+
+    /**
+     * Lê um catálogo binário por mapeamento em memória.
+     *
+     * O conteúdo é conferido pelo CRC32 antes de qualquer produto ser entregue. As
+     * categorias da tabela são registradas uma única vez no `DicionarioCategorias`,
+     * e cada produto recebe diretamente o código correspondente.
+     *
+     * @param caminho O caminho do arquivo do catálogo.
+     * @param destino Quem recebe cada produto lido, com o ID original, na ordem do arquivo.
+     * @return As informações do cabeçalho, ou null se o arquivo não existir.
+     * @throws ValidacaoException Se o arquivo estiver corrompido, tiver formato
+     *                            desconhecido, referenciar uma categoria fora da
+     *                            tabela ou ocorrer um erro de leitura.
+     */
+    public static CatalogoBinario ler(String caminho, Consumer<Produto> destino) {
+        Path origem = Path.of(caminho);
+        if (!Files.exists(origem)) {
+            return null;
+        }
+        try (FileChannel canal = FileChannel.open(origem, StandardOpenOption.READ)) {
+            if (canal.size() < TAMANHO_CABECALHO || canal.size() > Integer.MAX_VALUE) {
+                throw new ValidacaoException("Tamanho inválido para um catálogo binário: " + caminho);
+            }
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            mapa.order(ByteOrder.BIG_ENDIAN);
+
+            if (mapa.getInt(0) != MAGICO) {
+                throw new ValidacaoException("O arquivo não é um catálogo binário: " + caminho);
+            }
+            short versao = mapa.getShort(4);
+            if (versao != VERSAO) {
+                throw new ValidacaoException("Versão de catálogo binário não suportada: " + versao);
+            }
+            int quantidade = mapa.getInt(8);
+            int proximoId = mapa.getInt(12);
+            long primeiroSegmento = mapa.getLong(16);
+            int posicaoCategorias = (int) mapa.getLong(24);
+            int posicaoProdutos = (int) mapa.getLong(32);
+
+            CRC32 crc = new CRC32();
+            crc.update(mapa.duplicate().position(TAMANHO_CABECALHO));
+            if ((int) crc.getValue() != mapa.getInt(40)) {
+                throw new ValidacaoException("Catálogo binário corrompido (CRC32 inválido): " + caminho);
+            }
+
+            byte[] texto = new byte[256];
+            mapa.position(posicaoCategorias);
+            int[] codigos = new int[mapa.getInt()];
+            for (int i = 0; i < codigos.length; i++) {
+                int tamanho = mapa.getInt();
+                texto = garantirCapacidade(texto, tamanho);
+                mapa.get(texto, 0, tamanho);
+                codigos[i] = DicionarioCategorias.codigoDe(new String(texto, 0, tamanho, StandardCharsets.UTF_8));
+            }
+
+            mapa.position(posicaoProdutos);
+            for (int i = 0; i < quantidade; i++) {
+                int id = mapa.getInt();
+                double preco = mapa.getDouble();
+                int quantidadeEstoque = mapa.getInt();
+                int categoria = mapa.getInt();
+                if (categoria < 0 || categoria >= codigos.length) {
+                    throw new ValidacaoException("Categoria inválida no produto " + id + " do catálogo binário: " + caminho);
+                }
+                int tamanho = mapa.getInt();
+                texto = garantirCapacidade(texto, tamanho);
+                mapa.get(texto, 0, tamanho);
+
+                Produto produto = new Produto(new String(texto, 0, tamanho, StandardCharsets.UTF_8), preco, quantidadeEstoque, null);
+                produto.setId(id);
+                produto.setCodigoCategoria(codigos[categoria]);
+                destino.accept(produto);
+            }
+            return new CatalogoBinario(quantidade, proximoId, primeiroSegmento);
+        } catch (IOException e) {
+            throw new ValidacaoException("Erro ao ler o catálogo binário." + e);
+        }
+    }
+
+    /**
+     * Converte um arquivo de produtos no formato de texto legado para o formato binário.
+     *
+     * As linhas seguem o formato "id,nome,preço,estoque,categoria"; linhas que não
+     * tiverem cinco campos são ignoradas, como no carregamento do arquivo de texto.
+     * Os IDs são atribuídos em sequência, na ordem das linhas, assim como acontece
+     * ao carregar o arquivo de texto. Cada produto passa pelas mesmas validações
+     * do gerenciador ({@link Produto#validar()}), e as categorias só são
+     * registradas no `DicionarioCategorias` depois que todas as linhas forem
+     * aceitas.
+     *
+     * @param origem O caminho do arquivo de texto.
+     * @param destino O caminho do catálogo binário a ser gravado.
+     * @return A quantidade de produtos convertidos.
+     * @throws ValidacaoException Se algum produto for inválido ou ocorrer um erro de leitura ou escrita.
+     */
+    public static int converterDeTexto(String origem, String destino) {
+        List<Produto> produtos = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(origem))) {
+            String linha;
+            int numero = 0;
+            while ((linha = reader.readLine()) != null) {
+                numero++;
+                String[] dados = linha.split(",");
+                if (dados.length == 5) {
+                    Produto produto;
+                    try {
+                        produto = new Produto(dados[1], Double.parseDouble(dados[2]),
+                                Integer.parseInt(dados[3]), dados[4]);
+                        produto.validar();
+                    } catch (NumberFormatException | ProdutoException e) {
+                        throw new ValidacaoException("Linha " + numero + " do arquivo de texto: " + e.getMessage());
+                    }
+                    produto.setId(produtos.size() + 1);
+                    produtos.add(produto);
+                }
+            }
+        } catch (IOException e) {
+            throw new ValidacaoException("Erro ao ler o arquivo de texto para conversão." + e);
+        }
+        for (Produto produto : produtos) {
+            produto.setCodigoCategoria(DicionarioCategorias.codigoDe(produto.getCategoria()));
+        }
+        gravar(destino, 0, produtos.size() + 1, produtos);
+        return produtos.size();
+    }
+
+    private static void escreverTexto(DataOutputStream saida, String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        saida.writeInt(bytes.length);
+        saida.write(bytes);
+    }
+
+    private static byte[] garantirCapacidade(byte[] texto, int tamanho) {
+        if (tamanho < 0) {
+            throw new ValidacaoException("Tamanho de texto inválido no catálogo binário: " + tamanho);
+        }
+        return tamanho <= texto.length ? texto : new byte[Math.max(tamanho, texto.length * 2)];
+    }
+}
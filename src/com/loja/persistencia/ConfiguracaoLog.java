@@ -0,0 +1,185 @@
+package com.loja.persistencia;
+
+import java.io.File;
+
+/**
+ * Configuração do log de operações do gerenciador de produtos.
+ *
+ * A `ConfiguracaoLog` define o arquivo do log, a política de sincronização com o
+ * disco, os parâmetros da gravação em grupo e quando gravar snapshots do
+ * catálogo para compactar o log. Os valores podem ser definidos
+ * pelos métodos de acesso ou lidos das propriedades do sistema com
+ * {@link #doSistema()}.
+ *
+ * Propriedades do sistema reconhecidas:
+ * - loja.log.arquivo: caminho do arquivo do log (padrão: produtos.log no diretório atual).
+ * - loja.log.fsync: SEMPRE, AGRUPADO ou NUNCA (padrão: AGRUPADO).
+ * - loja.log.grupo: quantidade de operações por grupo (padrão: 64).
+ * - loja.log.intervalo: intervalo máximo, em milissegundos, para gravar um grupo (padrão: 50).
+ * - loja.snapshot.arquivo: caminho do snapshot (padrão: produtos.snap no diretório atual).
+ * - loja.snapshot.intervalo: intervalo, em milissegundos, entre snapshots (padrão: 300000; 0 desativa).
+ * - loja.snapshot.tamanhoLog: tamanho, em bytes, do log que dispara um snapshot (padrão: 32 MiB; 0 desativa).
+ *
+ * @since 2024
+ */
+public class ConfiguracaoLog {
+
+    // Caminho padrão do arquivo de log
+    private static final String CAMINHO_PADRAO = System.getProperty("user.dir") + File.separator + "produtos.log";
+
+    // Caminho padrão do arquivo de snapshot
+    private static final String CAMINHO_SNAPSHOT_PADRAO = System.getProperty("user.dir") + File.separator + "produtos.snap";
+
+    // Atributos
+    private String caminho = CAMINHO_PADRAO;
+    private PoliticaFsync politicaFsync = PoliticaFsync.AGRUPADO;
+    private int tamanhoGrupo = 64;
+    private long intervaloGrupoMs = 50;
+    private String caminhoSnapshot = CAMINHO_SNAPSHOT_PADRAO;
+    private long intervaloSnapshotMs = 300_000;
+    private long tamanhoLogParaSnapshot = 32L * 1024 * 1024;
+
+    /**
+     * Cria uma configuração a partir das propriedades do sistema.
+     *
+     * @return A configuração com os valores das propriedades ou os valores padrão.
+     */
+    public static ConfiguracaoLog doSistema() {
+        ConfiguracaoLog configuracao = new ConfiguracaoLog();
+        configuracao.setCaminho(System.getProperty("loja.log.arquivo", CAMINHO_PADRAO));
+        configuracao.setPoliticaFsync(PoliticaFsync.valueOf(
+                System.getProperty("loja.log.fsync", PoliticaFsync.AGRUPADO.name()).trim().toUpperCase()));
+        configuracao.setTamanhoGrupo(Integer.getInteger("loja.log.grupo", 64));
+        configuracao.setIntervaloGrupoMs(Long.getLong("loja.log.intervalo", 50L));
+        configuracao.setCaminhoSnapshot(System.getProperty("loja.snapshot.arquivo", CAMINHO_SNAPSHOT_PADRAO));
+        configuracao.setIntervaloSnapshotMs(Long.getLong("loja.snapshot.intervalo", 300_000L));
+        configuracao.setTamanhoLogParaSnapshot(Long.getLong("loja.snapshot.tamanhoLog", 32L * 1024 * 1024));
+        return configuracao;
+    }
+
+    /**
+     * Retorna o caminho do arquivo do log.
+     *
+     * @return Caminho do arquivo.
+     */
+    public String getCaminho() {
+        return caminho;
+    }
+
+    /**
+     * Define o caminho do arquivo do log.
+     *
+     * @param caminho Caminho do arquivo.
+     */
+    public void setCaminho(String caminho) {
+        this.caminho = caminho;
+    }
+
+    /**
+     * Retorna a política de sincronização com o disco.
+     *
+     * @return Política de sincronização.
+     */
+    public PoliticaFsync getPoliticaFsync() {
+        return politicaFsync;
+    }
+
+    /**
+     * Define a política de sincronização com o disco.
+     *
+     * @param politicaFsync Política de sincronização.
+     */
+    public void setPoliticaFsync(PoliticaFsync politicaFsync) {
+        this.politicaFsync = politicaFsync;
+    }
+
+    /**
+     * Retorna a quantidade de operações gravadas por grupo na política AGRUPADO.
+     *
+     * @return Tamanho do grupo.
+     */
+    public int getTamanhoGrupo() {
+        return tamanhoGrupo;
+    }
+
+    /**
+     * Define a quantidade de operações gravadas por grupo na política AGRUPADO.
+     *
+     * @param tamanhoGrupo Tamanho do grupo (no mínimo 1).
+     */
+    public void setTamanhoGrupo(int tamanhoGrupo) {
+        this.tamanhoGrupo = Math.max(1, tamanhoGrupo);
+    }
+
+    /**
+     * Retorna o intervalo máximo, em milissegundos, para gravar um grupo incompleto.
+     *
+     * @return Intervalo em milissegundos.
+     */
+    public long getIntervaloGrupoMs() {
+        return intervaloGrupoMs;
+    }
+
+    /**
+     * Define o intervalo máximo, em milissegundos, para gravar um grupo incompleto.
+     *
+     * @param intervaloGrupoMs Intervalo em milissegundos (no mínimo 1).
+     */
+    public void setIntervaloGrupoMs(long intervaloGrupoMs) {
+        this.intervaloGrupoMs = Math.max(1, intervaloGrupoMs);
+    }
+
+    /**
+     * Retorna o caminho do arquivo de snapshot.
+     *
+     * @return Caminho do snapshot.
+     */
+    public String getCaminhoSnapshot() {
+        return caminhoSnapshot;
+    }
+
+    /**
+     * Define o caminho do arquivo de snapshot.
+     *
+     * @param caminhoSnapshot Caminho do snapshot.
+     */
+    public void setCaminhoSnapshot(String caminhoSnapshot) {
+        this.caminhoSnapshot = caminhoSnapshot;
+    }
+
+    /**
+     * Retorna o intervalo, em milissegundos, entre snapshots periódicos.
+     *
+     * @return Intervalo em milissegundos (0 quando desativado).
+     */
+    public long getIntervaloSnapshotMs() {
+        return intervaloSnapshotMs;
+    }
+
+    /**
+     * Define o intervalo, em milissegundos, entre snapshots periódicos.
+     *
+     * @param intervaloSnapshotMs Intervalo em milissegundos (0 desativa).
+     */
+    public void setIntervaloSnapshotMs(long intervaloSnapshotMs) {
+        this.intervaloSnapshotMs = Math.max(0, intervaloSnapshotMs);
+    }
+
+    /**
+     * Retorna o tamanho, em bytes, que o log deve atingir para disparar um snapshot.
+     *
+     * @return Tamanho em bytes (0 quando desativado).
+     */
+    public long getTamanhoLogParaSnapshot() {
+        return tamanhoLogParaSnapshot;
+    }
+
+    /**
+     * Define o tamanho, em bytes, que o log deve atingir para disparar um snapshot.
+     *
+     * @param tamanhoLogParaSnapshot Tamanho em bytes (0 desativa).
+     */
+    public void setTamanhoLogParaSnapshot(long tamanhoLogParaSnapshot) {
+        this.tamanhoLogParaSnapshot = Math.max(0, tamanhoLogParaSnapshot);
+    }
+}
@@ -0,0 +1,31 @@
+package com.loja.persistencia;
+
+import java.io.File;
+
+/**
+ * Ferramenta de linha de comando que converte o arquivo de texto legado para o
+ * catálogo binário.
+ *
+ * Uso: {@code java com.loja.persistencia.ConversorCatalogo [origem.txt] [destino.bin]}.
+ * Sem argumentos, converte `produtos.txt` em `produtos.bin`, no diretório atual.
+ *
+ * @since 2024
+ */
+public class ConversorCatalogo {
+
+    /**
+     * Converte o arquivo de texto informado (ou o padrão) para o catálogo binário.
+     *
+     * @param args Caminho do arquivo de texto e caminho do catálogo binário (opcionais).
+     */
+    public static void main(String[] args) {
+        String diretorio = System.getProperty("user.dir") + File.separator;
+        String origem = args.length > 0 ? args[0] : diretorio + "produtos.txt";
+        String destino = args.length > 1 ? args[1] : diretorio + "produtos.bin";
+
+        long inicio = System.nanoTime();
+        int quantidade = CatalogoBinario.converterDeTexto(origem, destino);
+        long duracao = (System.nanoTime() - inicio) / 1_000_000;
+        System.out.println(quantidade + " produtos convertidos de " + origem + " para " + destino + " em " + duracao + " ms.");
+    }
+}
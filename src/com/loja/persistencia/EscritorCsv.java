@@ -0,0 +1,171 @@
+package com.loja.persistencia;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Escritor de registros CSV que codifica os campos diretamente em um buffer de bytes.
+ *
+ * O `EscritorCsv` acumula os bytes em um buffer fixo de 64 KiB, que é enviado à
+ * saída sempre que enche; assim, a memória usada não depende da quantidade de
+ * registros. Os textos são codificados em UTF-8 caractere a caractere, sem criar
+ * vetores intermediários, e só são colocados entre aspas quando contêm vírgula,
+ * aspas ou quebra de linha, no formato lido pelo {@link LeitorCsv}.
+ *
+ * Esta classe não é thread-safe.
+ *
+ * @since 2024
+ */
+public class EscritorCsv implements Flushable {
+
+    // Saída e bytes ainda não enviados a ela
+    private final OutputStream saida;
+    private final byte[] buffer = new byte[1 << 16];
+    private int tamanho;
+
+    // Indica se o próximo campo é o primeiro do registro
+    private boolean inicioDoRegistro = true;
+
+    /**
+     * Cria um escritor sobre a saída fornecida.
+     *
+     * @param saida A saída que recebe o conteúdo CSV; não é fechada pelo escritor.
+     */
+    public EscritorCsv(OutputStream saida) {
+        this.saida = saida;
+    }
+
+    /**
+     * Escreve um campo de texto, entre aspas quando necessário.
+     *
+     * @param texto O texto do campo (null é escrito como campo vazio).
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void campo(String texto) throws IOException {
+        separador();
+        if (texto == null) {
+            return;
+        }
+        boolean aspas = precisaDeAspas(texto);
+        if (aspas) {
+            escreverByte('"');
+        }
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                if (c == '"') {
+                    escreverByte('"');
+                }
+                escreverByte(c);
+            } else if (c < 0x800) {
+                escreverByte(0xC0 | (c >> 6));
+                escreverByte(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < texto.length()
+                    && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                int codigo = Character.toCodePoint(c, texto.charAt(++i));
+                escreverByte(0xF0 | (codigo >> 18));
+                escreverByte(0x80 | ((codigo >> 12) & 0x3F));
+                escreverByte(0x80 | ((codigo >> 6) & 0x3F));
+                escreverByte(0x80 | (codigo & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                escreverByte('?');
+            } else {
+                escreverByte(0xE0 | (c >> 12));
+                escreverByte(0x80 | ((c >> 6) & 0x3F));
+                escreverByte(0x80 | (c & 0x3F));
+            }
+        }
+        if (aspas) {
+            escreverByte('"');
+        }
+    }
+
+    /**
+     * Escreve um campo numérico inteiro.
+     *
+     * @param valor O valor do campo.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void campo(int valor) throws IOException {
+        separador();
+        if (valor < 0) {
+            escreverByte('-');
+        }
+        long resto = Math.abs((long) valor);
+        long divisor = 1;
+        while (divisor * 10 <= resto) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            escreverByte('0' + (int) (resto / divisor));
+            resto %= divisor;
+        }
+    }
+
+    /**
+     * Escreve um campo numérico decimal, no formato de `Double.toString`.
+     *
+     * @param valor O valor do campo.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void campo(double valor) throws IOException {
+        separador();
+        String texto = Double.toString(valor);
+        for (int i = 0; i < texto.length(); i++) {
+            escreverByte(texto.charAt(i));
+        }
+    }
+
+    /**
+     * Termina o registro atual com uma quebra de linha.
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void fimDoRegistro() throws IOException {
+        escreverByte('\n');
+        inicioDoRegistro = true;
+    }
+
+    /**
+     * Envia à saída os bytes acumulados no buffer.
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (tamanho > 0) {
+            saida.write(buffer, 0, tamanho);
+            tamanho = 0;
+        }
+        saida.flush();
+    }
+
+    private static boolean precisaDeAspas(String texto) {
+        if (texto.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void separador() throws IOException {
+        if (!inicioDoRegistro) {
+            escreverByte(',');
+        }
+        inicioDoRegistro = false;
+    }
+
+    private void escreverByte(int b) throws IOException {
+        if (tamanho == buffer.length) {
+            saida.write(buffer, 0, tamanho);
+            tamanho = 0;
+        }
+        buffer[tamanho++] = (byte) b;
+    }
+}
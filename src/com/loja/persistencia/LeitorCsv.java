@@ -0,0 +1,314 @@
+package com.loja.persistencia;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Leitor de registros CSV que trabalha diretamente sobre os bytes da entrada.
+ *
+ * O `LeitorCsv` lê a entrada em blocos de 64 KiB e copia os bytes de cada
+ * registro para um vetor reaproveitado, guardando apenas a posição final de cada
+ * campo. Nenhuma `String` é criada enquanto o registro é separado em campos: os
+ * campos de texto só são convertidos quando solicitados, e os números são
+ * interpretados diretamente dos bytes.
+ *
+ * O formato segue o RFC 4180: campos separados por vírgula, registros separados
+ * por LF ou CRLF, campos entre aspas podem conter vírgulas, quebras de linha e
+ * aspas duplicadas (""). Aspas no meio de um campo sem aspas são tratadas como
+ * texto comum. O texto é lido em UTF-8.
+ *
+ * Esta classe não é thread-safe.
+ *
+ * @since 2024
+ */
+public class LeitorCsv {
+
+    // Potências de 10 representadas exatamente em double
+    private static final double[] POTENCIAS_DE_10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Entrada e bloco de bytes lido por último
+    private final InputStream entrada;
+    private final byte[] bloco = new byte[1 << 16];
+    private int posicao;
+    private int limite;
+    private boolean fimDaEntrada;
+
+    // Bytes do registro atual e posição final (exclusiva) de cada campo
+    private byte[] registro = new byte[256];
+    private int[] finais = new int[8];
+    private int quantidadeCampos;
+
+    // Linha em que o registro atual começa e linha da próxima leitura
+    private int linhaDoRegistro;
+    private int linhaAtual = 1;
+
+    // Indica que o registro atual terminou com aspas não fechadas
+    private boolean aspasAbertas;
+
+    /**
+     * Cria um leitor sobre a entrada fornecida.
+     *
+     * @param entrada A entrada com o conteúdo CSV; não é fechada pelo leitor.
+     */
+    public LeitorCsv(InputStream entrada) {
+        this.entrada = entrada;
+    }
+
+    /**
+     * Avança para o próximo registro.
+     *
+     * @return true se um registro foi lido, false no fim da entrada.
+     * @throws IOException Se ocorrer um erro de leitura.
+     */
+    public boolean proximoRegistro() throws IOException {
+        quantidadeCampos = 0;
+        aspasAbertas = false;
+        linhaDoRegistro = linhaAtual;
+        int tamanho = 0;
+
+        int c = lerByte();
+        if (c < 0) {
+            return false;
+        }
+        boolean entreAspas = false;
+        boolean inicioDoCampo = true;
+        while (true) {
+            if (c < 0) {
+                aspasAbertas = entreAspas;
+                break;
+            }
+            if (entreAspas) {
+                if (c == '"') {
+                    if (espiarByte() == '"') {
+                        posicao++;
+                        tamanho = adicionar(tamanho, '"');
+                    } else {
+                        entreAspas = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        linhaAtual++;
+                    }
+                    tamanho = adicionar(tamanho, c);
+                }
+            } else if (c == ',') {
+                fecharCampo(tamanho);
+                inicioDoCampo = true;
+                c = lerByte();
+                continue;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && espiarByte() == '\n') {
+                    posicao++;
+                }
+                linhaAtual++;
+                break;
+            } else if (c == '"' && inicioDoCampo) {
+                entreAspas = true;
+            } else {
+                tamanho = adicionar(tamanho, c);
+            }
+            inicioDoCampo = false;
+            c = lerByte();
+        }
+        fecharCampo(tamanho);
+        return true;
+    }
+
+    /**
+     * Retorna a linha da entrada em que o registro atual começa (a partir de 1).
+     *
+     * @return Número da linha.
+     */
+    public int getLinha() {
+        return linhaDoRegistro;
+    }
+
+    /**
+     * Retorna a quantidade de campos do registro atual.
+     *
+     * @return Quantidade de campos.
+     */
+    public int quantidadeCampos() {
+        return quantidadeCampos;
+    }
+
+    /**
+     * Indica se o registro atual é uma linha em branco.
+     *
+     * @return true se o registro tiver um único campo vazio.
+     */
+    public boolean vazio() {
+        return quantidadeCampos == 1 && finais[0] == 0 && !aspasAbertas;
+    }
+
+    /**
+     * Indica se a entrada terminou dentro de um campo entre aspas.
+     *
+     * @return true se as aspas do último campo não foram fechadas.
+     */
+    public boolean aspasAbertas() {
+        return aspasAbertas;
+    }
+
+    /**
+     * Retorna o conteúdo de um campo como texto.
+     *
+     * @param campo O índice do campo, a partir de 0.
+     * @return O texto do campo, sem as aspas.
+     */
+    public String texto(int campo) {
+        int inicio = inicio(campo);
+        return new String(registro, inicio, finais[campo] - inicio, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compara um campo com um texto ASCII, ignorando maiúsculas e minúsculas, sem criar `String`.
+     *
+     * @param campo O índice do campo, a partir de 0.
+     * @param texto O texto ASCII a ser comparado.
+     * @return true se o campo for igual ao texto.
+     */
+    public boolean igual(int campo, String texto) {
+        int inicio = inicio(campo);
+        if (finais[campo] - inicio != texto.length()) {
+            return false;
+        }
+        for (int i = 0; i < texto.length(); i++) {
+            if (Character.toLowerCase(registro[inicio + i]) != Character.toLowerCase(texto.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Interpreta um campo como número inteiro, diretamente dos bytes.
+     *
+     * @param campo O índice do campo, a partir de 0.
+     * @return O valor do campo.
+     * @throws NumberFormatException Se o campo não for um inteiro válido.
+     */
+    public int inteiro(int campo) {
+        int i = inicio(campo);
+        int fim = finais[campo];
+        boolean negativo = i < fim && registro[i] == '-';
+        if (negativo || (i < fim && registro[i] == '+')) {
+            i++;
+        }
+        if (i == fim) {
+            throw new NumberFormatException("Número inteiro inválido: \"" + texto(campo) + "\"");
+        }
+        long valor = 0;
+        for (; i < fim; i++) {
+            int digito = registro[i] - '0';
+            if (digito < 0 || digito > 9 || (valor = valor * 10 + digito) > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException("Número inteiro inválido: \"" + texto(campo) + "\"");
+            }
+        }
+        valor = negativo ? -valor : valor;
+        if (valor > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Número inteiro inválido: \"" + texto(campo) + "\"");
+        }
+        return (int) valor;
+    }
+
+    /**
+     * Interpreta um campo como número decimal.
+     *
+     * Números simples (sinal, até 15 dígitos e ponto decimal) são calculados
+     * diretamente dos bytes com uma única divisão exata, que produz o mesmo valor
+     * de `Double.parseDouble`; os demais formatos usam `Double.parseDouble`.
+     *
+     * @param campo O índice do campo, a partir de 0.
+     * @return O valor do campo.
+     * @throws NumberFormatException Se o campo não for um número válido.
+     */
+    public double decimal(int campo) {
+        int i = inicio(campo);
+        int fim = finais[campo];
+        boolean negativo = i < fim && registro[i] == '-';
+        if (negativo || (i < fim && registro[i] == '+')) {
+            i++;
+        }
+        long mantissa = 0;
+        int digitos = 0;
+        int casasDecimais = -1;
+        for (; i < fim; i++) {
+            byte b = registro[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digitos++;
+                if (casasDecimais >= 0) {
+                    casasDecimais++;
+                }
+            } else if (b == '.' && casasDecimais < 0) {
+                casasDecimais = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == fim && digitos > 0 && digitos <= 15) {
+            double valor = casasDecimais > 0 ? mantissa / POTENCIAS_DE_10[casasDecimais] : mantissa;
+            return negativo ? -valor : valor;
+        }
+        return Double.parseDouble(texto(campo));
+    }
+
+    private int inicio(int campo) {
+        if (campo < 0 || campo >= quantidadeCampos) {
+            throw new IndexOutOfBoundsException("Campo inexistente: " + campo);
+        }
+        return campo == 0 ? 0 : finais[campo - 1];
+    }
+
+    private void fecharCampo(int tamanho) {
+        if (quantidadeCampos == finais.length) {
+            finais = Arrays.copyOf(finais, finais.length * 2);
+        }
+        finais[quantidadeCampos++] = tamanho;
+    }
+
+    private int adicionar(int tamanho, int c) {
+        if (tamanho == registro.length) {
+            registro = Arrays.copyOf(registro, registro.length * 2);
+        }
+        registro[tamanho] = (byte) c;
+        return tamanho + 1;
+    }
+
+    private int lerByte() throws IOException {
+        if (posicao == limite && !preencher()) {
+            return -1;
+        }
+        return bloco[posicao++] & 0xFF;
+    }
+
+    private int espiarByte() throws IOException {
+        if (posicao == limite && !preencher()) {
+            return -1;
+        }
+        return bloco[posicao] & 0xFF;
+    }
+
+    private boolean preencher() throws IOException {
+        if (fimDaEntrada) {
+            return false;
+        }
+        int lidos = entrada.read(bloco, 0, bloco.length);
+        while (lidos == 0) {
+            lidos = entrada.read(bloco, 0, bloco.length);
+        }
+        if (lidos < 0) {
+            fimDaEntrada = true;
+            return false;
+        }
+        posicao = 0;
+        limite = lidos;
+        return true;
+    }
+}
@@ -0,0 +1,734 @@
+package com.loja.persistencia;
+
+import com.loja.exception.ValidacaoException;
+import com.loja.modelo.Produto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Log de operações (write-ahead log) do gerenciador de produtos.
+ *
+ * O `LogOperacoes` grava, apenas no final do arquivo, um registro para cada
+ * criação, atualização ou exclusão de produto. Cada registro possui o tamanho e
+ * o CRC32 do seu conteúdo, o que permite detectar um registro incompleto ou
+ * corrompido no final do arquivo após uma queda.
+ *
+ * Formato de um registro:
+ * - int: tamanho do conteúdo, em bytes;
+ * - int: CRC32 do conteúdo;
+ * - conteúdo: byte do tipo da operação, int do ID e, para criação e atualização,
+ *   double do preço, int do estoque e o nome e a categoria em UTF-8, cada um
+ *   precedido pelo seu tamanho em bytes.
+ *
+ * O log é dividido em segmentos numerados: o segmento 0 é o próprio arquivo
+ * configurado e os seguintes recebem o número como sufixo (produtos.log.1,
+ * produtos.log.2, ...). Um novo segmento é iniciado a cada snapshot, e os
+ * segmentos já cobertos por um snapshot podem ser removidos.
+ *
+ * Ao abrir o log, os registros válidos são reaplicados em ordem e o último
+ * segmento é truncado no primeiro registro inválido; a quantidade de bytes
+ * descartados fica disponível em {@link #getBytesDescartados()}. Um registro
+ * inválido em um segmento anterior ao último não é o final de uma gravação
+ * interrompida (cada segmento é sincronizado antes da rotação), e a abertura
+ * falha em vez de reaplicar os segmentos seguintes sobre a lacuna.
+ *
+ * A frequência de sincronização com o disco segue a {@link PoliticaFsync} da
+ * configuração. Se a gravação ou a sincronização de um registro falhar, o
+ * registro é descartado do buffer e do arquivo antes de a falha ser lançada,
+ * para que uma operação recusada não seja reaplicada depois.
+ *
+ * Os métodos desta classe são sincronizados e podem ser chamados de várias threads.
+ *
+ * @since 2024
+ */
+public class LogOperacoes implements Closeable {
+
+    /**
+     * Recebe as operações lidas do log durante a reaplicação.
+     */
+    public interface Aplicador {
+
+        /**
+         * Reaplica a criação de um produto, já com o ID original.
+         *
+         * @param produto O produto criado.
+         */
+        void criar(Produto produto);
+
+        /**
+         * Reaplica a atualização de um produto.
+         *
+         * @param produto O produto com os novos dados e o ID original.
+         */
+        void atualizar(Produto produto);
+
+        /**
+         * Reaplica a exclusão de um produto.
+         *
+         * @param id O ID do produto excluído.
+         */
+        void deletar(int id);
+    }
+
+    // Tipos de operação gravados no log
+    private static final byte CRIAR = 1;
+    private static final byte ATUALIZAR = 2;
+    private static final byte DELETAR = 3;
+
+    // Tamanho do cabeçalho de cada registro (tamanho + CRC32)
+    private static final int CABECALHO = 8;
+
+    // Maior conteúdo de registro aceito na leitura
+    private static final int TAMANHO_MAXIMO_REGISTRO = 1 << 20;
+
+    // Canal de escrita do segmento atual
+    private FileChannel canal;
+
+    // Número do segmento atual
+    private long segmentoAtual;
+
+    // Configuração do log
+    private final ConfiguracaoLog configuracao;
+
+    // Registros ainda não gravados no arquivo
+    private ByteBuffer pendentes = ByteBuffer.allocate(64 * 1024);
+    private int registrosPendentes;
+
+    // Quantidade de lotes abertos; enquanto houver algum, a política de sincronização fica para o fim do lote
+    private int lotesAbertos;
+
+    // Calculadora de CRC32, reutilizada entre registros
+    private final CRC32 crc = new CRC32();
+
+    // Grava periodicamente os grupos incompletos (apenas na política AGRUPADO)
+    private final ScheduledExecutorService agendador;
+
+    // Falha da última gravação periódica, ainda não informada a quem grava no log
+    private volatile ValidacaoException falhaDoAgendador;
+
+    // Bytes do final incompleto descartados ao abrir o log
+    private final long bytesDescartados;
+
+    private LogOperacoes(FileChannel canal, long segmentoAtual, ConfiguracaoLog configuracao, long bytesDescartados) {
+        this.canal = canal;
+        this.segmentoAtual = segmentoAtual;
+        this.configuracao = configuracao;
+        this.bytesDescartados = bytesDescartados;
+        if (configuracao.getPoliticaFsync() == PoliticaFsync.AGRUPADO) {
+            agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+                Thread thread = new Thread(tarefa, "log-operacoes");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalo = configuracao.getIntervaloGrupoMs();
+            agendador.scheduleWithFixedDelay(this::sincronizarSilenciosamente, intervalo, intervalo, TimeUnit.MILLISECONDS);
+        } else {
+            agendador = null;
+        }
+    }
+
+    /**
+     * Abre o log de operações, reaplica os registros existentes e o prepara para escrita.
+     *
+     * Equivale a {@link #abrir(ConfiguracaoLog, Aplicador, long)} a partir do segmento 0.
+     *
+     * @param configuracao A configuração do log.
+     * @param aplicador Quem recebe as operações reaplicadas.
+     * @return O log aberto, posicionado no final do último segmento.
+     * @throws ValidacaoException Se ocorrer um erro de leitura ou escrita no arquivo.
+     */
+    public static LogOperacoes abrir(ConfiguracaoLog configuracao, Aplicador aplicador) {
+        return abrir(configuracao, aplicador, 0);
+    }
+
+    /**
+     * Abre o log de operações, reaplica os registros a partir de um segmento e o
+     * prepara para escrita.
+     *
+     * Os segmentos anteriores ao primeiro segmento informado já estão cobertos por
+     * um snapshot e são removidos. Os demais são lidos em ordem e seus registros
+     * entregues ao aplicador. Se o final do último segmento contiver um registro
+     * incompleto ou com CRC32 inválido, o segmento é truncado no início desse
+     * registro. Um registro inválido em outro segmento interrompe a abertura, sem
+     * truncar nada, pois os segmentos seguintes dependeriam das operações perdidas.
+     *
+     * @param configuracao A configuração do log.
+     * @param aplicador Quem recebe as operações reaplicadas.
+     * @param primeiroSegmento O número do primeiro segmento a ser reaplicado.
+     * @return O log aberto, posicionado no final do último segmento.
+     * @throws ValidacaoException Se um segmento anterior ao último estiver
+     *                            corrompido ou ocorrer um erro de leitura ou
+     *                            escrita no arquivo.
+     */
+    public static LogOperacoes abrir(ConfiguracaoLog configuracao, Aplicador aplicador, long primeiroSegmento) {
+        try {
+            long ultimo = primeiroSegmento;
+            long descartados = 0;
+            List<Long> segmentos = listarSegmentos(configuracao);
+            for (int i = 0; i < segmentos.size(); i++) {
+                long segmento = segmentos.get(i);
+                if (segmento < primeiroSegmento) {
+                    Files.deleteIfExists(caminhoSegmento(configuracao, segmento));
+                    continue;
+                }
+                try (FileChannel leitura = FileChannel.open(caminhoSegmento(configuracao, segmento),
+                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    long validos = reaplicar(leitura, aplicador);
+                    if (validos < leitura.size()) {
+                        if (i < segmentos.size() - 1) {
+                            throw new ValidacaoException("Segmento " + segmento + " do log de operações corrompido na posição "
+                                    + validos + ", antes do último segmento: " + caminhoSegmento(configuracao, segmento));
+                        }
+                        descartados = leitura.size() - validos;
+                        leitura.truncate(validos);
+                        leitura.force(true);
+                    }
+                }
+                ultimo = segmento;
+            }
+            return new LogOperacoes(abrirSegmento(configuracao, ultimo), ultimo, configuracao, descartados);
+        } catch (IOException e) {
+            throw new ValidacaoException("Erro ao abrir o log de operações." + e);
+        }
+    }
+
+    /**
+     * Retorna a quantidade de bytes descartados do final do último segmento ao
+     * abrir o log, por pertencerem a um registro incompleto ou corrompido.
+     *
+     * @return Bytes descartados, ou 0 se o log estava íntegro.
+     */
+    public long getBytesDescartados() {
+        return bytesDescartados;
+    }
+
+    /**
+     * Encerra o segmento atual e passa a gravar em um segmento novo.
+     *
+     * Os registros pendentes são gravados e sincronizados antes da troca. Todas as
+     * operações registradas depois deste método ficam no segmento retornado.
+     *
+     * @return O número do novo segmento.
+     * @throws ValidacaoException Se ocorrer um erro de escrita no arquivo.
+     */
+    public synchronized long rotacionar() {
+        sincronizar();
+        try {
+            FileChannel novo = abrirSegmento(configuracao, segmentoAtual + 1);
+            canal.close();
+            canal = novo;
+            segmentoAtual++;
+            return segmentoAtual;
+        } catch (IOException e) {
+            throw new ValidacaoException("Erro ao iniciar um novo segmento do log de operações." + e);
+        }
+    }
+
+    /**
+     * Remove os segmentos anteriores ao segmento informado.
+     *
+     * Deve ser chamado apenas depois que um snapshot cobrindo esses segmentos
+     * estiver gravado em definitivo.
+     *
+     * @param segmento O primeiro segmento a ser mantido.
+     * @throws ValidacaoException Se ocorrer um erro ao remover os arquivos.
+     */
+    public void removerSegmentosAnteriores(long segmento) {
+        try {
+            for (long existente : listarSegmentos(configuracao)) {
+                if (existente < segmento) {
+                    Files.deleteIfExists(caminhoSegmento(configuracao, existente));
+                }
+            }
+        } catch (IOException e) {
+            throw new ValidacaoException("Erro ao remover segmentos antigos do log de operações." + e);
+        }
+    }
+
+    /**
+     * Registra a criação de um produto.
+     *
+     * @param produto O produto criado, já com o ID atribuído.
+     * @throws ValidacaoException Se ocorrer um erro de escrita no arquivo, ou se a
+     *                            última gravação periódica de um grupo tiver falhado.
+     */
+    public synchronized void registrarCriacao(Produto produto) {
+        lancarFalhaDoAgendador();
+        registrarProduto(CRIAR, produto);
+    }
+
+    /**
+     * Registra a atualização de um produto.
+     *
+     * @param produto O produto com os novos dados.
+     * @throws ValidacaoException Se ocorrer um erro de escrita no arquivo, ou se a
+     *                            última gravação periódica de um grupo tiver falhado.
+     */
+    public synchronized void registrarAtualizacao(Produto produto) {
+        lancarFalhaDoAgendador();
+        registrarProduto(ATUALIZAR, produto);
+    }
+
+    /**
+     * Registra a exclusão de um produto.
+     *
+     * @param id O ID do produto excluído.
+     * @throws ValidacaoException Se ocorrer um erro de escrita no arquivo, ou se a
+     *                            última gravação periódica de um grupo tiver falhado.
+     */
+    public synchronized void registrarExclusao(int id) {
+        lancarFalhaDoAgendador();
+        garantirEspaco(CABECALHO + 5);
+        int inicio = iniciarRegistro(DELETAR, id);
+        concluirRegistro(inicio);
+    }
+
+    /**
+     * Inicia um lote de registros.
+     *
+     * Até o lote ser concluído por {@link #concluirLote()}, os registros são apenas
+     * acumulados, sem aplicar a política de sincronização a cada um. Lotes podem
+     * ser aninhados; a política é aplicada quando o mais externo é concluído.
+     */
+    public synchronized void iniciarLote() {
+        lotesAbertos++;
+    }
+
+    /**
+     * Conclui um lote de registros e aplica a política de sincronização uma única
+     * vez para todos eles: na política SEMPRE, o lote inteiro é gravado e
+     * sincronizado com o disco antes de retornar.
+     *
+     * @throws ValidacaoException Se ocorrer um erro de escrita no arquivo.
+     */
+    public synchronized void concluirLote() {
+        if (lotesAbertos > 0 && --lotesAbertos == 0) {
+            aplicarPoliticaFsync();
+        }
+    }
+
+    /**
+     * Grava no arquivo todos os registros pendentes e sincroniza o arquivo com o disco.
+     *
+     * @throws ValidacaoException Se ocorrer um erro de escrita no arquivo, ou se a
+     *                            última gravação periódica de um grupo tiver falhado.
+     */
+    public synchronized void sincronizar() {
+        lancarFalhaDoAgendador();
+        gravarESincronizar();
+    }
+
+    /**
+     * Grava os registros pendentes e sincroniza o arquivo com o disco.
+     *
+     * @throws ValidacaoException Se ocorrer um erro de escrita no arquivo.
+     */
+    private void gravarESincronizar() {
+        try {
+            gravarPendentes();
+            canal.force(false);
+        } catch (IOException e) {
+            throw new ValidacaoException("Erro ao sincronizar o log de operações." + e);
+        }
+    }
+
+    /**
+     * Retorna o tamanho do segmento atual, incluindo os registros ainda pendentes.
+     *
+     * Como um novo segmento é iniciado a cada snapshot, este é o volume de
+     * operações que teria de ser reaplicado além do snapshot.
+     *
+     * @return Tamanho do segmento atual em bytes.
+     */
+    public synchronized long tamanho() {
+        try {
+            return canal.size() + pendentes.position();
+        } catch (IOException e) {
+            throw new ValidacaoException("Erro ao consultar o log de operações." + e);
+        }
+    }
+
+    /**
+     * Grava os registros pendentes, sincroniza e fecha o arquivo do log.
+     */
+    @Override
+    public synchronized void close() {
+        if (agendador != null) {
+            agendador.shutdown();
+        }
+        if (canal.isOpen()) {
+            sincronizar();
+            try {
+                canal.close();
+            } catch (IOException e) {
+                throw new ValidacaoException("Erro ao fechar o log de operações." + e);
+            }
+        }
+    }
+
+    /**
+     * Retorna o caminho do arquivo de um segmento do log.
+     *
+     * @param configuracao A configuração do log.
+     * @param segmento O número do segmento.
+     * @return O caminho do arquivo do segmento.
+     */
+    private static Path caminhoSegmento(ConfiguracaoLog configuracao, long segmento) {
+        String caminho = configuracao.getCaminho();
+        return Path.of(segmento == 0 ? caminho : caminho + "." + segmento);
+    }
+
+    /**
+     * Abre (ou cria) o arquivo de um segmento, posicionado no final.
+     *
+     * @param configuracao A configuração do log.
+     * @param segmento O número do segmento.
+     * @return O canal do segmento.
+     * @throws IOException Se ocorrer um erro ao abrir o arquivo.
+     */
+    private static FileChannel abrirSegmento(ConfiguracaoLog configuracao, long segmento) throws IOException {
+        FileChannel canal = FileChannel.open(caminhoSegmento(configuracao, segmento),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        canal.position(canal.size());
+        return canal;
+    }
+
+    /**
+     * Lista, em ordem crescente, os números dos segmentos existentes no disco.
+     *
+     * @param configuracao A configuração do log.
+     * @return Os números dos segmentos.
+     * @throws IOException Se ocorrer um erro ao listar o diretório.
+     */
+    private static List<Long> listarSegmentos(ConfiguracaoLog configuracao) throws IOException {
+        Path base = Path.of(configuracao.getCaminho()).toAbsolutePath();
+        String prefixo = base.getFileName() + ".";
+        List<Long> segmentos = new ArrayList<>();
+        if (Files.exists(base)) {
+            segmentos.add(0L);
+        }
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(base.getParent(), prefixo + "*")) {
+            for (Path arquivo : arquivos) {
+                String sufixo = arquivo.getFileName().toString().substring(prefixo.length());
+                if (!sufixo.isEmpty() && sufixo.chars().allMatch(Character::isDigit)) {
+                    segmentos.add(Long.parseLong(sufixo));
+                }
+            }
+        }
+        segmentos.sort(null);
+        return segmentos;
+    }
+
+    /**
+     * Monta o registro de uma criação ou atualização e o entrega à política de gravação.
+     *
+     * @param tipo O tipo da operação.
+     * @param produto O produto da operação.
+     */
+    private void registrarProduto(byte tipo, Produto produto) {
+        byte[] nome = produto.getNome().getBytes(StandardCharsets.UTF_8);
+        byte[] categoria = produto.getCategoria().getBytes(StandardCharsets.UTF_8);
+        garantirEspaco(CABECALHO + 5 + 8 + 4 + 4 + nome.length + 4 + categoria.length);
+        int inicio = iniciarRegistro(tipo, produto.getId());
+        pendentes.putDouble(produto.getPreco());
+        pendentes.putInt(produto.getQuantidadeEstoque());
+        pendentes.putInt(nome.length).put(nome);
+        pendentes.putInt(categoria.length).put(categoria);
+        concluirRegistro(inicio);
+    }
+
+    /**
+     * Reserva o cabeçalho e escreve o tipo e o ID de um registro.
+     *
+     * @param tipo O tipo da operação.
+     * @param id O ID do produto.
+     * @return A posição do início do registro no buffer de pendentes.
+     */
+    private int iniciarRegistro(byte tipo, int id) {
+        int inicio = pendentes.position();
+        pendentes.position(inicio + CABECALHO);
+        pendentes.put(tipo).putInt(id);
+        return inicio;
+    }
+
+    /**
+     * Preenche o cabeçalho de um registro e aplica a política de sincronização.
+     *
+     * Se a gravação ou a sincronização falhar, o registro é descartado antes de a
+     * falha ser lançada: quem registrou a operação não a aplica, e ela não pode
+     * chegar ao arquivo junto com o próximo grupo. Os registros anteriores do
+     * grupo, de operações já aplicadas, são mantidos.
+     *
+     * @param inicio A posição do início do registro no buffer de pendentes.
+     * @throws ValidacaoException Se ocorrer um erro de escrita ou sincronização.
+     */
+    private void concluirRegistro(int inicio) {
+        int tamanho = pendentes.position() - inicio - CABECALHO;
+        crc.reset();
+        crc.update(pendentes.array(), inicio + CABECALHO, tamanho);
+        pendentes.putInt(inicio, tamanho);
+        pendentes.putInt(inicio + 4, (int) crc.getValue());
+        registrosPendentes++;
+        if (lotesAbertos == 0) {
+            long inicioNoArquivo;
+            try {
+                inicioNoArquivo = canal.position() + inicio;
+            } catch (IOException e) {
+                descartarRegistro(inicio, -1);
+                throw new ValidacaoException("Erro ao gravar no log de operações." + e);
+            }
+            try {
+                aplicarPoliticaFsync();
+            } catch (ValidacaoException e) {
+                descartarRegistro(inicio, inicioNoArquivo);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Descarta o último registro após uma falha de gravação ou sincronização.
+     *
+     * Se o registro ainda estiver no buffer de pendentes, o buffer volta ao início
+     * dele; se já tiver sido escrito no arquivo, o arquivo é truncado no início
+     * dele. Uma falha no truncamento é ignorada: o registro fica no arquivo e a
+     * falha original continua sendo a informada.
+     *
+     * @param inicio A posição do início do registro no buffer de pendentes.
+     * @param inicioNoArquivo A posição do início do registro no arquivo, ou -1 se desconhecida.
+     */
+    private void descartarRegistro(int inicio, long inicioNoArquivo) {
+        registrosPendentes--;
+        if (pendentes.position() > inicio) {
+            pendentes.position(inicio);
+            return;
+        }
+        registrosPendentes = 0;
+        try {
+            if (inicioNoArquivo >= 0 && canal.size() > inicioNoArquivo) {
+                canal.truncate(inicioNoArquivo);
+            }
+        } catch (IOException e) {
+            // O registro permanece no arquivo
+        }
+    }
+
+    /**
+     * Grava os registros pendentes e os sincroniza com o disco conforme a política configurada.
+     */
+    private void aplicarPoliticaFsync() {
+        try {
+            switch (configuracao.getPoliticaFsync()) {
+                case SEMPRE -> {
+                    gravarPendentes();
+                    canal.force(false);
+                }
+                case AGRUPADO -> {
+                    if (registrosPendentes >= configuracao.getTamanhoGrupo()) {
+                        gravarPendentes();
+                        canal.force(false);
+                    }
+                }
+                case NUNCA -> gravarPendentes();
+            }
+        } catch (IOException e) {
+            throw new ValidacaoException("Erro ao gravar no log de operações." + e);
+        }
+    }
+
+    /**
+     * Garante espaço no buffer de pendentes para um registro do tamanho informado.
+     *
+     * @param necessario A quantidade de bytes necessária.
+     */
+    private void garantirEspaco(int necessario) {
+        if (pendentes.remaining() >= necessario) {
+            return;
+        }
+        try {
+            gravarPendentes();
+        } catch (IOException e) {
+            throw new ValidacaoException("Erro ao gravar no log de operações." + e);
+        }
+        if (pendentes.capacity() < necessario) {
+            pendentes = ByteBuffer.allocate(Integer.highestOneBit(necessario) * 2);
+        }
+    }
+
+    /**
+     * Escreve no arquivo os registros acumulados no buffer de pendentes.
+     *
+     * Se a escrita falhar, o que chegou a ser escrito é truncado do arquivo e os
+     * registros continuam no buffer, para que não fique um registro pela metade
+     * antes dos que forem gravados depois.
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void gravarPendentes() throws IOException {
+        long inicioNoArquivo = canal.position();
+        pendentes.flip();
+        try {
+            while (pendentes.hasRemaining()) {
+                canal.write(pendentes);
+            }
+        } catch (IOException e) {
+            pendentes.position(pendentes.limit()).limit(pendentes.capacity());
+            try {
+                canal.truncate(inicioNoArquivo);
+            } catch (IOException falhaNoTruncamento) {
+                e.addSuppressed(falhaNoTruncamento);
+            }
+            throw e;
+        }
+        pendentes.clear();
+        registrosPendentes = 0;
+    }
+
+    /**
+     * Grava o grupo pendente a partir do agendador.
+     *
+     * Como não há quem receba o erro na thread do agendador, uma falha é guardada
+     * e lançada na próxima gravação ou sincronização do log, para que as
+     * operações seguintes não sejam confirmadas sem que o grupo anterior tenha
+     * chegado ao disco.
+     */
+    private synchronized void sincronizarSilenciosamente() {
+        if (registrosPendentes == 0 || !canal.isOpen()) {
+            return;
+        }
+        try {
+            gravarESincronizar();
+        } catch (ValidacaoException e) {
+            falhaDoAgendador = e;
+        }
+    }
+
+    /**
+     * Lança a falha da última gravação periódica, se houver, e a descarta.
+     *
+     * @throws ValidacaoException Se a última gravação periódica tiver falhado.
+     */
+    private void lancarFalhaDoAgendador() {
+        ValidacaoException falha = falhaDoAgendador;
+        if (falha != null) {
+            falhaDoAgendador = null;
+            throw new ValidacaoException("Um grupo do log de operações não foi gravado no disco: " + falha.getMessage());
+        }
+    }
+
+    /**
+     * Lê os registros do arquivo e os entrega ao aplicador.
+     *
+     * @param canal O canal do arquivo de log.
+     * @param aplicador Quem recebe as operações reaplicadas.
+     * @return A posição logo após o último registro válido.
+     * @throws IOException Se ocorrer um erro de leitura.
+     */
+    private static long reaplicar(FileChannel canal, Aplicador aplicador) throws IOException {
+        long tamanhoArquivo = canal.size();
+        if (tamanhoArquivo > Integer.MAX_VALUE) {
+            throw new IOException("Log de operações grande demais para ser reaplicado: " + tamanhoArquivo + " bytes.");
+        }
+        ByteBuffer dados = ByteBuffer.allocate((int) tamanhoArquivo);
+        canal.position(0);
+        while (dados.hasRemaining() && canal.read(dados) >= 0) {
+            // Lê até preencher o buffer ou chegar ao final do arquivo
+        }
+        dados.flip();
+
+        CRC32 verificador = new CRC32();
+        int validos = 0;
+        while (dados.remaining() >= CABECALHO) {
+            int tamanho = dados.getInt(validos);
+            int crcEsperado = dados.getInt(validos + 4);
+            if (tamanho < 5 || tamanho > TAMANHO_MAXIMO_REGISTRO || tamanho > dados.limit() - validos - CABECALHO) {
+                break;
+            }
+            verificador.reset();
+            verificador.update(dados.array(), validos + CABECALHO, tamanho);
+            if ((int) verificador.getValue() != crcEsperado) {
+                break;
+            }
+
+            ByteBuffer registro = dados.slice(validos + CABECALHO, tamanho);
+            if (!aplicar(registro, aplicador)) {
+                break;
+            }
+            validos += CABECALHO + tamanho;
+            dados.position(validos);
+        }
+        return validos;
+    }
+
+    /**
+     * Decodifica um registro e o entrega ao aplicador.
+     *
+     * Apenas as falhas de decodificação são tratadas como registro inválido; uma
+     * exceção lançada pelo aplicador é propagada e interrompe a reaplicação.
+     *
+     * @param registro O conteúdo do registro.
+     * @param aplicador Quem recebe a operação.
+     * @return true se o registro foi entregue, false se o conteúdo for inválido.
+     */
+    private static boolean aplicar(ByteBuffer registro, Aplicador aplicador) {
+        byte tipo;
+        int id;
+        Produto produto = null;
+        try {
+            tipo = registro.get();
+            id = registro.getInt();
+            if (tipo == CRIAR || tipo == ATUALIZAR) {
+                double preco = registro.getDouble();
+                int quantidadeEstoque = registro.getInt();
+                String nome = lerTexto(registro);
+                String categoria = lerTexto(registro);
+                produto = new Produto(nome, preco, quantidadeEstoque, categoria);
+                produto.setId(id);
+            } else if (tipo != DELETAR) {
+                return false;
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return false;
+        }
+
+        if (tipo == DELETAR) {
+            aplicador.deletar(id);
+        } else if (tipo == CRIAR) {
+            aplicador.criar(produto);
+        } else {
+            aplicador.atualizar(produto);
+        }
+        return true;
+    }
+
+    /**
+     * Lê um texto UTF-8 precedido pelo seu tamanho em bytes.
+     *
+     * @param registro O conteúdo do registro.
+     * @return O texto lido.
+     */
+    private static String lerTexto(ByteBuffer registro) {
+        int tamanho = registro.getInt();
+        if (tamanho < 0 || tamanho > registro.remaining()) {
+            throw new IllegalArgumentException("Tamanho de texto inválido: " + tamanho);
+        }
+        String texto = new String(registro.array(), registro.arrayOffset() + registro.position(), tamanho, StandardCharsets.UTF_8);
+        registro.position(registro.position() + tamanho);
+        return texto;
+    }
+}
@@ -0,0 +1,29 @@
+package com.loja.persistencia;
+
+/**
+ * Define quando o log de operações força a gravação dos dados no disco (fsync).
+ *
+ * @since 2024
+ */
+public enum PoliticaFsync {
+
+    /**
+     * Cada operação é gravada e sincronizada com o disco antes de retornar.
+     * É a opção mais segura e a mais lenta.
+     */
+    SEMPRE,
+
+    /**
+     * As operações são acumuladas em memória e gravadas em grupo, com uma única
+     * sincronização, quando o grupo atinge o tamanho configurado ou quando o
+     * intervalo configurado termina. Uma queda pode perder as operações do
+     * último grupo ainda não gravado.
+     */
+    AGRUPADO,
+
+    /**
+     * Cada operação é entregue ao sistema operacional, que decide quando gravá-la
+     * no disco. Sobrevive à queda do processo, mas não à queda da máquina.
+     */
+    NUNCA
+}
@@ -0,0 +1,243 @@
+package com.loja.ui;
+
+import com.loja.modelo.Produto;
+
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Exibe listagens de produtos no console com escritas grandes e agrupadas.
+ *
+ * Imprimir cada produto com {@code System.out.println} cria a string do
+ * `toString()` e descarrega o `PrintStream` sincronizado a cada linha, o que
+ * torna a exibição de um catálogo grande muito mais lenta que a própria
+ * consulta. A `ImpressoraProdutos` formata as linhas em um único
+ * `StringBuilder` reutilizado e só o envia à saída quando acumula cerca de
+ * 64 mil caracteres, com uma escrita por bloco.
+ *
+ * As linhas podem seguir o formato de {@link Produto#toString()} ou o de uma
+ * tabela com colunas alinhadas e preço com duas casas decimais. A quantidade de
+ * produtos exibidos pode ser limitada, e o andamento das listagens longas pode
+ * ser informado na saída de erros, para quando a saída padrão é redirecionada
+ * para um arquivo.
+ *
+ * Esta classe não é thread-safe.
+ *
+ * @since 2024
+ */
+public final class ImpressoraProdutos {
+
+    // Quantidade de caracteres acumulados antes de cada escrita na saída
+    private static final int TAMANHO_BLOCO = 1 << 16;
+
+    // Intervalo, em produtos, entre os avisos de andamento
+    private static final int INTERVALO_ANDAMENTO = 100_000;
+
+    // Larguras das colunas da tabela
+    private static final int LARGURA_ID = 8;
+    private static final int LARGURA_NOME = 32;
+    private static final int LARGURA_PRECO = 14;
+    private static final int LARGURA_ESTOQUE = 9;
+
+    // Espaços copiados para alinhar os campos à direita
+    private static final String ESPACOS = " ".repeat(LARGURA_PRECO);
+
+    // Saída das listagens
+    private final PrintStream saida;
+
+    // Configuração: formato de tabela, limite de produtos (0 para todos) e avisos de andamento
+    private final boolean tabela;
+    private final int limite;
+    private final boolean andamento;
+
+    // Linhas ainda não enviadas à saída
+    private final StringBuilder bloco = new StringBuilder(TAMANHO_BLOCO + 256);
+
+    /**
+     * Cria uma impressora sobre a saída fornecida.
+     *
+     * @param saida A saída das listagens.
+     * @param tabela true para exibir os produtos em colunas alinhadas.
+     * @param limite A quantidade máxima de produtos exibidos por listagem (0 para todos).
+     * @param andamento true para informar o andamento das listagens longas em {@code System.err}.
+     */
+    public ImpressoraProdutos(PrintStream saida, boolean tabela, int limite, boolean andamento) {
+        this.saida = saida;
+        this.tabela = tabela;
+        this.limite = Math.max(0, limite);
+        this.andamento = andamento;
+    }
+
+    /**
+     * Cria a impressora da saída padrão configurada pelas propriedades de sistema.
+     *
+     * - {@code loja.listagem.formato}: {@code lista} (padrão) ou {@code tabela}.
+     * - {@code loja.listagem.limite}: quantidade máxima de produtos por listagem (padrão 0, sem limite).
+     * - {@code loja.listagem.andamento}: {@code true} para informar o andamento das listagens longas.
+     *
+     * @return A impressora configurada.
+     */
+    public static ImpressoraProdutos doSistema() {
+        return new ImpressoraProdutos(System.out,
+                "tabela".equalsIgnoreCase(System.getProperty("loja.listagem.formato", "lista").trim()),
+                Integer.getInteger("loja.listagem.limite", 0),
+                Boolean.getBoolean("loja.listagem.andamento"));
+    }
+
+    /**
+     * Exibe uma lista de produtos.
+     *
+     * Se a lista exceder o limite configurado, apenas os primeiros produtos são
+     * exibidos, seguidos da quantidade dos que ficaram de fora.
+     *
+     * @param produtos Os produtos a exibir, na ordem em que aparecem.
+     * @return A quantidade de produtos exibidos.
+     */
+    public int imprimir(List<Produto> produtos) {
+        return imprimir(produtos.iterator(), produtos.size());
+    }
+
+    /**
+     * Exibe os produtos de um fluxo, consumindo-o apenas até o limite configurado.
+     *
+     * @param produtos O fluxo de produtos a exibir.
+     * @return A quantidade de produtos exibidos.
+     */
+    public int imprimir(Stream<Produto> produtos) {
+        return imprimir(produtos.iterator(), -1);
+    }
+
+    /**
+     * Exibe os produtos de um iterador.
+     *
+     * @param produtos Os produtos a exibir.
+     * @param total A quantidade total de produtos, ou -1 se for desconhecida.
+     * @return A quantidade de produtos exibidos.
+     */
+    private int imprimir(Iterator<Produto> produtos, int total) {
+        if (tabela && produtos.hasNext()) {
+            cabecalho();
+        }
+        int exibidos = 0;
+        while (produtos.hasNext() && (limite == 0 || exibidos < limite)) {
+            formatar(produtos.next());
+            bloco.append('\n');
+            exibidos++;
+            if (bloco.length() >= TAMANHO_BLOCO) {
+                descarregar();
+            }
+            if (andamento && exibidos % INTERVALO_ANDAMENTO == 0) {
+                System.err.println("Exibidos " + exibidos + (total >= 0 ? " de " + total : "") + " produtos...");
+            }
+        }
+        if (produtos.hasNext()) {
+            bloco.append("... ");
+            if (total >= 0) {
+                bloco.append(total - exibidos).append(" produtos não exibidos");
+            } else {
+                bloco.append("listagem interrompida");
+            }
+            bloco.append(" (limite de ").append(limite).append(" por listagem).\n");
+        }
+        descarregar();
+        saida.flush();
+        return exibidos;
+    }
+
+    /**
+     * Acrescenta ao bloco a linha de um produto, sem a quebra de linha.
+     */
+    private void formatar(Produto produto) {
+        if (!tabela) {
+            bloco.append("ID: ").append(produto.getId())
+                    .append(" | Nome: ").append(produto.getNome())
+                    .append(" | Preço: R$ ").append(produto.getPreco())
+                    .append(" | Estoque: ").append(produto.getQuantidadeEstoque())
+                    .append(" | Categoria: ").append(produto.getCategoria());
+            return;
+        }
+        int inicio = bloco.length();
+        bloco.append(produto.getId());
+        alinharADireita(inicio, LARGURA_ID);
+        bloco.append("  ");
+        inicio = bloco.length();
+        bloco.append(produto.getNome());
+        completar(inicio, LARGURA_NOME);
+        bloco.append("  ");
+        inicio = bloco.length();
+        duasCasas(produto.getPreco());
+        alinharADireita(inicio, LARGURA_PRECO);
+        bloco.append("  ");
+        inicio = bloco.length();
+        bloco.append(produto.getQuantidadeEstoque());
+        alinharADireita(inicio, LARGURA_ESTOQUE);
+        bloco.append("  ").append(produto.getCategoria());
+    }
+
+    private void cabecalho() {
+        int inicio = bloco.length();
+        bloco.append("ID");
+        alinharADireita(inicio, LARGURA_ID);
+        bloco.append("  ");
+        inicio = bloco.length();
+        bloco.append("Nome");
+        completar(inicio, LARGURA_NOME);
+        bloco.append("  ");
+        inicio = bloco.length();
+        bloco.append("Preço (R$)");
+        alinharADireita(inicio, LARGURA_PRECO);
+        bloco.append("  ");
+        inicio = bloco.length();
+        bloco.append("Estoque");
+        alinharADireita(inicio, LARGURA_ESTOQUE);
+        bloco.append("  Categoria\n");
+        bloco.append("-".repeat(LARGURA_ID + LARGURA_NOME + LARGURA_PRECO + LARGURA_ESTOQUE + 8 + 20)).append('\n');
+    }
+
+    /**
+     * Escreve o preço com duas casas decimais sem passar por `String.format`.
+     * Valores fora da precisão de um long em centavos usam o formato de `Double.toString`.
+     */
+    private void duasCasas(double valor) {
+        if (!Double.isFinite(valor) || Math.abs(valor) >= 1e15) {
+            bloco.append(valor);
+            return;
+        }
+        long centavos = Math.round(valor * 100);
+        if (centavos < 0) {
+            bloco.append('-');
+            centavos = -centavos;
+        }
+        int resto = (int) (centavos % 100);
+        bloco.append(centavos / 100).append('.').append((char) ('0' + resto / 10)).append((char) ('0' + resto % 10));
+    }
+
+    /**
+     * Completa com espaços, à direita, o campo escrito a partir de {@code inicio}.
+     * Campos mais largos que a coluna são mantidos inteiros.
+     */
+    private void completar(int inicio, int largura) {
+        for (int i = bloco.length() - inicio; i < largura; i++) {
+            bloco.append(' ');
+        }
+    }
+
+    /**
+     * Desloca o campo escrito a partir de {@code inicio} para a direita da coluna.
+     */
+    private void alinharADireita(int inicio, int largura) {
+        int faltam = largura - (bloco.length() - inicio);
+        if (faltam > 0) {
+            bloco.insert(inicio, ESPACOS, 0, faltam);
+        }
+    }
+
+    private void descarregar() {
+        if (bloco.length() > 0) {
+            saida.append(bloco);
+            bloco.setLength(0);
+        }
+    }
+}
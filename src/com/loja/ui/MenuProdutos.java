@@ -1,6 +1,9 @@
 package com.loja.ui;
 
+import com.loja.exception.ProdutoException;
 import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.gerenciador.OrdemListagem;
+import com.loja.gerenciador.Pagina;
 import com.loja.modelo.Produto;
 import com.loja.util.Util;
 
@@ -18,15 +21,23 @@ import java.util.List;
  *
  * A classe interage diretamente com a classe `GerenciadorProdutos`, que gerencia
  * as operações no conjunto de produtos, e a classe `Util`, que fornece métodos
- * auxiliares para ler entradas do usuário.
+ * auxiliares para ler entradas do usuário. As listagens são exibidas pela
+ * `ImpressoraProdutos`, no formato e com o limite configurados por
+ * {@link ImpressoraProdutos#doSistema()}.
  *
  * @since 2024
  */
 public class MenuProdutos {
 
+    // Quantidade de produtos exibidos por página nas listagens
+    private static final int TAMANHO_PAGINA = 50;
+
     // Instância do gerenciador de produtos
     private final GerenciadorProdutos gerenciador = new GerenciadorProdutos();
 
+    // Exibição das listagens, configurada pelas propriedades de sistema
+    private final ImpressoraProdutos impressora = ImpressoraProdutos.doSistema();
+
     /**
      * Exibe o menu de opções para o gerenciamento de produtos e executa as
      * ações correspondentes conforme a escolha do usuário.
@@ -114,48 +125,70 @@ public class MenuProdutos {
     /**
      * Exibe todos os produtos cadastrados ordenados por ID.
      *
-     * Lista todos os produtos no sistema ordenando por ID, exibindo suas informações. Se não
-     * houver produtos cadastrados, uma mensagem informando isso será mostrada.
+     * Lista todos os produtos no sistema ordenando por ID, exibindo suas informações
+     * em páginas. Se não houver produtos cadastrados, uma mensagem informando isso
+     * será mostrada.
      */
     private void listarProdutosPorID() {
         System.out.println("=== Lista de Produtos (Ordenados por ID) ===");
-        List<Produto> produtos = gerenciador.listarTodosPorID();
-        if (produtos.isEmpty()) {
-            System.out.println("Nenhum produto cadastrado.");
-        } else {
-            produtos.forEach(System.out::println);
-        }
+        exibirEmPaginas(OrdemListagem.ID);
     }
 
     /**
      * Exibe todos os produtos cadastrados ordenados por Nome.
      *
-     * Lista todos os produtos no sistema ordenando por Nome, exibindo suas informações. Se não
-     * houver produtos cadastrados, uma mensagem informando isso será mostrada.
+     * Lista todos os produtos no sistema ordenando por Nome, exibindo suas informações
+     * em páginas. Se não houver produtos cadastrados, uma mensagem informando isso
+     * será mostrada.
      */
     private void listarProdutosPorNome() {
         System.out.println("=== Lista de Produtos (Ordenados por Nome) ===");
-        List<Produto> produtos = gerenciador.listarTodosPorNome();
-        if (produtos.isEmpty()) {
-            System.out.println("Nenhum produto cadastrado.");
-        } else {
-            produtos.forEach(System.out::println);
-        }
+        exibirEmPaginas(OrdemListagem.NOME);
     }
 
     /**
      * Exibe todos os produtos cadastrados ordenados por Preço.
      *
-     * Lista todos os produtos no sistema ordenando por Preço, exibindo suas informações. Se não
-     * houver produtos cadastrados, uma mensagem informando isso será mostrada.
+     * Lista todos os produtos no sistema ordenando por Preço, exibindo suas informações
+     * em páginas. Se não houver produtos cadastrados, uma mensagem informando isso
+     * será mostrada.
      */
     private void listarProdutosPorPreco() {
         System.out.println("=== Lista de Produtos (Ordenados por Preço) ===");
-        List<Produto> produtos = gerenciador.listarTodosPorPreco();
-        if (produtos.isEmpty()) {
+        exibirEmPaginas(OrdemListagem.PRECO);
+    }
+
+    /**
+     * Exibe todos os produtos em páginas de {@value #TAMANHO_PAGINA}, na ordem informada.
+     *
+     * Cada página é lida do gerenciador a partir do cursor da anterior, de modo que
+     * apenas a página exibida é percorrida, mesmo em catálogos muito grandes. Após
+     * cada página, o usuário escolhe entre ver a seguinte, exibir de uma vez todos
+     * os produtos restantes e voltar ao menu.
+     *
+     * @param ordem A ordem da listagem.
+     */
+    private void exibirEmPaginas(OrdemListagem ordem) {
+        Pagina pagina = gerenciador.listarPagina(ordem, null, TAMANHO_PAGINA);
+        if (pagina.getProdutos().isEmpty()) {
             System.out.println("Nenhum produto cadastrado.");
-        } else {
-            produtos.forEach(System.out::println);
+            return;
+        }
+        while (true) {
+            impressora.imprimir(pagina.getProdutos());
+            if (!pagina.temMais()) {
+                return;
+            }
+            String resposta = Util.lerEntradaString(
+                    "Pressione Enter para a próxima página, 't' para exibir todos os restantes ou 'q' para voltar: ");
+            if (resposta.equalsIgnoreCase("q")) {
+                return;
+            }
+            if (resposta.equalsIgnoreCase("t")) {
+                impressora.imprimir(gerenciador.percorrer(ordem, pagina.getProximo()));
+                return;
+            }
+            pagina = gerenciador.listarPagina(ordem, pagina.getProximo(), TAMANHO_PAGINA);
         }
     }
 
@@ -165,7 +198,8 @@ public class MenuProdutos {
      * Solicita ao usuário o ID do produto a ser atualizado, e em seguida
      * permite que o usuário altere o nome, preço, quantidade em estoque e
      * categoria. Se o produto for encontrado e atualizado com sucesso,
-     * uma mensagem de sucesso é exibida.
+     * uma mensagem de sucesso é exibida; se algum valor for inválido, o
+     * motivo é exibido e o produto permanece inalterado.
      */
     private void atualizarProduto() {
         System.out.println("=== Atualização de Produto ===");
@@ -179,10 +213,14 @@ public class MenuProdutos {
 
             Produto produtoAtualizado = new Produto(novoNome, novoPreco, novaQuantidade, novaCategoria);
             produtoAtualizado.setId(id); // Mantém o ID do produto existente
-            if (gerenciador.atualizar(produtoAtualizado)) {
-                System.out.println("Produto atualizado com sucesso!");
-            } else {
-                System.out.println("Falha ao atualizar o produto.");
+            try {
+                if (gerenciador.atualizar(produtoAtualizado)) {
+                    System.out.println("Produto atualizado com sucesso!");
+                } else {
+                    System.out.println("Falha ao atualizar o produto.");
+                }
+            } catch (ProdutoException e) {
+                System.out.println("Produto não atualizado: " + e.getMessage());
             }
         } else {
             System.out.println("Produto com ID " + id + " não encontrado.");
@@ -220,7 +258,7 @@ public class MenuProdutos {
         if (produtos.isEmpty()) {
             System.out.println("Nenhum produto encontrado com o nome \"" + nome + "\".");
         } else {
-            produtos.forEach(System.out::println);
+            impressora.imprimir(produtos);
         }
     }
 
@@ -238,7 +276,7 @@ public class MenuProdutos {
         if (produtos.isEmpty()) {
             System.out.println("Nenhum produto encontrado na categoria \"" + categoria + "\".");
         } else {
-            produtos.forEach(System.out::println);
+            impressora.imprimir(produtos);
         }
     }
 
@@ -258,7 +296,7 @@ public class MenuProdutos {
         if (produtos.isEmpty()) {
             System.out.println("Nenhum produto encontrado na faixa de preço entre \"" + String.valueOf(precoIni) + "\" e \"" + String.valueOf(precoFin) + "\".");
         } else {
-            produtos.forEach(System.out::println);
+            impressora.imprimir(produtos);
         }
     }
 }
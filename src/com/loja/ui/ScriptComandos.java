@@ -0,0 +1,307 @@
+package com.loja.ui;
+
+import com.loja.exception.ProdutoException;
+import com.loja.exception.ValidacaoException;
+import com.loja.gerenciador.GerenciadorProdutos;
+import com.loja.gerenciador.OrdemListagem;
+import com.loja.gerenciador.RelatorioImportacao;
+import com.loja.gerenciador.ResultadoLote;
+import com.loja.modelo.Produto;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Executa um script de comandos sobre o gerenciador de produtos, sem interação.
+ *
+ * O script tem um comando por linha; linhas vazias e iniciadas por {@code #} são
+ * ignoradas, e os argumentos de um comando são separados por {@code ;}:
+ *
+ * - {@code criar nome;preço;estoque;categoria}
+ * - {@code atualizar id;nome;preço;estoque;categoria}
+ * - {@code deletar id}
+ * - {@code buscar id}, {@code listar id|nome|preco}, {@code nome termo},
+ *   {@code categoria nome} e {@code preco mínimo;máximo}: consultas, exibidas
+ *   na saída padrão pela `ImpressoraProdutos`.
+ * - {@code importar arquivo.csv} e {@code exportar arquivo.csv}: CSV no formato
+ *   de {@link GerenciadorProdutos#importarCsv(java.io.InputStream)}.
+ * - {@code salvar}: salva os produtos antes do final do script.
+ * - {@code metricas}: exibe o relatório das métricas do gerenciador.
+ *
+ * Criações, atualizações e exclusões consecutivas são acumuladas e aplicadas
+ * pelas operações em lote do gerenciador, com até {@value #TAMANHO_LOTE} itens
+ * por lote; o lote pendente é aplicado antes de qualquer outro comando, de modo
+ * que o resultado é o mesmo da execução linha a linha. Os produtos são salvos
+ * uma única vez, ao final.
+ *
+ * Os erros (linhas inválidas e itens rejeitados pelos lotes) e, ao final, a
+ * quantidade e o tempo de cada comando são informados na saída de relatório,
+ * separada da saída das consultas.
+ *
+ * Esta classe não é thread-safe.
+ *
+ * @since 2024
+ */
+public class ScriptComandos {
+
+    // Quantidade máxima de itens de cada lote aplicado ao gerenciador
+    private static final int TAMANHO_LOTE = 10_000;
+
+    // Instância do gerenciador de produtos
+    private final GerenciadorProdutos gerenciador = new GerenciadorProdutos();
+
+    // Exibição das consultas e saída dos erros e tempos
+    private final ImpressoraProdutos impressora;
+    private final PrintStream relatorio;
+
+    // Lote pendente: comando, itens (produtos ou IDs) e linha de cada item
+    private String comandoDoLote;
+    private final List<Object> lote = new ArrayList<>();
+    private final List<Integer> linhasDoLote = new ArrayList<>();
+
+    // Por comando, na ordem em que apareceram: quantidade, erros e nanossegundos
+    private final Map<String, long[]> estatisticas = new LinkedHashMap<>();
+
+    // Quantidade de erros do script
+    private int erros;
+
+    /**
+     * Cria um executor de scripts.
+     *
+     * @param impressora A impressora dos resultados das consultas.
+     * @param relatorio A saída dos erros e do resumo dos tempos.
+     */
+    public ScriptComandos(ImpressoraProdutos impressora, PrintStream relatorio) {
+        this.impressora = impressora;
+        this.relatorio = relatorio;
+    }
+
+    /**
+     * Executa o script de um arquivo, ou da entrada padrão se o caminho for {@code -}.
+     *
+     * @param caminho O caminho do arquivo com o script, em UTF-8.
+     * @return A quantidade de erros.
+     * @throws ValidacaoException Se o script não puder ser lido.
+     */
+    public int executar(String caminho) {
+        try (BufferedReader entrada = "-".equals(caminho)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(caminho), StandardCharsets.UTF_8)) {
+            return executar(entrada);
+        } catch (IOException e) {
+            throw new ValidacaoException("Erro ao ler o script " + caminho + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Executa os comandos lidos de uma entrada, salva os produtos e informa o resumo.
+     *
+     * @param entrada A entrada com um comando por linha.
+     * @return A quantidade de erros.
+     * @throws IOException Se ocorrer um erro de leitura da entrada.
+     */
+    public int executar(BufferedReader entrada) throws IOException {
+        long inicio = System.nanoTime();
+        int numero = 0;
+        for (String linha = entrada.readLine(); linha != null; linha = entrada.readLine()) {
+            numero++;
+            linha = linha.trim();
+            if (linha.isEmpty() || linha.startsWith("#")) {
+                continue;
+            }
+            int espaco = linha.indexOf(' ');
+            String comando = (espaco < 0 ? linha : linha.substring(0, espaco)).toLowerCase(Locale.ROOT);
+            String argumentos = espaco < 0 ? "" : linha.substring(espaco + 1).trim();
+            if (comandoDoLote != null && (!comando.equals(comandoDoLote) || lote.size() == TAMANHO_LOTE)) {
+                aplicarLote();
+            }
+            long antes = System.nanoTime();
+            try {
+                executarComando(comando, argumentos, numero);
+                contar(comando, 1, 0, System.nanoTime() - antes);
+            } catch (ProdutoException | ValidacaoException | IllegalArgumentException e) {
+                erro(numero, e.getMessage());
+                contar(comando, 1, 1, System.nanoTime() - antes);
+            } catch (IOException e) {
+                erro(numero, "Erro de arquivo: " + e.getMessage());
+                contar(comando, 1, 1, System.nanoTime() - antes);
+            }
+        }
+        aplicarLote();
+
+        long antes = System.nanoTime();
+        GerenciadorProdutos.salvarProdutosEmArquivo();
+        contar("(salvar ao final)", 1, 0, System.nanoTime() - antes);
+        resumir(numero, System.nanoTime() - inicio);
+        return erros;
+    }
+
+    private void executarComando(String comando, String argumentos, int linha) throws IOException {
+        switch (comando) {
+            case "criar" -> {
+                String[] campos = campos(argumentos, 4);
+                acumular(comando, new Produto(campos[0], decimal(campos[1]), inteiro(campos[2]), campos[3]), linha);
+            }
+            case "atualizar" -> {
+                String[] campos = campos(argumentos, 5);
+                Produto produto = new Produto(campos[1], decimal(campos[2]), inteiro(campos[3]), campos[4]);
+                produto.setId(inteiro(campos[0]));
+                acumular(comando, produto, linha);
+            }
+            case "deletar" -> acumular(comando, inteiro(argumentos), linha);
+            case "buscar" -> {
+                int id = inteiro(argumentos);
+                Produto produto = gerenciador.buscarPorId(id);
+                if (produto == null) {
+                    System.out.println("Produto com ID " + id + " não encontrado.");
+                } else {
+                    impressora.imprimir(List.of(produto));
+                }
+            }
+            case "listar" -> impressora.imprimir(gerenciador.percorrer(ordem(argumentos)));
+            case "nome" -> impressora.imprimir(gerenciador.buscarPorNome(argumentos));
+            case "categoria" -> impressora.imprimir(gerenciador.buscarPorCategoria(argumentos));
+            case "preco" -> {
+                String[] campos = campos(argumentos, 2);
+                impressora.imprimir(gerenciador.buscarPorFaixaDePreco(decimal(campos[0]), decimal(campos[1])));
+            }
+            case "importar" -> importar(argumentos, linha);
+            case "exportar" -> {
+                try (OutputStream saida = new FileOutputStream(argumentos)) {
+                    GerenciadorProdutos.exportarCsv(saida);
+                }
+            }
+            case "salvar" -> GerenciadorProdutos.salvarProdutosEmArquivo();
+            case "metricas" -> System.out.print(GerenciadorProdutos.metricas().relatorio());
+            default -> throw new ValidacaoException("Comando desconhecido: " + comando);
+        }
+    }
+
+    private void importar(String caminho, int linha) throws IOException {
+        RelatorioImportacao resultado;
+        try (InputStream entrada = new FileInputStream(caminho)) {
+            resultado = GerenciadorProdutos.importarCsv(entrada);
+        }
+        for (RelatorioImportacao.Rejeicao rejeicao : resultado.getRejeicoes()) {
+            erro(linha, caminho + ", linha " + rejeicao.getLinha() + ": " + rejeicao.getMotivo());
+        }
+        if (resultado.getRejeitados() > resultado.getRejeicoes().size()) {
+            erro(linha, caminho + ": mais " + (resultado.getRejeitados() - resultado.getRejeicoes().size())
+                    + " linhas rejeitadas.");
+        }
+        relatorio.println("Linha " + linha + ": " + resultado.getImportados() + " produtos importados de " + caminho + ".");
+    }
+
+    private void acumular(String comando, Object item, int linha) {
+        comandoDoLote = comando;
+        lote.add(item);
+        linhasDoLote.add(linha);
+    }
+
+    /**
+     * Aplica o lote pendente ao gerenciador e informa os itens rejeitados.
+     */
+    @SuppressWarnings("unchecked")
+    private void aplicarLote() {
+        if (comandoDoLote == null) {
+            return;
+        }
+        long antes = System.nanoTime();
+        ResultadoLote resultado = switch (comandoDoLote) {
+            case "criar" -> GerenciadorProdutos.criarEmLote((List<Produto>) (List<?>) lote);
+            case "atualizar" -> gerenciador.atualizarEmLote((List<Produto>) (List<?>) lote);
+            default -> gerenciador.deletarEmLote((List<Integer>) (List<?>) lote);
+        };
+        int rejeitados = 0;
+        for (int i = 0; i < resultado.tamanho(); i++) {
+            if (resultado.aplicado(i)) {
+                continue;
+            }
+            rejeitados++;
+            String motivo = resultado.getSituacao(i) == ResultadoLote.Situacao.NAO_ENCONTRADO
+                    ? "Produto com ID " + idDoItem(lote.get(i)) + " não encontrado."
+                    : resultado.getMotivo(i);
+            erro(linhasDoLote.get(i), motivo);
+        }
+        contar(comandoDoLote, 0, rejeitados, System.nanoTime() - antes);
+        comandoDoLote = null;
+        lote.clear();
+        linhasDoLote.clear();
+    }
+
+    private static Object idDoItem(Object item) {
+        return item instanceof Produto ? ((Produto) item).getId() : item;
+    }
+
+    private void erro(int linha, String motivo) {
+        erros++;
+        relatorio.println("Linha " + linha + ": " + motivo);
+    }
+
+    private void contar(String comando, long quantidade, long comErro, long nanos) {
+        long[] valores = estatisticas.computeIfAbsent(comando, c -> new long[3]);
+        valores[0] += quantidade;
+        valores[1] += comErro;
+        valores[2] += nanos;
+    }
+
+    private void resumir(int linhas, long nanos) {
+        relatorio.printf("Script concluído: %d linhas em %.1f ms, %d erros.%n", linhas, nanos / 1e6, erros);
+        for (Map.Entry<String, long[]> entrada : estatisticas.entrySet()) {
+            long[] valores = entrada.getValue();
+            relatorio.printf("  %-18s %10d comandos %8d erros %12.1f ms%n",
+                    entrada.getKey(), valores[0], valores[1], valores[2] / 1e6);
+        }
+    }
+
+    private static String[] campos(String argumentos, int quantidade) {
+        String[] campos = argumentos.split(";", -1);
+        if (campos.length != quantidade) {
+            throw new ValidacaoException("Esperados " + quantidade + " argumentos separados por ';', recebidos "
+                    + campos.length + ".");
+        }
+        for (int i = 0; i < campos.length; i++) {
+            campos[i] = campos[i].trim();
+        }
+        return campos;
+    }
+
+    private static OrdemListagem ordem(String argumento) {
+        return switch (argumento.toLowerCase(Locale.ROOT)) {
+            case "", "id" -> OrdemListagem.ID;
+            case "nome" -> OrdemListagem.NOME;
+            case "preco" -> OrdemListagem.PRECO;
+            default -> throw new ValidacaoException("Ordem desconhecida: " + argumento + " (use id, nome ou preco).");
+        };
+    }
+
+    private static int inteiro(String texto) {
+        try {
+            return Integer.parseInt(texto.trim());
+        } catch (NumberFormatException e) {
+            throw new ValidacaoException("Número inteiro inválido: " + texto);
+        }
+    }
+
+    private static double decimal(String texto) {
+        try {
+            return Double.parseDouble(texto.trim());
+        } catch (NumberFormatException e) {
+            throw new ValidacaoException("Número decimal inválido: " + texto);
+        }
+    }
+}